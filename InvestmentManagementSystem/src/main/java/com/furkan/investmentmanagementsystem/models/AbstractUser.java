@@ -2,6 +2,7 @@ package com.furkan.investmentmanagementsystem.models;
 
 import com.furkan.investmentmanagementsystem.interfaces.Notifiable;
 import com.furkan.investmentmanagementsystem.interfaces.Reportable;
+import javafx.beans.value.ChangeListener;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import java.time.LocalDateTime;
@@ -19,6 +20,10 @@ public abstract class AbstractUser implements Notifiable, Reportable {
     private String firstName;
     private String lastName;
     private final ObservableList<Notification> notifications;
+    // Kept in step with each notification's read flag so the badge count is O(1)
+    private int unreadNotificationCount;
+    private final ChangeListener<Boolean> readListener =
+        (obs, wasRead, isRead) -> unreadNotificationCount += isRead ? -1 : 1;
     private final List<String> reports;
     private LocalDateTime lastLogin;
     private boolean isActive;
@@ -65,11 +70,24 @@ public abstract class AbstractUser implements Notifiable, Reportable {
     @Override
     public void addNotification(Notification notification) {
         notifications.add(notification);
+        notification.isReadProperty().addListener(readListener);
+        if (!notification.isRead()) {
+            unreadNotificationCount++;
+        }
     }
 
     @Override
     public void removeNotification(String notificationId) {
-        notifications.removeIf(n -> n.getId().equals(notificationId));
+        notifications.removeIf(n -> {
+            if (!n.getId().equals(notificationId)) {
+                return false;
+            }
+            n.isReadProperty().removeListener(readListener);
+            if (!n.isRead()) {
+                unreadNotificationCount--;
+            }
+            return true;
+        });
     }
 
     @Override
@@ -87,9 +105,7 @@ public abstract class AbstractUser implements Notifiable, Reportable {
 
     @Override
     public int getUnreadNotificationCount() {
-        return (int) notifications.stream()
-            .filter(n -> !n.isRead())
-            .count();
+        return unreadNotificationCount;
     }
 
     // Reportable interface implementation
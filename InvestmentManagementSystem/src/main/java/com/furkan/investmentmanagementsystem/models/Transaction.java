@@ -51,7 +51,7 @@ public class Transaction {
     }
 
     public Transaction(String assetName, TransactionType type, double quantity, double price) {
-        this.id = new SimpleStringProperty(java.util.UUID.randomUUID().toString());
+        this.id = new SimpleStringProperty(TransactionIds.nextString());
         this.assetName = new SimpleStringProperty(assetName);
         this.type = new SimpleStringProperty(type.getDisplayName());
         this.quantity = new SimpleDoubleProperty(quantity);
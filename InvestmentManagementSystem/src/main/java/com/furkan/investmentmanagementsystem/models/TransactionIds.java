@@ -0,0 +1,72 @@
+package com.furkan.investmentmanagementsystem.models;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered 64-bit transaction ids: the creation time in epoch milliseconds in
+ * the high bits and a 21-bit counter below it. Ids from one process are strictly
+ * increasing across threads, so new rows land at the right edge of the primary key
+ * and of every index that ends in it, instead of at random positions as UUIDs do.
+ * <p>
+ * Ids are handed out with a single compare-and-set on the last id issued. When more
+ * than two million ids are taken in one millisecond the counter borrows from the
+ * next millisecond rather than blocking.
+ */
+public final class TransactionIds {
+    public static final int SEQUENCE_BITS = 21;
+    private static final int MAX_DIGITS = 19;
+    // 2000-01-01T00:00Z; every id issued since then is at least this large, while ids taken
+    // from broker statements ("1001") are far below it
+    private static final long MIN_ISSUED_ID = 946_684_800_000L << SEQUENCE_BITS;
+
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private TransactionIds() {
+    }
+
+    /** @return A new id, greater than every id issued or observed before */
+    public static long next() {
+        long floor = System.currentTimeMillis() << SEQUENCE_BITS;
+        return LAST.accumulateAndGet(floor, (last, now) -> Math.max(now, last + 1));
+    }
+
+    /** @return {@link #next()} in the decimal form {@link Transaction#getId()} uses */
+    public static String nextString() {
+        return Long.toString(next());
+    }
+
+    /**
+     * Makes sure later ids sort after an id already stored, e.g. one written by an
+     * earlier run whose clock was ahead of this one.
+     */
+    public static void observe(long id) {
+        LAST.accumulateAndGet(id, Math::max);
+    }
+
+    /**
+     * @param id A transaction id as stored in the model
+     * @return The numeric id, or -1 if the id was not produced by this class (a UUID or
+     *         an id taken from an imported file, numeric or not)
+     */
+    public static long parse(String id) {
+        if (id == null || id.isEmpty() || id.length() > MAX_DIGITS || id.charAt(0) == '0') {
+            return -1;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            if (id.charAt(i) < '0' || id.charAt(i) > '9') {
+                return -1;
+            }
+        }
+        try {
+            long value = Long.parseLong(id);
+            return value >= MIN_ISSUED_ID ? value : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** @return The epoch milliseconds encoded in a generated id */
+    public static long epochMillisOf(long id) {
+        return id >> SEQUENCE_BITS;
+    }
+}
@@ -0,0 +1,227 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.*;
+import javafx.collections.ObservableList;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Non-blocking facade over {@link DatabaseService} for UI code.
+ * Reads run on a worker pool sized to the reader connections; writes run on a
+ * single worker so they reach the single writer connection one at a time and in
+ * submission order. Results are handed back on the supplied callback executor
+ * (typically {@code Platform::runLater}) so handlers can touch the scene graph.
+ */
+public class AsyncDatabaseService implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(AsyncDatabaseService.class.getName());
+
+    private final DatabaseService databaseService;
+    private final Executor callbackExecutor;
+    private final ThreadPoolExecutor readExecutor;
+    private final ThreadPoolExecutor writeExecutor;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /**
+     * @param databaseService The blocking service to delegate to
+     * @param callbackExecutor Where completions are delivered, e.g. {@code Platform::runLater}
+     */
+    public AsyncDatabaseService(DatabaseService databaseService, Executor callbackExecutor) {
+        this.databaseService = databaseService;
+        this.callbackExecutor = callbackExecutor;
+        int readers = databaseService.getPoolMetrics().getReaderPoolSize();
+        this.readExecutor = new ThreadPoolExecutor(readers, readers, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), daemonThreads("db-read"));
+        this.writeExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), daemonThreads("db-write"));
+    }
+
+    // Reads
+    public CompletableFuture<Optional<InvestmentUser>> getUserByEmailAsync(String email) {
+        return read(() -> databaseService.getUserByEmail(email));
+    }
+
+    public CompletableFuture<ObservableList<Portfolio>> getUserPortfoliosAsync(int userId) {
+        return read(() -> databaseService.getUserPortfolios(userId));
+    }
+
+    public CompletableFuture<ObservableList<Transaction>> getUserTransactionsAsync(int userId) {
+        return read(() -> databaseService.getUserTransactions(userId));
+    }
+
+    public CompletableFuture<Page<Transaction>> getUserTransactionsPageAsync(int userId, String afterCursor, int limit) {
+        return read(() -> databaseService.getUserTransactionsPage(userId, afterCursor, limit));
+    }
+
+    public CompletableFuture<ObservableList<Report>> getUserReportsAsync(int userId) {
+        return read(() -> databaseService.getUserReports(userId));
+    }
+
+    public CompletableFuture<ObservableList<Comment>> getCommentsForTargetAsync(String targetType, String targetId) {
+        return read(() -> databaseService.getCommentsForTarget(targetType, targetId));
+    }
+
+    public CompletableFuture<ObservableList<Notification>> getUserNotificationsAsync(int userId) {
+        return read(() -> databaseService.getUserNotifications(userId));
+    }
+
+    public CompletableFuture<Optional<MarketData>> getMarketDataAsync(String symbol) {
+        return read(() -> databaseService.getMarketData(symbol));
+    }
+
+    // Writes
+    public CompletableFuture<Void> saveTransactionAsync(Transaction transaction) {
+        return write(() -> databaseService.saveTransaction(transaction));
+    }
+
+    public CompletableFuture<Integer> saveTransactionsAsync(Collection<Transaction> transactions) {
+        return submit(writeExecutor, () -> databaseService.saveTransactions(transactions));
+    }
+
+    public CompletableFuture<Void> savePortfolioAsync(Portfolio portfolio) {
+        return write(() -> databaseService.savePortfolio(portfolio));
+    }
+
+    public CompletableFuture<Void> saveReportAsync(Report report) {
+        return write(() -> databaseService.saveReport(report));
+    }
+
+    public CompletableFuture<Void> saveCommentAsync(Comment comment) {
+        return write(() -> databaseService.saveComment(comment));
+    }
+
+    public CompletableFuture<Void> saveNotificationAsync(Notification notification) {
+        return write(() -> databaseService.saveNotification(notification));
+    }
+
+    public CompletableFuture<Void> saveMarketDataAsync(MarketData marketData) {
+        return write(() -> databaseService.saveMarketData(marketData));
+    }
+
+    public CompletableFuture<Integer> saveMarketDataSnapshotAsync(Collection<MarketData> snapshot) {
+        return submit(writeExecutor, () -> databaseService.saveMarketDataSnapshot(snapshot));
+    }
+
+    private <T> CompletableFuture<T> read(Supplier<T> task) {
+        return submit(readExecutor, task);
+    }
+
+    private CompletableFuture<Void> write(Runnable task) {
+        return submit(writeExecutor, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    private <T> CompletableFuture<T> submit(ExecutorService executor, Supplier<T> task) {
+        long submitted = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    T value = task.get();
+                    recordLatency(submitted, true);
+                    callbackExecutor.execute(() -> result.complete(value));
+                } catch (Throwable e) {
+                    // Errors too: otherwise the caller's future never completes
+                    recordLatency(submitted, false);
+                    callbackExecutor.execute(() -> result.completeExceptionally(e));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.log(Level.WARNING, "Database call rejected; async service is shut down", e);
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private void recordLatency(long submitted, boolean success) {
+        long latency = System.nanoTime() - submitted;
+        (success ? completed : failed).increment();
+        totalLatencyNanos.add(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+    }
+
+    public AsyncMetrics getMetrics() {
+        long calls = completed.sum() + failed.sum();
+        return new AsyncMetrics(readExecutor.getQueue().size(), writeExecutor.getQueue().size(),
+            readExecutor.getActiveCount() + writeExecutor.getActiveCount(), completed.sum(), failed.sum(),
+            calls == 0 ? 0 : totalLatencyNanos.sum() / 1_000_000.0 / calls, maxLatencyNanos.get() / 1_000_000.0);
+    }
+
+    /**
+     * Stops accepting work and waits for queued writes to reach the database.
+     * The underlying {@link DatabaseService} is left open.
+     */
+    @Override
+    public void close() {
+        readExecutor.shutdown();
+        writeExecutor.shutdown();
+        try {
+            if (!writeExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                LOGGER.warning("Timed out waiting for queued database writes to finish");
+            }
+            readExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Snapshot of the facade's load: calls waiting for a worker, calls in flight,
+     * and end-to-end latency from submission to completion.
+     */
+    public static final class AsyncMetrics {
+        private final int readQueueDepth;
+        private final int writeQueueDepth;
+        private final int inFlight;
+        private final long completed;
+        private final long failed;
+        private final double avgLatencyMillis;
+        private final double maxLatencyMillis;
+
+        private AsyncMetrics(int readQueueDepth, int writeQueueDepth, int inFlight, long completed, long failed,
+                             double avgLatencyMillis, double maxLatencyMillis) {
+            this.readQueueDepth = readQueueDepth;
+            this.writeQueueDepth = writeQueueDepth;
+            this.inFlight = inFlight;
+            this.completed = completed;
+            this.failed = failed;
+            this.avgLatencyMillis = avgLatencyMillis;
+            this.maxLatencyMillis = maxLatencyMillis;
+        }
+
+        public int getReadQueueDepth() { return readQueueDepth; }
+        public int getWriteQueueDepth() { return writeQueueDepth; }
+        public int getInFlight() { return inFlight; }
+        public long getCompleted() { return completed; }
+        public long getFailed() { return failed; }
+        public double getAvgLatencyMillis() { return avgLatencyMillis; }
+        public double getMaxLatencyMillis() { return maxLatencyMillis; }
+
+        @Override
+        public String toString() {
+            return String.format("queued %d read / %d write, %d in flight, %d done (%d failed), latency avg %.2f ms, max %.2f ms",
+                readQueueDepth, writeQueueDepth, inFlight, completed, failed, avgLatencyMillis, maxLatencyMillis);
+        }
+    }
+}
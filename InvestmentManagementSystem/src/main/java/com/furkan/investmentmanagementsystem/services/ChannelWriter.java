@@ -0,0 +1,123 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Text sink that encodes straight into a fixed byte buffer and writes it to a
+ * {@link FileChannel} whenever it fills. With compression on, each full buffer
+ * is run through a {@link Deflater} into a second fixed buffer and framed as a
+ * gzip file, so the output opens with any standard tool. Memory use is the two
+ * buffers, however much is written.
+ */
+final class ChannelWriter implements AutoCloseable {
+    private static final byte[] NO_INPUT = new byte[0];
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final FileChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ByteBuffer plain;
+    private final ByteBuffer compressed;
+    private final Deflater deflater;
+    private final CRC32 crc;
+    private long uncompressedBytes;
+    private boolean closed;
+
+    ChannelWriter(Path target, int bufferBytes, boolean gzip) throws IOException {
+        this.channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        this.plain = ByteBuffer.allocate(bufferBytes);
+        if (gzip) {
+            this.compressed = ByteBuffer.allocate(bufferBytes);
+            this.deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            this.crc = new CRC32();
+            writeFully(ByteBuffer.wrap(GZIP_HEADER));
+        } else {
+            this.compressed = null;
+            this.deflater = null;
+            this.crc = null;
+        }
+    }
+
+    void write(CharSequence text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        CoderResult result = encoder.encode(chars, plain, false);
+        while (result.isOverflow()) {
+            drain();
+            result = encoder.encode(chars, plain, false);
+        }
+        if (result.isError()) {
+            result.throwException();
+        }
+    }
+
+    /** @return Bytes written before compression */
+    long getUncompressedBytes() {
+        return uncompressedBytes + plain.position();
+    }
+
+    private void drain() throws IOException {
+        plain.flip();
+        uncompressedBytes += plain.remaining();
+        if (deflater == null) {
+            writeFully(plain);
+        } else {
+            crc.update(plain.duplicate());
+            deflater.setInput(plain);
+            while (!deflater.needsInput()) {
+                deflate(Deflater.NO_FLUSH);
+            }
+            // The deflater keeps reading from its input buffer, which is about to be reused
+            deflater.setInput(NO_INPUT);
+        }
+        plain.clear();
+    }
+
+    private void deflate(int flush) throws IOException {
+        deflater.deflate(compressed, flush);
+        compressed.flip();
+        writeFully(compressed);
+        compressed.clear();
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            drain();
+            if (deflater != null) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    deflate(Deflater.NO_FLUSH);
+                }
+                ByteBuffer trailer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+                trailer.putInt((int) crc.getValue()).putInt((int) uncompressedBytes).flip();
+                writeFully(trailer);
+            }
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+            channel.close();
+        }
+    }
+}
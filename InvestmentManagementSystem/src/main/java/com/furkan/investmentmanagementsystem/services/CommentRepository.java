@@ -0,0 +1,51 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.Comment;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Storage of comments on reports, portfolios and other targets.
+ */
+public interface CommentRepository {
+    /**
+     * @param targetType The kind of object commented on
+     * @param targetId The id of the object commented on
+     * @return The comments that are not deleted, newest first
+     */
+    List<Comment> getCommentsForTarget(String targetType, String targetId);
+
+    /**
+     * Inserts a comment or replaces the one with the same id.
+     * @param comment The comment to store
+     */
+    void saveComment(Comment comment);
+
+    /**
+     * Inserts or replaces many comments at once.
+     * @param comments The comments to store
+     * @return The number of rows written
+     */
+    int saveComments(Collection<Comment> comments);
+
+    /**
+     * Loads the live comments on a target and links them into reply threads.
+     * @param targetType The kind of object commented on
+     * @param targetId The id of the object commented on
+     * @param maxDepth Levels of replies to attach; deeper branches only report their reply count
+     * @return Top-level comments newest first, replies oldest first
+     */
+    default List<CommentThread> getCommentThreads(String targetType, String targetId, int maxDepth) {
+        return CommentThread.assemble(getCommentsForTarget(targetType, targetId), null, maxDepth, null);
+    }
+
+    /**
+     * Loads one page of a comment's direct replies, each with its own replies down to a depth.
+     * @param parentId The comment whose replies to load
+     * @param afterCursor The cursor from the previous page, or null for the first page
+     * @param limit Maximum direct replies to return
+     * @param maxDepth Levels of replies to attach below each direct reply
+     * @return The replies oldest first and the cursor for the next page
+     */
+    Page<CommentThread> getReplies(int parentId, String afterCursor, int limit, int maxDepth);
+}
@@ -0,0 +1,128 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.Comment;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A comment and the replies loaded below it. Top-level comments are listed newest
+ * first and replies oldest first, the way discussions are read. A branch cut off
+ * by a depth limit still reports how many direct replies it has, so the UI can
+ * offer to load them with {@link CommentRepository#getReplies}.
+ */
+public final class CommentThread {
+    private final Comment comment;
+    private final List<CommentThread> replies = new ArrayList<>(2);
+    private int replyCount;
+
+    private CommentThread(Comment comment) {
+        this.comment = comment;
+    }
+
+    public Comment getComment() { return comment; }
+
+    /** @return The replies loaded so far, oldest first */
+    public List<CommentThread> getReplies() { return Collections.unmodifiableList(replies); }
+
+    /** @return The number of direct replies, loaded or not */
+    public int getReplyCount() { return Math.max(replyCount, replies.size()); }
+
+    public boolean hasUnloadedReplies() { return getReplyCount() > replies.size(); }
+
+    /**
+     * Links comments into threads in linear time.
+     * @param newestFirst Comments ordered by timestamp descending, ties by id ascending,
+     *                    the order of the comment index
+     * @param rootParentId Parent of the comments to return as roots; null for top-level comments
+     * @param maxDepth Levels of replies to attach below the roots; deeper replies are only counted
+     * @param replyCounts Direct reply counts of comments whose replies may be missing from the
+     *                    input, or null if the input holds every reply
+     * @return The roots, newest first for top-level comments and oldest first for replies.
+     *         Comments whose parent is not in the input, e.g. because it was deleted, are left out.
+     */
+    static List<CommentThread> assemble(List<Comment> newestFirst, Integer rootParentId, int maxDepth,
+                                        Map<Integer, Integer> replyCounts) {
+        Map<Integer, CommentThread> nodes = new HashMap<>(newestFirst.size() * 4 / 3 + 1);
+        for (Comment comment : newestFirst) {
+            nodes.put(comment.getIntId(), new CommentThread(comment));
+        }
+        // Walking oldest first appends every reply list already in reading order
+        List<CommentThread> roots = new ArrayList<>();
+        for (int i = newestFirst.size() - 1; i >= 0; i--) {
+            CommentThread node = nodes.get(newestFirst.get(i).getIntId());
+            Integer parentId = node.comment.getIntParentId();
+            if (parentId == null ? rootParentId == null : parentId.equals(rootParentId)) {
+                roots.add(node);
+            } else if (parentId != null) {
+                CommentThread parent = nodes.get(parentId);
+                if (parent != null) {
+                    parent.replies.add(node);
+                }
+            }
+        }
+        if (rootParentId == null) {
+            Collections.reverse(roots);
+        }
+        // Cut the branches at maxDepth, keeping their reply counts; orphans are never reached
+        List<CommentThread> level = roots;
+        for (int depth = 0; !level.isEmpty(); depth++) {
+            List<CommentThread> next = new ArrayList<>();
+            for (CommentThread node : level) {
+                node.replyCount = replyCounts == null ? node.replies.size()
+                    : Math.max(node.replies.size(), replyCounts.getOrDefault(node.comment.getIntId(), 0));
+                if (depth < maxDepth) {
+                    next.addAll(node.replies);
+                } else {
+                    node.replies.clear();
+                }
+            }
+            level = next;
+        }
+        return roots;
+    }
+
+    /**
+     * Takes one page of replies after a cursor from a reply list in reading order.
+     * @see #cursor
+     */
+    static Page<CommentThread> page(List<CommentThread> replies, String afterCursor, int limit) {
+        int start = 0;
+        if (afterCursor != null) {
+            long[] after = parseCursor(afterCursor);
+            while (start < replies.size() && !isAfter(replies.get(start).comment, after)) {
+                start++;
+            }
+        }
+        int end = Math.min(replies.size(), start + limit);
+        List<CommentThread> items = new ArrayList<>(replies.subList(start, end));
+        return new Page<>(items, end < replies.size() ? cursor(items.get(items.size() - 1).comment) : null);
+    }
+
+    /** Replies are ordered by timestamp ascending, ties by id descending (the index order, reversed). */
+    static String cursor(Comment comment) {
+        return Timestamp.valueOf(comment.getTimestamp()).getTime() + ":" + comment.getIntId();
+    }
+
+    static long[] parseCursor(String cursor) {
+        int separator = cursor.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid reply cursor: " + cursor);
+        }
+        return new long[] { Long.parseLong(cursor.substring(0, separator)), Long.parseLong(cursor.substring(separator + 1)) };
+    }
+
+    private static boolean isAfter(Comment comment, long[] cursor) {
+        long millis = Timestamp.valueOf(comment.getTimestamp()).getTime();
+        return millis > cursor[0] || (millis == cursor[0] && comment.getIntId() < cursor[1]);
+    }
+
+    @Override
+    public String toString() {
+        return "Comment " + comment.getIntId() + " (" + getReplyCount() + " replies)";
+    }
+}
@@ -0,0 +1,369 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Read/write-split JDBC connection pool.
+ * All writes share one dedicated connection guarded by a fair lock, so they are
+ * applied in arrival order; reads are spread over a fixed set of query-only connections.
+ * Each connection keeps its own LRU cache of prepared statements.
+ * A {@link #readOnly} pool has only the readers, for files nothing writes to.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    public enum Role { READER, WRITER }
+
+    private final Connection writer;
+    private final ReentrantLock writerLock = new ReentrantLock(true);
+    // Used as a stack: the most recently returned reader has the warmest statement cache
+    private final BlockingDeque<Connection> idleReaders;
+    private final List<Connection> readers = new ArrayList<>();
+    private final long acquireTimeoutMillis;
+    private final StorageProfile storageProfile;
+    private final int statementCacheSize;
+    private final Map<Connection, StatementCache> statementCaches = new IdentityHashMap<>();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private final LongAdder statementCacheEvictions = new LongAdder();
+    private final Stats readerStats = new Stats();
+    private final Stats writerStats = new Stats();
+    private volatile boolean closed;
+
+    public ConnectionPool(DatabaseConfig config) throws SQLException {
+        this(config, true);
+    }
+
+    /** Opens a pool without a writer; {@link #writer()} always fails. */
+    static ConnectionPool readOnly(DatabaseConfig config) throws SQLException {
+        return new ConnectionPool(config, false);
+    }
+
+    private ConnectionPool(DatabaseConfig config, boolean withWriter) throws SQLException {
+        this.acquireTimeoutMillis = config.getAcquireTimeoutMillis();
+        this.storageProfile = config.getStorageProfile();
+        this.statementCacheSize = config.getStatementCacheSize();
+        this.idleReaders = new LinkedBlockingDeque<>(config.getReaderPoolSize());
+        this.writer = withWriter ? DriverManager.getConnection(config.getUrl()) : null;
+        try {
+            if (writer != null) {
+                storageProfile.apply(writer, true);
+                registerStatementCache(writer);
+            }
+            for (int i = 0; i < config.getReaderPoolSize(); i++) {
+                Connection reader = DriverManager.getConnection(config.getUrl());
+                storageProfile.apply(reader, false);
+                try (Statement stmt = reader.createStatement()) {
+                    stmt.execute("PRAGMA query_only = ON");
+                }
+                registerStatementCache(reader);
+                readers.add(reader);
+                idleReaders.add(reader);
+            }
+        } catch (SQLException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void registerStatementCache(Connection connection) {
+        statementCaches.put(connection, new StatementCache(connection, statementCacheSize,
+            statementCacheHits, statementCacheMisses, statementCacheEvictions));
+    }
+
+    /**
+     * Checks out a read-only connection, blocking until one is free.
+     * A thread that already holds the writer gets the writer back, so reads
+     * inside a write transaction see its uncommitted rows.
+     * @return The checked-out connection; close it to return it to the pool
+     * @throws SQLException if the pool is closed or no reader frees up in time
+     */
+    public PooledConnection reader() throws SQLException {
+        if (writerLock.isHeldByCurrentThread()) {
+            return writer();
+        }
+        ensureOpen();
+        long start = System.nanoTime();
+        Connection connection;
+        try {
+            connection = idleReaders.pollFirst(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a reader connection", e);
+        }
+        if (connection == null) {
+            throw new SQLException("Timed out waiting for a reader connection after " + acquireTimeoutMillis + " ms");
+        }
+        readerStats.recordWait(System.nanoTime() - start);
+        return new PooledConnection(this, connection, Role.READER);
+    }
+
+    /**
+     * Checks out the single writer connection. Callers queue in FIFO order.
+     * @return The writer; close it to release the write lock
+     * @throws SQLException if the pool is closed or the lock cannot be taken in time
+     */
+    public PooledConnection writer() throws SQLException {
+        ensureOpen();
+        if (writer == null) {
+            throw new SQLException("Connection pool is read-only");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!writerLock.tryLock(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out waiting for the writer connection after " + acquireTimeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the writer connection", e);
+        }
+        writerStats.recordWait(System.nanoTime() - start);
+        return new PooledConnection(this, writer, Role.WRITER);
+    }
+
+    private void release(PooledConnection pooled) {
+        Stats stats = pooled.getRole() == Role.WRITER ? writerStats : readerStats;
+        stats.recordCheckout(System.nanoTime() - pooled.checkoutStart);
+        if (pooled.getRole() == Role.WRITER) {
+            writerLock.unlock();
+        } else if (closed) {
+            closeQuietly(pooled.connection);
+        } else {
+            idleReaders.offerFirst(pooled.connection);
+            // close() may have drained the deque between the check and the offer; whichever side
+            // takes the connection back out closes it
+            if (closed && idleReaders.remove(pooled.connection)) {
+                closeQuietly(pooled.connection);
+            }
+        }
+    }
+
+    /** @return Whether the calling thread has the writer checked out */
+    boolean isWriterHeldByCurrentThread() {
+        return writerLock.isHeldByCurrentThread();
+    }
+
+    private void ensureOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+    }
+
+    public StorageProfile getStorageProfile() {
+        return storageProfile;
+    }
+
+    public int getReaderPoolSize() {
+        return readers.size();
+    }
+
+    public PoolMetrics getMetrics() {
+        return new PoolMetrics(readers.size(), readerStats, writerStats, statementCacheHits.sum(),
+            statementCacheMisses.sum(), statementCacheEvictions.sum());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Connection idle;
+        while ((idle = idleReaders.poll()) != null) {
+            closeQuietly(idle);
+        }
+        writerLock.lock();
+        try {
+            if (writer != null && !writer.isClosed()) {
+                storageProfile.checkpoint(writer);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error checkpointing WAL on close", e);
+        } finally {
+            closeQuietly(writer);
+            writerLock.unlock();
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        StatementCache cache = statementCaches.get(connection);
+        if (cache != null) {
+            cache.close();
+        }
+        try {
+            if (connection != null && !connection.isClosed()) {
+                connection.close();
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error closing pooled connection", e);
+        }
+    }
+
+    /**
+     * A connection checked out of the pool. Closing it returns the underlying
+     * connection to the pool rather than closing it.
+     */
+    public static final class PooledConnection implements AutoCloseable {
+        private final ConnectionPool pool;
+        private final Connection connection;
+        private final Role role;
+        private final long checkoutStart = System.nanoTime();
+        private boolean released;
+
+        private PooledConnection(ConnectionPool pool, Connection connection, Role role) {
+            this.pool = pool;
+            this.connection = connection;
+            this.role = role;
+            pool.statsFor(role).active.incrementAndGet();
+        }
+
+        public Connection getConnection() { return connection; }
+        public Role getRole() { return role; }
+
+        public PreparedStatement prepareStatement(String sql) throws SQLException {
+            return connection.prepareStatement(sql);
+        }
+
+        /**
+         * Returns a prepared statement from this connection's cache. The statement
+         * stays owned by the cache: close its result sets, but never the statement.
+         */
+        public PreparedStatement prepareCached(String sql) throws SQLException {
+            return pool.statementCaches.get(connection).prepare(sql);
+        }
+
+        /** Evicts and closes a cached statement, e.g. after a failed batch. */
+        public void invalidateCached(String sql) {
+            pool.statementCaches.get(connection).invalidate(sql);
+        }
+
+        public Statement createStatement() throws SQLException {
+            return connection.createStatement();
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                pool.statsFor(role).active.decrementAndGet();
+                pool.release(this);
+            }
+        }
+    }
+
+    private Stats statsFor(Role role) {
+        return role == Role.WRITER ? writerStats : readerStats;
+    }
+
+    private static final class Stats {
+        private final AtomicInteger active = new AtomicInteger();
+        private final LongAdder checkouts = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final LongAdder checkoutNanos = new LongAdder();
+        private final AtomicLong maxCheckoutNanos = new AtomicLong();
+
+        void recordWait(long nanos) {
+            checkouts.increment();
+            waitNanos.add(nanos);
+            maxWaitNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        void recordCheckout(long nanos) {
+            checkoutNanos.add(nanos);
+            maxCheckoutNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    /**
+     * Point-in-time view of pool usage: how long callers waited for a connection,
+     * how long they held it, and how many are checked out right now.
+     */
+    public static final class PoolMetrics {
+        private final int readerPoolSize;
+        private final int activeReaders;
+        private final int activeWriters;
+        private final long readerCheckouts;
+        private final long writerCheckouts;
+        private final double avgReaderWaitMillis;
+        private final double maxReaderWaitMillis;
+        private final double avgWriterWaitMillis;
+        private final double maxWriterWaitMillis;
+        private final double avgReaderCheckoutMillis;
+        private final double maxReaderCheckoutMillis;
+        private final double avgWriterCheckoutMillis;
+        private final double maxWriterCheckoutMillis;
+        private final long statementCacheHits;
+        private final long statementCacheMisses;
+        private final long statementCacheEvictions;
+
+        private PoolMetrics(int readerPoolSize, Stats readers, Stats writers, long statementCacheHits,
+                            long statementCacheMisses, long statementCacheEvictions) {
+            this.readerPoolSize = readerPoolSize;
+            this.activeReaders = readers.active.get();
+            this.activeWriters = writers.active.get();
+            this.readerCheckouts = readers.checkouts.sum();
+            this.writerCheckouts = writers.checkouts.sum();
+            this.avgReaderWaitMillis = average(readers.waitNanos.sum(), readerCheckouts);
+            this.maxReaderWaitMillis = readers.maxWaitNanos.get() / 1_000_000.0;
+            this.avgWriterWaitMillis = average(writers.waitNanos.sum(), writerCheckouts);
+            this.maxWriterWaitMillis = writers.maxWaitNanos.get() / 1_000_000.0;
+            this.avgReaderCheckoutMillis = average(readers.checkoutNanos.sum(), readerCheckouts);
+            this.maxReaderCheckoutMillis = readers.maxCheckoutNanos.get() / 1_000_000.0;
+            this.avgWriterCheckoutMillis = average(writers.checkoutNanos.sum(), writerCheckouts);
+            this.maxWriterCheckoutMillis = writers.maxCheckoutNanos.get() / 1_000_000.0;
+            this.statementCacheHits = statementCacheHits;
+            this.statementCacheMisses = statementCacheMisses;
+            this.statementCacheEvictions = statementCacheEvictions;
+        }
+
+        private static double average(long totalNanos, long count) {
+            return count == 0 ? 0 : totalNanos / 1_000_000.0 / count;
+        }
+
+        public int getReaderPoolSize() { return readerPoolSize; }
+        public int getActiveReaders() { return activeReaders; }
+        public int getActiveWriters() { return activeWriters; }
+        public int getActiveCount() { return activeReaders + activeWriters; }
+        public long getReaderCheckouts() { return readerCheckouts; }
+        public long getWriterCheckouts() { return writerCheckouts; }
+        public double getAvgReaderWaitMillis() { return avgReaderWaitMillis; }
+        public double getMaxReaderWaitMillis() { return maxReaderWaitMillis; }
+        public double getAvgWriterWaitMillis() { return avgWriterWaitMillis; }
+        public double getMaxWriterWaitMillis() { return maxWriterWaitMillis; }
+        public double getAvgReaderCheckoutMillis() { return avgReaderCheckoutMillis; }
+        public double getMaxReaderCheckoutMillis() { return maxReaderCheckoutMillis; }
+        public double getAvgWriterCheckoutMillis() { return avgWriterCheckoutMillis; }
+        public double getMaxWriterCheckoutMillis() { return maxWriterCheckoutMillis; }
+        public long getStatementCacheHits() { return statementCacheHits; }
+        public long getStatementCacheMisses() { return statementCacheMisses; }
+        public long getStatementCacheEvictions() { return statementCacheEvictions; }
+
+        public double getStatementCacheHitRatio() {
+            long lookups = statementCacheHits + statementCacheMisses;
+            return lookups == 0 ? 0 : (double) statementCacheHits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("readers %d/%d active, writer %d active, wait avg %.2f/%.2f ms (r/w), " +
+                    "checkout avg %.2f/%.2f ms (r/w), statement cache %.1f%% hits",
+                activeReaders, readerPoolSize, activeWriters, avgReaderWaitMillis, avgWriterWaitMillis,
+                avgReaderCheckoutMillis, avgWriterCheckoutMillis, getStatementCacheHitRatio() * 100);
+        }
+    }
+}
@@ -0,0 +1,625 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.PortfolioItem;
+import com.furkan.investmentmanagementsystem.models.Transaction;
+import com.furkan.investmentmanagementsystem.services.ConnectionPool.PooledConnection;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bulk loader for broker statement exports.
+ * The file is read through a {@link FileChannel} in fixed-size chunks cut at line
+ * boundaries; chunks are parsed and validated on a worker pool and written back in
+ * file order, one {@link DatabaseService#saveTransactions} batch per chunk. At most
+ * two chunks per parser thread are in memory at any time, whatever the file size.
+ * <p>
+ * Transaction imports commit a checkpoint (byte offset and counters) in the same
+ * database transaction as each chunk, so an interrupted import resumes exactly
+ * where it stopped, and a statement that has grown since the last run only loads
+ * the appended rows. Fields may be quoted, but a quoted field cannot span lines.
+ * Trades are stored under the user the import is run for; the checkpoint is kept
+ * per file and user, and statement ids are only unique per user, so the same
+ * statement can be loaded for several users. Ids this application issued itself
+ * (e.g. from one of its exports) stay global keys and load once.
+ */
+public class CsvImporter {
+    private static final Logger LOGGER = Logger.getLogger(CsvImporter.class.getName());
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final DatabaseService databaseService;
+    private final ConnectionPool pool;
+    private final int parserThreads;
+    private final int chunkBytes;
+
+    public CsvImporter(DatabaseService databaseService) {
+        this(databaseService, Math.max(1, Runtime.getRuntime().availableProcessors() - 1), 1 << 20);
+    }
+
+    /**
+     * @param databaseService Where imported rows are written
+     * @param parserThreads Number of threads parsing chunks in parallel
+     * @param chunkBytes Size of one read; also the longest line the importer accepts
+     */
+    public CsvImporter(DatabaseService databaseService, int parserThreads, int chunkBytes) {
+        if (parserThreads < 1 || chunkBytes < 1024) {
+            throw new IllegalArgumentException("Need at least one parser thread and 1 KiB chunks");
+        }
+        this.databaseService = databaseService;
+        this.pool = databaseService.getPool();
+        this.parserThreads = parserThreads;
+        this.chunkBytes = chunkBytes;
+        try (PooledConnection conn = pool.writer();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS import_checkpoints (
+                    source TEXT PRIMARY KEY,
+                    file_size INTEGER NOT NULL,
+                    byte_offset INTEGER NOT NULL,
+                    line_number INTEGER NOT NULL,
+                    rows_imported INTEGER NOT NULL,
+                    rows_rejected INTEGER NOT NULL,
+                    updated_at TIMESTAMP NOT NULL
+                )
+            """);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error creating import checkpoint table", e);
+            throw new RuntimeException("Failed to initialize CSV importer", e);
+        }
+    }
+
+    // Transactions
+    /**
+     * Imports trades from a CSV file with a header row. Required columns are
+     * {@code asset, transaction_type, quantity, price, timestamp}; {@code id, status}
+     * and {@code notes} are optional. Invalid rows are skipped and reported.
+     * @param csv The statement export
+     * @return Counters for this run; a finished file imports zero rows on later runs
+     */
+    public ImportResult importTransactions(Path csv) throws IOException {
+        return importTransactions(csv, 0);
+    }
+
+    /**
+     * Imports trades like {@link #importTransactions(Path)}, storing them under the given user.
+     * @param csv The statement export
+     * @param userId The owner of the imported trades
+     * @return Counters for this run; a finished file imports zero rows on later runs
+     */
+    public ImportResult importTransactions(Path csv, int userId) throws IOException {
+        String source = checkpointSource(csv, userId);
+        long fileSize = csv.toFile().length();
+        Checkpoint checkpoint = loadCheckpoint(source);
+        if (checkpoint != null && fileSize < checkpoint.fileSize) {
+            throw new IllegalStateException("File " + source + " shrank since it was last imported; " +
+                "call resetCheckpoint to import it again from the start");
+        }
+        Checkpoint start = checkpoint != null ? checkpoint : new Checkpoint(fileSize, 0, 1, 0, 0);
+        return run(csv, start, new String[] {"asset", "transaction_type", "quantity", "price", "timestamp"},
+            this::parseTransaction, (chunk, rows, progress) -> {
+                try (PooledConnection conn = pool.writer()) {
+                    Connection connection = conn.getConnection();
+                    connection.setAutoCommit(false);
+                    try {
+                        databaseService.saveTransactions(userId, rows);
+                        saveCheckpoint(conn, source, new Checkpoint(fileSize, chunk.endOffset, progress.lastLine,
+                            progress.baseImported + progress.imported, progress.baseRejected + progress.rejected));
+                        connection.commit();
+                    } catch (RuntimeException | SQLException e) {
+                        connection.rollback();
+                        throw e;
+                    } finally {
+                        connection.setAutoCommit(true);
+                    }
+                }
+            });
+    }
+
+    private Transaction parseTransaction(String[] fields, Map<String, Integer> columns) {
+        String asset = required(fields, columns, "asset");
+        Transaction.TransactionType type = parseEnum(Transaction.TransactionType.class,
+            required(fields, columns, "transaction_type"), "transaction_type");
+        double quantity = parsePositive(required(fields, columns, "quantity"), "quantity");
+        double price = parseNonNegative(required(fields, columns, "price"), "price");
+        Transaction transaction = new Transaction(asset, type, quantity, price);
+        transaction.timestampProperty().set(parseTimestamp(required(fields, columns, "timestamp")));
+        String id = optional(fields, columns, "id");
+        if (id != null) {
+            transaction.idProperty().set(id);
+        }
+        String status = optional(fields, columns, "status");
+        if (status != null) {
+            transaction.setStatus(parseEnum(Transaction.TransactionStatus.class, status, "status"));
+        }
+        String notes = optional(fields, columns, "notes");
+        if (notes != null) {
+            transaction.setNotes(notes);
+        }
+        return transaction;
+    }
+
+    /** Forgets the progress of a file so the next import starts from its first row. */
+    public void resetCheckpoint(Path csv) {
+        resetCheckpoint(csv, 0);
+    }
+
+    /** Forgets the progress of a file imported for the given user. */
+    public void resetCheckpoint(Path csv, int userId) {
+        try (PooledConnection conn = pool.writer()) {
+            PreparedStatement pstmt = conn.prepareCached("DELETE FROM import_checkpoints WHERE source = ?");
+            pstmt.setString(1, checkpointSource(csv, userId));
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error resetting import checkpoint for " + csv, e);
+            throw new RuntimeException("Failed to reset import checkpoint", e);
+        }
+    }
+
+    // Positions
+    /**
+     * Imports holdings from a CSV file with a header row. Required columns are
+     * {@code portfolio_id, asset, asset_type, quantity, open_price}; {@code last_price}
+     * is optional. Each portfolio named in the file has its holdings replaced, so
+     * re-running an import is safe and no checkpoint is kept.
+     * <p>
+     * Rows are written chunk by chunk like trades: the first chunk that names a
+     * portfolio replaces its holdings and later chunks add to them. Only the ids of
+     * the portfolios seen so far are kept in memory.
+     */
+    public ImportResult importPositions(Path csv) throws IOException {
+        Set<Integer> replaced = new HashSet<>();
+        return run(csv, new Checkpoint(csv.toFile().length(), 0, 1, 0, 0),
+            new String[] {"portfolio_id", "asset", "asset_type", "quantity", "open_price"},
+            (fields, columns) -> {
+                int portfolioId = parseId(required(fields, columns, "portfolio_id"), "portfolio_id");
+                PortfolioItem item = new PortfolioItem(required(fields, columns, "asset"),
+                    required(fields, columns, "asset_type"),
+                    parsePositive(required(fields, columns, "quantity"), "quantity"),
+                    parsePositive(required(fields, columns, "open_price"), "open_price"));
+                String lastPrice = optional(fields, columns, "last_price");
+                item.refreshPrice(lastPrice != null ? parsePositive(lastPrice, "last_price") : item.getOpenPrice());
+                return new AbstractMap.SimpleImmutableEntry<>(portfolioId, item);
+            },
+            (chunk, rows, progress) -> {
+                Map<Integer, List<PortfolioItem>> holdings = new LinkedHashMap<>();
+                rows.forEach(row -> holdings.computeIfAbsent(row.getKey(), id -> new ArrayList<>()).add(row.getValue()));
+                try (PooledConnection conn = pool.writer()) {
+                    Connection connection = conn.getConnection();
+                    connection.setAutoCommit(false);
+                    try {
+                        for (Map.Entry<Integer, List<PortfolioItem>> portfolio : holdings.entrySet()) {
+                            if (replaced.add(portfolio.getKey())) {
+                                databaseService.savePortfolioItems(portfolio.getKey(), portfolio.getValue());
+                            } else {
+                                databaseService.appendPortfolioItems(portfolio.getKey(), portfolio.getValue());
+                            }
+                        }
+                        connection.commit();
+                    } catch (RuntimeException | SQLException e) {
+                        connection.rollback();
+                        throw e;
+                    } finally {
+                        connection.setAutoCommit(true);
+                    }
+                }
+            });
+    }
+
+    // Pipeline
+    @FunctionalInterface
+    private interface RowParser<T> {
+        T parse(String[] fields, Map<String, Integer> columns);
+    }
+
+    @FunctionalInterface
+    private interface ChunkSink<T> {
+        void accept(Chunk chunk, List<T> rows, Progress progress) throws SQLException;
+    }
+
+    /** A run of whole lines from the file, handed from the reader to a parser. */
+    private static final class Chunk {
+        private final byte[] data;
+        private final int length;
+        private final long endOffset;
+
+        private Chunk(byte[] data, int length, long endOffset) {
+            this.data = data;
+            this.length = length;
+            this.endOffset = endOffset;
+        }
+    }
+
+    private static final class ParsedChunk<T> {
+        private final Chunk chunk;
+        private final List<T> rows;
+        private final List<String> errors = new ArrayList<>();
+        private final List<Integer> errorLines = new ArrayList<>();
+        private int lines;
+
+        private ParsedChunk(Chunk chunk, int expectedRows) {
+            this.chunk = chunk;
+            this.rows = new ArrayList<>(expectedRows);
+        }
+    }
+
+    /** Running totals, updated by the writing thread only. */
+    private static final class Progress {
+        private final long baseImported;
+        private final long baseRejected;
+        private long imported;
+        private long rejected;
+        private long lastLine;
+        private final List<String> errors = new ArrayList<>();
+
+        private Progress(Checkpoint start) {
+            this.baseImported = start.rowsImported;
+            this.baseRejected = start.rowsRejected;
+            this.lastLine = start.lineNumber;
+        }
+    }
+
+    private <T> ImportResult run(Path csv, Checkpoint start, String[] requiredColumns, RowParser<T> parser,
+                                 ChunkSink<T> sink) throws IOException {
+        long startedAt = System.nanoTime();
+        Progress progress = new Progress(start);
+        ExecutorService parsers = Executors.newFixedThreadPool(parserThreads, daemonThreads());
+        try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+            long headerEnd = readHeaderEnd(channel);
+            Map<String, Integer> columns = parseHeader(channel, headerEnd, requiredColumns);
+            long position = Math.max(start.byteOffset, headerEnd);
+            if (progress.lastLine < 2) {
+                progress.lastLine = 2;
+            }
+            Deque<Future<ParsedChunk<T>>> inFlight = new ArrayDeque<>();
+            ByteBuffer buffer = ByteBuffer.allocate(chunkBytes);
+            int carry = 0;
+            boolean eof = false;
+            while (!eof) {
+                buffer.clear().position(carry);
+                while (buffer.hasRemaining()) {
+                    int read = channel.read(buffer, position + buffer.position());
+                    if (read < 0) {
+                        eof = true;
+                        break;
+                    }
+                }
+                int filled = buffer.position();
+                int cut = eof ? filled : lastNewline(buffer.array(), filled) + 1;
+                if (cut == 0 && filled > 0) {
+                    throw new IOException("Line at byte " + position + " is longer than the " + chunkBytes + " byte chunk size");
+                }
+                if (cut > 0) {
+                    Chunk chunk = new Chunk(Arrays.copyOf(buffer.array(), cut), cut, position + cut);
+                    int expectedRows = Math.max(16, cut / 64);
+                    inFlight.addLast(parsers.submit(() -> parseChunk(chunk, columns, parser, expectedRows)));
+                    position += cut;
+                }
+                carry = filled - cut;
+                System.arraycopy(buffer.array(), cut, buffer.array(), 0, carry);
+                while (inFlight.size() >= parserThreads * 2 || (eof && !inFlight.isEmpty())) {
+                    write(inFlight.removeFirst(), sink, progress);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import of " + csv + " was interrupted", e);
+        } finally {
+            parsers.shutdownNow();
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        LOGGER.info(String.format("Imported %d rows from %s (%d rejected) in %d ms",
+            progress.imported, csv.getFileName(), progress.rejected, elapsedNanos / 1_000_000));
+        return new ImportResult(progress.imported, progress.rejected, start.byteOffset, elapsedNanos,
+            Collections.unmodifiableList(progress.errors));
+    }
+
+    private <T> void write(Future<ParsedChunk<T>> pending, ChunkSink<T> sink, Progress progress)
+            throws InterruptedException, IOException {
+        ParsedChunk<T> parsed;
+        try {
+            parsed = pending.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to parse chunk", e.getCause());
+        }
+        for (int i = 0; i < parsed.errors.size() && progress.errors.size() < MAX_REPORTED_ERRORS; i++) {
+            progress.errors.add("line " + (progress.lastLine + parsed.errorLines.get(i)) + ": " + parsed.errors.get(i));
+        }
+        progress.imported += parsed.rows.size();
+        progress.rejected += parsed.errors.size();
+        progress.lastLine += parsed.lines;
+        try {
+            sink.accept(parsed.chunk, parsed.rows, progress);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error writing imported rows", e);
+            throw new RuntimeException("Failed to write imported rows", e);
+        }
+    }
+
+    private <T> ParsedChunk<T> parseChunk(Chunk chunk, Map<String, Integer> columns, RowParser<T> parser, int expectedRows) {
+        ParsedChunk<T> parsed = new ParsedChunk<>(chunk, expectedRows);
+        String text = new String(chunk.data, 0, chunk.length, StandardCharsets.UTF_8);
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = text.length();
+            }
+            int contentEnd = lineEnd > lineStart && text.charAt(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            if (contentEnd > lineStart) {
+                try {
+                    parsed.rows.add(parser.parse(splitFields(text, lineStart, contentEnd), columns));
+                } catch (IllegalArgumentException e) {
+                    parsed.errors.add(e.getMessage());
+                    parsed.errorLines.add(parsed.lines);
+                }
+            }
+            parsed.lines++;
+            lineStart = lineEnd + 1;
+        }
+        return parsed;
+    }
+
+    private long readHeaderEnd(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.min(chunkBytes, 64 * 1024));
+        channel.read(buffer, 0);
+        int newline = firstNewline(buffer.array(), buffer.position());
+        if (newline < 0) {
+            throw new IOException("CSV file has no header row");
+        }
+        return newline + 1;
+    }
+
+    private Map<String, Integer> parseHeader(FileChannel channel, long headerEnd, String[] requiredColumns) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) headerEnd);
+        channel.read(buffer, 0);
+        String header = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8).strip();
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        String[] names = splitFields(header, 0, header.length());
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            columns.put(names[i].strip().toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : requiredColumns) {
+            if (!columns.containsKey(column)) {
+                throw new IOException("CSV header is missing required column: " + column);
+            }
+        }
+        return columns;
+    }
+
+    private static int lastNewline(byte[] data, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (data[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int firstNewline(byte[] data, int length) {
+        for (int i = 0; i < length; i++) {
+            if (data[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Splits one line into fields; double quotes group a field and {@code ""} escapes a quote. */
+    static String[] splitFields(String text, int start, int end) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < end && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    // Field validation
+    private static String required(String[] fields, Map<String, Integer> columns, String column) {
+        String value = optional(fields, columns, column);
+        if (value == null) {
+            throw new IllegalArgumentException("missing " + column);
+        }
+        return value;
+    }
+
+    private static String optional(String[] fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.length) {
+            return null;
+        }
+        String value = fields[index].strip();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static int parseId(String value, String column) {
+        try {
+            int id = Integer.parseInt(value);
+            if (id > 0) {
+                return id;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(column + " is not a positive integer: " + value);
+    }
+
+    private static double parsePositive(String value, String column) {
+        double number = parseNonNegative(value, column);
+        if (number == 0) {
+            throw new IllegalArgumentException(column + " must be greater than 0");
+        }
+        return number;
+    }
+
+    private static double parseNonNegative(String value, String column) {
+        double number;
+        try {
+            number = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number: " + value);
+        }
+        if (!Double.isFinite(number) || number < 0) {
+            throw new IllegalArgumentException(column + " must be a non-negative number: " + value);
+        }
+        return number;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String column) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown " + column + ": " + value);
+        }
+    }
+
+    /** Accepts ISO date-times, {@code yyyy-MM-dd HH:mm[:ss]} and plain dates. */
+    private static LocalDateTime parseTimestamp(String value) {
+        try {
+            if (value.length() == 10) {
+                return LocalDate.parse(value).atStartOfDay();
+            }
+            return LocalDateTime.parse(value.replace(' ', 'T'));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("invalid timestamp: " + value);
+        }
+    }
+
+    // Checkpoints
+    private static final class Checkpoint {
+        private final long fileSize;
+        private final long byteOffset;
+        private final long lineNumber;
+        private final long rowsImported;
+        private final long rowsRejected;
+
+        private Checkpoint(long fileSize, long byteOffset, long lineNumber, long rowsImported, long rowsRejected) {
+            this.fileSize = fileSize;
+            this.byteOffset = byteOffset;
+            this.lineNumber = lineNumber;
+            this.rowsImported = rowsImported;
+            this.rowsRejected = rowsRejected;
+        }
+    }
+
+    /** User 0 keeps the bare path, so checkpoints written before imports had an owner still apply. */
+    private static String checkpointSource(Path csv, int userId) {
+        String path = csv.toAbsolutePath().normalize().toString();
+        return userId == 0 ? path : path + "#user=" + userId;
+    }
+
+    private Checkpoint loadCheckpoint(String source) {
+        String sql = "SELECT file_size, byte_offset, line_number, rows_imported, rows_rejected " +
+                    "FROM import_checkpoints WHERE source = ?";
+        try (PooledConnection conn = pool.reader()) {
+            PreparedStatement pstmt = conn.prepareCached(sql);
+            pstmt.setString(1, source);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new Checkpoint(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5));
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error loading import checkpoint for " + source, e);
+            throw new RuntimeException("Failed to load import checkpoint", e);
+        }
+        return null;
+    }
+
+    private void saveCheckpoint(PooledConnection conn, String source, Checkpoint checkpoint) throws SQLException {
+        PreparedStatement pstmt = conn.prepareCached("INSERT OR REPLACE INTO import_checkpoints " +
+            "(source, file_size, byte_offset, line_number, rows_imported, rows_rejected, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)");
+        pstmt.setString(1, source);
+        pstmt.setLong(2, checkpoint.fileSize);
+        pstmt.setLong(3, checkpoint.byteOffset);
+        pstmt.setLong(4, checkpoint.lineNumber);
+        pstmt.setLong(5, checkpoint.rowsImported);
+        pstmt.setLong(6, checkpoint.rowsRejected);
+        pstmt.setTimestamp(7, Timestamp.valueOf(LocalDateTime.now()));
+        pstmt.executeUpdate();
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "csv-parse-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Outcome of one import run. Counts cover this run only; rows loaded by an
+     * earlier, interrupted run are not repeated.
+     */
+    public static final class ImportResult {
+        private final long rowsImported;
+        private final long rowsRejected;
+        private final long resumedFromOffset;
+        private final long elapsedNanos;
+        private final List<String> errors;
+
+        private ImportResult(long rowsImported, long rowsRejected, long resumedFromOffset, long elapsedNanos,
+                             List<String> errors) {
+            this.rowsImported = rowsImported;
+            this.rowsRejected = rowsRejected;
+            this.resumedFromOffset = resumedFromOffset;
+            this.elapsedNanos = elapsedNanos;
+            this.errors = errors;
+        }
+
+        public long getRowsImported() { return rowsImported; }
+        public long getRowsRejected() { return rowsRejected; }
+        /** @return The byte offset the run started from; 0 for a fresh import */
+        public long getResumedFromOffset() { return resumedFromOffset; }
+        public double getElapsedMillis() { return elapsedNanos / 1_000_000.0; }
+        /** @return The first rejected rows with their line numbers and reasons */
+        public List<String> getErrors() { return errors; }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rowsImported / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d rows imported, %d rejected in %.0f ms (%.0f rows/s)",
+                rowsImported, rowsRejected, getElapsedMillis(), getRowsPerSecond());
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.services.ConnectionPool.PooledConnection;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bulk export of whole tables to CSV or JSON Lines.
+ * Rows go from the {@link ResultSet} into one reused line buffer and from there
+ * into a {@link ChannelWriter}, so memory is bounded by the write buffers however
+ * large the table is. Each table is read inside one transaction and is therefore
+ * a consistent snapshot. Timestamp columns are written as ISO-8601 local times.
+ */
+public class DataExporter {
+    private static final Logger LOGGER = Logger.getLogger(DataExporter.class.getName());
+    private static final int PROGRESS_INTERVAL = 10_000;
+
+    public enum Table {
+        TRANSACTIONS("transactions"),
+        PORTFOLIO_ITEMS("portfolio_items"),
+        PORTFOLIOS("portfolios"),
+        MARKET_DATA("market_data");
+
+        private final String tableName;
+
+        Table(String tableName) {
+            this.tableName = tableName;
+        }
+
+        public String getTableName() {
+            return tableName;
+        }
+    }
+
+    public enum Format {
+        CSV("csv"),
+        JSONL("jsonl");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /** Called from the exporting thread every few thousand rows and once at the end. */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(Table table, long rowsWritten, long bytesWritten);
+    }
+
+    private final ConnectionPool pool;
+    private final int fetchSize;
+    private final int bufferBytes;
+
+    public DataExporter(DatabaseService databaseService) {
+        this(databaseService, 256 * 1024);
+    }
+
+    /**
+     * @param databaseService The database to export from
+     * @param bufferBytes Size of each write buffer; two are used when compressing
+     */
+    public DataExporter(DatabaseService databaseService, int bufferBytes) {
+        if (bufferBytes < 4096) {
+            throw new IllegalArgumentException("Buffer size must be at least 4 KiB");
+        }
+        this.pool = databaseService.getPool();
+        this.fetchSize = databaseService.getConfig().getStreamFetchSize();
+        this.bufferBytes = bufferBytes;
+    }
+
+    public ExportResult export(Table table, Format format, Path target, boolean compress) throws IOException {
+        return export(table, format, target, compress, null);
+    }
+
+    /**
+     * Writes every row of a table to a file, replacing it if it exists.
+     * @param compress Gzip the output
+     * @param listener Optional progress callback
+     */
+    public ExportResult export(Table table, Format format, Path target, boolean compress,
+                               ProgressListener listener) throws IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        try (ChannelWriter writer = new ChannelWriter(target, bufferBytes, compress);
+             PooledConnection conn = pool.reader()) {
+            Connection connection = conn.getConnection();
+            boolean ownsTransaction = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.setFetchSize(fetchSize);
+                try (ResultSet rs = stmt.executeQuery("SELECT * FROM " + table.getTableName())) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    int columnCount = meta.getColumnCount();
+                    String[] names = new String[columnCount];
+                    boolean[] timestamps = new boolean[columnCount];
+                    for (int i = 0; i < columnCount; i++) {
+                        names[i] = meta.getColumnName(i + 1);
+                        timestamps[i] = "TIMESTAMP".equalsIgnoreCase(meta.getColumnTypeName(i + 1));
+                    }
+                    StringBuilder line = new StringBuilder(256);
+                    if (format == Format.CSV) {
+                        for (int i = 0; i < columnCount; i++) {
+                            if (i > 0) {
+                                line.append(',');
+                            }
+                            appendCsv(line, names[i]);
+                        }
+                        writer.write(line.append('\n'));
+                    }
+                    while (rs.next()) {
+                        line.setLength(0);
+                        if (format == Format.CSV) {
+                            appendCsvRow(line, rs, timestamps);
+                        } else {
+                            appendJsonRow(line, rs, names, timestamps);
+                        }
+                        writer.write(line.append('\n'));
+                        if (++rows % PROGRESS_INTERVAL == 0 && listener != null) {
+                            listener.onProgress(table, rows, writer.getUncompressedBytes());
+                        }
+                    }
+                }
+            } finally {
+                if (ownsTransaction) {
+                    connection.commit();
+                    connection.setAutoCommit(true);
+                }
+            }
+            writer.close();
+            ExportResult result = new ExportResult(table, format, target, rows, writer.getUncompressedBytes(),
+                Files.size(target), System.nanoTime() - start);
+            if (listener != null) {
+                listener.onProgress(table, rows, result.getUncompressedBytes());
+            }
+            LOGGER.info("Exported " + table.getTableName() + ": " + result);
+            return result;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error exporting " + table.getTableName() + " after " + rows + " rows", e);
+            throw new RuntimeException("Failed to export " + table.getTableName(), e);
+        }
+    }
+
+    /**
+     * Exports every table into a directory as {@code <table>.<csv|jsonl>[.gz]}.
+     * @return One result per table
+     */
+    public List<ExportResult> exportAll(Path directory, Format format, boolean compress,
+                                        ProgressListener listener) throws IOException {
+        List<ExportResult> results = new ArrayList<>();
+        for (Table table : Table.values()) {
+            String fileName = table.getTableName() + "." + format.getExtension() + (compress ? ".gz" : "");
+            results.add(export(table, format, directory.resolve(fileName), compress, listener));
+        }
+        return results;
+    }
+
+    private static void appendCsvRow(StringBuilder line, ResultSet rs, boolean[] timestamps) throws SQLException {
+        for (int i = 0; i < timestamps.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            Object value = rs.getObject(i + 1);
+            if (value == null) {
+                continue;
+            }
+            if (timestamps[i] && value instanceof Number) {
+                line.append(toLocalDateTime(((Number) value).longValue()));
+            } else if (value instanceof Number) {
+                line.append(value);
+            } else {
+                appendCsv(line, value.toString());
+            }
+        }
+    }
+
+    private static void appendJsonRow(StringBuilder line, ResultSet rs, String[] names, boolean[] timestamps) throws SQLException {
+        line.append('{');
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            appendJsonString(line, names[i]);
+            line.append(':');
+            Object value = rs.getObject(i + 1);
+            if (value == null) {
+                line.append("null");
+            } else if (timestamps[i] && value instanceof Number) {
+                line.append('"').append(toLocalDateTime(((Number) value).longValue())).append('"');
+            } else if (value instanceof Double && !Double.isFinite((Double) value)) {
+                line.append("null");
+            } else if (value instanceof Number) {
+                line.append(value);
+            } else {
+                appendJsonString(line, value.toString());
+            }
+        }
+        line.append('}');
+    }
+
+    /** Quotes a field only when it contains a separator, quote or line break. */
+    private static void appendCsv(StringBuilder line, String value) {
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private static void appendJsonString(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': line.append("\\\""); break;
+                case '\\': line.append("\\\\"); break;
+                case '\n': line.append("\\n"); break;
+                case '\r': line.append("\\r"); break;
+                case '\t': line.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /** Outcome of one table export. */
+    public static final class ExportResult {
+        private final Table table;
+        private final Format format;
+        private final Path file;
+        private final long rows;
+        private final long uncompressedBytes;
+        private final long fileBytes;
+        private final long elapsedNanos;
+
+        private ExportResult(Table table, Format format, Path file, long rows, long uncompressedBytes,
+                             long fileBytes, long elapsedNanos) {
+            this.table = table;
+            this.format = format;
+            this.file = file;
+            this.rows = rows;
+            this.uncompressedBytes = uncompressedBytes;
+            this.fileBytes = fileBytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public Table getTable() { return table; }
+        public Format getFormat() { return format; }
+        public Path getFile() { return file; }
+        public long getRows() { return rows; }
+        public long getUncompressedBytes() { return uncompressedBytes; }
+        public long getFileBytes() { return fileBytes; }
+        public double getElapsedMillis() { return elapsedNanos / 1_000_000.0; }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d rows, %d bytes (%d on disk) in %.0f ms (%.0f rows/s)",
+                rows, uncompressedBytes, fileBytes, getElapsedMillis(), getRowsPerSecond());
+        }
+    }
+}
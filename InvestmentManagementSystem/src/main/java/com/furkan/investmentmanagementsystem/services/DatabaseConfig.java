@@ -0,0 +1,242 @@
+package com.furkan.investmentmanagementsystem.services;
+
+/**
+ * Connection settings for {@link DatabaseService}, and the choice of
+ * {@link StorageBackend} made by {@link StorageBackend#open}.
+ * Defaults can be overridden at startup through system properties
+ * (for example {@code -Dims.db.url=jdbc:sqlite:other.db}).
+ */
+public class DatabaseConfig {
+    public static final String DEFAULT_URL = "jdbc:sqlite:investment_management.db";
+    public static final String DEFAULT_STORAGE_FILE = "investment_management.store";
+
+    private String url;
+    private int readerPoolSize;
+    private long acquireTimeoutMillis;
+    private int batchSize;
+    private StorageProfile storageProfile;
+    private int statementCacheSize;
+    private int streamFetchSize;
+    private int cacheMaxEntries;
+    private long cacheTtlMillis;
+    private int commentCacheMaxEntries;
+    private StorageType storageType;
+    private String storageFile;
+    private int lockStripes;
+    private int archiveHorizonMonths;
+    private String replicaFile;
+    private long replicaRefreshMillis;
+    private long replicaMaxStalenessMillis;
+
+    public DatabaseConfig() {
+        this.url = DEFAULT_URL;
+        this.readerPoolSize = Math.max(2, Runtime.getRuntime().availableProcessors());
+        this.acquireTimeoutMillis = 30_000;
+        this.batchSize = 500;
+        this.storageProfile = StorageProfile.DURABLE;
+        this.statementCacheSize = 64;
+        this.streamFetchSize = 500;
+        this.cacheMaxEntries = 10_000;
+        this.cacheTtlMillis = 60_000;
+        this.commentCacheMaxEntries = 256;
+        this.storageType = StorageType.SQLITE;
+        this.storageFile = DEFAULT_STORAGE_FILE;
+        this.lockStripes = 64;
+        this.archiveHorizonMonths = 12;
+        this.replicaRefreshMillis = 60_000;
+        this.replicaMaxStalenessMillis = 300_000;
+    }
+
+    public DatabaseConfig(String url) {
+        this();
+        this.url = url;
+    }
+
+    /**
+     * Builds a configuration from the {@code ims.db.*} system properties,
+     * falling back to the defaults for anything that is not set.
+     * @return The startup configuration
+     */
+    public static DatabaseConfig fromSystemProperties() {
+        DatabaseConfig config = new DatabaseConfig();
+        config.setUrl(System.getProperty("ims.db.url", config.getUrl()));
+        config.setReaderPoolSize(Integer.getInteger("ims.db.readers", config.getReaderPoolSize()));
+        config.setAcquireTimeoutMillis(Long.getLong("ims.db.acquireTimeoutMs", config.getAcquireTimeoutMillis()));
+        config.setBatchSize(Integer.getInteger("ims.db.batchSize", config.getBatchSize()));
+        config.setStatementCacheSize(Integer.getInteger("ims.db.statementCacheSize", config.getStatementCacheSize()));
+        config.setStreamFetchSize(Integer.getInteger("ims.db.streamFetchSize", config.getStreamFetchSize()));
+        config.setCacheMaxEntries(Integer.getInteger("ims.db.cacheMaxEntries", config.getCacheMaxEntries()));
+        config.setCacheTtlMillis(Long.getLong("ims.db.cacheTtlMs", config.getCacheTtlMillis()));
+        config.setCommentCacheMaxEntries(Integer.getInteger("ims.db.commentCacheMaxEntries",
+            config.getCommentCacheMaxEntries()));
+        config.setStorageFile(System.getProperty("ims.db.storageFile", config.getStorageFile()));
+        config.setLockStripes(Integer.getInteger("ims.db.lockStripes", config.getLockStripes()));
+        config.setArchiveHorizonMonths(Integer.getInteger("ims.db.archiveHorizonMonths", config.getArchiveHorizonMonths()));
+        config.setReplicaFile(System.getProperty("ims.db.replicaFile", config.getReplicaFile()));
+        config.setReplicaRefreshMillis(Long.getLong("ims.db.replicaRefreshMs", config.getReplicaRefreshMillis()));
+        config.setReplicaMaxStalenessMillis(Long.getLong("ims.db.replicaMaxStalenessMs",
+            config.getReplicaMaxStalenessMillis()));
+        String storage = System.getProperty("ims.db.storage");
+        if (storage != null) {
+            config.setStorageType(StorageType.fromName(storage));
+        }
+        String profile = System.getProperty("ims.db.profile");
+        if (profile != null) {
+            config.setStorageProfile(StorageProfile.fromName(profile));
+        }
+        return config;
+    }
+
+    public String getUrl() { return url; }
+    public int getReaderPoolSize() { return readerPoolSize; }
+    public long getAcquireTimeoutMillis() { return acquireTimeoutMillis; }
+    public int getBatchSize() { return batchSize; }
+    public StorageProfile getStorageProfile() { return storageProfile; }
+    public int getStatementCacheSize() { return statementCacheSize; }
+    public int getStreamFetchSize() { return streamFetchSize; }
+    public int getCacheMaxEntries() { return cacheMaxEntries; }
+    public long getCacheTtlMillis() { return cacheTtlMillis; }
+    public int getCommentCacheMaxEntries() { return commentCacheMaxEntries; }
+    public StorageType getStorageType() { return storageType; }
+    public String getStorageFile() { return storageFile; }
+    public int getLockStripes() { return lockStripes; }
+    public int getArchiveHorizonMonths() { return archiveHorizonMonths; }
+    public String getReplicaFile() { return replicaFile; }
+    public long getReplicaRefreshMillis() { return replicaRefreshMillis; }
+    public long getReplicaMaxStalenessMillis() { return replicaMaxStalenessMillis; }
+
+    public void setUrl(String url) {
+        if (url == null || url.isBlank()) {
+            throw new IllegalArgumentException("Database URL cannot be null or empty");
+        }
+        this.url = url;
+    }
+
+    public void setReaderPoolSize(int readerPoolSize) {
+        if (readerPoolSize < 1) {
+            throw new IllegalArgumentException("Reader pool size must be at least 1");
+        }
+        this.readerPoolSize = readerPoolSize;
+    }
+
+    public void setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+        if (acquireTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Acquire timeout must be greater than 0");
+        }
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Chooses how much durability the database trades for write speed. The default,
+     * {@link StorageProfile#DURABLE}, syncs every commit; faster profiles can lose
+     * recently acknowledged writes on power loss, so opt into them deliberately
+     * (for example {@code -Dims.db.profile=balanced}).
+     */
+    public void setStorageProfile(StorageProfile storageProfile) {
+        if (storageProfile == null) {
+            throw new IllegalArgumentException("Storage profile cannot be null");
+        }
+        this.storageProfile = storageProfile;
+    }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        if (statementCacheSize < 1) {
+            throw new IllegalArgumentException("Statement cache size must be at least 1");
+        }
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public void setStreamFetchSize(int streamFetchSize) {
+        if (streamFetchSize < 1) {
+            throw new IllegalArgumentException("Stream fetch size must be at least 1");
+        }
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    /** @param cacheMaxEntries Entries per entity cache; 0 turns the caches off */
+    public void setCacheMaxEntries(int cacheMaxEntries) {
+        if (cacheMaxEntries < 0) {
+            throw new IllegalArgumentException("Cache size cannot be negative");
+        }
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
+
+    public void setCacheTtlMillis(long cacheTtlMillis) {
+        if (cacheTtlMillis <= 0) {
+            throw new IllegalArgumentException("Cache TTL must be greater than 0");
+        }
+        this.cacheTtlMillis = cacheTtlMillis;
+    }
+
+    /** @param commentCacheMaxEntries Number of targets whose comments are cached for thread loading; 0 disables it */
+    public void setCommentCacheMaxEntries(int commentCacheMaxEntries) {
+        if (commentCacheMaxEntries < 0) {
+            throw new IllegalArgumentException("Comment cache size cannot be negative");
+        }
+        this.commentCacheMaxEntries = commentCacheMaxEntries;
+    }
+
+    public void setStorageType(StorageType storageType) {
+        if (storageType == null) {
+            throw new IllegalArgumentException("Storage type cannot be null");
+        }
+        this.storageType = storageType;
+    }
+
+    /** @param storageFile Log file used by the {@link StorageType#FILE} backend */
+    public void setStorageFile(String storageFile) {
+        if (storageFile == null || storageFile.isBlank()) {
+            throw new IllegalArgumentException("Storage file cannot be null or empty");
+        }
+        this.storageFile = storageFile;
+    }
+
+    /** @param lockStripes Number of independently locked partitions in the in-memory backends */
+    public void setLockStripes(int lockStripes) {
+        if (lockStripes < 1) {
+            throw new IllegalArgumentException("Lock stripe count must be at least 1");
+        }
+        this.lockStripes = lockStripes;
+    }
+
+    /** @param archiveHorizonMonths Months of transactions, before the current one, kept in the hot table by {@link TransactionArchive#archive} */
+    public void setArchiveHorizonMonths(int archiveHorizonMonths) {
+        if (archiveHorizonMonths < 0) {
+            throw new IllegalArgumentException("Archive horizon cannot be negative");
+        }
+        this.archiveHorizonMonths = archiveHorizonMonths;
+    }
+
+    /**
+     * @param replicaFile Base path of the read replica used for reports, see {@link ReplicaManager};
+     *                    null, the default, reads reports from the live database
+     */
+    public void setReplicaFile(String replicaFile) {
+        if (replicaFile != null && replicaFile.isBlank()) {
+            throw new IllegalArgumentException("Replica file cannot be empty");
+        }
+        this.replicaFile = replicaFile;
+    }
+
+    public void setReplicaRefreshMillis(long replicaRefreshMillis) {
+        if (replicaRefreshMillis <= 0) {
+            throw new IllegalArgumentException("Replica refresh interval must be greater than 0");
+        }
+        this.replicaRefreshMillis = replicaRefreshMillis;
+    }
+
+    /** @param replicaMaxStalenessMillis Oldest replica snapshot reports may read; older ones fall back to the live database */
+    public void setReplicaMaxStalenessMillis(long replicaMaxStalenessMillis) {
+        if (replicaMaxStalenessMillis <= 0) {
+            throw new IllegalArgumentException("Replica staleness bound must be greater than 0");
+        }
+        this.replicaMaxStalenessMillis = replicaMaxStalenessMillis;
+    }
+}
@@ -1,45 +1,177 @@
 package com.furkan.investmentmanagementsystem.services;
 
 import com.furkan.investmentmanagementsystem.models.*;
+import com.furkan.investmentmanagementsystem.services.ConnectionPool.PooledConnection;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class DatabaseService {
+public class DatabaseService implements StorageBackend {
     private static final Logger LOGGER = Logger.getLogger(DatabaseService.class.getName());
-    private static final String DB_URL = "jdbc:sqlite:investment_management.db";
+
+    private static final String TRANSACTION_INSERT_SQL = "INSERT INTO transactions (id, legacy_id, asset_name, asset_type, " +
+            "quantity, price_usd, timestamp, transaction_type, status, total_value_usd, user_id, notes) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Column lists of the row projections; everything else in the table is left unread
+    static final String TRANSACTION_ROW_COLUMNS = "id, legacy_id, asset_name, quantity, price_usd, total_value_usd, " +
+            "timestamp, transaction_type, status, notes";
+    private static final String POSITION_ROW_COLUMNS = "portfolio_id, asset_name, asset_type, quantity, " +
+            "open_price_usd, last_price_usd";
+    private static final String PRICE_ROW_COLUMNS = "symbol, current_price, previous_close, change_percent, volume, " +
+            "last_updated";
+
+    private static final String COMMENT_INSERT_SQL = "INSERT OR REPLACE INTO comments (id, content, timestamp, author_id, parent_id, " +
+            "target_type, target_id, is_edited, last_edit_time, likes, is_deleted) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String NOTIFICATION_INSERT_SQL = "INSERT INTO notifications (id, title, message, timestamp, recipient_id, sender_id, " +
+            "type, is_read, action_url, priority, is_deleted) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String PORTFOLIO_ITEM_INSERT_SQL = "INSERT INTO portfolio_items (portfolio_id, asset_name, asset_type, quantity, " +
+            "open_price_usd, last_price_usd, open_date, position, profit_loss_percent, total_value_usd, total_revenue_usd) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String MARKET_DATA_INSERT_SQL = "INSERT OR REPLACE INTO market_data (symbol, name, asset_type, current_price, open_price, " +
+            "high_price, low_price, volume, market_cap, change_percent, last_updated, currency, exchange, " +
+            "previous_close, fifty_two_week_high, fifty_two_week_low, pe_ratio, dividend_yield) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
     private static DatabaseService instance;
-    private Connection connection;
+    private final DatabaseConfig config;
+    private final EntityCache<String, InvestmentUser> userCache;
+    private final EntityCache<String, MarketData> marketDataCache;
+    private final EntityCache<Integer, InboxSummary> inboxCache;
+    private final EntityCache<String, List<Comment>> commentCache;
+    private ConnectionPool pool;
+    private ReplicaManager replicas;
 
-    private DatabaseService() {
+    private DatabaseService(DatabaseConfig config) {
+        this.config = config;
+        this.userCache = new EntityCache<>("users", config.getCacheMaxEntries(), config.getCacheTtlMillis());
+        this.marketDataCache = new EntityCache<>("market data", config.getCacheMaxEntries(), config.getCacheTtlMillis());
+        this.inboxCache = new EntityCache<>("inbox counters", config.getCacheMaxEntries(), config.getCacheTtlMillis());
+        this.commentCache = new EntityCache<>("comment threads", config.getCommentCacheMaxEntries(), config.getCacheTtlMillis());
         initializeDatabase();
     }
 
     public static synchronized DatabaseService getInstance() {
         if (instance == null) {
-            instance = new DatabaseService();
+            instance = new DatabaseService(DatabaseConfig.fromSystemProperties());
         }
         return instance;
     }
 
+    /**
+     * Opens a standalone service against the given configuration.
+     * Used by tools and tests that must not share the application database.
+     * @param config The connection settings
+     * @return A new service; the caller is responsible for closing it
+     */
+    public static DatabaseService create(DatabaseConfig config) {
+        return new DatabaseService(config);
+    }
+
     private void initializeDatabase() {
         try {
-            connection = DriverManager.getConnection(DB_URL);
-            createTables();
+            pool = new ConnectionPool(config);
+            try (PooledConnection conn = pool.writer()) {
+                createTables(conn.getConnection());
+                migrateTransactionIds(conn.getConnection());
+                createIndexes(conn.getConnection());
+                createAggregateTriggers(conn.getConnection());
+                createNotificationCounterTriggers(conn.getConnection());
+                createTransactionRollupTrigger(conn.getConnection());
+                observeTransactionIds(conn.getConnection());
+            }
+            if (config.getReplicaFile() != null) {
+                replicas = new ReplicaManager(pool, config);
+            }
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error initializing database", e);
             throw new RuntimeException("Failed to initialize database", e);
         }
     }
 
-    private void createTables() throws SQLException {
+    public ConnectionPool.PoolMetrics getPoolMetrics() {
+        return pool.getMetrics();
+    }
+
+    /** @return Replica lag and usage, if reports are served from a replica */
+    public Optional<ReplicaManager.ReplicaMetrics> getReplicaMetrics() {
+        return replicas == null ? Optional.empty() : Optional.of(replicas.getMetrics());
+    }
+
+    /**
+     * Takes a replica snapshot now rather than at the next interval, e.g. after a bulk
+     * import that reports should include.
+     * @return Whether a new snapshot is in use; false if no replica is configured
+     */
+    public boolean refreshReplica() {
+        return replicas != null && replicas.refresh();
+    }
+
+    public EntityCache.CacheMetrics getUserCacheMetrics() {
+        return userCache.getMetrics();
+    }
+
+    public EntityCache.CacheMetrics getMarketDataCacheMetrics() {
+        return marketDataCache.getMetrics();
+    }
+
+    public EntityCache.CacheMetrics getInboxCacheMetrics() {
+        return inboxCache.getMetrics();
+    }
+
+    public EntityCache.CacheMetrics getCommentCacheMetrics() {
+        return commentCache.getMetrics();
+    }
+
+    /** Shared with the other stores in this package that live in the same database file. */
+    ConnectionPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Reader for report and analytics queries: a replica connection while the replica
+     * is within its staleness bound, otherwise a live reader. A thread holding the
+     * writer always reads the live database, so it sees its own uncommitted rows.
+     * @see ReplicaManager
+     */
+    private PooledConnection reportReader() throws SQLException {
+        if (replicas != null && !pool.isWriterHeldByCurrentThread()) {
+            PooledConnection replica = replicas.reader();
+            if (replica != null) {
+                return replica;
+            }
+        }
+        return pool.reader();
+    }
+
+    DatabaseConfig getConfig() {
+        return config;
+    }
+
+    private void createTables(Connection connection) throws SQLException {
         try (Statement stmt = connection.createStatement()) {
             // Users table
             stmt.execute("""
@@ -97,10 +229,12 @@ public class DatabaseService {
                 )
             """);
 
-            // Transactions table
+            // Transactions table, keyed by time-ordered TransactionIds; ids not generated
+            // by TransactionIds (UUIDs, imported ids) get a generated key and keep their text in legacy_id
             stmt.execute("""
                 CREATE TABLE IF NOT EXISTS transactions (
-                    id TEXT PRIMARY KEY,
+                    id INTEGER PRIMARY KEY,
+                    legacy_id TEXT,
                     asset_name TEXT NOT NULL,
                     asset_type TEXT NOT NULL,
                     quantity INTEGER NOT NULL,
@@ -194,28 +328,361 @@ public class DatabaseService {
                     dividend_yield REAL
                 )
             """);
+
+            // Firm-wide totals per risk profile, maintained by triggers on portfolios
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS portfolio_risk_totals (
+                    risk_profile TEXT PRIMARY KEY,
+                    portfolio_count INTEGER NOT NULL DEFAULT 0,
+                    total_value REAL NOT NULL DEFAULT 0,
+                    total_cost REAL NOT NULL DEFAULT 0,
+                    total_profit_loss REAL NOT NULL DEFAULT 0
+                ) WITHOUT ROWID
+            """);
+
+            // Live and unread notifications per recipient, type and priority, maintained by triggers
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS notification_counters (
+                    recipient_id INTEGER NOT NULL,
+                    type TEXT NOT NULL,
+                    priority TEXT NOT NULL,
+                    total_count INTEGER NOT NULL DEFAULT 0,
+                    unread_count INTEGER NOT NULL DEFAULT 0,
+                    PRIMARY KEY (recipient_id, type, priority)
+                ) WITHOUT ROWID
+            """);
+
+            // Monthly trade totals per user, asset and direction (month as yyyymm), maintained by a trigger
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS transaction_rollups (
+                    user_id INTEGER NOT NULL,
+                    month INTEGER NOT NULL,
+                    asset_name TEXT NOT NULL,
+                    transaction_type TEXT NOT NULL,
+                    trade_count INTEGER NOT NULL DEFAULT 0,
+                    quantity REAL NOT NULL DEFAULT 0,
+                    notional REAL NOT NULL DEFAULT 0,
+                    PRIMARY KEY (user_id, month DESC, asset_name, transaction_type)
+                ) WITHOUT ROWID
+            """);
         }
     }
 
+    /**
+     * Secondary indexes matching the read paths below. Lists that hide soft-deleted
+     * rows use partial indexes so deleted rows never enter the index at all.
+     */
+    private void createIndexes(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            // Transaction history, newest first
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_transactions_user_time " +
+                        "ON transactions (user_id, timestamp DESC, id)");
+            // Newest trades per held asset, for the per-portfolio windows of loadPortfolioGraph
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_transactions_user_asset_time " +
+                        "ON transactions (user_id, asset_name, timestamp DESC, id DESC)");
+            // Keeps text ids unique without indexing the generated ones. They come from the caller
+            // (UUIDs, broker statement ids), so they are unique per user: one statement can be
+            // imported for several users
+            stmt.execute("DROP INDEX IF EXISTS idx_transactions_legacy_id");
+            stmt.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_transactions_user_legacy_id " +
+                        "ON transactions (user_id, legacy_id) WHERE legacy_id IS NOT NULL");
+
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_portfolios_owner ON portfolios (owner_id)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_portfolio_items_portfolio " +
+                        "ON portfolio_items (portfolio_id, asset_name)");
+            // Price updates fan out to every holding of the symbol
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_portfolio_items_asset ON portfolio_items (asset_name)");
+            // Top-N ranking of live portfolios by trigger-maintained value
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_portfolios_active_value " +
+                        "ON portfolios (total_value DESC) WHERE is_active = TRUE");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_reports_author_created " +
+                        "ON reports (author_id, creation_date DESC)");
+
+            // Comment threads on a report/portfolio, live comments only
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_comments_target_live " +
+                        "ON comments (target_type, target_id, timestamp DESC) WHERE is_deleted = FALSE");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_comments_parent " +
+                        "ON comments (parent_id) WHERE parent_id IS NOT NULL");
+
+            // Inbox listing, plus a covering index so unread badges never touch the table
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_notifications_recipient_live " +
+                        "ON notifications (recipient_id, timestamp DESC) WHERE is_deleted = FALSE");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_notifications_recipient_unread " +
+                        "ON notifications (recipient_id, type, priority) WHERE is_deleted = FALSE AND is_read = FALSE");
+        }
+    }
+
+    /**
+     * Rebuilds a {@code transactions} table created with random {@code TEXT} ids into
+     * the integer-keyed layout, in one transaction. Every existing row gets a key made
+     * the way {@link TransactionIds} makes them, from its own timestamp with the row's
+     * rank within that millisecond as the counter, and keeps its old id in
+     * {@code legacy_id}, so callers see the same ids as before. The rollup trigger
+     * goes with the old table and is put back without a backfill, since the rollups
+     * already count the migrated rows and any archived ones.
+     */
+    private void migrateTransactionIds(Connection connection) throws SQLException {
+        String idType = null;
+        boolean rollupsInstalled;
+        try (Statement stmt = connection.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(transactions)")) {
+                while (rs.next()) {
+                    if ("id".equals(rs.getString("name"))) {
+                        idType = rs.getString("type");
+                    }
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM sqlite_master " +
+                    "WHERE type = 'trigger' AND name = 'trg_transactions_rollup'")) {
+                rollupsInstalled = rs.next();
+            }
+        }
+        if (!"TEXT".equalsIgnoreCase(idType)) {
+            return;
+        }
+        String columns = "asset_name, asset_type, quantity, price_usd, timestamp, transaction_type, status, " +
+            "total_value_usd, user_id, notes";
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE transactions_migrated (
+                    id INTEGER PRIMARY KEY,
+                    legacy_id TEXT,
+                    asset_name TEXT NOT NULL,
+                    asset_type TEXT NOT NULL,
+                    quantity INTEGER NOT NULL,
+                    price_usd REAL NOT NULL,
+                    timestamp TIMESTAMP NOT NULL,
+                    transaction_type TEXT NOT NULL,
+                    status TEXT NOT NULL,
+                    total_value_usd REAL NOT NULL,
+                    user_id INTEGER NOT NULL,
+                    notes TEXT,
+                    FOREIGN KEY (user_id) REFERENCES users(id)
+                )
+            """);
+            int copied = stmt.executeUpdate("INSERT INTO transactions_migrated (id, legacy_id, " + columns + ") " +
+                "SELECT (timestamp << " + TransactionIds.SEQUENCE_BITS + ") + " +
+                "ROW_NUMBER() OVER (PARTITION BY timestamp ORDER BY id) - 1, id, " + columns +
+                " FROM transactions ORDER BY timestamp, id");
+            stmt.execute("DROP TABLE transactions");
+            stmt.execute("ALTER TABLE transactions_migrated RENAME TO transactions");
+            if (rollupsInstalled) {
+                installTransactionRollupTrigger(stmt);
+            }
+            connection.commit();
+            LOGGER.info("Migrated " + copied + " transactions to integer ids");
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /** Starts the id generator past the newest stored id, in case this clock is behind the last writer's. */
+    private void observeTransactionIds(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(id) FROM transactions")) {
+            if (rs.next()) {
+                TransactionIds.observe(rs.getLong(1));
+            }
+        }
+    }
+
+    /**
+     * Keeps portfolio totals current inside the database. A price write updates the
+     * holdings of that symbol, each holding change applies its delta to its portfolio,
+     * and each portfolio change applies its delta to {@code portfolio_risk_totals}.
+     * The first time the triggers are installed the totals are rebuilt from scratch.
+     */
+    private void createAggregateTriggers(Connection connection) throws SQLException {
+        boolean installed;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT 1 FROM sqlite_master " +
+                 "WHERE type = 'trigger' AND name = 'trg_portfolio_items_insert'")) {
+            installed = rs.next();
+        }
+        String repriceHoldings = "UPDATE portfolio_items SET last_price_usd = NEW.current_price, " +
+            "total_value_usd = quantity * NEW.current_price, " +
+            "total_revenue_usd = quantity * (NEW.current_price - open_price_usd), " +
+            "profit_loss_percent = (NEW.current_price - open_price_usd) / open_price_usd * 100 " +
+            "WHERE asset_name = NEW.symbol AND last_price_usd <> NEW.current_price;";
+        try (Statement stmt = connection.createStatement()) {
+            for (Portfolio.RiskProfile riskProfile : Portfolio.RiskProfile.values()) {
+                stmt.execute("INSERT OR IGNORE INTO portfolio_risk_totals (risk_profile) VALUES ('" + riskProfile.name() + "')");
+            }
+
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_portfolio_items_insert AFTER INSERT ON portfolio_items " +
+                        "BEGIN " + portfolioDelta("+", "NEW") + " END");
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_portfolio_items_delete AFTER DELETE ON portfolio_items " +
+                        "BEGIN " + portfolioDelta("-", "OLD") + " END");
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_portfolio_items_update " +
+                        "AFTER UPDATE OF portfolio_id, quantity, open_price_usd, last_price_usd ON portfolio_items " +
+                        "BEGIN " + portfolioDelta("-", "OLD") + " " + portfolioDelta("+", "NEW") + " END");
+
+            // INSERT OR REPLACE fires the insert trigger, a plain UPDATE fires the update trigger
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_market_data_insert AFTER INSERT ON market_data " +
+                        "BEGIN " + repriceHoldings + " END");
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_market_data_update AFTER UPDATE OF current_price ON market_data " +
+                        "BEGIN " + repriceHoldings + " END");
+
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_portfolios_insert AFTER INSERT ON portfolios " +
+                        "BEGIN " + riskDelta("+", "NEW") + " END");
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_portfolios_delete AFTER DELETE ON portfolios " +
+                        "BEGIN " + riskDelta("-", "OLD") + " END");
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_portfolios_update " +
+                        "AFTER UPDATE OF total_value, total_cost, total_profit_loss, risk_profile, is_active ON portfolios " +
+                        "BEGIN " + riskDelta("-", "OLD") + " " + riskDelta("+", "NEW") + " END");
+        }
+        if (!installed) {
+            rebuildPortfolioAggregates(connection);
+        }
+    }
+
+    /**
+     * Keeps {@code notification_counters} in step with {@code notifications}: every
+     * insert, read/unread flip, soft delete and hard delete moves the row's counts in
+     * the same statement, so the counters are exactly as atomic as the change itself.
+     * The first time the triggers are installed the counters are rebuilt from scratch.
+     */
+    private void createNotificationCounterTriggers(Connection connection) throws SQLException {
+        boolean installed;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT 1 FROM sqlite_master " +
+                 "WHERE type = 'trigger' AND name = 'trg_notifications_insert'")) {
+            installed = rs.next();
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_notifications_insert AFTER INSERT ON notifications " +
+                        "BEGIN " + counterDelta("+", "NEW") + " END");
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_notifications_delete AFTER DELETE ON notifications " +
+                        "BEGIN " + counterDelta("-", "OLD") + " END");
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_notifications_update " +
+                        "AFTER UPDATE OF recipient_id, type, priority, is_read, is_deleted ON notifications " +
+                        "BEGIN " + counterDelta("-", "OLD") + " " + counterDelta("+", "NEW") + " END");
+            if (!installed) {
+                stmt.executeUpdate("DELETE FROM notification_counters");
+                stmt.executeUpdate("INSERT INTO notification_counters " +
+                    "(recipient_id, type, priority, total_count, unread_count) " +
+                    "SELECT recipient_id, type, priority, COUNT(*), SUM(is_read = FALSE) FROM notifications " +
+                    "WHERE is_deleted = FALSE GROUP BY recipient_id, type, priority");
+            }
+        }
+    }
+
+    /**
+     * Adds every inserted transaction to its month in {@code transaction_rollups}.
+     * Transactions are only ever inserted, and deleting them is how
+     * {@link TransactionArchive} moves months to cold storage, so there is deliberately
+     * no delete trigger: the rollups keep covering archived months. The first time the
+     * trigger is installed the rollups are rebuilt from the table.
+     */
+    private void createTransactionRollupTrigger(Connection connection) throws SQLException {
+        boolean installed;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT 1 FROM sqlite_master " +
+                 "WHERE type = 'trigger' AND name = 'trg_transactions_rollup'")) {
+            installed = rs.next();
+        }
+        try (Statement stmt = connection.createStatement()) {
+            installTransactionRollupTrigger(stmt);
+            if (!installed) {
+                stmt.executeUpdate("DELETE FROM transaction_rollups");
+                stmt.executeUpdate("INSERT INTO transaction_rollups " +
+                    "(user_id, month, asset_name, transaction_type, trade_count, quantity, notional) " +
+                    "SELECT user_id, " + rollupMonth("timestamp") + " AS m, asset_name, transaction_type, " +
+                    "COUNT(*), SUM(quantity), SUM(total_value_usd) FROM transactions " +
+                    "GROUP BY user_id, m, asset_name, transaction_type");
+            }
+        }
+    }
+
+    private static void installTransactionRollupTrigger(Statement stmt) throws SQLException {
+        String month = rollupMonth("NEW.timestamp");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_transactions_rollup AFTER INSERT ON transactions BEGIN " +
+            "INSERT OR IGNORE INTO transaction_rollups (user_id, month, asset_name, transaction_type) " +
+            "VALUES (NEW.user_id, " + month + ", NEW.asset_name, NEW.transaction_type); " +
+            "UPDATE transaction_rollups SET trade_count = trade_count + 1, " +
+            "quantity = quantity + NEW.quantity, notional = notional + NEW.total_value_usd " +
+            "WHERE user_id = NEW.user_id AND month = " + month + " AND asset_name = NEW.asset_name " +
+            "AND transaction_type = NEW.transaction_type; END");
+    }
+
+    /** The local calendar month, as yyyymm, of a timestamp stored in epoch milliseconds. */
+    static String rollupMonth(String column) {
+        return "CAST(strftime('%Y%m', " + column + " / 1000, 'unixepoch', 'localtime') AS INTEGER)";
+    }
+
+    /** Applies one notification to its recipient's counter cell, with {@code sign} "+" or "-". */
+    private static String counterDelta(String sign, String row) {
+        return "INSERT OR IGNORE INTO notification_counters (recipient_id, type, priority) " +
+            "VALUES (" + row + ".recipient_id, " + row + ".type, " + row + ".priority); " +
+            "UPDATE notification_counters SET " +
+            "total_count = total_count " + sign + " (" + row + ".is_deleted = FALSE), " +
+            "unread_count = unread_count " + sign + " (" + row + ".is_deleted = FALSE AND " + row + ".is_read = FALSE) " +
+            "WHERE recipient_id = " + row + ".recipient_id AND type = " + row + ".type " +
+            "AND priority = " + row + ".priority;";
+    }
+
+    /** Applies one holding's value, cost and P/L to its portfolio, with {@code sign} "+" or "-". */
+    private static String portfolioDelta(String sign, String row) {
+        String value = row + ".quantity * " + row + ".last_price_usd";
+        String profitLoss = row + ".quantity * (" + row + ".last_price_usd - " + row + ".open_price_usd)";
+        return "UPDATE portfolios SET " +
+            "total_value = total_value " + sign + " " + value + ", " +
+            "total_cost = total_cost " + sign + " " + row + ".quantity * " + row + ".open_price_usd, " +
+            "total_profit_loss = total_profit_loss " + sign + " " + profitLoss + ", " +
+            "total_profit_loss_percent = CASE WHEN total_value " + sign + " " + value + " = 0 THEN 0 " +
+            "ELSE (total_profit_loss " + sign + " " + profitLoss + ") / (total_value " + sign + " " + value + ") * 100 END " +
+            "WHERE id = " + row + ".portfolio_id;";
+    }
+
+    /** Applies one active portfolio's totals to its risk profile bucket, with {@code sign} "+" or "-". */
+    private static String riskDelta(String sign, String row) {
+        return "UPDATE portfolio_risk_totals SET " +
+            "portfolio_count = portfolio_count " + sign + " 1, " +
+            "total_value = total_value " + sign + " " + row + ".total_value, " +
+            "total_cost = total_cost " + sign + " " + row + ".total_cost, " +
+            "total_profit_loss = total_profit_loss " + sign + " " + row + ".total_profit_loss " +
+            "WHERE risk_profile = " + row + ".risk_profile AND " + row + ".is_active;";
+    }
+
     // User operations
+    /**
+     * Looks a user up through the user cache. The returned instance is shared with
+     * other callers; persist changes with {@link #saveUser} rather than mutating it in place.
+     */
+    @Override
     public Optional<InvestmentUser> getUserByEmail(String email) {
+        try {
+            return userCache.get(email, this::loadUserByEmail);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error getting user by email: " + email, e);
+        }
+        return Optional.empty();
+    }
+
+    private Optional<InvestmentUser> loadUserByEmail(String email) throws SQLException {
         String sql = "SELECT * FROM users WHERE email = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool.reader()) {
+            PreparedStatement pstmt = conn.prepareCached(sql);
             pstmt.setString(1, email);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return Optional.of(mapUserFromResultSet(rs));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapUserFromResultSet(rs));
+                }
             }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error getting user by email: " + email, e);
         }
         return Optional.empty();
     }
 
+    @Override
     public List<InvestmentUser> getAllUsers() {
         List<InvestmentUser> users = new ArrayList<>();
         String sql = "SELECT * FROM users";
-        try (Statement stmt = connection.createStatement();
+        try (PooledConnection conn = pool.reader();
+             Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
                 users.add(mapUserFromResultSet(rs));
@@ -226,10 +693,12 @@ public class DatabaseService {
         return users;
     }
 
+    @Override
     public void saveUser(InvestmentUser user) {
         String sql = "INSERT OR REPLACE INTO users (id, email, password, role, first_name, last_name, last_login, is_active) " +
                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool.writer()) {
+            PreparedStatement pstmt = conn.prepareCached(sql);
             pstmt.setString(1, user.getId());
             pstmt.setString(2, user.getEmail());
             pstmt.setString(3, user.getPassword());
@@ -242,6 +711,10 @@ public class DatabaseService {
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error saving user: " + user.getEmail(), e);
             throw new RuntimeException("Failed to save user", e);
+        } finally {
+            // Also drops the entry under a previous email, and any cached "no such user"
+            userCache.invalidate(user.getEmail());
+            userCache.invalidateIf(cached -> cached.getId().equals(user.getId()));
         }
     }
 
@@ -256,14 +729,17 @@ public class DatabaseService {
     }
 
     // Portfolio operations
+    @Override
     public ObservableList<Portfolio> getUserPortfolios(int userId) {
         ObservableList<Portfolio> portfolios = FXCollections.observableArrayList();
         String sql = "SELECT * FROM portfolios WHERE owner_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool.reader()) {
+            PreparedStatement pstmt = conn.prepareCached(sql);
             pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                portfolios.add(mapPortfolioFromResultSet(rs));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    portfolios.add(mapPortfolioFromResultSet(rs));
+                }
             }
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error getting portfolios for user: " + userId, e);
@@ -271,12 +747,103 @@ public class DatabaseService {
         return portfolios;
     }
 
+    /**
+     * Three set-based reads in one read transaction, so the graph is a consistent
+     * snapshot: the headers, every holding of those portfolios through a join, and each
+     * portfolio's newest transactions in the assets it holds. Children
+     * are grouped by id in one pass and handed to each portfolio with a single
+     * {@code setAll}, so the model's bindings recompute once per portfolio.
+     */
+    @Override
+    public List<Portfolio> loadPortfolioGraph(int userId, int recentTransactions) {
+        if (recentTransactions < 0) {
+            throw new IllegalArgumentException("Transaction window cannot be negative");
+        }
+        List<Portfolio> portfolios = new ArrayList<>();
+        try (PooledConnection conn = pool.reader()) {
+            Connection connection = conn.getConnection();
+            boolean ownsTransaction = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                PreparedStatement headers = conn.prepareCached("SELECT * FROM portfolios WHERE owner_id = ? ORDER BY id");
+                headers.setInt(1, userId);
+                try (ResultSet rs = headers.executeQuery()) {
+                    while (rs.next()) {
+                        Portfolio portfolio = mapPortfolioFromResultSet(rs);
+                        portfolios.add(portfolio);
+                    }
+                }
+                if (portfolios.isEmpty()) {
+                    return portfolios;
+                }
+
+                Map<Integer, List<PortfolioItem>> itemsByPortfolio = new HashMap<>();
+                PreparedStatement items = conn.prepareCached("SELECT i.* FROM portfolio_items i " +
+                    "JOIN portfolios p ON p.id = i.portfolio_id WHERE p.owner_id = ?");
+                items.setInt(1, userId);
+                try (ResultSet rs = items.executeQuery()) {
+                    while (rs.next()) {
+                        PositionRow position = mapPositionRow(rs);
+                        itemsByPortfolio.computeIfAbsent(position.getPortfolioId(), id -> new ArrayList<>())
+                            .add(position.toPortfolioItem());
+                    }
+                }
+
+                Map<Integer, List<Transaction>> transactionsByPortfolio = new HashMap<>();
+                if (recentTransactions > 0 && !itemsByPortfolio.isEmpty()) {
+                    // Each holding seeks its newest trades off idx_transactions_user_asset_time, so at most
+                    // window x holdings rows are read; the row number then cuts each portfolio to the window
+                    PreparedStatement recent = conn.prepareCached("SELECT portfolio_id, " + TRANSACTION_ROW_COLUMNS +
+                        " FROM (SELECT h.portfolio_id, t.*, ROW_NUMBER() OVER (PARTITION BY h.portfolio_id " +
+                        "ORDER BY t.timestamp DESC, t.id DESC) AS rn FROM portfolios p " +
+                        "JOIN portfolio_items h ON h.portfolio_id = p.id " +
+                        "JOIN transactions t ON t.id IN (SELECT x.id FROM transactions x WHERE x.user_id = ? " +
+                        "AND x.asset_name = h.asset_name ORDER BY x.timestamp DESC, x.id DESC LIMIT ?) " +
+                        "WHERE p.owner_id = ?) WHERE rn <= ? ORDER BY portfolio_id, rn");
+                    recent.setInt(1, userId);
+                    recent.setInt(2, recentTransactions);
+                    recent.setInt(3, userId);
+                    recent.setInt(4, recentTransactions);
+                    try (ResultSet rs = recent.executeQuery()) {
+                        while (rs.next()) {
+                            transactionsByPortfolio.computeIfAbsent(rs.getInt("portfolio_id"), id -> new ArrayList<>())
+                                .add(mapTransactionFromResultSet(rs));
+                        }
+                    }
+                }
+
+                for (Portfolio portfolio : portfolios) {
+                    portfolio.getItems().setAll(itemsByPortfolio.getOrDefault(portfolio.getId(), List.of()));
+                    portfolio.getTransactions().setAll(transactionsByPortfolio.getOrDefault(portfolio.getId(), List.of()));
+                }
+            } finally {
+                if (ownsTransaction) {
+                    connection.commit();
+                    connection.setAutoCommit(true);
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error loading portfolio graph for user: " + userId, e);
+        }
+        return portfolios;
+    }
+
+    /**
+     * Inserts or updates a portfolio's header fields. The value, cost and P/L columns
+     * are owned by the aggregate triggers and are never overwritten from memory.
+     */
+    @Override
     public void savePortfolio(Portfolio portfolio) {
-        String sql = "INSERT OR REPLACE INTO portfolios (id, name, owner_id, creation_date, last_modified_date, " +
-                    "description, strategy, total_value, total_cost, total_profit_loss, total_profit_loss_percent, " +
-                    "is_active, risk_profile, target_return, max_drawdown, sharpe_ratio) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        String sql = "INSERT INTO portfolios (id, name, owner_id, creation_date, last_modified_date, " +
+                    "description, strategy, is_active, risk_profile, target_return, max_drawdown, sharpe_ratio) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                    "ON CONFLICT (id) DO UPDATE SET name = excluded.name, owner_id = excluded.owner_id, " +
+                    "last_modified_date = excluded.last_modified_date, description = excluded.description, " +
+                    "strategy = excluded.strategy, is_active = excluded.is_active, risk_profile = excluded.risk_profile, " +
+                    "target_return = excluded.target_return, max_drawdown = excluded.max_drawdown, " +
+                    "sharpe_ratio = excluded.sharpe_ratio";
+        try (PooledConnection conn = pool.writer()) {
+            PreparedStatement pstmt = conn.prepareCached(sql);
             pstmt.setInt(1, portfolio.getId());
             pstmt.setString(2, portfolio.getName());
             pstmt.setInt(3, Integer.parseInt(portfolio.getUserId()));
@@ -284,15 +851,11 @@ public class DatabaseService {
             pstmt.setTimestamp(5, Timestamp.valueOf(portfolio.getLastModifiedDate()));
             pstmt.setString(6, portfolio.getDescription());
             pstmt.setString(7, portfolio.getStrategy());
-            pstmt.setDouble(8, portfolio.getTotalValue());
-            pstmt.setDouble(9, portfolio.getTotalCost());
-            pstmt.setDouble(10, portfolio.getTotalProfitLoss());
-            pstmt.setDouble(11, portfolio.getTotalProfitLossPercent());
-            pstmt.setBoolean(12, portfolio.isActive());
-            pstmt.setString(13, portfolio.getRiskProfile().name());
-            pstmt.setDouble(14, portfolio.getTargetReturn());
-            pstmt.setDouble(15, portfolio.getMaxDrawdown());
-            pstmt.setDouble(16, portfolio.getSharpeRatio());
+            pstmt.setBoolean(8, portfolio.isActive());
+            pstmt.setString(9, portfolio.getRiskProfile().name());
+            pstmt.setDouble(10, portfolio.getTargetReturn());
+            pstmt.setDouble(11, portfolio.getMaxDrawdown());
+            pstmt.setDouble(12, portfolio.getSharpeRatio());
             pstmt.executeUpdate();
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error saving portfolio: " + portfolio.getName(), e);
@@ -300,6 +863,167 @@ public class DatabaseService {
         }
     }
 
+    /**
+     * Replaces the holdings of a portfolio in one transaction; the portfolio's totals
+     * follow through the aggregate triggers.
+     * @param portfolioId The portfolio that owns the holdings
+     * @param items The complete set of holdings
+     * @return The number of holdings written
+     */
+    @Override
+    public int savePortfolioItems(int portfolioId, Collection<PortfolioItem> items) {
+        try (PooledConnection conn = pool.writer()) {
+            Connection connection = conn.getConnection();
+            boolean ownsTransaction = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                PreparedStatement delete = conn.prepareCached("DELETE FROM portfolio_items WHERE portfolio_id = ?");
+                delete.setInt(1, portfolioId);
+                delete.executeUpdate();
+                int written = executeBatch("portfolio items", PORTFOLIO_ITEM_INSERT_SQL, items,
+                    (pstmt, item) -> bindPortfolioItem(pstmt, portfolioId, item));
+                if (ownsTransaction) {
+                    connection.commit();
+                }
+                return written;
+            } catch (RuntimeException | SQLException e) {
+                if (ownsTransaction) {
+                    connection.rollback();
+                }
+                throw e;
+            } finally {
+                if (ownsTransaction) {
+                    connection.setAutoCommit(true);
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error saving holdings for portfolio: " + portfolioId, e);
+            throw new RuntimeException("Failed to save portfolio items", e);
+        }
+    }
+
+    /**
+     * Adds holdings to a portfolio without removing the ones it has, for importers
+     * that write one portfolio's rows in several chunks.
+     * @return The number of rows written
+     */
+    int appendPortfolioItems(int portfolioId, Collection<PortfolioItem> items) {
+        return executeBatch("portfolio items", PORTFOLIO_ITEM_INSERT_SQL, items,
+            (pstmt, item) -> bindPortfolioItem(pstmt, portfolioId, item));
+    }
+
+    private void bindPortfolioItem(PreparedStatement pstmt, int portfolioId, PortfolioItem item) throws SQLException {
+        pstmt.setInt(1, portfolioId);
+        pstmt.setString(2, item.getAsset());
+        pstmt.setString(3, item.getType());
+        pstmt.setDouble(4, item.getQuantity());
+        pstmt.setDouble(5, item.getOpenPrice());
+        pstmt.setDouble(6, item.getLastPrice());
+        pstmt.setTimestamp(7, Timestamp.valueOf(item.getLastUpdateTime()));
+        pstmt.setString(8, item.getPosition());
+        pstmt.setDouble(9, item.getProfitLossPercent());
+        pstmt.setDouble(10, item.getTotalValue());
+        pstmt.setDouble(11, item.getTotalRevenue());
+    }
+
+    /**
+     * Largest active portfolios by current value, read straight off
+     * {@code idx_portfolios_active_value}. Served from the read replica when one is configured.
+     * @param limit Maximum number of portfolios to return
+     */
+    @Override
+    public List<PortfolioSummary> getTopPortfoliosByValue(int limit) {
+        List<PortfolioSummary> summaries = new ArrayList<>();
+        String sql = "SELECT id, name, owner_id, risk_profile, total_value, total_cost, total_profit_loss, " +
+                    "total_profit_loss_percent FROM portfolios WHERE is_active = TRUE ORDER BY total_value DESC LIMIT ?";
+        try (PooledConnection conn = reportReader()) {
+            PreparedStatement pstmt = conn.prepareCached(sql);
+            pstmt.setInt(1, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String riskProfile = rs.getString("risk_profile");
+                    summaries.add(new PortfolioSummary(rs.getInt("id"), rs.getString("name"), rs.getInt("owner_id"),
+                        riskProfile == null ? null : Portfolio.RiskProfile.valueOf(riskProfile),
+                        rs.getDouble("total_value"), rs.getDouble("total_cost"),
+                        rs.getDouble("total_profit_loss"), rs.getDouble("total_profit_loss_percent")));
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error getting top " + limit + " portfolios", e);
+        }
+        return summaries;
+    }
+
+    /**
+     * Assets under management of active portfolios, per risk profile. Reads the
+     * handful of trigger-maintained rows in {@code portfolio_risk_totals}. Served from
+     * the read replica when one is configured.
+     */
+    public Map<Portfolio.RiskProfile, Double> getAssetsUnderManagementByRisk() {
+        Map<Portfolio.RiskProfile, Double> totals = new EnumMap<>(Portfolio.RiskProfile.class);
+        try (PooledConnection conn = reportReader()) {
+            PreparedStatement pstmt = conn.prepareCached("SELECT risk_profile, total_value FROM portfolio_risk_totals");
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    totals.put(Portfolio.RiskProfile.valueOf(rs.getString("risk_profile")), rs.getDouble("total_value"));
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error getting assets under management by risk profile", e);
+        }
+        return totals;
+    }
+
+    /**
+     * Recomputes every portfolio total and risk bucket from the holdings. The triggers
+     * keep these current on their own; this repairs rounding drift or rows written
+     * behind the triggers' back.
+     */
+    public void rebuildPortfolioAggregates() {
+        try (PooledConnection conn = pool.writer()) {
+            Connection connection = conn.getConnection();
+            boolean ownsTransaction = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                rebuildPortfolioAggregates(connection);
+                if (ownsTransaction) {
+                    connection.commit();
+                }
+            } catch (SQLException e) {
+                if (ownsTransaction) {
+                    connection.rollback();
+                }
+                throw e;
+            } finally {
+                if (ownsTransaction) {
+                    connection.setAutoCommit(true);
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error rebuilding portfolio aggregates", e);
+            throw new RuntimeException("Failed to rebuild portfolio aggregates", e);
+        }
+    }
+
+    private void rebuildPortfolioAggregates(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("UPDATE portfolios SET " +
+                "total_value = COALESCE((SELECT SUM(quantity * last_price_usd) FROM portfolio_items i " +
+                "WHERE i.portfolio_id = portfolios.id), 0), " +
+                "total_cost = COALESCE((SELECT SUM(quantity * open_price_usd) FROM portfolio_items i " +
+                "WHERE i.portfolio_id = portfolios.id), 0), " +
+                "total_profit_loss = COALESCE((SELECT SUM(quantity * (last_price_usd - open_price_usd)) " +
+                "FROM portfolio_items i WHERE i.portfolio_id = portfolios.id), 0)");
+            stmt.executeUpdate("UPDATE portfolios SET total_profit_loss_percent = " +
+                "CASE WHEN total_value = 0 THEN 0 ELSE total_profit_loss / total_value * 100 END");
+            stmt.executeUpdate("UPDATE portfolio_risk_totals SET " +
+                "(portfolio_count, total_value, total_cost, total_profit_loss) = " +
+                "(SELECT COUNT(*), COALESCE(SUM(total_value), 0), COALESCE(SUM(total_cost), 0), " +
+                "COALESCE(SUM(total_profit_loss), 0) FROM portfolios p " +
+                "WHERE p.risk_profile = portfolio_risk_totals.risk_profile AND p.is_active)");
+        }
+    }
+
     private Portfolio mapPortfolioFromResultSet(ResultSet rs) throws SQLException {
         Portfolio portfolio = new Portfolio(String.valueOf(rs.getInt("owner_id")));
         portfolio.setId(rs.getInt("id"));
@@ -318,15 +1042,33 @@ public class DatabaseService {
         return portfolio;
     }
 
+    private PortfolioItem mapPortfolioItemFromResultSet(ResultSet rs) throws SQLException {
+        return mapPositionRow(rs).toPortfolioItem();
+    }
+
+    private static PositionRow mapPositionRow(ResultSet rs) throws SQLException {
+        return new PositionRow(
+            rs.getInt("portfolio_id"),
+            rs.getString("asset_name"),
+            rs.getString("asset_type"),
+            rs.getDouble("quantity"),
+            rs.getDouble("open_price_usd"),
+            rs.getDouble("last_price_usd")
+        );
+    }
+
     // Transaction operations
+    @Override
     public ObservableList<Transaction> getUserTransactions(int userId) {
         ObservableList<Transaction> transactions = FXCollections.observableArrayList();
-        String sql = "SELECT * FROM transactions WHERE user_id = ? ORDER BY timestamp DESC";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        String sql = "SELECT " + TRANSACTION_ROW_COLUMNS + " FROM transactions WHERE user_id = ? ORDER BY timestamp DESC";
+        try (PooledConnection conn = pool.reader()) {
+            PreparedStatement pstmt = conn.prepareCached(sql);
             pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                transactions.add(mapTransactionFromResultSet(rs));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    transactions.add(mapTransactionFromResultSet(rs));
+                }
             }
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error getting transactions for user: " + userId, e);
@@ -334,22 +1076,76 @@ public class DatabaseService {
         return transactions;
     }
 
+    /**
+     * Reads one page of a user's transaction history, newest first, using the
+     * (timestamp, integer key) of the last row seen as the cursor. Each page is an index
+     * seek, so walking the whole history costs constant memory per page.
+     * @param userId The owner of the transactions
+     * @param afterCursor The cursor from the previous page, or null for the first page
+     * @param limit Maximum rows to return
+     * @return The page and the cursor for the next one
+     */
+    @Override
+    public Page<Transaction> getUserTransactionsPage(int userId, String afterCursor, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be at least 1");
+        }
+        List<Transaction> transactions = new ArrayList<>(Math.min(limit, 1_000));
+        String nextCursor = null;
+        String sql = afterCursor == null
+            ? "SELECT " + TRANSACTION_ROW_COLUMNS + " FROM transactions WHERE user_id = ? ORDER BY timestamp DESC, id LIMIT ?"
+            : "SELECT " + TRANSACTION_ROW_COLUMNS + " FROM transactions " +
+              "WHERE user_id = ? AND timestamp <= ? AND (timestamp < ? OR id > ?) " +
+              "ORDER BY timestamp DESC, id LIMIT ?";
+        try (PooledConnection conn = pool.reader()) {
+            PreparedStatement pstmt = conn.prepareCached(sql);
+            int index = 1;
+            pstmt.setInt(index++, userId);
+            if (afterCursor != null) {
+                int separator = afterCursor.indexOf(':');
+                if (separator < 0) {
+                    throw new IllegalArgumentException("Invalid transaction cursor: " + afterCursor);
+                }
+                long afterMillis;
+                long afterKey;
+                try {
+                    afterMillis = Long.parseLong(afterCursor.substring(0, separator));
+                    afterKey = Long.parseLong(afterCursor.substring(separator + 1));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid transaction cursor: " + afterCursor);
+                }
+                pstmt.setLong(index++, afterMillis);
+                pstmt.setLong(index++, afterMillis);
+                pstmt.setLong(index++, afterKey);
+            }
+            // One extra row tells us whether another page exists
+            pstmt.setInt(index, limit + 1);
+            long lastMillis = 0;
+            long lastKey = 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (transactions.size() == limit) {
+                        // Stored values, not the model's: a LocalDateTime is ambiguous across a DST fall-back,
+                        // and text ids live in legacy_id
+                        nextCursor = lastMillis + ":" + lastKey;
+                        break;
+                    }
+                    transactions.add(mapTransactionFromResultSet(rs));
+                    lastMillis = rs.getLong("timestamp");
+                    lastKey = rs.getLong("id");
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error getting transaction page for user: " + userId, e);
+        }
+        return new Page<>(transactions, nextCursor);
+    }
+
+    @Override
     public void saveTransaction(Transaction transaction) {
-        String sql = "INSERT INTO transactions (id, asset_name, asset_type, quantity, price_usd, timestamp, " +
-                    "transaction_type, status, total_value_usd, user_id, notes) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, transaction.getId());
-            pstmt.setString(2, transaction.getAssetName());
-            pstmt.setString(3, transaction.getType());
-            pstmt.setDouble(4, transaction.getQuantity());
-            pstmt.setDouble(5, transaction.getPrice());
-            pstmt.setTimestamp(6, Timestamp.valueOf(transaction.getTimestamp()));
-            pstmt.setString(7, transaction.getType());
-            pstmt.setString(8, transaction.getStatus());
-            pstmt.setDouble(9, transaction.getTotalAmount());
-            pstmt.setString(10, "0"); // Default user ID since it's not in the Transaction model
-            pstmt.setString(11, transaction.getNotes());
+        try (PooledConnection conn = pool.writer()) {
+            PreparedStatement pstmt = conn.prepareCached(TRANSACTION_INSERT_SQL);
+            bindTransaction(pstmt, transaction, 0);
             pstmt.executeUpdate();
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error saving transaction: " + transaction.getId(), e);
@@ -357,27 +1153,111 @@ public class DatabaseService {
         }
     }
 
+    /**
+     * Inserts many transactions in one database transaction using JDBC batching.
+     * @param transactions The transactions to insert
+     * @return The number of rows written
+     */
+    @Override
+    public int saveTransactions(Collection<Transaction> transactions) {
+        return saveTransactions(0, transactions);
+    }
+
+    /**
+     * Inserts many transactions for one user, for bulk loaders that know whose trades
+     * they copy; the model itself carries no owner.
+     * @param userId The owner to store the transactions under
+     * @param transactions The transactions to insert
+     * @return The number of rows written
+     */
+    public int saveTransactions(int userId, Collection<Transaction> transactions) {
+        return executeBatch("transactions", TRANSACTION_INSERT_SQL, transactions,
+            (pstmt, transaction) -> bindTransaction(pstmt, transaction, userId));
+    }
+
+    private void bindTransaction(PreparedStatement pstmt, Transaction transaction, int userId) throws SQLException {
+        long key = TransactionIds.parse(transaction.getId());
+        if (key > 0) {
+            pstmt.setLong(1, key);
+            pstmt.setNull(2, Types.VARCHAR);
+        } else {
+            pstmt.setLong(1, TransactionIds.next());
+            pstmt.setString(2, transaction.getId());
+        }
+        pstmt.setString(3, transaction.getAssetName());
+        pstmt.setString(4, transaction.getType());
+        pstmt.setDouble(5, transaction.getQuantity());
+        pstmt.setDouble(6, transaction.getPrice());
+        pstmt.setTimestamp(7, Timestamp.valueOf(transaction.getTimestamp()));
+        pstmt.setString(8, transaction.getType());
+        pstmt.setString(9, transaction.getStatus());
+        pstmt.setDouble(10, transaction.getTotalAmount());
+        pstmt.setInt(11, userId); // Not in the Transaction model; the caller says whose trade it is
+        pstmt.setString(12, transaction.getNotes());
+    }
+
+    /** @return The id callers know a stored transaction by: its text id if it has one, else its key */
+    static String transactionId(ResultSet rs) throws SQLException {
+        String legacyId = rs.getString("legacy_id");
+        return legacyId != null ? legacyId : Long.toString(rs.getLong("id"));
+    }
+
     private Transaction mapTransactionFromResultSet(ResultSet rs) throws SQLException {
-        Transaction transaction = new Transaction(
+        return mapTransactionRow(rs).toTransaction();
+    }
+
+    /** Needs the columns of {@link #TRANSACTION_ROW_COLUMNS}; timestamps are stored as epoch milliseconds. */
+    static TransactionRow mapTransactionRow(ResultSet rs) throws SQLException {
+        return new TransactionRow(
+            transactionId(rs),
             rs.getString("asset_name"),
-            Transaction.TransactionType.valueOf(rs.getString("transaction_type")),
+            // Stored as the display name ("Buy"), see bindTransaction
+            Transaction.TransactionType.valueOf(rs.getString("transaction_type").toUpperCase(Locale.ROOT)),
             rs.getDouble("quantity"),
-            rs.getDouble("price_usd")
+            rs.getDouble("price_usd"),
+            rs.getDouble("total_value_usd"),
+            rs.getLong("timestamp"),
+            Transaction.TransactionStatus.valueOf(rs.getString("status")),
+            rs.getString("notes")
         );
-        transaction.setStatus(Transaction.TransactionStatus.valueOf(rs.getString("status")));
-        transaction.setNotes(rs.getString("notes"));
-        return transaction;
+    }
+
+    /** Served from the read replica when one is configured. */
+    @Override
+    public List<TransactionRollup> getMonthlyRollups(int userId) {
+        List<TransactionRollup> rollups = new ArrayList<>();
+        String sql = "SELECT * FROM transaction_rollups WHERE user_id = ? " +
+            "ORDER BY month DESC, asset_name, transaction_type";
+        try (PooledConnection conn = reportReader()) {
+            PreparedStatement pstmt = conn.prepareCached(sql);
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int month = rs.getInt("month");
+                    rollups.add(new TransactionRollup(rs.getInt("user_id"), rs.getString("asset_name"),
+                        YearMonth.of(month / 100, month % 100),
+                        Transaction.TransactionType.valueOf(rs.getString("transaction_type").toUpperCase(Locale.ROOT)),
+                        rs.getInt("trade_count"), rs.getDouble("quantity"), rs.getDouble("notional")));
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error getting transaction rollups for user: " + userId, e);
+        }
+        return rollups;
     }
 
     // Report operations
+    @Override
     public ObservableList<Report> getUserReports(int userId) {
         ObservableList<Report> reports = FXCollections.observableArrayList();
         String sql = "SELECT * FROM reports WHERE author_id = ? ORDER BY creation_date DESC";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool.reader()) {
+            PreparedStatement pstmt = conn.prepareCached(sql);
             pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                reports.add(mapReportFromResultSet(rs));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    reports.add(mapReportFromResultSet(rs));
+                }
             }
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error getting reports for user: " + userId, e);
@@ -385,11 +1265,13 @@ public class DatabaseService {
         return reports;
     }
 
+    @Override
     public void saveReport(Report report) {
         String sql = "INSERT OR REPLACE INTO reports (id, title, content, creation_date, last_modified_date, " +
                     "author_id, report_type, status, target_audience, is_public, tags) " +
                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool.writer()) {
+            PreparedStatement pstmt = conn.prepareCached(sql);
             pstmt.setInt(1, report.getIntId());
             pstmt.setString(2, report.getTitle());
             pstmt.setString(3, report.getContent());
@@ -428,16 +1310,19 @@ public class DatabaseService {
     }
 
     // Comment operations
+    @Override
     public ObservableList<Comment> getCommentsForTarget(String targetType, String targetId) {
         ObservableList<Comment> comments = FXCollections.observableArrayList();
         String sql = "SELECT * FROM comments WHERE target_type = ? AND target_id = ? AND is_deleted = FALSE " +
                     "ORDER BY timestamp DESC";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool.reader()) {
+            PreparedStatement pstmt = conn.prepareCached(sql);
             pstmt.setString(1, targetType);
             pstmt.setString(2, targetId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                comments.add(mapCommentFromResultSet(rs));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    comments.add(mapCommentFromResultSet(rs));
+                }
             }
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error getting comments for target: " + targetType + "/" + targetId, e);
@@ -445,37 +1330,135 @@ public class DatabaseService {
         return comments;
     }
 
+    @Override
     public void saveComment(Comment comment) {
-        String sql = "INSERT OR REPLACE INTO comments (id, content, timestamp, author_id, parent_id, " +
-                    "target_type, target_id, is_edited, last_edit_time, likes, is_deleted) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, comment.getIntId());
-            pstmt.setString(2, comment.getContent());
-            pstmt.setTimestamp(3, Timestamp.valueOf(comment.getTimestamp()));
-            pstmt.setInt(4, comment.getIntAuthorId());
-            pstmt.setObject(5, comment.getIntParentId());
-            pstmt.setString(6, comment.getTargetTypeEnum().name());
-            pstmt.setString(7, comment.getTargetId());
-            pstmt.setBoolean(8, comment.isEdited());
-            pstmt.setTimestamp(9, comment.getLastEditTime() != null ? 
-                Timestamp.valueOf(comment.getLastEditTime()) : null);
-            pstmt.setInt(10, comment.getLikes());
-            pstmt.setBoolean(11, comment.isDeleted());
+        try (PooledConnection conn = pool.writer()) {
+            PreparedStatement pstmt = conn.prepareCached(COMMENT_INSERT_SQL);
+            bindComment(pstmt, comment);
             pstmt.executeUpdate();
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error saving comment: " + comment.getIntId(), e);
             throw new RuntimeException("Failed to save comment", e);
+        } finally {
+            commentCache.invalidate(commentTargetKey(comment.getTargetTypeEnum().name(), comment.getTargetId()));
         }
     }
 
+    @Override
+    public int saveComments(Collection<Comment> comments) {
+        try {
+            return executeBatch("comments", COMMENT_INSERT_SQL, comments, this::bindComment);
+        } finally {
+            if (comments != null) {
+                comments.forEach(comment -> commentCache.invalidate(
+                    commentTargetKey(comment.getTargetTypeEnum().name(), comment.getTargetId())));
+            }
+        }
+    }
+
+    /**
+     * Builds the threads of a target from one scan of the live-comment index. The scan
+     * is kept in a small per-target cache, so hot report discussions are reassembled
+     * from memory; each call links fresh nodes, so callers never share a tree.
+     */
+    @Override
+    public List<CommentThread> getCommentThreads(String targetType, String targetId, int maxDepth) {
+        List<Comment> comments;
+        try {
+            comments = commentCache.get(commentTargetKey(targetType, targetId),
+                key -> Optional.of(List.copyOf(getCommentsForTarget(targetType, targetId)))).orElseThrow();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error getting comment threads for target: " + targetType + "/" + targetId, e);
+            comments = List.of();
+        }
+        return CommentThread.assemble(comments, null, maxDepth, null);
+    }
+
+    /**
+     * Loads a page of replies and their sub-replies with one recursive query: the
+     * anchor seeks the page of direct replies through {@code idx_comments_parent},
+     * and each recursion step follows the same index one level down.
+     */
+    @Override
+    public Page<CommentThread> getReplies(int parentId, String afterCursor, int limit, int maxDepth) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be at least 1");
+        }
+        String anchor = afterCursor == null
+            ? "SELECT id FROM comments WHERE parent_id = ? AND is_deleted = FALSE ORDER BY timestamp, id DESC LIMIT ?"
+            : "SELECT id FROM comments WHERE parent_id = ? AND is_deleted = FALSE AND timestamp >= ? " +
+              "AND (timestamp > ? OR id < ?) ORDER BY timestamp, id DESC LIMIT ?";
+        String sql = "WITH RECURSIVE branch(id, depth) AS (" +
+            "SELECT id, 0 FROM (" + anchor + ") " +
+            "UNION ALL SELECT c.id, b.depth + 1 FROM branch b JOIN comments c ON c.parent_id = b.id " +
+            "WHERE c.is_deleted = FALSE AND b.depth < ?) " +
+            "SELECT c.*, (SELECT COUNT(*) FROM comments r WHERE r.parent_id = c.id AND r.is_deleted = FALSE) " +
+            "AS reply_count FROM branch b JOIN comments c ON c.id = b.id ORDER BY c.timestamp DESC, c.id";
+        List<Comment> comments = new ArrayList<>();
+        Map<Integer, Integer> replyCounts = new HashMap<>();
+        try (PooledConnection conn = pool.reader()) {
+            PreparedStatement pstmt = conn.prepareCached(sql);
+            int index = 1;
+            pstmt.setInt(index++, parentId);
+            if (afterCursor != null) {
+                long[] after = CommentThread.parseCursor(afterCursor);
+                pstmt.setTimestamp(index++, new Timestamp(after[0]));
+                pstmt.setTimestamp(index++, new Timestamp(after[0]));
+                pstmt.setLong(index++, after[1]);
+            }
+            // One extra direct reply tells us whether another page exists
+            pstmt.setInt(index++, limit + 1);
+            pstmt.setInt(index, Math.max(maxDepth, 0));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Comment comment = mapCommentFromResultSet(rs);
+                    comments.add(comment);
+                    replyCounts.put(comment.getIntId(), rs.getInt("reply_count"));
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error getting replies to comment: " + parentId, e);
+        }
+        List<CommentThread> replies = CommentThread.assemble(comments, parentId, maxDepth, replyCounts);
+        if (replies.size() <= limit) {
+            return new Page<>(replies, null);
+        }
+        List<CommentThread> page = new ArrayList<>(replies.subList(0, limit));
+        return new Page<>(page, CommentThread.cursor(page.get(limit - 1).getComment()));
+    }
+
+    private static String commentTargetKey(String targetType, String targetId) {
+        return targetType + '/' + targetId;
+    }
+
+    private void bindComment(PreparedStatement pstmt, Comment comment) throws SQLException {
+        pstmt.setInt(1, comment.getIntId());
+        pstmt.setString(2, comment.getContent());
+        pstmt.setTimestamp(3, Timestamp.valueOf(comment.getTimestamp()));
+        pstmt.setInt(4, comment.getIntAuthorId());
+        pstmt.setObject(5, comment.getIntParentId());
+        pstmt.setString(6, comment.getTargetTypeEnum().name());
+        pstmt.setString(7, comment.getTargetId());
+        pstmt.setBoolean(8, comment.isEdited());
+        pstmt.setTimestamp(9, comment.getLastEditTime() != null ? 
+            Timestamp.valueOf(comment.getLastEditTime()) : null);
+        pstmt.setInt(10, comment.getLikes());
+        pstmt.setBoolean(11, comment.isDeleted());
+    }
+
+    /** The driver cannot convert SQL NULL with {@code getObject(column, Integer.class)}. */
+    private static Integer nullableInt(ResultSet rs, String column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+
     private Comment mapCommentFromResultSet(ResultSet rs) throws SQLException {
         Comment comment = new Comment(
             rs.getInt("id"),
             rs.getString("content"),
             rs.getTimestamp("timestamp").toLocalDateTime(),
             rs.getInt("author_id"),
-            rs.getObject("parent_id", Integer.class),
+            nullableInt(rs, "parent_id"),
             Comment.TargetType.valueOf(rs.getString("target_type")),
             rs.getString("target_id")
         );
@@ -490,15 +1473,18 @@ public class DatabaseService {
     }
 
     // Notification operations
+    @Override
     public ObservableList<Notification> getUserNotifications(int userId) {
         ObservableList<Notification> notifications = FXCollections.observableArrayList();
         String sql = "SELECT * FROM notifications WHERE recipient_id = ? AND is_deleted = FALSE " +
                     "ORDER BY timestamp DESC";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool.reader()) {
+            PreparedStatement pstmt = conn.prepareCached(sql);
             pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                notifications.add(mapNotificationFromResultSet(rs));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    notifications.add(mapNotificationFromResultSet(rs));
+                }
             }
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error getting notifications for user: " + userId, e);
@@ -506,29 +1492,130 @@ public class DatabaseService {
         return notifications;
     }
 
+    @Override
     public void saveNotification(Notification notification) {
-        String sql = "INSERT INTO notifications (id, title, message, timestamp, recipient_id, sender_id, " +
-                    "type, is_read, action_url, priority, is_deleted) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, notification.getIntId());
-            pstmt.setString(2, notification.getTitle());
-            pstmt.setString(3, notification.getMessage());
-            pstmt.setTimestamp(4, Timestamp.valueOf(notification.getTimestamp()));
-            pstmt.setInt(5, notification.getIntRecipientId());
-            pstmt.setObject(6, notification.getIntSenderId());
-            pstmt.setString(7, notification.getTypeEnum().name());
-            pstmt.setBoolean(8, notification.isRead());
-            pstmt.setString(9, notification.getActionUrl());
-            pstmt.setString(10, notification.getPriorityEnum().name());
-            pstmt.setBoolean(11, notification.isDeleted());
+        try (PooledConnection conn = pool.writer()) {
+            PreparedStatement pstmt = conn.prepareCached(NOTIFICATION_INSERT_SQL);
+            bindNotification(pstmt, notification);
             pstmt.executeUpdate();
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error saving notification: " + notification.getIntId(), e);
             throw new RuntimeException("Failed to save notification", e);
+        } finally {
+            inboxCache.invalidate(notification.getIntRecipientId());
+        }
+    }
+
+    @Override
+    public int saveNotifications(Collection<Notification> notifications) {
+        try {
+            return executeBatch("notifications", NOTIFICATION_INSERT_SQL, notifications, this::bindNotification);
+        } finally {
+            if (notifications != null) {
+                notifications.forEach(notification -> inboxCache.invalidate(notification.getIntRecipientId()));
+            }
+        }
+    }
+
+    @Override
+    public boolean markNotificationRead(int notificationId) {
+        return updateNotification(notificationId, "is_read = TRUE");
+    }
+
+    @Override
+    public int markAllNotificationsRead(int userId) {
+        try (PooledConnection conn = pool.writer()) {
+            PreparedStatement pstmt = conn.prepareCached("UPDATE notifications SET is_read = TRUE " +
+                "WHERE recipient_id = ? AND is_deleted = FALSE AND is_read = FALSE");
+            pstmt.setInt(1, userId);
+            return pstmt.executeUpdate();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error marking notifications read for user: " + userId, e);
+            throw new RuntimeException("Failed to mark notifications read", e);
+        } finally {
+            inboxCache.invalidate(userId);
+        }
+    }
+
+    @Override
+    public boolean deleteNotification(int notificationId) {
+        return updateNotification(notificationId, "is_deleted = TRUE");
+    }
+
+    /**
+     * Applies a flag change to one notification; the counter triggers move its
+     * counts inside the same statement. The writer connection is exclusive, so the
+     * recipient looked up first is the one the update touches.
+     */
+    private boolean updateNotification(int notificationId, String assignment) {
+        Integer recipientId = null;
+        try (PooledConnection conn = pool.writer()) {
+            PreparedStatement lookup = conn.prepareCached("SELECT recipient_id FROM notifications WHERE id = ?");
+            lookup.setInt(1, notificationId);
+            try (ResultSet rs = lookup.executeQuery()) {
+                if (!rs.next()) {
+                    return false;
+                }
+                recipientId = rs.getInt(1);
+            }
+            PreparedStatement pstmt = conn.prepareCached("UPDATE notifications SET " + assignment + " WHERE id = ?");
+            pstmt.setInt(1, notificationId);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error updating notification: " + notificationId, e);
+            throw new RuntimeException("Failed to update notification", e);
+        } finally {
+            if (recipientId != null) {
+                inboxCache.invalidate(recipientId);
+            }
         }
     }
 
+    /**
+     * Reads a recipient's counters through the inbox cache: at most one row per
+     * type and priority, never the notifications themselves.
+     */
+    @Override
+    public InboxSummary getInboxSummary(int userId) {
+        try {
+            return inboxCache.get(userId, this::loadInboxSummary).orElseThrow();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error getting inbox summary for user: " + userId, e);
+            return new InboxSummary(userId);
+        }
+    }
+
+    private Optional<InboxSummary> loadInboxSummary(int userId) throws SQLException {
+        InboxSummary summary = new InboxSummary(userId);
+        try (PooledConnection conn = pool.reader()) {
+            PreparedStatement pstmt = conn.prepareCached("SELECT type, priority, total_count, unread_count " +
+                "FROM notification_counters WHERE recipient_id = ?");
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    summary.add(Notification.NotificationType.valueOf(rs.getString("type")),
+                        Notification.NotificationPriority.valueOf(rs.getString("priority")),
+                        rs.getInt("total_count"), rs.getInt("unread_count"));
+                }
+            }
+        }
+        return Optional.of(summary);
+    }
+
+    private void bindNotification(PreparedStatement pstmt, Notification notification) throws SQLException {
+        pstmt.setInt(1, notification.getIntId());
+        pstmt.setString(2, notification.getTitle());
+        pstmt.setString(3, notification.getMessage());
+        pstmt.setTimestamp(4, Timestamp.valueOf(notification.getTimestamp()));
+        pstmt.setInt(5, notification.getIntRecipientId());
+        pstmt.setObject(6, notification.getIntSenderId());
+        pstmt.setString(7, notification.getTypeEnum().name());
+        pstmt.setBoolean(8, notification.isRead());
+        pstmt.setString(9, notification.getActionUrl());
+        pstmt.setString(10, notification.getPriorityEnum().name());
+        pstmt.setBoolean(11, notification.isDeleted());
+    }
+
     private Notification mapNotificationFromResultSet(ResultSet rs) throws SQLException {
         Notification notification = new Notification(
             rs.getInt("id"),
@@ -536,7 +1623,7 @@ public class DatabaseService {
             rs.getString("message"),
             rs.getTimestamp("timestamp").toLocalDateTime(),
             rs.getInt("recipient_id"),
-            rs.getObject("sender_id", Integer.class),
+            nullableInt(rs, "sender_id"),
             Notification.NotificationType.valueOf(rs.getString("type")),
             Notification.NotificationPriority.valueOf(rs.getString("priority"))
         );
@@ -547,47 +1634,81 @@ public class DatabaseService {
     }
 
     // Market data operations
+    @Override
     public void saveMarketData(MarketData marketData) {
-        String sql = "INSERT OR REPLACE INTO market_data (symbol, name, asset_type, current_price, open_price, " +
-                    "high_price, low_price, volume, market_cap, change_percent, last_updated, currency, exchange, " +
-                    "previous_close, fifty_two_week_high, fifty_two_week_low, pe_ratio, dividend_yield) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, marketData.getSymbol());
-            pstmt.setString(2, marketData.getName());
-            pstmt.setString(3, marketData.getAssetType());
-            pstmt.setDouble(4, marketData.getCurrentPrice());
-            pstmt.setDouble(5, marketData.getOpenPrice());
-            pstmt.setDouble(6, marketData.getHighPrice());
-            pstmt.setDouble(7, marketData.getLowPrice());
-            pstmt.setDouble(8, marketData.getVolume());
-            pstmt.setDouble(9, marketData.getMarketCap());
-            pstmt.setDouble(10, marketData.getChangePercent());
-            pstmt.setTimestamp(11, Timestamp.valueOf(marketData.getLastUpdated()));
-            pstmt.setString(12, marketData.getCurrency());
-            pstmt.setString(13, marketData.getExchange());
-            pstmt.setDouble(14, marketData.getPreviousClose());
-            pstmt.setDouble(15, marketData.getFiftyTwoWeekHigh());
-            pstmt.setDouble(16, marketData.getFiftyTwoWeekLow());
-            pstmt.setDouble(17, marketData.getPeRatio());
-            pstmt.setDouble(18, marketData.getDividendYield());
+        try (PooledConnection conn = pool.writer()) {
+            PreparedStatement pstmt = conn.prepareCached(MARKET_DATA_INSERT_SQL);
+            bindMarketData(pstmt, marketData);
             pstmt.executeUpdate();
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error saving market data: " + marketData.getSymbol(), e);
             throw new RuntimeException("Failed to save market data", e);
+        } finally {
+            marketDataCache.invalidate(marketData.getSymbol());
         }
     }
 
+    /**
+     * Writes a full set of quotes (e.g. one price tick for every symbol) in a single commit.
+     * @param snapshot The latest market data per symbol
+     * @return The number of rows written
+     */
+    @Override
+    public int saveMarketDataSnapshot(Collection<MarketData> snapshot) {
+        try {
+            return executeBatch("market data", MARKET_DATA_INSERT_SQL, snapshot, this::bindMarketData);
+        } finally {
+            if (snapshot != null) {
+                snapshot.forEach(quote -> marketDataCache.invalidate(quote.getSymbol()));
+            }
+        }
+    }
+
+    private void bindMarketData(PreparedStatement pstmt, MarketData marketData) throws SQLException {
+        pstmt.setString(1, marketData.getSymbol());
+        pstmt.setString(2, marketData.getName());
+        pstmt.setString(3, marketData.getAssetType());
+        pstmt.setDouble(4, marketData.getCurrentPrice());
+        pstmt.setDouble(5, marketData.getOpenPrice());
+        pstmt.setDouble(6, marketData.getHighPrice());
+        pstmt.setDouble(7, marketData.getLowPrice());
+        pstmt.setDouble(8, marketData.getVolume());
+        pstmt.setDouble(9, marketData.getMarketCap());
+        pstmt.setDouble(10, marketData.getChangePercent());
+        pstmt.setTimestamp(11, Timestamp.valueOf(marketData.getLastUpdated()));
+        pstmt.setString(12, marketData.getCurrency());
+        pstmt.setString(13, marketData.getExchange());
+        pstmt.setDouble(14, marketData.getPreviousClose());
+        pstmt.setDouble(15, marketData.getFiftyTwoWeekHigh());
+        pstmt.setDouble(16, marketData.getFiftyTwoWeekLow());
+        pstmt.setDouble(17, marketData.getPeRatio());
+        pstmt.setDouble(18, marketData.getDividendYield());
+    }
+
+    /**
+     * Looks a quote up through the market data cache; a hit allocates nothing.
+     * The returned instance is shared with other callers and must not be mutated.
+     */
+    @Override
     public Optional<MarketData> getMarketData(String symbol) {
+        try {
+            return marketDataCache.get(symbol, this::loadMarketData);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error getting market data for symbol: " + symbol, e);
+        }
+        return Optional.empty();
+    }
+
+    private Optional<MarketData> loadMarketData(String symbol) throws SQLException {
         String sql = "SELECT * FROM market_data WHERE symbol = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool.reader()) {
+            PreparedStatement pstmt = conn.prepareCached(sql);
             pstmt.setString(1, symbol);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return Optional.of(mapMarketDataFromResultSet(rs));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapMarketDataFromResultSet(rs));
+                }
             }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error getting market data for symbol: " + symbol, e);
         }
         return Optional.empty();
     }
@@ -615,13 +1736,210 @@ public class DatabaseService {
         return marketData;
     }
 
-    public void close() {
+    // Streaming reads
+    /**
+     * Streams a user's full transaction history, newest first, straight off the
+     * result set. The stream holds a reader connection until it is closed, so
+     * always consume it in a try-with-resources block.
+     * @param userId The owner of the transactions
+     * @return A lazily populated stream of transactions
+     */
+    public Stream<Transaction> streamTransactions(int userId) {
+        return streamQuery("transactions for user " + userId,
+            "SELECT " + TRANSACTION_ROW_COLUMNS + " FROM transactions WHERE user_id = ? ORDER BY timestamp DESC, id",
+            pstmt -> pstmt.setInt(1, userId), this::mapTransactionFromResultSet);
+    }
+
+    public Stream<PortfolioItem> streamPortfolioItems(int portfolioId) {
+        return streamQuery("items for portfolio " + portfolioId,
+            "SELECT * FROM portfolio_items WHERE portfolio_id = ? ORDER BY asset_name",
+            pstmt -> pstmt.setInt(1, portfolioId), this::mapPortfolioItemFromResultSet);
+    }
+
+    public Stream<MarketData> streamMarketData() {
+        return streamQuery("market data", "SELECT * FROM market_data ORDER BY symbol",
+            pstmt -> { }, this::mapMarketDataFromResultSet);
+    }
+
+    public Stream<Notification> streamNotifications(int userId) {
+        return streamQuery("notifications for user " + userId,
+            "SELECT * FROM notifications WHERE recipient_id = ? AND is_deleted = FALSE ORDER BY timestamp DESC",
+            pstmt -> pstmt.setInt(1, userId), this::mapNotificationFromResultSet);
+    }
+
+    /**
+     * Streams a user's transactions as {@link TransactionRow}s, newest first, reading
+     * only the projected columns. Prefer this to {@link #streamTransactions} outside the UI.
+     * Like the other row streams, it is served from the read replica when one is configured.
+     */
+    public Stream<TransactionRow> streamTransactionRows(int userId) {
+        return streamQuery(this::reportReader, "transaction rows for user " + userId,
+            "SELECT " + TRANSACTION_ROW_COLUMNS + " FROM transactions WHERE user_id = ? ORDER BY timestamp DESC, id",
+            pstmt -> pstmt.setInt(1, userId), DatabaseService::mapTransactionRow);
+    }
+
+    public Stream<PositionRow> streamPositionRows(int portfolioId) {
+        return streamQuery(this::reportReader, "position rows for portfolio " + portfolioId,
+            "SELECT " + POSITION_ROW_COLUMNS + " FROM portfolio_items WHERE portfolio_id = ? ORDER BY asset_name",
+            pstmt -> pstmt.setInt(1, portfolioId), DatabaseService::mapPositionRow);
+    }
+
+    public Stream<PriceRow> streamPriceRows() {
+        return streamQuery(this::reportReader, "price rows", "SELECT " + PRICE_ROW_COLUMNS + " FROM market_data ORDER BY symbol",
+            pstmt -> { }, rs -> new PriceRow(rs.getString("symbol"), rs.getDouble("current_price"),
+                rs.getDouble("previous_close"), rs.getDouble("change_percent"), rs.getDouble("volume"),
+                rs.getLong("last_updated")));
+    }
+
+    @FunctionalInterface
+    private interface ReaderSource {
+        PooledConnection open() throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface ParameterSetter {
+        void set(PreparedStatement pstmt) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Opens a forward-only cursor and exposes it as a sequential stream. Rows are
+     * fetched {@link DatabaseConfig#getStreamFetchSize()} at a time and mapped one
+     * by one, so memory stays flat regardless of the result size. Closing the
+     * stream closes the statement and returns the connection to the pool.
+     */
+    private <T> Stream<T> streamQuery(String label, String sql, ParameterSetter parameters, RowMapper<T> mapper) {
+        return streamQuery(pool::reader, label, sql, parameters, mapper);
+    }
+
+    private <T> Stream<T> streamQuery(ReaderSource readers, String label, String sql, ParameterSetter parameters,
+                                      RowMapper<T> mapper) {
+        PooledConnection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs;
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+            conn = readers.open();
+            // A dedicated statement: the cursor outlives this call, so it cannot come from the cache
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setFetchSize(config.getStreamFetchSize());
+            parameters.set(pstmt);
+            rs = pstmt.executeQuery();
+        } catch (SQLException e) {
+            closeStreamResources(null, pstmt, conn);
+            LOGGER.log(Level.SEVERE, "Error opening stream of " + label, e);
+            throw new RuntimeException("Failed to stream " + label, e);
+        }
+
+        ResultSet cursor = rs;
+        PreparedStatement statement = pstmt;
+        PooledConnection connection = conn;
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!cursor.next()) {
+                        return false;
+                    }
+                    action.accept(mapper.map(cursor));
+                    return true;
+                } catch (SQLException e) {
+                    LOGGER.log(Level.SEVERE, "Error reading stream of " + label, e);
+                    throw new RuntimeException("Failed to stream " + label, e);
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false)
+            .onClose(() -> closeStreamResources(cursor, statement, connection));
+    }
+
+    private void closeStreamResources(ResultSet rs, PreparedStatement pstmt, PooledConnection conn) {
+        try {
+            if (rs != null) {
+                rs.close();
+            }
+            if (pstmt != null) {
+                pstmt.close();
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error closing streamed result set", e);
+        } finally {
+            if (conn != null) {
+                conn.close();
+            }
+        }
+    }
+
+    // Batch operations
+    @FunctionalInterface
+    private interface StatementBinder<T> {
+        void bind(PreparedStatement pstmt, T row) throws SQLException;
+    }
+
+    /**
+     * Runs one insert statement for every row inside a single explicit transaction,
+     * flushing the JDBC batch every {@link DatabaseConfig#getBatchSize()} rows.
+     * The whole collection is rolled back if any row fails.
+     */
+    private <T> int executeBatch(String label, String sql, Collection<T> rows, StatementBinder<T> binder) {
+        if (rows == null || rows.isEmpty()) {
+            return 0;
+        }
+        int batchSize = config.getBatchSize();
+        try (PooledConnection conn = pool.writer()) {
+            Connection connection = conn.getConnection();
+            boolean ownsTransaction = connection.getAutoCommit();
+            if (ownsTransaction) {
+                connection.setAutoCommit(false);
+            }
+            try {
+                PreparedStatement pstmt = conn.prepareCached(sql);
+                int written = 0;
+                int pending = 0;
+                for (T row : rows) {
+                    binder.bind(pstmt, row);
+                    pstmt.addBatch();
+                    if (++pending == batchSize) {
+                        written += pstmt.executeBatch().length;
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    written += pstmt.executeBatch().length;
+                }
+                if (ownsTransaction) {
+                    connection.commit();
+                }
+                return written;
+            } catch (RuntimeException | SQLException e) {
+                // A binder can fail halfway through a chunk, e.g. on a null timestamp; rows already
+                // added must not stay on the cached statement for the next caller to execute
+                conn.invalidateCached(sql);
+                if (ownsTransaction) {
+                    connection.rollback();
+                }
+                throw e;
+            } finally {
+                if (ownsTransaction) {
+                    connection.setAutoCommit(true);
+                }
             }
         } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error closing database connection", e);
+            LOGGER.log(Level.SEVERE, "Error saving " + rows.size() + " " + label, e);
+            throw new RuntimeException("Failed to save " + label, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (replicas != null) {
+            replicas.close();
+        }
+        if (pool != null) {
+            pool.close();
         }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,187 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Read-through cache for single-row lookups in {@link DatabaseService}.
+ * Misses are cached too, so repeated lookups of an unknown key do not reach the
+ * database. Entries expire after a fixed TTL; when the cache is full the entry
+ * closest to expiry among a small sample is evicted. A hit is a map lookup and
+ * a counter increment: the stored {@link Optional} is returned as is.
+ * @param <K> The lookup key
+ * @param <V> The cached entity; instances are shared between callers
+ */
+public class EntityCache<K, V> {
+    private static final int EVICTION_SAMPLE = 16;
+
+    @FunctionalInterface
+    interface Loader<K, V> {
+        Optional<V> load(K key) throws SQLException;
+    }
+
+    private static final class Entry<V> {
+        private final Optional<V> value;
+        private final long expiresAt;
+
+        private Entry(Optional<V> value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final String name;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so a load that raced with a write is not cached
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param name Label used in metrics
+     * @param maxEntries Maximum number of cached keys; 0 disables caching
+     * @param ttlMillis How long an entry, present or absent, is served before reloading
+     */
+    EntityCache(String name, int maxEntries, long ttlMillis) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * Returns the cached value for a key, loading and caching it on a miss.
+     * Loader failures propagate and nothing is cached for the key.
+     */
+    Optional<V> get(K key, Loader<K, V> loader) throws SQLException {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            if (System.nanoTime() - entry.expiresAt < 0) {
+                hits.increment();
+                return entry.value;
+            }
+            if (entries.remove(key, entry)) {
+                expirations.increment();
+            }
+        }
+        misses.increment();
+        long observedGeneration = generation.get();
+        long start = System.nanoTime();
+        Optional<V> value = loader.load(key);
+        long now = System.nanoTime();
+        loadNanos.add(now - start);
+        if (maxEntries > 0 && generation.get() == observedGeneration) {
+            entries.put(key, new Entry<>(value, now + ttlNanos));
+            evictIfFull();
+        }
+        return value;
+    }
+
+    void invalidate(K key) {
+        generation.incrementAndGet();
+        if (entries.remove(key) != null) {
+            invalidations.increment();
+        }
+    }
+
+    /** Drops every present entry whose value matches, e.g. a user cached under an old email. */
+    void invalidateIf(Predicate<V> stale) {
+        generation.incrementAndGet();
+        entries.values().removeIf(entry -> {
+            boolean matches = entry.value.isPresent() && stale.test(entry.value.get());
+            if (matches) {
+                invalidations.increment();
+            }
+            return matches;
+        });
+    }
+
+    private void evictIfFull() {
+        while (entries.size() > maxEntries) {
+            K victim = null;
+            long oldest = Long.MAX_VALUE;
+            Iterator<Map.Entry<K, Entry<V>>> sample = entries.entrySet().iterator();
+            for (int i = 0; i < EVICTION_SAMPLE && sample.hasNext(); i++) {
+                Map.Entry<K, Entry<V>> candidate = sample.next();
+                if (victim == null || candidate.getValue().expiresAt - oldest < 0) {
+                    victim = candidate.getKey();
+                    oldest = candidate.getValue().expiresAt;
+                }
+            }
+            if (victim == null) {
+                return;
+            }
+            if (entries.remove(victim) != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    public CacheMetrics getMetrics() {
+        long loads = misses.sum();
+        return new CacheMetrics(name, entries.size(), hits.sum(), loads,
+            loads == 0 ? 0 : loadNanos.sum() / 1_000_000.0 / loads,
+            evictions.sum(), expirations.sum(), invalidations.sum());
+    }
+
+    /**
+     * Snapshot of a cache's effectiveness. Every miss is one database load, so
+     * {@code misses * avgLoadMillis} is the time the cache did not save.
+     */
+    public static final class CacheMetrics {
+        private final String name;
+        private final int size;
+        private final long hits;
+        private final long misses;
+        private final double avgLoadMillis;
+        private final long evictions;
+        private final long expirations;
+        private final long invalidations;
+
+        private CacheMetrics(String name, int size, long hits, long misses, double avgLoadMillis,
+                             long evictions, long expirations, long invalidations) {
+            this.name = name;
+            this.size = size;
+            this.hits = hits;
+            this.misses = misses;
+            this.avgLoadMillis = avgLoadMillis;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.invalidations = invalidations;
+        }
+
+        public String getName() { return name; }
+        public int getSize() { return size; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public double getAvgLoadMillis() { return avgLoadMillis; }
+        public long getEvictions() { return evictions; }
+        public long getExpirations() { return expirations; }
+        public long getInvalidations() { return invalidations; }
+
+        public double getHitRatio() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s cache: %d entries, %.1f%% hits (%d/%d), load avg %.2f ms, " +
+                    "%d evicted, %d expired, %d invalidated",
+                name, size, getHitRatio() * 100, hits, hits + misses, avgLoadMillis,
+                evictions, expirations, invalidations);
+        }
+    }
+}
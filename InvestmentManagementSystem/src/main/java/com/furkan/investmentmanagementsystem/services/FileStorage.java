@@ -0,0 +1,702 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Embedded {@link StorageBackend} that keeps its data in an {@link InMemoryStorage}
+ * and every change in an append-only log file, replayed when the file is opened.
+ * Reads never touch the file. Every write holds this object's monitor while it is
+ * appended to the log and then applied in memory, so the log order is the order the
+ * changes became visible and a change that failed to log is never seen. That lock
+ * makes writes to any entity wait for each other; the striped locks of the
+ * in-memory store only let reads run alongside them.
+ * <p>
+ * Records are {@code [int length][int crc32][type][payload]}; a damaged tail left
+ * by a crash is cut off on open. Appends reach the operating system immediately
+ * but are only fsynced by {@link #sync} and {@link #close}. The log is rewritten
+ * with only the live entities when superseded records outnumber them.
+ */
+public class FileStorage extends InMemoryStorage {
+    private static final Logger LOGGER = Logger.getLogger(FileStorage.class.getName());
+    private static final int MAGIC = 0x494D534C; // "IMSL"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 64 << 20;
+    private static final long COMPACTION_SLACK = 10_000;
+
+    private static final byte USER = 1;
+    private static final byte PORTFOLIO = 2;
+    private static final byte HOLDINGS = 3;
+    private static final byte TRANSACTION = 4;
+    private static final byte REPORT = 5;
+    private static final byte COMMENT = 6;
+    private static final byte NOTIFICATION = 7;
+    private static final byte MARKET_DATA = 8;
+    private static final byte NOTIFICATION_FLAGS = 9;
+    private static final byte NOTIFICATIONS_READ = 10;
+
+    private final Path file;
+    private final RecordBuffer buffer = new RecordBuffer();
+    private final DataOutputStream out = new DataOutputStream(buffer);
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+    private long records;
+    private boolean replaying;
+
+    private FileStorage(Path file, int lockStripes) {
+        super(lockStripes);
+        this.file = file;
+    }
+
+    /**
+     * Opens a log file, creating it if needed, and loads its contents.
+     * @param file The log file
+     * @param lockStripes Number of independently locked partitions in memory
+     * @return The storage; the caller is responsible for closing it
+     */
+    public static FileStorage open(Path file, int lockStripes) {
+        FileStorage storage = new FileStorage(file, lockStripes);
+        try {
+            storage.load();
+        } catch (IOException e) {
+            storage.closeChannel();
+            throw new UncheckedIOException("Failed to open storage file " + file, e);
+        }
+        return storage;
+    }
+
+    private void load() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_BYTES) {
+            channel.truncate(0);
+            channel.write(ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip(), 0);
+            channel.force(true);
+            channel.position(HEADER_BYTES);
+            return;
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        if (in.getInt() != MAGIC) {
+            throw new IOException(file + " is not a storage log");
+        }
+        if (in.getInt() != VERSION) {
+            throw new IOException("Unsupported storage log version in " + file);
+        }
+        long start = System.nanoTime();
+        int end = HEADER_BYTES;
+        replaying = true;
+        try {
+            while (in.remaining() >= RECORD_HEADER_BYTES) {
+                int length = in.getInt(end);
+                if (length <= 0 || length > MAX_RECORD_BYTES || end + RECORD_HEADER_BYTES + length > bytes.length) {
+                    break;
+                }
+                crc.reset();
+                crc.update(bytes, end + RECORD_HEADER_BYTES, length);
+                if ((int) crc.getValue() != in.getInt(end + 4)) {
+                    break;
+                }
+                in.position(end + RECORD_HEADER_BYTES);
+                apply(in);
+                end += RECORD_HEADER_BYTES + length;
+                in.position(end);
+                records++;
+            }
+        } finally {
+            replaying = false;
+        }
+        if (end < bytes.length) {
+            LOGGER.warning("Discarding " + (bytes.length - end) + " damaged bytes at the end of " + file);
+            channel.truncate(end);
+        }
+        channel.position(end);
+        LOGGER.info(String.format("Loaded %d records from %s in %.0f ms", records, file, (System.nanoTime() - start) / 1e6));
+        long live = countLive();
+        if (records > 2 * live + COMPACTION_SLACK) {
+            compact();
+        }
+    }
+
+    // Writes: log, then apply in memory, under one lock
+    @Override
+    public synchronized void saveUser(InvestmentUser user) {
+        logThenApply(() -> encodeUser(user), () -> {
+            super.saveUser(user);
+            return null;
+        });
+    }
+
+    @Override
+    public synchronized void savePortfolio(Portfolio portfolio) {
+        logThenApply(() -> encodePortfolio(portfolio), () -> {
+            super.savePortfolio(portfolio);
+            return null;
+        });
+    }
+
+    @Override
+    public synchronized int savePortfolioItems(int portfolioId, Collection<PortfolioItem> items) {
+        return logThenApply(() -> encodeHoldings(portfolioId, items), () -> super.savePortfolioItems(portfolioId, items));
+    }
+
+    @Override
+    public synchronized int saveTransactions(Collection<Transaction> transactions) {
+        return logThenApply(() -> {
+            for (Transaction transaction : transactions) {
+                encodeTransaction(transaction);
+            }
+        }, () -> super.saveTransactions(transactions));
+    }
+
+    @Override
+    public synchronized void saveReport(Report report) {
+        logThenApply(() -> encodeReport(report), () -> {
+            super.saveReport(report);
+            return null;
+        });
+    }
+
+    @Override
+    public synchronized int saveComments(Collection<Comment> comments) {
+        return logThenApply(() -> {
+            for (Comment comment : comments) {
+                encodeComment(comment);
+            }
+        }, () -> super.saveComments(comments));
+    }
+
+    @Override
+    public synchronized int saveNotifications(Collection<Notification> notifications) {
+        return logThenApply(() -> {
+            for (Notification notification : notifications) {
+                encodeNotification(notification);
+            }
+        }, () -> super.saveNotifications(notifications));
+    }
+
+    @Override
+    synchronized boolean updateNotification(int notificationId, Boolean read, Boolean deleted) {
+        if (!hasNotification(notificationId)) {
+            return super.updateNotification(notificationId, read, deleted);
+        }
+        return logThenApply(() -> record(NOTIFICATION_FLAGS, () -> {
+            out.writeInt(notificationId);
+            writeFlag(read);
+            writeFlag(deleted);
+        }), () -> super.updateNotification(notificationId, read, deleted));
+    }
+
+    @Override
+    public synchronized int markAllNotificationsRead(int userId) {
+        // Only unread, visible notifications are marked, which is what the unread counters count
+        if (getInboxSummary(userId).getUnreadCount() == 0) {
+            return super.markAllNotificationsRead(userId);
+        }
+        return logThenApply(() -> record(NOTIFICATIONS_READ, () -> out.writeInt(userId)),
+            () -> super.markAllNotificationsRead(userId));
+    }
+
+    @Override
+    public synchronized void saveMarketData(MarketData quote) {
+        logThenApply(() -> encodeMarketData(quote), () -> {
+            super.saveMarketData(quote);
+            return null;
+        });
+    }
+
+    @Override
+    public synchronized int saveMarketDataSnapshot(Collection<MarketData> snapshot) {
+        return logThenApply(() -> {
+            for (MarketData quote : snapshot) {
+                encodeMarketData(quote);
+            }
+        }, () -> super.saveMarketDataSnapshot(snapshot));
+    }
+
+    @FunctionalInterface
+    private interface Encoder {
+        void encode() throws IOException;
+    }
+
+    /**
+     * Appends a change to the log and then applies it in memory, so readers never see
+     * a change the log does not have. If the in-memory store rejects it, e.g. for a
+     * duplicate id, the records are cut off again; replay would reject them as well.
+     */
+    private <T> T logThenApply(Encoder encoder, Supplier<T> change) {
+        if (replaying) {
+            return change.get();
+        }
+        ensureOpen();
+        long recordsBefore = records;
+        long start;
+        buffer.reset();
+        try {
+            start = channel.position();
+            encoder.encode();
+            writeFully(channel, buffer.contents());
+        } catch (IOException e) {
+            records = recordsBefore;
+            LOGGER.log(Level.SEVERE, "Error appending to storage file " + file, e);
+            throw new RuntimeException("Failed to write storage file", e);
+        }
+        try {
+            return change.get();
+        } catch (RuntimeException e) {
+            try {
+                channel.truncate(start);
+                channel.position(start);
+                records = recordsBefore;
+            } catch (IOException truncateFailure) {
+                LOGGER.log(Level.SEVERE, "Error removing rejected records from storage file " + file, truncateFailure);
+                e.addSuppressed(truncateFailure);
+            }
+            throw e;
+        }
+    }
+
+    private static void writeFully(FileChannel target, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            target.write(data);
+        }
+    }
+
+    /** Frames the record written by {@code body} with its length and checksum. */
+    private void record(byte type, Encoder body) throws IOException {
+        int start = buffer.size();
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeByte(type);
+        body.encode();
+        records++;
+        // Patch the header in place once the payload length is known
+        int length = buffer.size() - start - RECORD_HEADER_BYTES;
+        crc.reset();
+        crc.update(buffer.array(), start + RECORD_HEADER_BYTES, length);
+        ByteBuffer.wrap(buffer.array(), start, RECORD_HEADER_BYTES).putInt(length).putInt((int) crc.getValue());
+    }
+
+    /** Forces everything appended so far to disk. */
+    public synchronized void sync() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error syncing storage file " + file, e);
+            throw new RuntimeException("Failed to sync storage file", e);
+        }
+    }
+
+    /**
+     * Rewrites the log with one record per live entity, replacing the file atomically.
+     * @return The number of records in the new log
+     */
+    public synchronized long compact() throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".compact");
+        long previous = records;
+        long written;
+        try (FileChannel target = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(target, ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip());
+            records = 0;
+            buffer.reset();
+            IOException[] failure = {null};
+            forEachStored(new StoredEntityVisitor() {
+                private void emit(Encoder encoder) {
+                    if (failure[0] != null) {
+                        return;
+                    }
+                    try {
+                        encoder.encode();
+                        if (buffer.size() >= 1 << 20) {
+                            writeFully(target, buffer.contents());
+                            buffer.reset();
+                        }
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                }
+
+                @Override public void user(InvestmentUser user) { emit(() -> encodeUser(user)); }
+                @Override public void portfolio(Portfolio portfolio) { emit(() -> encodePortfolio(portfolio)); }
+                @Override public void holdings(int portfolioId, List<PortfolioItem> items) { emit(() -> encodeHoldings(portfolioId, items)); }
+                @Override public void transaction(Transaction transaction) { emit(() -> encodeTransaction(transaction)); }
+                @Override public void report(Report report) { emit(() -> encodeReport(report)); }
+                @Override public void comment(Comment comment) { emit(() -> encodeComment(comment)); }
+                @Override public void notification(Notification notification) { emit(() -> encodeNotification(notification)); }
+                @Override public void marketData(MarketData quote) { emit(() -> encodeMarketData(quote)); }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            writeFully(target, buffer.contents());
+            buffer.reset();
+            target.force(true);
+            written = records;
+        } catch (IOException e) {
+            records = previous;
+            buffer.reset();
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        channel.close();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        LOGGER.info("Compacted " + file + " to " + written + " records");
+        return written;
+    }
+
+    private long countLive() {
+        long[] count = {0};
+        forEachStored(new StoredEntityVisitor() {
+            @Override public void user(InvestmentUser user) { count[0]++; }
+            @Override public void portfolio(Portfolio portfolio) { count[0]++; }
+            @Override public void holdings(int portfolioId, List<PortfolioItem> items) { count[0]++; }
+            @Override public void transaction(Transaction transaction) { count[0]++; }
+            @Override public void report(Report report) { count[0]++; }
+            @Override public void comment(Comment comment) { count[0]++; }
+            @Override public void notification(Notification notification) { count[0]++; }
+            @Override public void marketData(MarketData quote) { count[0]++; }
+        });
+        return count[0];
+    }
+
+    /** @return Records in the log, live or superseded */
+    public synchronized long getRecordCount() {
+        return records;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel != null && channel.isOpen()) {
+            sync();
+        }
+        closeChannel();
+        super.close();
+    }
+
+    private void closeChannel() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Error closing storage file " + file, e);
+        }
+    }
+
+    // Record encoding, field for field what the SQLite backend stores and reads back
+    private void encodeUser(InvestmentUser user) throws IOException {
+        record(USER, () -> {
+            writeString(user.getId());
+            writeString(user.getEmail());
+            writeString(user.getPassword());
+            writeString(user.getFirstName());
+            writeString(user.getLastName());
+        });
+    }
+
+    private void encodePortfolio(Portfolio portfolio) throws IOException {
+        record(PORTFOLIO, () -> {
+            out.writeInt(portfolio.getId());
+            writeString(portfolio.getUserId());
+            writeString(portfolio.getName());
+            writeString(portfolio.getDescription());
+            writeString(portfolio.getStrategy());
+            writeString(portfolio.getRiskProfile().name());
+            out.writeDouble(portfolio.getTargetReturn());
+            out.writeDouble(portfolio.getMaxDrawdown());
+            out.writeDouble(portfolio.getSharpeRatio());
+            writeTime(portfolio.getCreationDate());
+            writeTime(portfolio.getLastModifiedDate());
+            out.writeBoolean(portfolio.isActive());
+        });
+    }
+
+    private void encodeHoldings(int portfolioId, Collection<PortfolioItem> items) throws IOException {
+        record(HOLDINGS, () -> {
+            out.writeInt(portfolioId);
+            out.writeInt(items.size());
+            for (PortfolioItem item : items) {
+                writeString(item.getAsset());
+                writeString(item.getType());
+                out.writeDouble(item.getQuantity());
+                out.writeDouble(item.getOpenPrice());
+                out.writeDouble(item.getLastPrice());
+            }
+        });
+    }
+
+    private void encodeTransaction(Transaction transaction) throws IOException {
+        record(TRANSACTION, () -> {
+            writeString(transaction.getId());
+            writeString(transaction.getAssetName());
+            writeString(transaction.getType());
+            out.writeDouble(transaction.getQuantity());
+            out.writeDouble(transaction.getPrice());
+            writeTime(transaction.getTimestamp());
+            writeString(transaction.getStatus());
+            writeString(transaction.getNotes());
+        });
+    }
+
+    private void encodeReport(Report report) throws IOException {
+        record(REPORT, () -> {
+            out.writeInt(report.getIntId());
+            writeString(report.getTitle());
+            writeString(report.getContent());
+            writeTime(report.getCreationDate());
+            out.writeInt(report.getIntAuthorId());
+            writeString(report.getReportTypeEnum().name());
+            writeString(report.getStatus());
+            writeString(report.getTargetAudience());
+            out.writeBoolean(report.isPublic());
+            writeString(report.getTags());
+        });
+    }
+
+    private void encodeComment(Comment comment) throws IOException {
+        record(COMMENT, () -> {
+            out.writeInt(comment.getIntId());
+            writeString(comment.getContent());
+            writeTime(comment.getTimestamp());
+            out.writeInt(comment.getIntAuthorId());
+            writeInteger(comment.getIntParentId());
+            writeString(comment.getTargetTypeEnum().name());
+            writeString(comment.getTargetId());
+            out.writeBoolean(comment.isEdited());
+            writeTime(comment.getLastEditTime());
+            out.writeInt(comment.getLikes());
+            out.writeBoolean(comment.isDeleted());
+        });
+    }
+
+    private void encodeNotification(Notification notification) throws IOException {
+        record(NOTIFICATION, () -> {
+            out.writeInt(notification.getIntId());
+            writeString(notification.getTitle());
+            writeString(notification.getMessage());
+            writeTime(notification.getTimestamp());
+            out.writeInt(notification.getIntRecipientId());
+            writeInteger(notification.getIntSenderId());
+            writeString(notification.getTypeEnum().name());
+            writeString(notification.getPriorityEnum().name());
+            out.writeBoolean(notification.isRead());
+            writeString(notification.getActionUrl());
+            out.writeBoolean(notification.isDeleted());
+        });
+    }
+
+    private void encodeMarketData(MarketData quote) throws IOException {
+        record(MARKET_DATA, () -> {
+            writeString(quote.getSymbol());
+            writeString(quote.getName());
+            writeString(quote.getAssetType());
+            out.writeDouble(quote.getCurrentPrice());
+            out.writeDouble(quote.getOpenPrice());
+            out.writeDouble(quote.getHighPrice());
+            out.writeDouble(quote.getLowPrice());
+            out.writeDouble(quote.getVolume());
+            writeTime(quote.getLastUpdated());
+            writeString(quote.getCurrency());
+            writeString(quote.getExchange());
+            out.writeDouble(quote.getPreviousClose());
+            out.writeDouble(quote.getMarketCap());
+            out.writeDouble(quote.getFiftyTwoWeekHigh());
+            out.writeDouble(quote.getFiftyTwoWeekLow());
+            out.writeDouble(quote.getPeRatio());
+            out.writeDouble(quote.getDividendYield());
+        });
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeInteger(Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private void writeFlag(Boolean value) throws IOException {
+        out.writeByte(value == null ? -1 : value ? 1 : 0);
+    }
+
+    private void writeTime(LocalDateTime value) throws IOException {
+        out.writeLong(value == null ? Long.MIN_VALUE : Timestamp.valueOf(value).getTime());
+    }
+
+    // Record decoding during replay
+    private void apply(ByteBuffer in) {
+        byte type = in.get();
+        switch (type) {
+            case USER -> {
+                InvestmentUser user = new InvestmentUser(readString(in), readString(in), readString(in));
+                user.setFirstName(readString(in));
+                user.setLastName(readString(in));
+                super.saveUser(user);
+            }
+            case PORTFOLIO -> {
+                int id = in.getInt();
+                Portfolio portfolio = new Portfolio(readString(in));
+                portfolio.setId(id);
+                portfolio.nameProperty().set(readString(in));
+                portfolio.setDescription(readString(in));
+                portfolio.setStrategy(readString(in));
+                portfolio.setRiskProfile(Portfolio.RiskProfile.valueOf(readString(in)));
+                portfolio.setTargetReturn(in.getDouble());
+                portfolio.setMaxDrawdown(in.getDouble());
+                portfolio.setSharpeRatio(in.getDouble());
+                portfolio.creationDateProperty().set(readTime(in));
+                portfolio.lastModifiedDateProperty().set(readTime(in));
+                portfolio.setActive(in.get() != 0);
+                super.savePortfolio(portfolio);
+            }
+            case HOLDINGS -> {
+                int portfolioId = in.getInt();
+                int count = in.getInt();
+                List<PortfolioItem> items = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    PortfolioItem item = new PortfolioItem(readString(in), readString(in), in.getDouble(), in.getDouble());
+                    item.refreshPrice(in.getDouble());
+                    items.add(item);
+                }
+                super.savePortfolioItems(portfolioId, items);
+            }
+            case TRANSACTION -> {
+                String id = readString(in);
+                String asset = readString(in);
+                Transaction.TransactionType transactionType =
+                    Transaction.TransactionType.valueOf(readString(in).toUpperCase(Locale.ROOT));
+                Transaction transaction = new Transaction(asset, transactionType, in.getDouble(), in.getDouble());
+                transaction.idProperty().set(id);
+                transaction.timestampProperty().set(readTime(in));
+                transaction.setStatus(Transaction.TransactionStatus.valueOf(readString(in)));
+                transaction.setNotes(readString(in));
+                super.saveTransactions(List.of(transaction));
+            }
+            case REPORT -> {
+                Report report = new Report(in.getInt(), readString(in), readString(in), readTime(in), in.getInt(),
+                    Report.ReportType.valueOf(readString(in)));
+                report.setStatus(Report.ReportStatus.valueOf(readString(in)));
+                report.setTargetAudience(readString(in));
+                report.setPublic(in.get() != 0);
+                String tags = readString(in);
+                if (tags != null && !tags.isEmpty()) {
+                    report.setTags(tags);
+                }
+                super.saveReport(report);
+            }
+            case COMMENT -> {
+                Comment comment = new Comment(in.getInt(), readString(in), readTime(in), in.getInt(), readInteger(in),
+                    Comment.TargetType.valueOf(readString(in)), readString(in));
+                comment.setEdited(in.get() != 0);
+                LocalDateTime lastEditTime = readTime(in);
+                if (lastEditTime != null) {
+                    comment.setLastEditTime(lastEditTime);
+                }
+                comment.setLikes(in.getInt());
+                comment.setDeleted(in.get() != 0);
+                super.saveComments(List.of(comment));
+            }
+            case NOTIFICATION -> {
+                int id = in.getInt();
+                String title = readString(in);
+                String message = readString(in);
+                LocalDateTime timestamp = readTime(in);
+                int recipientId = in.getInt();
+                Integer senderId = readInteger(in);
+                Notification.NotificationType notificationType = Notification.NotificationType.valueOf(readString(in));
+                Notification notification = new Notification(id, title, message, timestamp, recipientId, senderId,
+                    notificationType, Notification.NotificationPriority.valueOf(readString(in)));
+                notification.setRead(in.get() != 0);
+                notification.setActionUrl(readString(in));
+                notification.setDeleted(in.get() != 0);
+                super.saveNotifications(List.of(notification));
+            }
+            case MARKET_DATA -> {
+                MarketData quote = new MarketData(readString(in), readString(in), readString(in), in.getDouble(),
+                    in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble(), readTime(in), readString(in),
+                    readString(in), in.getDouble());
+                quote.setMarketCap(in.getDouble());
+                quote.setFiftyTwoWeekHigh(in.getDouble());
+                quote.setFiftyTwoWeekLow(in.getDouble());
+                quote.setPeRatio(in.getDouble());
+                quote.setDividendYield(in.getDouble());
+                super.saveMarketData(quote);
+            }
+            case NOTIFICATION_FLAGS -> super.updateNotification(in.getInt(), readFlag(in), readFlag(in));
+            case NOTIFICATIONS_READ -> super.markAllNotificationsRead(in.getInt());
+            default -> throw new IllegalStateException("Unknown record type " + type + " in " + file);
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static Integer readInteger(ByteBuffer in) {
+        return in.get() != 0 ? in.getInt() : null;
+    }
+
+    private static Boolean readFlag(ByteBuffer in) {
+        byte value = in.get();
+        return value < 0 ? null : value != 0;
+    }
+
+    private static LocalDateTime readTime(ByteBuffer in) {
+        long millis = in.getLong();
+        return millis == Long.MIN_VALUE ? null : new Timestamp(millis).toLocalDateTime();
+    }
+
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+        private RecordBuffer() {
+            super(4096);
+        }
+
+        private byte[] array() {
+            return buf;
+        }
+
+        private ByteBuffer contents() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
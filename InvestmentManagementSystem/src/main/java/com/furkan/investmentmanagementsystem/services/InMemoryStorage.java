@@ -0,0 +1,630 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.*;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link StorageBackend} kept entirely in memory. Each entity type is partitioned
+ * the way it is queried (transactions and portfolios by user, comments by target,
+ * quotes by symbol) in a {@link StripedMap}, so work on different users proceeds
+ * in parallel. Queries return the same rows, in the same order, as the SQLite
+ * backend, including its quirks: transactions are stored under user 0 because the
+ * transaction model carries no owner.
+ * <p>
+ * Saved instances are kept as given, except portfolios, which are copied on read
+ * so their totals can be computed from the stored holdings.
+ */
+public class InMemoryStorage implements StorageBackend {
+    // Same as DatabaseService.bindTransaction
+    private static final int TRANSACTION_OWNER = 0;
+
+    private final StripedMap<String, InvestmentUser> usersByEmail;
+    private final Map<String, String> emailByUserId = new ConcurrentHashMap<>();
+    private final StripedMap<Integer, Map<Integer, Portfolio>> portfoliosByOwner;
+    private final Map<Integer, Integer> ownerByPortfolioId = new ConcurrentHashMap<>();
+    private final StripedMap<Integer, List<PortfolioItem>> holdings;
+    private final StripedMap<Integer, NavigableMap<TransactionKey, Transaction>> transactionsByUser;
+    private final Set<String> transactionIds = ConcurrentHashMap.newKeySet();
+    private final StripedMap<Integer, Map<Integer, Report>> reportsByAuthor;
+    private final Map<Integer, Integer> authorByReportId = new ConcurrentHashMap<>();
+    private final StripedMap<String, Map<Integer, Comment>> commentsByTarget;
+    private final Map<Integer, String> targetByCommentId = new ConcurrentHashMap<>();
+    private final StripedMap<Integer, Inbox> notificationsByRecipient;
+    private final Map<Integer, Integer> recipientByNotificationId = new ConcurrentHashMap<>();
+    private final StripedMap<String, MarketData> marketData;
+    private volatile boolean closed;
+
+    public InMemoryStorage() {
+        this(64);
+    }
+
+    /**
+     * @param lockStripes Number of independently locked partitions per entity type
+     */
+    public InMemoryStorage(int lockStripes) {
+        this.usersByEmail = new StripedMap<>(lockStripes);
+        this.portfoliosByOwner = new StripedMap<>(lockStripes);
+        this.holdings = new StripedMap<>(lockStripes);
+        this.transactionsByUser = new StripedMap<>(lockStripes);
+        this.reportsByAuthor = new StripedMap<>(lockStripes);
+        this.commentsByTarget = new StripedMap<>(lockStripes);
+        this.notificationsByRecipient = new StripedMap<>(lockStripes);
+        this.marketData = new StripedMap<>(lockStripes);
+    }
+
+    void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Storage is closed");
+        }
+    }
+
+    // User operations
+    @Override
+    public Optional<InvestmentUser> getUserByEmail(String email) {
+        ensureOpen();
+        return Optional.ofNullable(usersByEmail.get(email));
+    }
+
+    @Override
+    public List<InvestmentUser> getAllUsers() {
+        ensureOpen();
+        List<InvestmentUser> users = new ArrayList<>();
+        usersByEmail.forEachValue(users::add);
+        return users;
+    }
+
+    @Override
+    public void saveUser(InvestmentUser user) {
+        ensureOpen();
+        // Ids and emails are both unique, as in the users table
+        synchronized (emailByUserId) {
+            String previousEmail = emailByUserId.put(user.getId(), user.getEmail());
+            if (previousEmail != null && !previousEmail.equals(user.getEmail())) {
+                usersByEmail.remove(previousEmail);
+            }
+            InvestmentUser displaced = usersByEmail.put(user.getEmail(), user);
+            if (displaced != null && !displaced.getId().equals(user.getId())) {
+                emailByUserId.remove(displaced.getId());
+            }
+        }
+    }
+
+    // Portfolio operations
+    @Override
+    public List<Portfolio> getUserPortfolios(int userId) {
+        ensureOpen();
+        List<Portfolio> headers = portfoliosByOwner.read(userId,
+            portfolios -> portfolios == null ? List.of() : new ArrayList<>(portfolios.values()));
+        List<Portfolio> result = new ArrayList<>(headers.size());
+        for (Portfolio header : headers) {
+            result.add(copyWithTotals(header, totals(header.getId())));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Portfolio> loadPortfolioGraph(int userId, int recentTransactions) {
+        if (recentTransactions < 0) {
+            throw new IllegalArgumentException("Transaction window cannot be negative");
+        }
+        List<Portfolio> portfolios = getUserPortfolios(userId);
+        portfolios.sort(Comparator.comparingInt(Portfolio::getId));
+        Map<String, List<Portfolio>> holdersByAsset = new HashMap<>();
+        for (Portfolio portfolio : portfolios) {
+            List<PortfolioItem> items = holdings.read(portfolio.getId(), stored -> stored == null ? List.of() : stored);
+            portfolio.getItems().setAll(items);
+            for (PortfolioItem item : items) {
+                holdersByAsset.computeIfAbsent(item.getAsset(), asset -> new ArrayList<>(1)).add(portfolio);
+            }
+        }
+        Map<Portfolio, List<Transaction>> recent = new HashMap<>();
+        int holding = (int) portfolios.stream().filter(portfolio -> !portfolio.getItems().isEmpty()).count();
+        transactionsByUser.read(userId, transactions -> {
+            if (transactions == null || recentTransactions == 0) {
+                return null;
+            }
+            // Newest first; stop once every portfolio with holdings has a full window
+            int full = 0;
+            for (Transaction transaction : transactions.values()) {
+                if (full == holding) {
+                    break;
+                }
+                for (Portfolio holder : holdersByAsset.getOrDefault(transaction.getAssetName(), List.of())) {
+                    List<Transaction> window = recent.computeIfAbsent(holder, p -> new ArrayList<>());
+                    if (window.size() < recentTransactions) {
+                        window.add(transaction);
+                        if (window.size() == recentTransactions) {
+                            full++;
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+        recent.forEach((portfolio, transactions) -> portfolio.getTransactions().setAll(transactions));
+        return portfolios;
+    }
+
+    @Override
+    public void savePortfolio(Portfolio portfolio) {
+        ensureOpen();
+        int ownerId = Integer.parseInt(portfolio.getUserId());
+        synchronized (ownerByPortfolioId) {
+            Integer previousOwner = ownerByPortfolioId.put(portfolio.getId(), ownerId);
+            if (previousOwner != null && previousOwner != ownerId) {
+                portfoliosByOwner.update(previousOwner, HashMap::new, portfolios -> portfolios.remove(portfolio.getId()));
+            }
+            portfoliosByOwner.update(ownerId, HashMap::new, portfolios -> portfolios.put(portfolio.getId(), portfolio));
+        }
+    }
+
+    @Override
+    public int savePortfolioItems(int portfolioId, Collection<PortfolioItem> items) {
+        ensureOpen();
+        holdings.put(portfolioId, List.copyOf(items));
+        return items.size();
+    }
+
+    @Override
+    public List<PortfolioSummary> getTopPortfoliosByValue(int limit) {
+        ensureOpen();
+        List<Portfolio> active = new ArrayList<>();
+        portfoliosByOwner.forEachValue(portfolios -> portfolios.values().forEach(portfolio -> {
+            if (portfolio.isActive()) {
+                active.add(portfolio);
+            }
+        }));
+        List<PortfolioSummary> summaries = new ArrayList<>(active.size());
+        for (Portfolio portfolio : active) {
+            double[] totals = totals(portfolio.getId());
+            summaries.add(new PortfolioSummary(portfolio.getId(), portfolio.getName(),
+                Integer.parseInt(portfolio.getUserId()), portfolio.getRiskProfile(), totals[0], totals[1],
+                totals[0] - totals[1], totals[0] == 0 ? 0 : (totals[0] - totals[1]) / totals[0] * 100));
+        }
+        summaries.sort(Comparator.comparingDouble(PortfolioSummary::getTotalValue).reversed());
+        return summaries.size() > limit ? new ArrayList<>(summaries.subList(0, limit)) : summaries;
+    }
+
+    /** @return Current value and cost of a portfolio's holdings */
+    private double[] totals(int portfolioId) {
+        return holdings.read(portfolioId, items -> {
+            double[] totals = new double[2];
+            if (items != null) {
+                for (PortfolioItem item : items) {
+                    totals[0] += item.getQuantity() * item.getLastPrice();
+                    totals[1] += item.getQuantity() * item.getOpenPrice();
+                }
+            }
+            return totals;
+        });
+    }
+
+    private static Portfolio copyWithTotals(Portfolio header, double[] totals) {
+        Portfolio portfolio = new Portfolio(header.getUserId());
+        portfolio.setId(header.getId());
+        portfolio.nameProperty().set(header.getName());
+        portfolio.setDescription(header.getDescription());
+        portfolio.setStrategy(header.getStrategy());
+        portfolio.setTotalCost(totals[1]);
+        portfolio.setTotalProfitLoss(totals[0] - totals[1]);
+        portfolio.setRiskProfile(header.getRiskProfile());
+        portfolio.setTargetReturn(header.getTargetReturn());
+        portfolio.setMaxDrawdown(header.getMaxDrawdown());
+        portfolio.setSharpeRatio(header.getSharpeRatio());
+        portfolio.creationDateProperty().set(header.getCreationDate());
+        portfolio.lastModifiedDateProperty().set(header.getLastModifiedDate());
+        portfolio.setActive(header.isActive());
+        return portfolio;
+    }
+
+    // Transaction operations
+    /** Newest first, then by id: the order of the transactions index. */
+    private static final class TransactionKey implements Comparable<TransactionKey> {
+        private final long epochMillis;
+        private final String id;
+
+        private TransactionKey(long epochMillis, String id) {
+            this.epochMillis = epochMillis;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(TransactionKey other) {
+            int byTime = Long.compare(other.epochMillis, epochMillis);
+            return byTime != 0 ? byTime : id.compareTo(other.id);
+        }
+    }
+
+    @Override
+    public List<Transaction> getUserTransactions(int userId) {
+        ensureOpen();
+        return transactionsByUser.read(userId,
+            transactions -> transactions == null ? new ArrayList<>() : new ArrayList<>(transactions.values()));
+    }
+
+    @Override
+    public Page<Transaction> getUserTransactionsPage(int userId, String afterCursor, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be at least 1");
+        }
+        ensureOpen();
+        TransactionKey after = null;
+        if (afterCursor != null) {
+            int separator = afterCursor.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid transaction cursor: " + afterCursor);
+            }
+            after = new TransactionKey(Long.parseLong(afterCursor.substring(0, separator)),
+                afterCursor.substring(separator + 1));
+        }
+        TransactionKey start = after;
+        return transactionsByUser.read(userId, transactions -> {
+            List<Transaction> page = new ArrayList<>(Math.min(limit, 1_000));
+            if (transactions == null) {
+                return new Page<>(page, null);
+            }
+            String nextCursor = null;
+            for (Map.Entry<TransactionKey, Transaction> entry
+                    : (start == null ? transactions : transactions.tailMap(start, false)).entrySet()) {
+                if (page.size() == limit) {
+                    TransactionKey last = transactionKey(page.get(limit - 1));
+                    nextCursor = last.epochMillis + ":" + last.id;
+                    break;
+                }
+                page.add(entry.getValue());
+            }
+            return new Page<>(page, nextCursor);
+        });
+    }
+
+    @Override
+    public void saveTransaction(Transaction transaction) {
+        saveTransactions(List.of(transaction));
+    }
+
+    @Override
+    public int saveTransactions(Collection<Transaction> transactions) {
+        ensureOpen();
+        // Claim every id first so a duplicate rejects the whole batch, like a rolled back transaction
+        List<String> claimed = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            if (!transactionIds.add(transaction.getId())) {
+                transactionIds.removeAll(claimed);
+                throw new RuntimeException("Failed to save transactions",
+                    new IllegalStateException("Duplicate transaction id: " + transaction.getId()));
+            }
+            claimed.add(transaction.getId());
+        }
+        transactionsByUser.update(TRANSACTION_OWNER, TreeMap::new, stored -> {
+            for (Transaction transaction : transactions) {
+                stored.put(transactionKey(transaction), transaction);
+            }
+            return null;
+        });
+        return transactions.size();
+    }
+
+    /** Summed on read; the in-memory backends have no cold storage to cover. */
+    @Override
+    public List<TransactionRollup> getMonthlyRollups(int userId) {
+        ensureOpen();
+        Map<String, TransactionRollup> rollups = new HashMap<>();
+        transactionsByUser.read(userId, transactions -> {
+            if (transactions != null) {
+                for (Transaction transaction : transactions.values()) {
+                    YearMonth month = YearMonth.from(transaction.getTimestamp());
+                    rollups.merge(month + "|" + transaction.getAssetName() + "|" + transaction.getType(),
+                        new TransactionRollup(userId, transaction.getAssetName(), month,
+                            transaction.getTransactionType(), 1, transaction.getQuantity(), transaction.getTotalAmount()),
+                        (sum, one) -> new TransactionRollup(userId, sum.getAssetName(), sum.getMonth(),
+                            sum.getTransactionType(), sum.getTradeCount() + 1, sum.getQuantity() + one.getQuantity(),
+                            sum.getNotional() + one.getNotional()));
+                }
+            }
+            return null;
+        });
+        List<TransactionRollup> sorted = new ArrayList<>(rollups.values());
+        // Same order as the rollup table's ORDER BY, which compares the stored display names
+        sorted.sort(Comparator.comparing(TransactionRollup::getMonth, Comparator.reverseOrder())
+            .thenComparing(TransactionRollup::getAssetName)
+            .thenComparing(rollup -> rollup.getTransactionType().getDisplayName()));
+        return sorted;
+    }
+
+    private static TransactionKey transactionKey(Transaction transaction) {
+        return new TransactionKey(Timestamp.valueOf(transaction.getTimestamp()).getTime(), transaction.getId());
+    }
+
+    // Report operations
+    @Override
+    public List<Report> getUserReports(int userId) {
+        ensureOpen();
+        List<Report> reports = reportsByAuthor.read(userId,
+            stored -> stored == null ? new ArrayList<>() : new ArrayList<>(stored.values()));
+        reports.sort(Comparator.comparing(Report::getCreationDate).reversed());
+        return reports;
+    }
+
+    @Override
+    public void saveReport(Report report) {
+        ensureOpen();
+        int authorId = report.getIntAuthorId();
+        synchronized (authorByReportId) {
+            Integer previousAuthor = authorByReportId.put(report.getIntId(), authorId);
+            if (previousAuthor != null && previousAuthor != authorId) {
+                reportsByAuthor.update(previousAuthor, HashMap::new, reports -> reports.remove(report.getIntId()));
+            }
+            reportsByAuthor.update(authorId, HashMap::new, reports -> reports.put(report.getIntId(), report));
+        }
+    }
+
+    // Comment operations
+    @Override
+    public List<Comment> getCommentsForTarget(String targetType, String targetId) {
+        ensureOpen();
+        return liveComments(targetKey(targetType, targetId));
+    }
+
+    /** @return The target's comments that are not deleted, in index order: newest first, ties by id */
+    private List<Comment> liveComments(String target) {
+        List<Comment> comments = commentsByTarget.read(target, stored -> {
+            List<Comment> visible = new ArrayList<>();
+            if (stored != null) {
+                for (Comment comment : stored.values()) {
+                    if (!comment.isDeleted()) {
+                        visible.add(comment);
+                    }
+                }
+            }
+            return visible;
+        });
+        comments.sort(Comparator.comparing(Comment::getTimestamp).reversed().thenComparing(Comment::getIntId));
+        return comments;
+    }
+
+    @Override
+    public Page<CommentThread> getReplies(int parentId, String afterCursor, int limit, int maxDepth) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be at least 1");
+        }
+        ensureOpen();
+        String target = targetByCommentId.get(parentId);
+        if (target == null) {
+            return new Page<>(new ArrayList<>(), null);
+        }
+        // Replies share their parent's target, so one partition holds the whole branch
+        List<CommentThread> replies = CommentThread.assemble(liveComments(target), parentId, maxDepth, null);
+        return CommentThread.page(replies, afterCursor, limit);
+    }
+
+    @Override
+    public void saveComment(Comment comment) {
+        saveComments(List.of(comment));
+    }
+
+    @Override
+    public int saveComments(Collection<Comment> comments) {
+        ensureOpen();
+        synchronized (targetByCommentId) {
+            for (Comment comment : comments) {
+                String target = targetKey(comment.getTargetTypeEnum().name(), comment.getTargetId());
+                String previousTarget = targetByCommentId.put(comment.getIntId(), target);
+                if (previousTarget != null && !previousTarget.equals(target)) {
+                    commentsByTarget.update(previousTarget, HashMap::new, stored -> stored.remove(comment.getIntId()));
+                }
+                commentsByTarget.update(target, HashMap::new, stored -> stored.put(comment.getIntId(), comment));
+            }
+        }
+        return comments.size();
+    }
+
+    private static String targetKey(String targetType, String targetId) {
+        return targetType + '/' + targetId;
+    }
+
+    // Notification operations
+    /**
+     * One recipient's notifications with their read/deleted flags and the counters
+     * derived from them. The flags are kept apart from the (caller-owned, mutable)
+     * notification instances so the counters cannot drift from what was stored.
+     */
+    private static final class Inbox {
+        private final Map<Integer, Notification> notifications = new HashMap<>();
+        private final Map<Integer, boolean[]> flags = new HashMap<>();
+        private final InboxSummary counters;
+
+        private Inbox(int recipientId) {
+            this.counters = new InboxSummary(recipientId);
+        }
+
+        private void add(Notification notification) {
+            notifications.put(notification.getIntId(), notification);
+            boolean[] state = {notification.isRead(), notification.isDeleted()};
+            flags.put(notification.getIntId(), state);
+            count(notification, state, 1);
+        }
+
+        /** @return False if the notification is unknown */
+        private boolean update(int notificationId, boolean read, boolean deleted) {
+            Notification notification = notifications.get(notificationId);
+            if (notification == null) {
+                return false;
+            }
+            boolean[] state = flags.get(notificationId);
+            count(notification, state, -1);
+            state[0] = read;
+            state[1] = deleted;
+            count(notification, state, 1);
+            notification.setRead(read);
+            notification.setDeleted(deleted);
+            return true;
+        }
+
+        private void count(Notification notification, boolean[] state, int sign) {
+            if (!state[1]) {
+                counters.add(notification.getTypeEnum(), notification.getPriorityEnum(), sign, state[0] ? 0 : sign);
+            }
+        }
+
+        private InboxSummary snapshot() {
+            return new InboxSummary(counters);
+        }
+    }
+
+    @Override
+    public List<Notification> getUserNotifications(int userId) {
+        ensureOpen();
+        List<Notification> notifications = notificationsByRecipient.read(userId, inbox -> {
+            List<Notification> visible = new ArrayList<>();
+            if (inbox != null) {
+                for (Map.Entry<Integer, Notification> entry : inbox.notifications.entrySet()) {
+                    if (!inbox.flags.get(entry.getKey())[1]) {
+                        visible.add(entry.getValue());
+                    }
+                }
+            }
+            return visible;
+        });
+        notifications.sort(Comparator.comparing(Notification::getTimestamp).reversed());
+        return notifications;
+    }
+
+    @Override
+    public void saveNotification(Notification notification) {
+        saveNotifications(List.of(notification));
+    }
+
+    @Override
+    public int saveNotifications(Collection<Notification> notifications) {
+        ensureOpen();
+        List<Integer> claimed = new ArrayList<>(notifications.size());
+        for (Notification notification : notifications) {
+            if (recipientByNotificationId.putIfAbsent(notification.getIntId(), notification.getIntRecipientId()) != null) {
+                claimed.forEach(recipientByNotificationId::remove);
+                throw new RuntimeException("Failed to save notifications",
+                    new IllegalStateException("Duplicate notification id: " + notification.getIntId()));
+            }
+            claimed.add(notification.getIntId());
+        }
+        for (Notification notification : notifications) {
+            int recipientId = notification.getIntRecipientId();
+            notificationsByRecipient.update(recipientId, () -> new Inbox(recipientId), inbox -> {
+                inbox.add(notification);
+                return null;
+            });
+        }
+        return notifications.size();
+    }
+
+    @Override
+    public boolean markNotificationRead(int notificationId) {
+        return updateNotification(notificationId, true, null);
+    }
+
+    @Override
+    public int markAllNotificationsRead(int userId) {
+        ensureOpen();
+        return notificationsByRecipient.update(userId, () -> new Inbox(userId), inbox -> {
+            int marked = 0;
+            for (Map.Entry<Integer, boolean[]> entry : inbox.flags.entrySet()) {
+                boolean[] state = entry.getValue();
+                if (!state[0] && !state[1]) {
+                    inbox.update(entry.getKey(), true, false);
+                    marked++;
+                }
+            }
+            return marked;
+        });
+    }
+
+    @Override
+    public boolean deleteNotification(int notificationId) {
+        return updateNotification(notificationId, null, true);
+    }
+
+    boolean hasNotification(int notificationId) {
+        return recipientByNotificationId.containsKey(notificationId);
+    }
+
+    /** Changes the given flags of one notification; null leaves a flag as it is. */
+    boolean updateNotification(int notificationId, Boolean read, Boolean deleted) {
+        ensureOpen();
+        Integer recipientId = recipientByNotificationId.get(notificationId);
+        if (recipientId == null) {
+            return false;
+        }
+        return notificationsByRecipient.update(recipientId, () -> new Inbox(recipientId), inbox -> {
+            boolean[] state = inbox.flags.get(notificationId);
+            return state != null && inbox.update(notificationId,
+                read != null ? read : state[0], deleted != null ? deleted : state[1]);
+        });
+    }
+
+    @Override
+    public InboxSummary getInboxSummary(int userId) {
+        ensureOpen();
+        return notificationsByRecipient.read(userId, inbox -> inbox == null ? new InboxSummary(userId) : inbox.snapshot());
+    }
+
+    // Market data operations
+    @Override
+    public Optional<MarketData> getMarketData(String symbol) {
+        ensureOpen();
+        return Optional.ofNullable(marketData.get(symbol));
+    }
+
+    @Override
+    public void saveMarketData(MarketData quote) {
+        ensureOpen();
+        marketData.put(quote.getSymbol(), quote);
+    }
+
+    @Override
+    public int saveMarketDataSnapshot(Collection<MarketData> snapshot) {
+        ensureOpen();
+        for (MarketData quote : snapshot) {
+            marketData.put(quote.getSymbol(), quote);
+        }
+        return snapshot.size();
+    }
+
+    /** Receives every stored entity from {@link #forEachStored}. */
+    interface StoredEntityVisitor {
+        void user(InvestmentUser user);
+        void portfolio(Portfolio portfolio);
+        void holdings(int portfolioId, List<PortfolioItem> items);
+        void transaction(Transaction transaction);
+        void report(Report report);
+        void comment(Comment comment);
+        void notification(Notification notification);
+        void marketData(MarketData quote);
+    }
+
+    /** Visits every stored entity, one lock stripe at a time. */
+    void forEachStored(StoredEntityVisitor visitor) {
+        usersByEmail.forEachValue(visitor::user);
+        portfoliosByOwner.forEachValue(portfolios -> portfolios.values().forEach(visitor::portfolio));
+        for (Integer portfolioId : ownerByPortfolioId.keySet()) {
+            holdings.read(portfolioId, items -> {
+                if (items != null) {
+                    visitor.holdings(portfolioId, items);
+                }
+                return null;
+            });
+        }
+        transactionsByUser.forEachValue(transactions -> transactions.values().forEach(visitor::transaction));
+        reportsByAuthor.forEachValue(reports -> reports.values().forEach(visitor::report));
+        commentsByTarget.forEachValue(comments -> comments.values().forEach(visitor::comment));
+        notificationsByRecipient.forEachValue(inbox -> inbox.notifications.values().forEach(visitor::notification));
+        marketData.forEachValue(visitor::marketData);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
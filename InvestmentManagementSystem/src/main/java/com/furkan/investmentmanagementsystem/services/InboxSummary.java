@@ -0,0 +1,73 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.Notification.NotificationPriority;
+import com.furkan.investmentmanagementsystem.models.Notification.NotificationType;
+
+/**
+ * Read-only counts of a recipient's notifications that are not deleted, split by
+ * type and priority, for inbox badges that must not load the notifications.
+ */
+public final class InboxSummary {
+    private static final int TYPES = NotificationType.values().length;
+    private static final int PRIORITIES = NotificationPriority.values().length;
+
+    private final int recipientId;
+    // Indexed by [type.ordinal()][priority.ordinal()]
+    private final int[][] total;
+    private final int[][] unread;
+
+    InboxSummary(int recipientId) {
+        this.recipientId = recipientId;
+        this.total = new int[TYPES][PRIORITIES];
+        this.unread = new int[TYPES][PRIORITIES];
+    }
+
+    InboxSummary(InboxSummary other) {
+        this.recipientId = other.recipientId;
+        this.total = new int[TYPES][];
+        this.unread = new int[TYPES][];
+        for (int t = 0; t < TYPES; t++) {
+            total[t] = other.total[t].clone();
+            unread[t] = other.unread[t].clone();
+        }
+    }
+
+    /** Adds to one type/priority cell; only used by the code that owns the summary. */
+    void add(NotificationType type, NotificationPriority priority, int totalCount, int unreadCount) {
+        total[type.ordinal()][priority.ordinal()] += totalCount;
+        unread[type.ordinal()][priority.ordinal()] += unreadCount;
+    }
+
+    public int getRecipientId() { return recipientId; }
+
+    public int getTotalCount() { return sum(total, null, null); }
+    public int getTotalCount(NotificationType type) { return sum(total, type, null); }
+    public int getTotalCount(NotificationPriority priority) { return sum(total, null, priority); }
+
+    public int getUnreadCount() { return sum(unread, null, null); }
+    public int getUnreadCount(NotificationType type) { return sum(unread, type, null); }
+    public int getUnreadCount(NotificationPriority priority) { return sum(unread, null, priority); }
+    public int getUnreadCount(NotificationType type, NotificationPriority priority) {
+        return unread[type.ordinal()][priority.ordinal()];
+    }
+
+    private static int sum(int[][] counts, NotificationType type, NotificationPriority priority) {
+        int sum = 0;
+        for (int t = 0; t < TYPES; t++) {
+            if (type != null && t != type.ordinal()) {
+                continue;
+            }
+            for (int p = 0; p < PRIORITIES; p++) {
+                if (priority == null || p == priority.ordinal()) {
+                    sum += counts[t][p];
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Inbox of user %d: %d unread of %d", recipientId, getUnreadCount(), getTotalCount());
+    }
+}
@@ -0,0 +1,239 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.Transaction;
+import com.furkan.investmentmanagementsystem.services.ConnectionPool.PooledConnection;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Copies trades from a {@link TradeJournal} into the transactions table in the
+ * background. Each batch is written together with the journal offset it ends at,
+ * in one database transaction, so after a restart the writer continues exactly
+ * after the last committed trade and no trade is stored twice. Trades are stored
+ * under the user the writer was created for.
+ */
+public class JournalDatabaseWriter implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(JournalDatabaseWriter.class.getName());
+    private static final long POLL_MILLIS = 200;
+    private static final long MAX_BACKOFF_MILLIS = 10_000;
+
+    private final TradeJournal journal;
+    private final DatabaseService databaseService;
+    private final ConnectionPool pool;
+    private final String journalName;
+    private final int batchSize;
+    private final int userId;
+    private final Thread thread;
+    private final Object stopSignal = new Object();
+    private volatile boolean running = true;
+    private volatile long committedOffset;
+    private volatile long committedSequence;
+    private volatile long rowsWritten;
+    private volatile long batches;
+    private volatile long failures;
+
+    public JournalDatabaseWriter(TradeJournal journal, DatabaseService databaseService) {
+        this(journal, databaseService, 1_000);
+    }
+
+    public JournalDatabaseWriter(TradeJournal journal, DatabaseService databaseService, int batchSize) {
+        this(journal, databaseService, batchSize, 0);
+    }
+
+    /**
+     * Starts copying from where the previous writer for this journal file stopped.
+     * @param batchSize Maximum number of trades per database transaction
+     * @param userId The owner to store the copied trades under
+     */
+    public JournalDatabaseWriter(TradeJournal journal, DatabaseService databaseService, int batchSize, int userId) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.journal = journal;
+        this.databaseService = databaseService;
+        this.pool = databaseService.getPool();
+        this.journalName = journal.getPath().toAbsolutePath().normalize().toString();
+        this.batchSize = batchSize;
+        this.userId = userId;
+        loadOffset();
+        this.thread = new Thread(this::run, "journal-db-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void loadOffset() {
+        try (PooledConnection conn = pool.writer();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS journal_offsets (
+                    journal TEXT PRIMARY KEY,
+                    sequence INTEGER NOT NULL,
+                    byte_offset INTEGER NOT NULL
+                )
+            """);
+            PreparedStatement pstmt = conn.prepareCached("SELECT sequence, byte_offset FROM journal_offsets WHERE journal = ?");
+            pstmt.setString(1, journalName);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    committedSequence = rs.getLong(1);
+                    committedOffset = rs.getLong(2);
+                } else {
+                    committedOffset = journal.getStartOffset();
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error loading journal offset for " + journalName, e);
+            throw new RuntimeException("Failed to initialize journal writer", e);
+        }
+    }
+
+    private void run() {
+        long backoff = POLL_MILLIS;
+        while (running) {
+            try {
+                if (journal.awaitDurableOffset(committedOffset, POLL_MILLIS) <= committedOffset) {
+                    continue;
+                }
+                drain();
+                backoff = POLL_MILLIS;
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                failures++;
+                LOGGER.log(Level.WARNING, "Journal copy failed at sequence " + committedSequence +
+                    "; retrying in " + backoff + " ms", e);
+                try {
+                    synchronized (stopSignal) {
+                        if (running) {
+                            stopSignal.wait(backoff);
+                        }
+                    }
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Copies every durable trade not yet in the database.
+     * @return The number of trades written
+     */
+    public synchronized int drain() throws IOException {
+        int total = 0;
+        List<Transaction> batch = new ArrayList<>(batchSize);
+        long[] lastSequence = {committedSequence};
+        while (true) {
+            batch.clear();
+            long next = journal.read(committedOffset, batchSize, event -> {
+                batch.add(event.toTransaction());
+                lastSequence[0] = event.getSequence();
+            });
+            if (next == committedOffset) {
+                return total;
+            }
+            commit(batch, lastSequence[0], next);
+            total += batch.size();
+        }
+    }
+
+    private void commit(List<Transaction> batch, long sequence, long offset) {
+        try (PooledConnection conn = pool.writer()) {
+            Connection connection = conn.getConnection();
+            connection.setAutoCommit(false);
+            try {
+                databaseService.saveTransactions(userId, batch);
+                PreparedStatement pstmt = conn.prepareCached("INSERT INTO journal_offsets (journal, sequence, byte_offset) " +
+                    "VALUES (?, ?, ?) ON CONFLICT(journal) DO UPDATE SET sequence = excluded.sequence, " +
+                    "byte_offset = excluded.byte_offset");
+                pstmt.setString(1, journalName);
+                pstmt.setLong(2, sequence);
+                pstmt.setLong(3, offset);
+                pstmt.executeUpdate();
+                connection.commit();
+            } catch (RuntimeException | SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error committing journal batch ending at sequence " + sequence, e);
+            throw new RuntimeException("Failed to copy journal batch", e);
+        }
+        committedOffset = offset;
+        committedSequence = sequence;
+        rowsWritten += batch.size();
+        batches++;
+    }
+
+    public WriterStats getStats() {
+        return new WriterStats(committedSequence, journal.getLastSequence(), rowsWritten, batches, failures);
+    }
+
+    /**
+     * Stops the background thread after its current batch and copies what is left.
+     * The thread is signalled rather than interrupted: it reads the journal's
+     * {@code FileChannel}, which an interrupt would close for every other user.
+     */
+    @Override
+    public void close() {
+        running = false;
+        synchronized (stopSignal) {
+            stopSignal.notifyAll();
+        }
+        try {
+            thread.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            drain();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Final journal copy failed at sequence " + committedSequence, e);
+        }
+    }
+
+    /** Progress of the copy; {@link #getLag} trades are journaled but not yet in the database. */
+    public static final class WriterStats {
+        private final long committedSequence;
+        private final long journalSequence;
+        private final long rowsWritten;
+        private final long batches;
+        private final long failures;
+
+        private WriterStats(long committedSequence, long journalSequence, long rowsWritten, long batches, long failures) {
+            this.committedSequence = committedSequence;
+            this.journalSequence = journalSequence;
+            this.rowsWritten = rowsWritten;
+            this.batches = batches;
+            this.failures = failures;
+        }
+
+        public long getCommittedSequence() { return committedSequence; }
+        public long getJournalSequence() { return journalSequence; }
+        public long getRowsWritten() { return rowsWritten; }
+        public long getBatches() { return batches; }
+        public long getFailures() { return failures; }
+
+        public long getLag() {
+            return Math.max(0, journalSequence - committedSequence);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("committed %d/%d (lag %d), %d rows in %d batches, %d failures",
+                committedSequence, journalSequence, getLag(), rowsWritten, batches, failures);
+        }
+    }
+}
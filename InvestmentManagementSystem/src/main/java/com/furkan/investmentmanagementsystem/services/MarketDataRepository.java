@@ -0,0 +1,29 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.MarketData;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Storage of the latest quote per symbol.
+ */
+public interface MarketDataRepository {
+    /**
+     * @param symbol The ticker symbol
+     * @return The latest quote, or empty if the symbol is unknown
+     */
+    Optional<MarketData> getMarketData(String symbol);
+
+    /**
+     * Inserts a quote or replaces the previous one for its symbol.
+     * @param marketData The quote to store
+     */
+    void saveMarketData(MarketData marketData);
+
+    /**
+     * Writes a full set of quotes at once.
+     * @param snapshot The latest market data per symbol
+     * @return The number of rows written
+     */
+    int saveMarketDataSnapshot(Collection<MarketData> snapshot);
+}
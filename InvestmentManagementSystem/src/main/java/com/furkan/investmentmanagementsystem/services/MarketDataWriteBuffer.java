@@ -0,0 +1,191 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.MarketData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind buffer for price ticks. Only the latest quote per symbol is kept;
+ * pending quotes are written as one batched transaction every flush interval, or
+ * sooner once the number of dirty symbols reaches the size threshold. Quotes that
+ * are superseded before a flush never reach the database.
+ */
+public class MarketDataWriteBuffer implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(MarketDataWriteBuffer.class.getName());
+
+    private final DatabaseService databaseService;
+    private final int flushThreshold;
+    private final Map<String, MarketData> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    // Submits share the read lock; close takes the write lock, so no submit is half done when the timer stops
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    public MarketDataWriteBuffer(DatabaseService databaseService) {
+        this(databaseService, 1_000, 1_000);
+    }
+
+    /**
+     * @param databaseService Where flushed quotes are written
+     * @param flushIntervalMillis Maximum time a quote waits before being written
+     * @param flushThreshold Number of dirty symbols that triggers an early flush
+     */
+    public MarketDataWriteBuffer(DatabaseService databaseService, long flushIntervalMillis, int flushThreshold) {
+        if (flushIntervalMillis <= 0 || flushThreshold < 1) {
+            throw new IllegalArgumentException("Flush interval and threshold must be positive");
+        }
+        this.databaseService = databaseService;
+        this.flushThreshold = flushThreshold;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "market-data-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a quote, replacing any unflushed quote for the same symbol.
+     * @param marketData The latest quote
+     * @throws IllegalStateException If the buffer is closed, including when {@link #close} wins a race with this call
+     */
+    public void submit(MarketData marketData) {
+        if (marketData == null || marketData.getSymbol() == null) {
+            throw new IllegalArgumentException("Market data and symbol cannot be null");
+        }
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Market data buffer is closed");
+            }
+            received.increment();
+            if (pending.put(marketData.getSymbol(), marketData) != null) {
+                coalesced.increment();
+            }
+            if (pending.size() >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+                scheduler.execute(() -> {
+                    flushRequested.set(false);
+                    flushQuietly();
+                });
+            }
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes every pending quote in one transaction.
+     * @return The number of rows written
+     */
+    public synchronized int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<MarketData> batch = new ArrayList<>(pending.size());
+        for (Map.Entry<String, MarketData> entry : pending.entrySet()) {
+            // Only drop the entry if no newer quote arrived while we were collecting
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.add(entry.getValue());
+            }
+        }
+        try {
+            int rows = databaseService.saveMarketDataSnapshot(batch);
+            written.add(rows);
+            flushes.increment();
+            return rows;
+        } catch (RuntimeException e) {
+            failedFlushes.increment();
+            // Put the quotes back unless a newer one has arrived in the meantime
+            batch.forEach(quote -> pending.putIfAbsent(quote.getSymbol(), quote));
+            throw e;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Market data flush failed; " + pending.size() + " quotes will be retried", e);
+        }
+    }
+
+    public WriteBufferStats getStats() {
+        return new WriteBufferStats(received.sum(), coalesced.sum(), written.sum(), flushes.sum(),
+            failedFlushes.sum(), pending.size());
+    }
+
+    /** Stops the flush timer and writes whatever is still pending. */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    /**
+     * Counters for the buffer. {@code received - coalesced} is the number of
+     * quotes that were (or still are to be) written.
+     */
+    public static final class WriteBufferStats {
+        private final long received;
+        private final long coalesced;
+        private final long written;
+        private final long flushes;
+        private final long failedFlushes;
+        private final int pending;
+
+        private WriteBufferStats(long received, long coalesced, long written, long flushes, long failedFlushes, int pending) {
+            this.received = received;
+            this.coalesced = coalesced;
+            this.written = written;
+            this.flushes = flushes;
+            this.failedFlushes = failedFlushes;
+            this.pending = pending;
+        }
+
+        public long getReceived() { return received; }
+        public long getCoalesced() { return coalesced; }
+        public long getWritten() { return written; }
+        public long getFlushes() { return flushes; }
+        public long getFailedFlushes() { return failedFlushes; }
+        public int getPending() { return pending; }
+
+        public double getCoalescingRatio() {
+            return received == 0 ? 0 : (double) coalesced / received;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d received, %d coalesced (%.1f%%), %d written in %d flushes, %d pending",
+                received, coalesced, getCoalescingRatio() * 100, written, flushes, pending);
+        }
+    }
+}
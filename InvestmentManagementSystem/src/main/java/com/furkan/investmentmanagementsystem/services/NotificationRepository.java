@@ -0,0 +1,65 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.Notification;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Storage of user notifications.
+ */
+public interface NotificationRepository {
+    /**
+     * @param userId The recipient
+     * @return The recipient's notifications that are not deleted, newest first
+     */
+    List<Notification> getUserNotifications(int userId);
+
+    /**
+     * Inserts a notification; ids must be unique.
+     * @param notification The notification to store
+     */
+    void saveNotification(Notification notification);
+
+    /**
+     * Inserts many notifications at once.
+     * @param notifications The notifications to store
+     * @return The number of rows written
+     */
+    int saveNotifications(Collection<Notification> notifications);
+
+    /**
+     * Marks one notification as read.
+     * @param notificationId The notification to mark
+     * @return False if no notification has that id
+     */
+    boolean markNotificationRead(int notificationId);
+
+    /**
+     * Marks every notification of a recipient as read.
+     * @param userId The recipient
+     * @return The number of notifications that were unread
+     */
+    int markAllNotificationsRead(int userId);
+
+    /**
+     * Soft-deletes a notification so it no longer appears in lists or counts.
+     * @param notificationId The notification to delete
+     * @return False if no notification has that id
+     */
+    boolean deleteNotification(int notificationId);
+
+    /**
+     * Reads the recipient's maintained counters; no notification is loaded.
+     * @param userId The recipient
+     * @return Unread and total counts by type and priority
+     */
+    InboxSummary getInboxSummary(int userId);
+
+    /**
+     * @param userId The recipient
+     * @return The number of unread notifications that are not deleted
+     */
+    default int getUnreadNotificationCount(int userId) {
+        return getInboxSummary(userId).getUnreadCount();
+    }
+}
@@ -0,0 +1,31 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * One page of a keyset-paginated read. The cursor is an opaque token that is
+ * passed back unchanged to fetch the following page.
+ * @param <T> The row type
+ */
+public final class Page<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() { return items; }
+
+    /** @return The cursor for the next page, or empty if this is the last one */
+    public Optional<String> getNextCursor() { return Optional.ofNullable(nextCursor); }
+
+    public boolean hasMore() { return nextCursor != null; }
+
+    public int size() { return items.size(); }
+
+    public boolean isEmpty() { return items.isEmpty(); }
+}
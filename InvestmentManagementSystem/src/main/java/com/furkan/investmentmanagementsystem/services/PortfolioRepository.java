@@ -0,0 +1,55 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.Portfolio;
+import com.furkan.investmentmanagementsystem.models.PortfolioItem;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Storage of portfolios and their holdings.
+ */
+public interface PortfolioRepository {
+    /** Recent transactions loaded by {@link #loadPortfolioGraph(int)} */
+    int DEFAULT_GRAPH_TRANSACTIONS = 100;
+
+    /**
+     * @param userId The owner of the portfolios
+     * @return The user's portfolios, headers only
+     */
+    List<Portfolio> getUserPortfolios(int userId);
+
+    /**
+     * Loads a user's portfolios with their holdings and recent transactions attached,
+     * using a fixed number of queries however many portfolios the user has.
+     * @param userId The owner of the portfolios
+     * @param recentTransactions Maximum transactions to load per portfolio
+     * @return The user's portfolios by id. Each holds its items and, newest first, its most recent
+     *         transactions in the assets it holds; a transaction in an asset held by several
+     *         portfolios appears in each of their windows.
+     */
+    List<Portfolio> loadPortfolioGraph(int userId, int recentTransactions);
+
+    default List<Portfolio> loadPortfolioGraph(int userId) {
+        return loadPortfolioGraph(userId, DEFAULT_GRAPH_TRANSACTIONS);
+    }
+
+    /**
+     * Inserts or updates a portfolio's header fields.
+     * @param portfolio The portfolio to store
+     */
+    void savePortfolio(Portfolio portfolio);
+
+    /**
+     * Replaces the holdings of a portfolio.
+     * @param portfolioId The portfolio that owns the holdings
+     * @param items The complete set of holdings
+     * @return The number of holdings written
+     */
+    int savePortfolioItems(int portfolioId, Collection<PortfolioItem> items);
+
+    /**
+     * @param limit Maximum number of portfolios to return
+     * @return The largest active portfolios by current value, largest first
+     */
+    List<PortfolioSummary> getTopPortfoliosByValue(int limit);
+}
@@ -1,18 +1,184 @@
 package com.furkan.investmentmanagementsystem.services;
 
 import com.furkan.investmentmanagementsystem.models.PortfolioItem;
+import com.furkan.investmentmanagementsystem.models.Transaction;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Implementation of the PortfolioService interface.
  * Manages user portfolios using in-memory storage.
  */
 public class PortfolioServiceImpl implements PortfolioService {
+    private static final Logger LOGGER = Logger.getLogger(PortfolioServiceImpl.class.getName());
+
     // Thread-safe map of user portfolios
     private final Map<String, ObservableList<PortfolioItem>> userPortfolios = new ConcurrentHashMap<>();
+    private final TradeJournal journal;
+    // Held while a trade is journaled and applied, and while a snapshot is taken
+    private final Object tradeLock = new Object();
+
+    public PortfolioServiceImpl() {
+        this.journal = null;
+    }
+
+    /**
+     * Creates a service whose trades are journaled, rebuilding positions by
+     * replaying every trade already in the journal.
+     * @param journal The trade journal; stays owned by the caller
+     */
+    public PortfolioServiceImpl(TradeJournal journal) {
+        this(journal, null);
+    }
+
+    /**
+     * Creates a journaled service, restoring the latest snapshot and then
+     * replaying only the trades journaled after it.
+     * @param journal The trade journal; stays owned by the caller
+     * @param snapshots Where snapshots are kept, or null to replay the whole journal
+     */
+    public PortfolioServiceImpl(TradeJournal journal, PortfolioSnapshotStore snapshots) {
+        this.journal = journal;
+        try {
+            long afterSequence = 0;
+            long fromOffset = journal.getStartOffset();
+            if (snapshots != null) {
+                Optional<PortfolioSnapshotStore.SnapshotInfo> restored = snapshots.restoreLatest(this);
+                if (restored.isPresent()) {
+                    afterSequence = restored.get().getJournalSequence();
+                    fromOffset = restored.get().getJournalOffset();
+                }
+            }
+            long last = journal.replay(afterSequence, fromOffset, this::applyTrade);
+            LOGGER.info("Replayed trade journal from sequence " + afterSequence + " up to " + last);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to restore portfolios from " + journal.getPath(), e);
+        }
+    }
+
+    /**
+     * Executes a trade: validates it, appends it to the journal and applies it to
+     * the user's positions. Returns once the trade is durable in the journal; the
+     * database copy is written later by a {@link JournalDatabaseWriter}. If the
+     * journal cannot flush the trade, positions are rolled back to what the
+     * journal holds on disk and the flush error is rethrown.
+     * @return The journaled trade
+     */
+    public TradeEvent executeTrade(String userEmail, String asset, String assetType,
+                                   Transaction.TransactionType type, double quantity, double price) {
+        if (journal == null) {
+            throw new IllegalStateException("Trades need a journal; use PortfolioServiceImpl(TradeJournal)");
+        }
+        TradeEvent event = new TradeEvent(userEmail, asset, assetType, type, quantity, price);
+        TradeEvent sequenced;
+        // Journal order must match the order trades are applied in
+        synchronized (tradeLock) {
+            // Validate fully before journaling: a journaled trade must always apply
+            PortfolioItem bought = type == Transaction.TransactionType.BUY ? newPosition(event) : null;
+            if (type == Transaction.TransactionType.SELL) {
+                if (price <= 0) {
+                    throw new IllegalArgumentException("Price must be greater than 0");
+                }
+                double held = findPosition(userEmail, asset).map(PortfolioItem::getQuantity).orElse(0.0);
+                if (held < quantity) {
+                    throw new IllegalArgumentException("Insufficient quantity to sell");
+                }
+            }
+            sequenced = journal.appendAsync(event);
+            if (bought != null) {
+                addPosition(userEmail, bought);
+            } else {
+                applyTrade(sequenced);
+            }
+        }
+        try {
+            journal.awaitDurable(sequenced.getSequence());
+        } catch (RuntimeException e) {
+            rollBackToJournal();
+            throw e;
+        }
+        return sequenced;
+    }
+
+    /**
+     * Rebuilds positions from the durable part of the journal. A failed flush stops
+     * the journal for good, so this undoes every trade applied past its durable end,
+     * not only the caller's; rebuilding again for the other failed trades is harmless.
+     */
+    private void rollBackToJournal() {
+        synchronized (tradeLock) {
+            // Keep the list instances: views may still be bound to them
+            userPortfolios.values().forEach(List::clear);
+            try {
+                journal.replay(0, this::applyTrade);
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "Error rebuilding positions from " + journal.getPath(), e);
+            }
+        }
+    }
+
+    /** Applies a journaled trade to in-memory positions. Non-trading types leave positions unchanged. */
+    void applyTrade(TradeEvent event) {
+        switch (event.getType()) {
+            case BUY -> addPosition(event.getUserEmail(), newPosition(event));
+            case SELL -> {
+                Optional<PortfolioItem> position = findPosition(event.getUserEmail(), event.getAsset());
+                if (position.isEmpty() || position.get().getQuantity() < event.getQuantity()) {
+                    LOGGER.warning("Skipping sell without a matching position: " + event);
+                    return;
+                }
+                PortfolioItem current = position.get();
+                double remaining = current.getQuantity() - event.getQuantity();
+                if (remaining == 0) {
+                    removePosition(event.getUserEmail(), event.getAsset());
+                } else {
+                    current.quantityProperty().set(remaining);
+                    current.refreshPrice(event.getPrice());
+                }
+            }
+            default -> {
+                // Dividends, interest and transfers do not change holdings
+            }
+        }
+    }
+
+    /**
+     * Runs an action while no trade can be journaled or applied, so it sees
+     * positions that match exactly the journal's last sequence.
+     */
+    <T> T withTradesPaused(Supplier<T> action) {
+        synchronized (tradeLock) {
+            return action.get();
+        }
+    }
+
+    /** @return The journal trades go to, or null for a purely in-memory service */
+    TradeJournal getJournal() {
+        return journal;
+    }
+
+    /** @return The live portfolio map; callers must not modify it */
+    Map<String, ObservableList<PortfolioItem>> getAllPortfolios() {
+        return userPortfolios;
+    }
+
+    /** Replaces a user's positions; used when restoring a snapshot. */
+    void restorePortfolio(String userEmail, List<PortfolioItem> items) {
+        userPortfolios.put(userEmail, FXCollections.observableArrayList(items));
+    }
+
+    private static PortfolioItem newPosition(TradeEvent event) {
+        PortfolioItem item = new PortfolioItem(event.getAsset(), event.getAssetType(), event.getQuantity(), event.getPrice());
+        item.refreshPrice(event.getPrice());
+        return item;
+    }
 
     @Override
     public ObservableList<PortfolioItem> getUserPortfolio(String userEmail) {
@@ -0,0 +1,390 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.PortfolioItem;
+import javafx.collections.ObservableList;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshots of every position held in a {@link PortfolioServiceImpl}.
+ * A snapshot records the journal sequence and offset it is consistent with, so a
+ * restart loads the snapshot and replays only the trades journaled after it.
+ * <p>
+ * File layout: a 40-byte header (magic, version, journal sequence, journal offset,
+ * creation time, user count) followed by each user's email and positions, and a
+ * CRC32 of everything before it. Asset names and types are written once and then
+ * referred to by index. Files are written under a temporary name and renamed, so a
+ * crash never leaves a partial snapshot behind; a snapshot that fails its checksum
+ * is skipped in favour of the previous one.
+ */
+public class PortfolioSnapshotStore implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(PortfolioSnapshotStore.class.getName());
+    private static final int MAGIC = 0x494D5350; // "IMSP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 40;
+    private static final String PREFIX = "portfolio-";
+    private static final String SUFFIX = ".snap";
+
+    private final Path directory;
+    private final int retained;
+    private ScheduledExecutorService scheduler;
+
+    public PortfolioSnapshotStore(Path directory) throws IOException {
+        this(directory, 2);
+    }
+
+    /**
+     * @param directory Where snapshot files are kept; created if missing
+     * @param retained How many snapshots to keep; older ones are deleted after each write
+     */
+    public PortfolioSnapshotStore(Path directory, int retained) throws IOException {
+        if (retained < 1) {
+            throw new IllegalArgumentException("At least one snapshot must be retained");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.retained = retained;
+    }
+
+    /**
+     * Writes a snapshot of all positions. Trading is paused only while the
+     * positions are encoded in memory, not while the file is written. The file is
+     * written once the journal is durable up to the recorded sequence, so a crash
+     * can never leave a snapshot that is ahead of the journal.
+     * @return Details of the new snapshot
+     */
+    public SnapshotInfo write(PortfolioServiceImpl service) throws IOException {
+        long start = System.nanoTime();
+        TradeJournal journal = service.getJournal();
+        Encoded encoded = service.withTradesPaused(() -> encode(service.getAllPortfolios(),
+            journal == null ? 0 : journal.getLastSequence(), journal == null ? 0 : journal.getEndOffset()));
+        if (journal != null) {
+            journal.awaitDurable(encoded.sequence);
+        }
+
+        Path target = directory.resolve(String.format("%s%020d-%013d%s", PREFIX, encoded.sequence,
+            System.currentTimeMillis(), SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+            out.write(encoded.bytes, 0, encoded.length);
+            out.getFD().sync();
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        deleteOldSnapshots();
+        SnapshotInfo info = new SnapshotInfo(target, encoded.sequence, encoded.offset, encoded.users,
+            encoded.positions, encoded.length, System.nanoTime() - start);
+        LOGGER.info("Wrote portfolio snapshot " + info);
+        return info;
+    }
+
+    private static final class Encoded {
+        private byte[] bytes;
+        private int length;
+        private long sequence;
+        private long offset;
+        private int users;
+        private long positions;
+    }
+
+    private static Encoded encode(Map<String, ObservableList<PortfolioItem>> portfolios, long sequence, long offset) {
+        ExposedByteArrayOutputStream buffer = new ExposedByteArrayOutputStream(HEADER_BYTES + portfolios.size() * 64);
+        DataOutputStream out = new DataOutputStream(buffer);
+        Map<String, Integer> dictionary = new HashMap<>();
+        Encoded encoded = new Encoded();
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sequence);
+            out.writeLong(offset);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(0); // user count, patched below
+            out.writeInt(0); // reserved
+            for (Map.Entry<String, ObservableList<PortfolioItem>> entry : portfolios.entrySet()) {
+                List<PortfolioItem> items = entry.getValue();
+                if (items.isEmpty()) {
+                    continue;
+                }
+                writeString(out, entry.getKey());
+                writeVarInt(out, items.size());
+                for (PortfolioItem item : items) {
+                    writeReference(out, dictionary, item.getAsset());
+                    writeReference(out, dictionary, item.getType());
+                    out.writeDouble(item.getQuantity());
+                    out.writeDouble(item.getOpenPrice());
+                    out.writeDouble(item.getLastPrice());
+                }
+                encoded.users++;
+                encoded.positions += items.size();
+            }
+            CRC32 crc = new CRC32();
+            byte[] bytes = buffer.array();
+            ByteBuffer.wrap(bytes).putInt(32, encoded.users);
+            crc.update(bytes, 0, buffer.size());
+            out.writeInt((int) crc.getValue());
+        } catch (IOException e) {
+            throw new IllegalStateException("In-memory write failed", e);
+        }
+        encoded.bytes = buffer.array();
+        encoded.length = buffer.size();
+        encoded.sequence = sequence;
+        encoded.offset = offset;
+        return encoded;
+    }
+
+    /** Writes a string the first time it is seen and its index afterwards. */
+    private static void writeReference(DataOutputStream out, Map<String, Integer> dictionary, String value) throws IOException {
+        Integer index = dictionary.get(value);
+        if (index != null) {
+            writeVarInt(out, index + 1);
+        } else {
+            dictionary.put(value, dictionary.size());
+            writeVarInt(out, 0);
+            writeString(out, value);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Loads the newest readable snapshot into a service, replacing the positions
+     * of every user it contains. A snapshot that is ahead of the service's journal
+     * counts as unreadable: trades appended after it would reuse its sequence numbers
+     * and be skipped by the replay.
+     * @return The snapshot that was loaded, or empty if there is none
+     */
+    public Optional<SnapshotInfo> restoreLatest(PortfolioServiceImpl service) throws IOException {
+        List<Path> snapshots = listSnapshots();
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Path file = snapshots.get(i);
+            long start = System.nanoTime();
+            try {
+                byte[] bytes = Files.readAllBytes(file);
+                SnapshotInfo info = decode(file, bytes, service, start);
+                LOGGER.info("Restored portfolio snapshot " + info);
+                return Optional.of(info);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Skipping unreadable portfolio snapshot " + file, e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static SnapshotInfo decode(Path file, byte[] bytes, PortfolioServiceImpl service, long start) throws IOException {
+        if (bytes.length < HEADER_BYTES + 4) {
+            throw new IOException("Snapshot is truncated");
+        }
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Not a portfolio snapshot");
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        if ((int) crc.getValue() != in.getInt(bytes.length - 4)) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+        long sequence = in.getLong();
+        long offset = in.getLong();
+        TradeJournal journal = service.getJournal();
+        if (journal != null && (sequence > journal.getLastSequence() || offset > journal.getEndOffset())) {
+            throw new IOException("Snapshot at sequence " + sequence + " is ahead of journal " + journal.getPath() +
+                " (sequence " + journal.getLastSequence() + ")");
+        }
+        in.getLong(); // creation time
+        int users = in.getInt();
+        in.getInt();
+
+        // Decode everything before touching the service so a bad file changes nothing
+        List<String> dictionary = new ArrayList<>();
+        List<String> emails = new ArrayList<>(users);
+        List<List<PortfolioItem>> portfolios = new ArrayList<>(users);
+        long positions = 0;
+        for (int u = 0; u < users; u++) {
+            emails.add(readString(in));
+            int count = readVarInt(in);
+            List<PortfolioItem> items = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String asset = readReference(in, dictionary);
+                String type = readReference(in, dictionary);
+                double quantity = in.getDouble();
+                double openPrice = in.getDouble();
+                double lastPrice = in.getDouble();
+                PortfolioItem item = new PortfolioItem(asset, type, quantity, openPrice);
+                item.refreshPrice(lastPrice);
+                items.add(item);
+            }
+            portfolios.add(items);
+            positions += count;
+        }
+        if (in.position() != bytes.length - 4) {
+            throw new IOException("Unexpected data after last portfolio");
+        }
+        for (int u = 0; u < users; u++) {
+            service.restorePortfolio(emails.get(u), portfolios.get(u));
+        }
+        return new SnapshotInfo(file, sequence, offset, users, positions, bytes.length, System.nanoTime() - start);
+    }
+
+    private static String readReference(ByteBuffer in, List<String> dictionary) {
+        int reference = readVarInt(in);
+        if (reference == 0) {
+            String value = readString(in);
+            dictionary.add(value);
+            return value;
+        }
+        return dictionary.get(reference - 1);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readVarInt(in);
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    /**
+     * Writes a snapshot at a fixed interval on a background thread.
+     * Failures are logged and retried at the next interval.
+     */
+    public synchronized void schedule(PortfolioServiceImpl service, Duration interval) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Snapshots are already scheduled");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "portfolio-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                write(service);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Portfolio snapshot failed", e);
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /** @return Snapshot files, oldest first */
+    List<Path> listSnapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    private void deleteOldSnapshots() throws IOException {
+        List<Path> snapshots = listSnapshots();
+        for (int i = 0; i < snapshots.size() - retained; i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+    }
+
+    /** Stops scheduled snapshots; does not write a final one. */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+        private ExposedByteArrayOutputStream(int size) {
+            super(size);
+        }
+
+        private byte[] array() {
+            return buf;
+        }
+    }
+
+    /** Where a snapshot is, which journal position it matches, and how big it is. */
+    public static final class SnapshotInfo {
+        private final Path file;
+        private final long journalSequence;
+        private final long journalOffset;
+        private final int users;
+        private final long positions;
+        private final long bytes;
+        private final long elapsedNanos;
+
+        private SnapshotInfo(Path file, long journalSequence, long journalOffset, int users, long positions,
+                             long bytes, long elapsedNanos) {
+            this.file = file;
+            this.journalSequence = journalSequence;
+            this.journalOffset = journalOffset;
+            this.users = users;
+            this.positions = positions;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public Path getFile() { return file; }
+        public long getJournalSequence() { return journalSequence; }
+        public long getJournalOffset() { return journalOffset; }
+        public int getUsers() { return users; }
+        public long getPositions() { return positions; }
+        public long getBytes() { return bytes; }
+        public double getElapsedMillis() { return elapsedNanos / 1_000_000.0; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: sequence %d, %d users, %d positions, %d bytes in %.0f ms",
+                file.getFileName(), journalSequence, users, positions, bytes, getElapsedMillis());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.Portfolio;
+
+/**
+ * Read-only projection of a portfolio's header and its database-maintained totals,
+ * for dashboards that rank or sum portfolios without loading their holdings.
+ */
+public final class PortfolioSummary {
+    private final int id;
+    private final String name;
+    private final int ownerId;
+    private final Portfolio.RiskProfile riskProfile;
+    private final double totalValue;
+    private final double totalCost;
+    private final double totalProfitLoss;
+    private final double totalProfitLossPercent;
+
+    PortfolioSummary(int id, String name, int ownerId, Portfolio.RiskProfile riskProfile, double totalValue,
+                     double totalCost, double totalProfitLoss, double totalProfitLossPercent) {
+        this.id = id;
+        this.name = name;
+        this.ownerId = ownerId;
+        this.riskProfile = riskProfile;
+        this.totalValue = totalValue;
+        this.totalCost = totalCost;
+        this.totalProfitLoss = totalProfitLoss;
+        this.totalProfitLossPercent = totalProfitLossPercent;
+    }
+
+    public int getId() { return id; }
+    public String getName() { return name; }
+    public int getOwnerId() { return ownerId; }
+    public Portfolio.RiskProfile getRiskProfile() { return riskProfile; }
+    public double getTotalValue() { return totalValue; }
+    public double getTotalCost() { return totalCost; }
+    public double getTotalProfitLoss() { return totalProfitLoss; }
+    public double getTotalProfitLossPercent() { return totalProfitLossPercent; }
+
+    @Override
+    public String toString() {
+        return String.format("%s (#%d): $%.2f, P/L %.2f%%", name, id, totalValue, totalProfitLossPercent);
+    }
+}
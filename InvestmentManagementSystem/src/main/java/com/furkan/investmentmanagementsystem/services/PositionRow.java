@@ -0,0 +1,49 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.PortfolioItem;
+
+/**
+ * Immutable projection of one holding, for valuation and reporting jobs that need
+ * the quantity and prices but not a {@link PortfolioItem} and its properties.
+ * Convert with {@link #toPortfolioItem()} at the UI edge.
+ */
+public final class PositionRow {
+    private final int portfolioId;
+    private final String assetName;
+    private final String assetType;
+    private final double quantity;
+    private final double openPrice;
+    private final double lastPrice;
+
+    PositionRow(int portfolioId, String assetName, String assetType, double quantity, double openPrice,
+                double lastPrice) {
+        this.portfolioId = portfolioId;
+        this.assetName = assetName;
+        this.assetType = assetType;
+        this.quantity = quantity;
+        this.openPrice = openPrice;
+        this.lastPrice = lastPrice;
+    }
+
+    public int getPortfolioId() { return portfolioId; }
+    public String getAssetName() { return assetName; }
+    public String getAssetType() { return assetType; }
+    public double getQuantity() { return quantity; }
+    public double getOpenPrice() { return openPrice; }
+    public double getLastPrice() { return lastPrice; }
+    public double getMarketValue() { return quantity * lastPrice; }
+    public double getCost() { return quantity * openPrice; }
+    public double getProfitLoss() { return quantity * (lastPrice - openPrice); }
+
+    /** @return A new {@link PortfolioItem} priced at this row's last price */
+    public PortfolioItem toPortfolioItem() {
+        PortfolioItem item = new PortfolioItem(assetName, assetType, quantity, openPrice);
+        item.refreshPrice(lastPrice);
+        return item;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s x%.4f @ %.4f (portfolio %d)", assetName, quantity, lastPrice, portfolioId);
+    }
+}
@@ -0,0 +1,39 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.MarketData;
+
+/**
+ * Immutable projection of the quote fields that valuation and alerting jobs use,
+ * read without hydrating the eighteen properties of {@link MarketData}.
+ */
+public final class PriceRow {
+    private final String symbol;
+    private final double currentPrice;
+    private final double previousClose;
+    private final double changePercent;
+    private final double volume;
+    private final long lastUpdatedMillis;
+
+    PriceRow(String symbol, double currentPrice, double previousClose, double changePercent, double volume,
+             long lastUpdatedMillis) {
+        this.symbol = symbol;
+        this.currentPrice = currentPrice;
+        this.previousClose = previousClose;
+        this.changePercent = changePercent;
+        this.volume = volume;
+        this.lastUpdatedMillis = lastUpdatedMillis;
+    }
+
+    public String getSymbol() { return symbol; }
+    public double getCurrentPrice() { return currentPrice; }
+    public double getPreviousClose() { return previousClose; }
+    /** @return The change since the previous close, in percent */
+    public double getChangePercent() { return changePercent; }
+    public double getVolume() { return volume; }
+    public long getLastUpdatedMillis() { return lastUpdatedMillis; }
+
+    @Override
+    public String toString() {
+        return String.format("%s %.4f (%+.2f%%)", symbol, currentPrice, changePercent);
+    }
+}
@@ -0,0 +1,34 @@
+package com.furkan.investmentmanagementsystem.services;
+
+/**
+ * A single trade print or quote update for a symbol.
+ */
+public final class PriceTick {
+    private final String symbol;
+    private final long epochMillis;
+    private final double price;
+    private final double volume;
+
+    public PriceTick(String symbol, long epochMillis, double price, double volume) {
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalArgumentException("Symbol cannot be null or empty");
+        }
+        if (price <= 0) {
+            throw new IllegalArgumentException("Price must be greater than 0");
+        }
+        this.symbol = symbol;
+        this.epochMillis = epochMillis;
+        this.price = price;
+        this.volume = volume;
+    }
+
+    public String getSymbol() { return symbol; }
+    public long getEpochMillis() { return epochMillis; }
+    public double getPrice() { return price; }
+    public double getVolume() { return volume; }
+
+    @Override
+    public String toString() {
+        return String.format("%s @ %d: %.4f x %.2f", symbol, epochMillis, price, volume);
+    }
+}
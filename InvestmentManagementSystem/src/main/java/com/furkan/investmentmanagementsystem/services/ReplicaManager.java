@@ -0,0 +1,242 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.services.ConnectionPool.PooledConnection;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Read-only copy of the database for report and analytics queries, so long scans run
+ * against a snapshot instead of competing with trade writes on the live file.
+ * <p>
+ * A snapshot is taken with {@code VACUUM INTO} on an ordinary reader: it copies one
+ * consistent read transaction of the live database and never takes the writer.
+ * Each snapshot goes to a new file, {@code <replicaFile>.<n>}, with its own
+ * {@link ConnectionPool#readOnly} pool; the previous pool is closed, letting readers
+ * still checked out of it finish first, and its file deleted. Names are never reused:
+ * {@code VACUUM INTO} keeps a {@code -journal} next to its target while it writes, and
+ * a reader still on an old file of the same name would take it for a hot journal and
+ * roll it back. The first snapshot is taken when the manager opens and then every
+ * {@link DatabaseConfig#getReplicaRefreshMillis()} on a background thread.
+ * <p>
+ * {@link #reader()} only hands out replica connections while the snapshot is within
+ * {@link DatabaseConfig#getReplicaMaxStalenessMillis()}; past that, e.g. when refreshes
+ * keep failing, callers are told to read the live database instead.
+ */
+public class ReplicaManager implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ReplicaManager.class.getName());
+
+    private final ConnectionPool primary;
+    private final DatabaseConfig config;
+    private final String baseFile;
+    private final long maxStalenessMillis;
+    private final ScheduledExecutorService scheduler;
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failedRefreshes = new LongAdder();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder fallbackReads = new LongAdder();
+    private volatile Replica current;
+    private volatile long lastRefreshMillis;
+    private long generation;
+    private boolean closed;
+
+    ReplicaManager(ConnectionPool primary, DatabaseConfig config) {
+        this.primary = primary;
+        this.config = config;
+        this.baseFile = config.getReplicaFile();
+        this.maxStalenessMillis = config.getReplicaMaxStalenessMillis();
+        refresh();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "database-replica");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getReplicaRefreshMillis();
+        scheduler.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Takes a new snapshot and switches readers to it. Failures are logged and the
+     * current snapshot stays in use until it goes stale.
+     * @return Whether a new snapshot is in use
+     */
+    public synchronized boolean refresh() {
+        if (closed) {
+            return false;
+        }
+        Path target = Path.of(baseFile + "." + generation).toAbsolutePath();
+        long start = System.nanoTime();
+        try {
+            // VACUUM INTO refuses to overwrite, and a crashed run may have left this name behind
+            Files.deleteIfExists(target);
+            long snapshotMillis;
+            try (PooledConnection conn = primary.reader();
+                 Statement stmt = conn.createStatement()) {
+                // Only the target file is written, but query_only rejects the statement all the same
+                stmt.execute("PRAGMA query_only = OFF");
+                try {
+                    snapshotMillis = System.currentTimeMillis();
+                    stmt.execute("VACUUM INTO '" + target.toString().replace("'", "''") + "'");
+                } finally {
+                    stmt.execute("PRAGMA query_only = ON");
+                }
+            }
+            Replica replica = new Replica(ConnectionPool.readOnly(replicaConfig(target)), target, snapshotMillis,
+                Files.size(target));
+            Replica previous = current;
+            current = replica;
+            generation++;
+            if (previous != null) {
+                previous.pool.close();
+                // Readers still finishing on it keep the open file; on POSIX they can read it to the end
+                deleteSnapshot(previous.file);
+            }
+            lastRefreshMillis = (System.nanoTime() - start) / 1_000_000;
+            refreshes.increment();
+            return true;
+        } catch (SQLException | IOException e) {
+            failedRefreshes.increment();
+            LOGGER.log(Level.WARNING, "Error refreshing read replica " + target, e);
+            return false;
+        }
+    }
+
+    private DatabaseConfig replicaConfig(Path file) {
+        DatabaseConfig replicaConfig = new DatabaseConfig("jdbc:sqlite:" + file);
+        replicaConfig.setReaderPoolSize(config.getReaderPoolSize());
+        replicaConfig.setAcquireTimeoutMillis(config.getAcquireTimeoutMillis());
+        replicaConfig.setStorageProfile(config.getStorageProfile());
+        replicaConfig.setStatementCacheSize(config.getStatementCacheSize());
+        return replicaConfig;
+    }
+
+    /**
+     * Checks out a reader on the current snapshot.
+     * @return The reader, or null if the snapshot is missing or too old and the caller
+     *         should read the live database
+     */
+    PooledConnection reader() {
+        Replica replica = current;
+        if (replica != null && System.currentTimeMillis() - replica.snapshotMillis <= maxStalenessMillis) {
+            try {
+                PooledConnection conn = replica.pool.reader();
+                replicaReads.increment();
+                return conn;
+            } catch (SQLException e) {
+                // Swapped out and closed between reading the field and checking out
+                LOGGER.log(Level.FINE, "Replica unavailable, reading the live database", e);
+            }
+        }
+        fallbackReads.increment();
+        return null;
+    }
+
+    public ReplicaMetrics getMetrics() {
+        Replica replica = current;
+        return new ReplicaMetrics(replica == null ? -1 : System.currentTimeMillis() - replica.snapshotMillis,
+            maxStalenessMillis, replica == null ? 0 : replica.bytes, lastRefreshMillis, refreshes.sum(),
+            failedRefreshes.sum(), replicaReads.sum(), fallbackReads.sum());
+    }
+
+    /** Stops refreshing, closes the replica readers and deletes the snapshot files. */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            closed = true;
+            Replica replica = current;
+            current = null;
+            if (replica != null) {
+                replica.pool.close();
+                deleteSnapshot(replica.file);
+            }
+        }
+    }
+
+    private static void deleteSnapshot(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Error deleting replica file " + file, e);
+        }
+    }
+
+    private static final class Replica {
+        private final ConnectionPool pool;
+        private final Path file;
+        private final long snapshotMillis;
+        private final long bytes;
+
+        private Replica(ConnectionPool pool, Path file, long snapshotMillis, long bytes) {
+            this.pool = pool;
+            this.file = file;
+            this.snapshotMillis = snapshotMillis;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Point-in-time view of the replica: how far behind the live database it is,
+     * how refreshes are going, and how many report reads it served.
+     */
+    public static final class ReplicaMetrics {
+        private final long lagMillis;
+        private final long maxStalenessMillis;
+        private final long snapshotBytes;
+        private final long lastRefreshMillis;
+        private final long refreshes;
+        private final long failedRefreshes;
+        private final long replicaReads;
+        private final long fallbackReads;
+
+        private ReplicaMetrics(long lagMillis, long maxStalenessMillis, long snapshotBytes, long lastRefreshMillis,
+                               long refreshes, long failedRefreshes, long replicaReads, long fallbackReads) {
+            this.lagMillis = lagMillis;
+            this.maxStalenessMillis = maxStalenessMillis;
+            this.snapshotBytes = snapshotBytes;
+            this.lastRefreshMillis = lastRefreshMillis;
+            this.refreshes = refreshes;
+            this.failedRefreshes = failedRefreshes;
+            this.replicaReads = replicaReads;
+            this.fallbackReads = fallbackReads;
+        }
+
+        /** @return Age of the snapshot in use, or -1 if there is none */
+        public long getLagMillis() { return lagMillis; }
+        public long getMaxStalenessMillis() { return maxStalenessMillis; }
+        public long getSnapshotBytes() { return snapshotBytes; }
+        /** @return How long the last successful snapshot took to copy and open */
+        public long getLastRefreshMillis() { return lastRefreshMillis; }
+        public long getRefreshes() { return refreshes; }
+        public long getFailedRefreshes() { return failedRefreshes; }
+        public long getReplicaReads() { return replicaReads; }
+        /** @return Report reads sent to the live database because the snapshot was missing or stale */
+        public long getFallbackReads() { return fallbackReads; }
+
+        public boolean isFresh() {
+            return lagMillis >= 0 && lagMillis <= maxStalenessMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("replica lag %d ms (bound %d ms), %.1f MB, last refresh %d ms, " +
+                    "refreshes %d ok/%d failed, reads %d replica/%d live",
+                lagMillis, maxStalenessMillis, snapshotBytes / 1e6, lastRefreshMillis, refreshes, failedRefreshes,
+                replicaReads, fallbackReads);
+        }
+    }
+}
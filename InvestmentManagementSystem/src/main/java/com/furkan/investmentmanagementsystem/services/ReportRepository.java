@@ -0,0 +1,21 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.Report;
+import java.util.List;
+
+/**
+ * Storage of user reports.
+ */
+public interface ReportRepository {
+    /**
+     * @param userId The author of the reports
+     * @return The author's reports, newest first
+     */
+    List<Report> getUserReports(int userId);
+
+    /**
+     * Inserts a report or replaces the one with the same id.
+     * @param report The report to store
+     */
+    void saveReport(Report report);
+}
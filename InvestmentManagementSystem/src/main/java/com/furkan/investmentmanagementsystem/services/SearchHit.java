@@ -0,0 +1,47 @@
+package com.furkan.investmentmanagementsystem.services;
+
+/**
+ * One ranked match from {@link SearchIndex}: enough to render a result list and
+ * open the report or comment, without loading it.
+ */
+public final class SearchHit {
+    public enum Kind {
+        REPORT,
+        COMMENT
+    }
+
+    private final Kind kind;
+    private final int id;
+    private final String title;
+    private final String snippet;
+    private final double score;
+    private final String targetType;
+    private final String targetId;
+
+    SearchHit(Kind kind, int id, String title, String snippet, double score, String targetType, String targetId) {
+        this.kind = kind;
+        this.id = id;
+        this.title = title;
+        this.snippet = snippet;
+        this.score = score;
+        this.targetType = targetType;
+        this.targetId = targetId;
+    }
+
+    public Kind getKind() { return kind; }
+    public int getId() { return id; }
+    /** @return The report title; null for comments */
+    public String getTitle() { return title; }
+    /** @return An excerpt around the matched terms, which are wrapped in [brackets] */
+    public String getSnippet() { return snippet; }
+    /** @return Relevance; higher is better, only comparable within one search */
+    public double getScore() { return score; }
+    /** @return What a comment is attached to; null for reports */
+    public String getTargetType() { return targetType; }
+    public String getTargetId() { return targetId; }
+
+    @Override
+    public String toString() {
+        return String.format("%s #%d (%.3f): %s", kind, id, score, snippet);
+    }
+}
@@ -0,0 +1,232 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.services.ConnectionPool.PooledConnection;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Full-text search over report titles, contents and tags and over live comments,
+ * backed by SQLite FTS5 tables next to the main schema. Triggers on
+ * {@code reports} and {@code comments} keep the indexes in step with every
+ * {@link DatabaseService#saveReport} and {@link DatabaseService#saveComment}, in the
+ * same statement, so a saved row is searchable as soon as it commits. The first
+ * time the triggers are installed the indexes are built from the existing rows.
+ * <p>
+ * The indexes keep their own copy of the text rather than pointing at the source
+ * tables: {@code INSERT OR REPLACE} does not fire delete triggers, and a private
+ * copy lets the insert trigger drop the old entry by rowid alone. Results are
+ * ranked by BM25 with title and tag matches weighted above body matches.
+ */
+public class SearchIndex {
+    private static final Logger LOGGER = Logger.getLogger(SearchIndex.class.getName());
+    private static final String SNIPPET_ELLIPSIS = "...";
+    private static final int SNIPPET_TOKENS = 12;
+
+    private final ConnectionPool pool;
+
+    public SearchIndex(DatabaseService databaseService) {
+        this.pool = databaseService.getPool();
+        initializeSchema();
+    }
+
+    private void initializeSchema() {
+        try (PooledConnection conn = pool.writer()) {
+            Connection connection = conn.getConnection();
+            boolean installed;
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT 1 FROM sqlite_master " +
+                     "WHERE type = 'trigger' AND name = 'trg_reports_fts_insert'")) {
+                installed = rs.next();
+            }
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("CREATE VIRTUAL TABLE IF NOT EXISTS reports_fts USING fts5(" +
+                    "title, content, tags, tokenize = 'porter unicode61 remove_diacritics 2')");
+                stmt.execute("CREATE VIRTUAL TABLE IF NOT EXISTS comments_fts USING fts5(" +
+                    "content, target_type UNINDEXED, target_id UNINDEXED, " +
+                    "tokenize = 'porter unicode61 remove_diacritics 2')");
+                // Title and tag matches outrank body matches; ORDER BY rank then uses these weights
+                stmt.execute("INSERT INTO reports_fts (reports_fts, rank) VALUES ('rank', 'bm25(5.0, 1.0, 3.0)')");
+
+                String indexReport = "DELETE FROM reports_fts WHERE rowid = NEW.id; " +
+                    "INSERT INTO reports_fts (rowid, title, content, tags) " +
+                    "VALUES (NEW.id, NEW.title, NEW.content, COALESCE(NEW.tags, ''));";
+                stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_reports_fts_insert AFTER INSERT ON reports " +
+                            "BEGIN " + indexReport + " END");
+                stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_reports_fts_update " +
+                            "AFTER UPDATE OF id, title, content, tags ON reports " +
+                            "BEGIN DELETE FROM reports_fts WHERE rowid = OLD.id; " + indexReport + " END");
+                stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_reports_fts_delete AFTER DELETE ON reports " +
+                            "BEGIN DELETE FROM reports_fts WHERE rowid = OLD.id; END");
+
+                // Soft-deleted comments leave the index
+                String indexComment = "DELETE FROM comments_fts WHERE rowid = NEW.id; " +
+                    "INSERT INTO comments_fts (rowid, content, target_type, target_id) " +
+                    "SELECT NEW.id, NEW.content, NEW.target_type, NEW.target_id WHERE NEW.is_deleted = FALSE;";
+                stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_comments_fts_insert AFTER INSERT ON comments " +
+                            "BEGIN " + indexComment + " END");
+                stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_comments_fts_update " +
+                            "AFTER UPDATE OF id, content, target_type, target_id, is_deleted ON comments " +
+                            "BEGIN DELETE FROM comments_fts WHERE rowid = OLD.id; " + indexComment + " END");
+                stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_comments_fts_delete AFTER DELETE ON comments " +
+                            "BEGIN DELETE FROM comments_fts WHERE rowid = OLD.id; END");
+
+                if (!installed) {
+                    rebuild(stmt);
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error initializing search index", e);
+            throw new RuntimeException("Failed to initialize search index", e);
+        }
+    }
+
+    private static void rebuild(Statement stmt) throws SQLException {
+        stmt.executeUpdate("DELETE FROM reports_fts");
+        stmt.executeUpdate("INSERT INTO reports_fts (rowid, title, content, tags) " +
+            "SELECT id, title, content, COALESCE(tags, '') FROM reports");
+        stmt.executeUpdate("DELETE FROM comments_fts");
+        stmt.executeUpdate("INSERT INTO comments_fts (rowid, content, target_type, target_id) " +
+            "SELECT id, content, target_type, target_id FROM comments WHERE is_deleted = FALSE");
+    }
+
+    /**
+     * Merges the index segments into one b-tree per table. Worth running after bulk
+     * loads; the triggers otherwise leave many small segments behind.
+     */
+    public void optimize() {
+        try (PooledConnection conn = pool.writer();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO reports_fts (reports_fts) VALUES ('optimize')");
+            stmt.execute("INSERT INTO comments_fts (comments_fts) VALUES ('optimize')");
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error optimizing search index", e);
+            throw new RuntimeException("Failed to optimize search index", e);
+        }
+    }
+
+    /**
+     * Searches report titles, contents and tags.
+     * @param query Words to match, all of them; a trailing {@code *} matches a prefix. May be
+     *              blank when tags are given.
+     * @param tags Tags every result must carry; may be empty
+     * @param afterCursor The cursor from the previous page, or null for the first page
+     * @param limit Maximum hits to return
+     * @return The best matches first, and the cursor for the next page
+     */
+    public Page<SearchHit> searchReports(String query, Collection<String> tags, String afterCursor, int limit) {
+        StringBuilder match = new StringBuilder(toMatchExpression(query));
+        if (tags != null) {
+            for (String tag : tags) {
+                String phrase = quote(tag);
+                if (phrase.length() > 2) {
+                    match.append(match.length() == 0 ? "" : " AND ").append("tags : ").append(phrase);
+                }
+            }
+        }
+        String sql = "SELECT rowid, title, snippet(reports_fts, 1, '[', ']', '" + SNIPPET_ELLIPSIS + "', " +
+            SNIPPET_TOKENS + ") AS snippet, rank FROM reports_fts WHERE reports_fts MATCH ? " +
+            "ORDER BY rank LIMIT ? OFFSET ?";
+        return search(SearchHit.Kind.REPORT, sql, match.toString(), null, afterCursor, limit);
+    }
+
+    /**
+     * Searches the text of comments that are not deleted.
+     * @param query Words to match, all of them; a trailing {@code *} matches a prefix
+     * @param targetType Only comments on this kind of object, or null for all
+     * @param afterCursor The cursor from the previous page, or null for the first page
+     * @param limit Maximum hits to return
+     * @return The best matches first, and the cursor for the next page
+     */
+    public Page<SearchHit> searchComments(String query, String targetType, String afterCursor, int limit) {
+        String sql = "SELECT rowid, NULL AS title, snippet(comments_fts, 0, '[', ']', '" + SNIPPET_ELLIPSIS + "', " +
+            SNIPPET_TOKENS + ") AS snippet, rank, target_type, target_id FROM comments_fts " +
+            "WHERE comments_fts MATCH ?" + (targetType != null ? " AND target_type = ?" : "") +
+            " ORDER BY rank LIMIT ? OFFSET ?";
+        return search(SearchHit.Kind.COMMENT, sql, toMatchExpression(query), targetType, afterCursor, limit);
+    }
+
+    /**
+     * Runs a ranked query one page at a time. BM25 scores are not unique keys, so the
+     * cursor is the offset of the next hit. Ordering by {@code rank} alone lets FTS5 sort
+     * the matches itself instead of handing every row to a temporary b-tree.
+     */
+    private Page<SearchHit> search(SearchHit.Kind kind, String sql, String match, String targetType,
+                                   String afterCursor, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be at least 1");
+        }
+        if (match.isEmpty()) {
+            throw new IllegalArgumentException("Search needs at least one word or tag");
+        }
+        int offset = 0;
+        if (afterCursor != null) {
+            try {
+                offset = Integer.parseInt(afterCursor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid search cursor: " + afterCursor);
+            }
+        }
+        List<SearchHit> hits = new ArrayList<>(Math.min(limit, 1_000));
+        String nextCursor = null;
+        try (PooledConnection conn = pool.reader()) {
+            PreparedStatement pstmt = conn.prepareCached(sql);
+            int index = 1;
+            pstmt.setString(index++, match);
+            if (targetType != null) {
+                pstmt.setString(index++, targetType);
+            }
+            // One extra row tells us whether another page exists
+            pstmt.setInt(index++, limit + 1);
+            pstmt.setInt(index, offset);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (hits.size() == limit) {
+                        nextCursor = String.valueOf(offset + limit);
+                        break;
+                    }
+                    hits.add(new SearchHit(kind, rs.getInt("rowid"), rs.getString("title"), rs.getString("snippet"),
+                        -rs.getDouble("rank"), kind == SearchHit.Kind.COMMENT ? rs.getString("target_type") : null,
+                        kind == SearchHit.Kind.COMMENT ? rs.getString("target_id") : null));
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error searching " + kind.name().toLowerCase() + "s for: " + match, e);
+        }
+        return new Page<>(hits, nextCursor);
+    }
+
+    /**
+     * Turns user input into an FTS5 expression that cannot be misread as query syntax:
+     * every word becomes a quoted string, and a trailing {@code *} a prefix query.
+     */
+    static String toMatchExpression(String query) {
+        if (query == null) {
+            return "";
+        }
+        StringBuilder match = new StringBuilder();
+        for (String word : query.trim().split("\\s+")) {
+            boolean prefix = word.endsWith("*");
+            String term = quote(prefix ? word.substring(0, word.length() - 1) : word);
+            if (term.length() > 2) {
+                match.append(match.length() == 0 ? "" : " ").append(term).append(prefix ? "*" : "");
+            }
+        }
+        return match.toString();
+    }
+
+    private static String quote(String text) {
+        return '"' + text.trim().replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,28 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import java.nio.file.Path;
+
+/**
+ * Everything the application persists, behind one interface so storage can be
+ * swapped in tests and benchmarks. Implementations are thread-safe.
+ */
+public interface StorageBackend extends UserRepository, PortfolioRepository, TransactionRepository,
+        ReportRepository, CommentRepository, NotificationRepository, MarketDataRepository, AutoCloseable {
+
+    /** Releases connections and files; the backend cannot be used afterwards. */
+    @Override
+    void close();
+
+    /**
+     * Opens the backend selected by {@link DatabaseConfig#getStorageType()}.
+     * @param config The storage settings
+     * @return A new backend; the caller is responsible for closing it
+     */
+    static StorageBackend open(DatabaseConfig config) {
+        return switch (config.getStorageType()) {
+            case SQLITE -> DatabaseService.create(config);
+            case MEMORY -> new InMemoryStorage(config.getLockStripes());
+            case FILE -> FileStorage.open(Path.of(config.getStorageFile()), config.getLockStripes());
+        };
+    }
+}
@@ -0,0 +1,84 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * Named SQLite tuning presets. Every profile runs in WAL mode so readers never
+ * block the writer; they differ in how much durability they trade for speed.
+ */
+public enum StorageProfile {
+    /** fsync on every commit; survives power loss without losing acknowledged trades. */
+    DURABLE("FULL", 0, -8_000, "DEFAULT", 1_000, "TRUNCATE"),
+    /** fsync only at checkpoints; a power cut may drop the last few commits but never corrupts. */
+    BALANCED("NORMAL", 256L * 1024 * 1024, -32_000, "MEMORY", 1_000, "PASSIVE"),
+    /** No fsync at all; for bulk loads, benchmarks and rebuildable data. */
+    THROUGHPUT("OFF", 1024L * 1024 * 1024, -128_000, "MEMORY", 10_000, "PASSIVE");
+
+    private static final int BUSY_TIMEOUT_MILLIS = 5_000;
+
+    private final String synchronous;
+    private final long mmapSize;
+    private final int cacheSize;
+    private final String tempStore;
+    private final int walAutoCheckpointPages;
+    private final String closeCheckpointMode;
+
+    StorageProfile(String synchronous, long mmapSize, int cacheSize, String tempStore,
+                   int walAutoCheckpointPages, String closeCheckpointMode) {
+        this.synchronous = synchronous;
+        this.mmapSize = mmapSize;
+        this.cacheSize = cacheSize;
+        this.tempStore = tempStore;
+        this.walAutoCheckpointPages = walAutoCheckpointPages;
+        this.closeCheckpointMode = closeCheckpointMode;
+    }
+
+    public String getSynchronous() { return synchronous; }
+    public long getMmapSize() { return mmapSize; }
+    /** Page cache size as passed to {@code PRAGMA cache_size}; negative values are KiB. */
+    public int getCacheSize() { return cacheSize; }
+    public String getTempStore() { return tempStore; }
+    public int getWalAutoCheckpointPages() { return walAutoCheckpointPages; }
+    public String getCloseCheckpointMode() { return closeCheckpointMode; }
+
+    /**
+     * Parses a profile name case-insensitively (e.g. "balanced").
+     * @param name The profile name
+     * @return The matching profile
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static StorageProfile fromName(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Storage profile cannot be null");
+        }
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Applies the per-connection pragmas. WAL mode is persistent in the database
+     * file, so it only needs to be switched on by the writer.
+     */
+    void apply(Connection connection, boolean writer) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MILLIS);
+            if (writer) {
+                stmt.execute("PRAGMA journal_mode = WAL");
+                stmt.execute("PRAGMA wal_autocheckpoint = " + walAutoCheckpointPages);
+            }
+            stmt.execute("PRAGMA synchronous = " + synchronous);
+            stmt.execute("PRAGMA cache_size = " + cacheSize);
+            stmt.execute("PRAGMA mmap_size = " + mmapSize);
+            stmt.execute("PRAGMA temp_store = " + tempStore);
+        }
+    }
+
+    /** Folds the WAL back into the main database file using this profile's checkpoint mode. */
+    void checkpoint(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA wal_checkpoint(" + closeCheckpointMode + ")");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import java.util.Locale;
+
+/**
+ * The {@link StorageBackend} implementations that {@link StorageBackend#open} can create.
+ */
+public enum StorageType {
+    /** {@link DatabaseService}: the SQLite database named by the configured URL. */
+    SQLITE,
+    /** {@link InMemoryStorage}: lock-striped maps; everything is lost on close. */
+    MEMORY,
+    /** {@link FileStorage}: in-memory maps backed by an append-only log file. */
+    FILE;
+
+    /**
+     * Parses a storage type name case-insensitively (e.g. "memory").
+     * @param name The storage type name
+     * @return The matching type
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static StorageType fromName(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Storage type cannot be null");
+        }
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,96 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Hash map split into independently locked stripes. Readers of one stripe never
+ * wait for writers of another, and a value (typically a per-user collection) is
+ * only read or changed while its stripe's lock is held.
+ * @param <K> The partition key, e.g. a user id
+ * @param <V> The partition contents
+ */
+final class StripedMap<K, V> {
+    private final Map<K, V>[] stripes;
+    private final ReentrantReadWriteLock[] locks;
+
+    @SuppressWarnings("unchecked")
+    StripedMap(int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Need at least one lock stripe");
+        }
+        this.stripes = new Map[stripeCount];
+        this.locks = new ReentrantReadWriteLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new HashMap<>();
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    private int stripe(K key) {
+        int h = key.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), stripes.length);
+    }
+
+    /** Applies a function to the value under the stripe's read lock; the value may be null. */
+    <R> R read(K key, Function<V, R> reader) {
+        int s = stripe(key);
+        locks[s].readLock().lock();
+        try {
+            return reader.apply(stripes[s].get(key));
+        } finally {
+            locks[s].readLock().unlock();
+        }
+    }
+
+    /** Applies a function to the value, created first if absent, under the stripe's write lock. */
+    <R> R update(K key, Supplier<V> factory, Function<V, R> writer) {
+        int s = stripe(key);
+        locks[s].writeLock().lock();
+        try {
+            return writer.apply(stripes[s].computeIfAbsent(key, k -> factory.get()));
+        } finally {
+            locks[s].writeLock().unlock();
+        }
+    }
+
+    V get(K key) {
+        return read(key, Function.identity());
+    }
+
+    V put(K key, V value) {
+        int s = stripe(key);
+        locks[s].writeLock().lock();
+        try {
+            return stripes[s].put(key, value);
+        } finally {
+            locks[s].writeLock().unlock();
+        }
+    }
+
+    V remove(K key) {
+        int s = stripe(key);
+        locks[s].writeLock().lock();
+        try {
+            return stripes[s].remove(key);
+        } finally {
+            locks[s].writeLock().unlock();
+        }
+    }
+
+    /** Visits every value, holding one stripe's read lock at a time. */
+    void forEachValue(Consumer<V> visitor) {
+        for (int s = 0; s < stripes.length; s++) {
+            locks[s].readLock().lock();
+            try {
+                stripes[s].values().forEach(visitor);
+            } finally {
+                locks[s].readLock().unlock();
+            }
+        }
+    }
+}
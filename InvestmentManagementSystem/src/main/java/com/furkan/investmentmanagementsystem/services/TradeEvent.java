@@ -0,0 +1,80 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.Transaction;
+import com.furkan.investmentmanagementsystem.models.TransactionIds;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * One executed trade as recorded in the {@link TradeJournal}.
+ * Events are created unsequenced; the journal assigns the sequence number
+ * when the event is appended.
+ */
+public final class TradeEvent {
+    private final long sequence;
+    private final long epochMillis;
+    private final String transactionId;
+    private final String userEmail;
+    private final String asset;
+    private final String assetType;
+    private final Transaction.TransactionType type;
+    private final double quantity;
+    private final double price;
+
+    public TradeEvent(String userEmail, String asset, String assetType, Transaction.TransactionType type,
+                      double quantity, double price) {
+        this(0, System.currentTimeMillis(), TransactionIds.nextString(), userEmail, asset, assetType, type, quantity, price);
+    }
+
+    TradeEvent(long sequence, long epochMillis, String transactionId, String userEmail, String asset, String assetType,
+               Transaction.TransactionType type, double quantity, double price) {
+        if (userEmail == null || asset == null || assetType == null || type == null || transactionId == null) {
+            throw new IllegalArgumentException("Trade fields cannot be null");
+        }
+        if (!(quantity > 0) || !(price >= 0) || Double.isInfinite(quantity) || Double.isInfinite(price)) {
+            throw new IllegalArgumentException("Trade quantity must be positive and price non-negative");
+        }
+        this.sequence = sequence;
+        this.epochMillis = epochMillis;
+        this.transactionId = transactionId;
+        this.userEmail = userEmail;
+        this.asset = asset;
+        this.assetType = assetType;
+        this.type = type;
+        this.quantity = quantity;
+        this.price = price;
+    }
+
+    TradeEvent withSequence(long sequence) {
+        return new TradeEvent(sequence, epochMillis, transactionId, userEmail, asset, assetType, type, quantity, price);
+    }
+
+    public long getSequence() { return sequence; }
+    public long getEpochMillis() { return epochMillis; }
+    public String getTransactionId() { return transactionId; }
+    public String getUserEmail() { return userEmail; }
+    public String getAsset() { return asset; }
+    public String getAssetType() { return assetType; }
+    public Transaction.TransactionType getType() { return type; }
+    public double getQuantity() { return quantity; }
+    public double getPrice() { return price; }
+
+    public LocalDateTime getTimestamp() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /** @return The trade as a {@link Transaction} row, keeping the journal's id and time */
+    public Transaction toTransaction() {
+        Transaction transaction = new Transaction(asset, type, quantity, price);
+        transaction.idProperty().set(transactionId);
+        transaction.timestampProperty().set(getTimestamp());
+        return transaction;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("#%d %s %s %.4f %s @ %.4f", sequence, userEmail, type, quantity, asset, price);
+    }
+}
@@ -0,0 +1,590 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.Transaction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of executed trades.
+ * Records are written into a memory-mapped window of the file, so an append is a
+ * copy into the page cache. A background thread forces everything written since
+ * its last pass in one {@code msync}, so concurrent traders share the cost of a
+ * flush (group commit); {@link #append} returns once its record is on disk.
+ * <p>
+ * File layout: a 16-byte header (magic, version) followed by records of the form
+ * {@code [int length][int crc32][payload]}. A zero length marks the end of the
+ * journal and {@code -1} means "continue at the next window". On open the journal
+ * is scanned and anything after the last intact record, such as a half-written
+ * record from a crash, is discarded. Sequence numbers start at 1 and have no gaps.
+ */
+public class TradeJournal implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(TradeJournal.class.getName());
+    private static final int MAGIC = 0x494D534A; // "IMSJ"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int SKIP_MARKER = -1;
+    private static final int MAX_STRING_BYTES = 1024;
+    private static final int MAX_PAYLOAD_BYTES = 8 + 8 + 1 + 8 + 8 + 5 * (2 + MAX_STRING_BYTES);
+    private static final int READ_BUFFER_BYTES = 256 * 1024;
+    private static final Transaction.TransactionType[] TYPES = Transaction.TransactionType.values();
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long windowBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition written = lock.newCondition();
+    private final Condition durable = lock.newCondition();
+    private final ByteBuffer scratch = ByteBuffer.allocate(RECORD_HEADER_BYTES + MAX_PAYLOAD_BYTES);
+    private final CRC32 crc = new CRC32();
+    private final Thread flusher;
+
+    // Guarded by lock
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long writeOffset;
+    private long lastSequence;
+    private long durableOffset;
+    private long durableSequence;
+    private boolean closed;
+    private IOException flushFailure;
+    private long appends;
+    private long forces;
+    private long forceNanos;
+
+    // Used by read and replay; guarded by readBuffer
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+    private final CRC32 readCrc = new CRC32();
+
+    public TradeJournal(Path path) throws IOException {
+        this(path, 16L << 20);
+    }
+
+    /**
+     * Opens a journal, creating it if it does not exist, and recovers its tail.
+     * @param path The journal file
+     * @param windowBytes Size of each mapped region of the file; the file grows by this much at a time
+     */
+    public TradeJournal(Path path, long windowBytes) throws IOException {
+        if (windowBytes < 64 * 1024 || windowBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Window size must be between 64 KiB and 2 GiB");
+        }
+        this.path = path;
+        this.windowBytes = windowBytes;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            recover();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        this.flusher = new Thread(this::flushLoop, "trade-journal-flush");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    private void recover() throws IOException {
+        if (channel.size() < HEADER_BYTES) {
+            mapWindow(0);
+            window.putInt(0, MAGIC).putInt(4, VERSION);
+            window.force();
+            writeOffset = HEADER_BYTES;
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            channel.read(header, 0);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(path + " is not a trade journal");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported trade journal version " + header.getInt(4) + " in " + path);
+            }
+            long[] end = {HEADER_BYTES, 0};
+            scan(HEADER_BYTES, channel.size(), Integer.MAX_VALUE, (offset, event) -> {
+                if (event.getSequence() != end[1] + 1) {
+                    return false;
+                }
+                end[1] = event.getSequence();
+                return true;
+            }, end);
+            writeOffset = end[0];
+            lastSequence = end[1];
+            mapWindow(writeOffset - writeOffset % windowBytes);
+            // Drop the torn tail so stale bytes can never follow a new record
+            long windowEnd = windowStart + windowBytes;
+            if (channel.size() > windowEnd) {
+                channel.truncate(windowEnd);
+            }
+            zeroTail();
+            window.force();
+            LOGGER.info("Recovered trade journal " + path + " at sequence " + lastSequence);
+        }
+        durableOffset = writeOffset;
+        durableSequence = lastSequence;
+    }
+
+    /** Clears the rest of the current window, writing only to words that are not already zero. */
+    private void zeroTail() {
+        int i = (int) (writeOffset - windowStart);
+        for (; i < windowBytes && i % 8 != 0; i++) {
+            window.put(i, (byte) 0);
+        }
+        for (; i + 8 <= windowBytes; i += 8) {
+            if (window.getLong(i) != 0) {
+                window.putLong(i, 0L);
+            }
+        }
+    }
+
+    private void mapWindow(long start) throws IOException {
+        window = channel.map(FileChannel.MapMode.READ_WRITE, start, windowBytes);
+        windowStart = start;
+    }
+
+    /**
+     * Appends a trade and waits until it is durable.
+     * @return The event with its journal sequence number
+     */
+    public TradeEvent append(TradeEvent event) {
+        TradeEvent sequenced = appendAsync(event);
+        awaitDurable(sequenced.getSequence());
+        return sequenced;
+    }
+
+    /**
+     * Appends a trade without waiting for the flush. Call {@link #awaitDurable}
+     * before acknowledging the trade.
+     * @return The event with its journal sequence number
+     */
+    public TradeEvent appendAsync(TradeEvent event) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Trade journal is closed");
+            }
+            if (flushFailure != null) {
+                // The flusher has stopped, so nothing appended now would become durable
+                throw new UncheckedIOException("Trade journal flush failed", flushFailure);
+            }
+            TradeEvent sequenced = event.withSequence(lastSequence + 1);
+            encode(sequenced);
+            int length = scratch.remaining();
+            if (writeOffset + length > windowStart + windowBytes) {
+                rotate();
+            }
+            window.put((int) (writeOffset - windowStart), scratch, 0, length);
+            writeOffset += length;
+            lastSequence = sequenced.getSequence();
+            appends++;
+            written.signal();
+            return sequenced;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to trade journal " + path, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Moves to the next window, first forcing the rest of the current one inline. */
+    private void rotate() throws IOException {
+        long windowEnd = windowStart + windowBytes;
+        if (windowEnd - writeOffset >= 4) {
+            window.putInt((int) (writeOffset - windowStart), SKIP_MARKER);
+        }
+        long start = System.nanoTime();
+        window.force();
+        forces++;
+        forceNanos += System.nanoTime() - start;
+        durableOffset = windowEnd;
+        durableSequence = lastSequence;
+        durable.signalAll();
+        mapWindow(windowEnd);
+        writeOffset = windowEnd;
+    }
+
+    private void encode(TradeEvent event) {
+        scratch.clear();
+        scratch.position(RECORD_HEADER_BYTES);
+        scratch.putLong(event.getSequence())
+            .putLong(event.getEpochMillis())
+            .put((byte) event.getType().ordinal())
+            .putDouble(event.getQuantity())
+            .putDouble(event.getPrice());
+        putString(event.getTransactionId());
+        putString(event.getUserEmail());
+        putString(event.getAsset());
+        putString(event.getAssetType());
+        scratch.flip();
+        int payloadLength = scratch.limit() - RECORD_HEADER_BYTES;
+        crc.reset();
+        crc.update(scratch.array(), RECORD_HEADER_BYTES, payloadLength);
+        scratch.putInt(0, payloadLength).putInt(4, (int) crc.getValue());
+    }
+
+    private void putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Trade field longer than " + MAX_STRING_BYTES + " bytes: " + value);
+        }
+        scratch.putShort((short) bytes.length).put(bytes);
+    }
+
+    /**
+     * Blocks until every record up to a sequence number is on disk.
+     * @throws UncheckedIOException If the flush failed
+     */
+    public void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (flushFailure != null) {
+                    throw new UncheckedIOException("Trade journal flush failed", flushFailure);
+                }
+                if (closed) {
+                    throw new IllegalStateException("Trade journal closed before sequence " + sequence + " was flushed");
+                }
+                durable.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the durable end of the journal moves past an offset.
+     * @return The durable offset, which equals {@code offset} if the timeout elapsed
+     */
+    long awaitDurableOffset(long offset, long timeoutMillis) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lock();
+        try {
+            while (durableOffset <= offset && remaining > 0 && !closed) {
+                remaining = durable.awaitNanos(remaining);
+            }
+            return durableOffset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            MappedByteBuffer target;
+            long from;
+            long to;
+            long sequence;
+            long start;
+            lock.lock();
+            try {
+                while (durableSequence == lastSequence && !closed) {
+                    written.awaitUninterruptibly();
+                }
+                if (durableSequence == lastSequence) {
+                    return;
+                }
+                target = window;
+                start = windowStart;
+                from = Math.max(durableOffset, windowStart);
+                to = writeOffset;
+                sequence = lastSequence;
+            } finally {
+                lock.unlock();
+            }
+            // Appends keep going while this batch is flushed and make up the next one
+            long forceStart = System.nanoTime();
+            IOException failure = null;
+            try {
+                target.force((int) (from - start), (int) (to - from));
+            } catch (UncheckedIOException e) {
+                failure = e.getCause();
+            }
+            lock.lock();
+            try {
+                if (failure != null) {
+                    LOGGER.log(Level.SEVERE, "Error flushing trade journal " + path, failure);
+                    flushFailure = failure;
+                } else {
+                    forces++;
+                    forceNanos += System.nanoTime() - forceStart;
+                    durableOffset = Math.max(durableOffset, to);
+                    durableSequence = Math.max(durableSequence, sequence);
+                }
+                durable.signalAll();
+                if (failure != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** @return The offset of the first record, for readers starting from the beginning */
+    public long getStartOffset() {
+        return HEADER_BYTES;
+    }
+
+    /**
+     * Reads durable records starting at an offset previously returned by this method
+     * or {@link #getStartOffset}.
+     * @param maxEvents Upper bound on the number of events delivered
+     * @return The offset just past the last event delivered
+     */
+    public long read(long fromOffset, int maxEvents, Consumer<TradeEvent> consumer) throws IOException {
+        long limit;
+        lock.lock();
+        try {
+            limit = durableOffset;
+        } finally {
+            lock.unlock();
+        }
+        long[] end = {fromOffset, 0};
+        scan(fromOffset, limit, maxEvents, (offset, event) -> {
+            consumer.accept(event);
+            return true;
+        }, end);
+        return end[0];
+    }
+
+    /**
+     * Delivers every durable event after a sequence number, in order.
+     * @return The last sequence number in the journal
+     */
+    public long replay(long afterSequence, Consumer<TradeEvent> consumer) throws IOException {
+        return replay(afterSequence, getStartOffset(), consumer);
+    }
+
+    /**
+     * Delivers every durable event after a sequence number, starting the scan at
+     * a known offset such as the one recorded with a snapshot. If the record at
+     * that offset is not the next expected one the whole journal is scanned.
+     * @param fromOffset Offset of the record following {@code afterSequence}
+     * @return The last sequence number in the journal
+     */
+    public long replay(long afterSequence, long fromOffset, Consumer<TradeEvent> consumer) throws IOException {
+        long offset = fromOffset;
+        if (offset != getStartOffset()) {
+            long[] first = {-1};
+            read(offset, 1, event -> first[0] = event.getSequence());
+            if (first[0] != -1 && first[0] != afterSequence + 1) {
+                LOGGER.warning("Journal offset " + fromOffset + " does not follow sequence " + afterSequence +
+                    "; replaying " + path + " from the start");
+                offset = getStartOffset();
+            }
+        }
+        long[] last = {afterSequence};
+        while (true) {
+            long next = read(offset, Integer.MAX_VALUE, event -> {
+                if (event.getSequence() > afterSequence) {
+                    consumer.accept(event);
+                    last[0] = event.getSequence();
+                }
+            });
+            if (next == offset) {
+                return Math.max(last[0], getLastSequence());
+            }
+            offset = next;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+        boolean visit(long offset, TradeEvent event);
+    }
+
+    /**
+     * Walks records between two offsets, stopping at the end marker, at the first
+     * damaged record or when the visitor returns false.
+     * @param end Receives the offset after the last accepted record in {@code end[0]}
+     */
+    private void scan(long from, long limit, int maxEvents, RecordVisitor visitor, long[] end) throws IOException {
+        synchronized (readBuffer) {
+            long offset = from;
+            int delivered = 0;
+            ByteBuffer buffer = readBuffer;
+            buffer.clear().limit(0);
+            long bufferStart = offset;
+            while (offset < limit && delivered < maxEvents) {
+                long windowEnd = offset - offset % windowBytes + windowBytes;
+                if (windowEnd - offset < RECORD_HEADER_BYTES) {
+                    offset = windowEnd;
+                    continue;
+                }
+                int index = (int) (offset - bufferStart);
+                if (index < 0 || index + RECORD_HEADER_BYTES > buffer.limit()
+                        || index + RECORD_HEADER_BYTES + buffer.getInt(index) > buffer.limit()) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(buffer.capacity(), limit - offset));
+                    while (buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) > 0) {
+                        // keep filling
+                    }
+                    buffer.flip();
+                    bufferStart = offset;
+                    index = 0;
+                    if (buffer.limit() < 4) {
+                        break;
+                    }
+                }
+                int length = buffer.getInt(index);
+                if (length == SKIP_MARKER) {
+                    offset = windowEnd;
+                    continue;
+                }
+                if (length <= 0 || length > MAX_PAYLOAD_BYTES || buffer.limit() < index + RECORD_HEADER_BYTES + length) {
+                    break;
+                }
+                readCrc.reset();
+                readCrc.update(buffer.array(), index + RECORD_HEADER_BYTES, length);
+                if ((int) readCrc.getValue() != buffer.getInt(index + 4)) {
+                    break;
+                }
+                TradeEvent event = decode(buffer, index + RECORD_HEADER_BYTES);
+                if (event == null || !visitor.visit(offset, event)) {
+                    break;
+                }
+                offset += RECORD_HEADER_BYTES + length;
+                end[0] = offset;
+                delivered++;
+            }
+        }
+    }
+
+    private static TradeEvent decode(ByteBuffer buffer, int index) {
+        ByteBuffer in = buffer.duplicate();
+        in.position(index);
+        long sequence = in.getLong();
+        long epochMillis = in.getLong();
+        int type = in.get();
+        double quantity = in.getDouble();
+        double price = in.getDouble();
+        if (type < 0 || type >= TYPES.length) {
+            return null;
+        }
+        String transactionId = getString(in);
+        String userEmail = getString(in);
+        String asset = getString(in);
+        String assetType = getString(in);
+        return new TradeEvent(sequence, epochMillis, transactionId, userEmail, asset, assetType, TYPES[type], quantity, price);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getShort();
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    /** @return The offset just past the last appended record */
+    public long getEndOffset() {
+        lock.lock();
+        try {
+            return writeOffset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getLastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public JournalStats getStats() {
+        lock.lock();
+        try {
+            return new JournalStats(appends, forces, forceNanos, lastSequence, durableSequence, writeOffset);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Flushes whatever is still pending and closes the file. */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            written.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            durable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        channel.close();
+    }
+
+    /**
+     * Counters for the journal. {@code appends / forces} is the average number
+     * of trades that shared one disk flush.
+     */
+    public static final class JournalStats {
+        private final long appends;
+        private final long forces;
+        private final long forceNanos;
+        private final long lastSequence;
+        private final long durableSequence;
+        private final long bytes;
+
+        private JournalStats(long appends, long forces, long forceNanos, long lastSequence, long durableSequence, long bytes) {
+            this.appends = appends;
+            this.forces = forces;
+            this.forceNanos = forceNanos;
+            this.lastSequence = lastSequence;
+            this.durableSequence = durableSequence;
+            this.bytes = bytes;
+        }
+
+        public long getAppends() { return appends; }
+        public long getForces() { return forces; }
+        public long getLastSequence() { return lastSequence; }
+        public long getDurableSequence() { return durableSequence; }
+        public long getBytes() { return bytes; }
+
+        public double getAvgForceMillis() {
+            return forces == 0 ? 0 : forceNanos / 1_000_000.0 / forces;
+        }
+
+        public double getAvgGroupSize() {
+            return forces == 0 ? 0 : (double) appends / forces;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d appends, %d flushes (%.1f trades/flush, %.2f ms avg), durable %d/%d, %d bytes",
+                appends, forces, getAvgGroupSize(), getAvgForceMillis(), durableSequence, lastSequence, bytes);
+        }
+    }
+}
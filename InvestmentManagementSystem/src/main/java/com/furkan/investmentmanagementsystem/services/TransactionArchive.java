@@ -0,0 +1,287 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.Transaction;
+import com.furkan.investmentmanagementsystem.services.ConnectionPool.PooledConnection;
+
+import java.io.*;
+import java.sql.*;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Cold storage for transactions older than the archive horizon. Whole months are
+ * moved out of the hot {@code transactions} table into {@code transaction_archive},
+ * one DEFLATE-compressed row per user and month, so the hot table and its index
+ * only hold recent history. Monthly totals are unaffected: the rollup trigger in
+ * {@link DatabaseService} has already counted every archived row, and reports read
+ * {@link DatabaseService#getMonthlyRollups} whichever side of the horizon a month is on.
+ */
+public class TransactionArchive {
+    private static final Logger LOGGER = Logger.getLogger(TransactionArchive.class.getName());
+    private static final byte FORMAT_VERSION = 1;
+    private static final Comparator<TransactionRow> NEWEST_FIRST = Comparator
+        .comparingLong(TransactionRow::getEpochMillis).reversed()
+        .thenComparing(TransactionRow::getId);
+
+    private final ConnectionPool pool;
+    private final int horizonMonths;
+
+    public TransactionArchive(DatabaseService databaseService) {
+        this.pool = databaseService.getPool();
+        this.horizonMonths = databaseService.getConfig().getArchiveHorizonMonths();
+        initializeSchema();
+    }
+
+    private void initializeSchema() {
+        try (PooledConnection conn = pool.writer();
+             Statement stmt = conn.createStatement()) {
+            // Month as yyyymm, like transaction_rollups
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS transaction_archive (
+                    user_id INTEGER NOT NULL,
+                    month INTEGER NOT NULL,
+                    row_count INTEGER NOT NULL,
+                    payload BLOB NOT NULL,
+                    PRIMARY KEY (user_id, month)
+                )
+            """);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error initializing transaction archive", e);
+            throw new RuntimeException("Failed to initialize transaction archive", e);
+        }
+    }
+
+    // Archival
+    /**
+     * Moves every month older than the configured horizon to the archive.
+     * @return The number of transactions moved
+     * @see DatabaseConfig#setArchiveHorizonMonths
+     */
+    public int archive() {
+        return archiveBefore(YearMonth.now().minusMonths(horizonMonths));
+    }
+
+    /**
+     * Moves the transactions dated before a month to the archive, merging them into
+     * months archived earlier. Each user is moved in its own transaction, reading and
+     * deleting through the {@code (user_id, timestamp)} index, and the writer is
+     * released between users so saves are not held up for the whole run.
+     * @param cutoff The first month to keep in the hot table
+     * @return The number of transactions moved
+     */
+    public int archiveBefore(YearMonth cutoff) {
+        Timestamp before = Timestamp.valueOf(cutoff.atDay(1).atStartOfDay());
+        int moved = 0;
+        try {
+            List<Integer> userIds = new ArrayList<>();
+            try (PooledConnection conn = pool.reader();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT DISTINCT user_id FROM transactions")) {
+                while (rs.next()) {
+                    userIds.add(rs.getInt(1));
+                }
+            }
+            for (int userId : userIds) {
+                try (PooledConnection conn = pool.writer()) {
+                    moved += archiveUser(conn, userId, before);
+                }
+            }
+        } catch (SQLException | IOException e) {
+            LOGGER.log(Level.SEVERE, "Error archiving transactions before " + cutoff, e);
+            throw new RuntimeException("Failed to archive transactions", e);
+        }
+        if (moved > 0) {
+            LOGGER.info("Archived " + moved + " transactions before " + cutoff);
+        }
+        return moved;
+    }
+
+    private int archiveUser(PooledConnection conn, int userId, Timestamp before) throws SQLException, IOException {
+        Connection connection = conn.getConnection();
+        connection.setAutoCommit(false);
+        try {
+            Map<Integer, List<TransactionRow>> byMonth = new TreeMap<>();
+            PreparedStatement select = conn.prepareCached("SELECT " + DatabaseService.TRANSACTION_ROW_COLUMNS +
+                " FROM transactions WHERE user_id = ? AND timestamp < ? ORDER BY timestamp DESC, id");
+            select.setInt(1, userId);
+            select.setTimestamp(2, before);
+            int moved = 0;
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    TransactionRow row = DatabaseService.mapTransactionRow(rs);
+                    byMonth.computeIfAbsent(monthKey(YearMonth.from(row.getTimestamp())), m -> new ArrayList<>()).add(row);
+                    moved++;
+                }
+            }
+            if (moved == 0) {
+                connection.commit();
+                return 0;
+            }
+            for (Map.Entry<Integer, List<TransactionRow>> month : byMonth.entrySet()) {
+                List<TransactionRow> rows = month.getValue();
+                List<TransactionRow> existing = readMonth(conn, userId, month.getKey());
+                if (!existing.isEmpty()) {
+                    rows.addAll(existing);
+                    rows.sort(NEWEST_FIRST);
+                }
+                PreparedStatement write = conn.prepareCached("INSERT OR REPLACE INTO transaction_archive " +
+                    "(user_id, month, row_count, payload) VALUES (?, ?, ?, ?)");
+                write.setInt(1, userId);
+                write.setInt(2, month.getKey());
+                write.setInt(3, rows.size());
+                write.setBytes(4, encode(rows));
+                write.executeUpdate();
+            }
+            PreparedStatement delete = conn.prepareCached("DELETE FROM transactions WHERE user_id = ? AND timestamp < ?");
+            delete.setInt(1, userId);
+            delete.setTimestamp(2, before);
+            delete.executeUpdate();
+            connection.commit();
+            return moved;
+        } catch (SQLException | IOException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    // Reads
+    /**
+     * @param userId The owner of the transactions
+     * @return The archived months that hold the user's transactions, newest first
+     */
+    public List<YearMonth> getArchivedMonths(int userId) {
+        List<YearMonth> months = new ArrayList<>();
+        try (PooledConnection conn = pool.reader()) {
+            PreparedStatement pstmt = conn.prepareCached(
+                "SELECT month FROM transaction_archive WHERE user_id = ? ORDER BY month DESC");
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int month = rs.getInt(1);
+                    months.add(YearMonth.of(month / 100, month % 100));
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error listing archived months for user: " + userId, e);
+        }
+        return months;
+    }
+
+    /**
+     * Decompresses one archived month for display.
+     * @param userId The owner of the transactions
+     * @param month The month to read
+     * @return The month's transactions, newest first; empty if the month is not archived
+     */
+    public List<Transaction> getArchivedTransactions(int userId, YearMonth month) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (TransactionRow row : getArchivedRows(userId, month)) {
+            transactions.add(row.toTransaction());
+        }
+        return transactions;
+    }
+
+    /**
+     * Decompresses one archived month as plain rows, for batch reads.
+     * @param userId The owner of the transactions
+     * @param month The month to read
+     * @return The month's rows, newest first; empty if the month is not archived
+     */
+    public List<TransactionRow> getArchivedRows(int userId, YearMonth month) {
+        try (PooledConnection conn = pool.reader()) {
+            return readMonth(conn, userId, monthKey(month));
+        } catch (SQLException | IOException e) {
+            LOGGER.log(Level.SEVERE, "Error reading archived transactions for user " + userId + " in " + month, e);
+        }
+        return new ArrayList<>();
+    }
+
+    private static List<TransactionRow> readMonth(PooledConnection conn, int userId, int month)
+            throws SQLException, IOException {
+        PreparedStatement pstmt = conn.prepareCached(
+            "SELECT payload FROM transaction_archive WHERE user_id = ? AND month = ?");
+        pstmt.setInt(1, userId);
+        pstmt.setInt(2, month);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? decode(rs.getBytes(1)) : new ArrayList<>();
+        }
+    }
+
+    // Encoding
+    private static byte[] encode(List<TransactionRow> rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(rows.size() * 32);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(rows.size());
+            for (TransactionRow row : rows) {
+                writeRow(out, row);
+            }
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<TransactionRow> decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(payload)))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported archive format: " + version);
+            }
+            int count = in.readInt();
+            List<TransactionRow> rows = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                rows.add(readRow(in));
+            }
+            return rows;
+        }
+    }
+
+    private static int monthKey(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+
+    /**
+     * Writes one row in the version 1 layout, which stores the type twice because the
+     * transactions table does (asset_type holds the type's display name, see
+     * {@code DatabaseService.bindTransaction}).
+     */
+    private static void writeRow(DataOutputStream out, TransactionRow row) throws IOException {
+        out.writeUTF(row.getId());
+        out.writeUTF(row.getAssetName());
+        out.writeUTF(row.getType().getDisplayName());
+        out.writeDouble(row.getQuantity());
+        out.writeDouble(row.getPrice());
+        out.writeLong(row.getEpochMillis());
+        out.writeUTF(row.getType().getDisplayName());
+        out.writeUTF(row.getStatus().name());
+        out.writeDouble(row.getTotalValue());
+        out.writeBoolean(row.getNotes() != null);
+        if (row.getNotes() != null) {
+            out.writeUTF(row.getNotes());
+        }
+    }
+
+    private static TransactionRow readRow(DataInputStream in) throws IOException {
+        String id = in.readUTF();
+        String assetName = in.readUTF();
+        in.readUTF(); // asset_type, same as the type
+        double quantity = in.readDouble();
+        double price = in.readDouble();
+        long epochMillis = in.readLong();
+        Transaction.TransactionType type =
+            Transaction.TransactionType.valueOf(in.readUTF().toUpperCase(Locale.ROOT));
+        Transaction.TransactionStatus status = Transaction.TransactionStatus.valueOf(in.readUTF());
+        double totalValue = in.readDouble();
+        String notes = in.readBoolean() ? in.readUTF() : null;
+        return new TransactionRow(id, assetName, type, quantity, price, totalValue, epochMillis, status, notes);
+    }
+}
@@ -0,0 +1,47 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.Transaction;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Storage of the trade history.
+ */
+public interface TransactionRepository {
+    /**
+     * @param userId The owner of the transactions
+     * @return The user's transactions, newest first. Months moved to cold storage by
+     *         {@link TransactionArchive} are not included; {@link #getMonthlyRollups} still covers them.
+     */
+    List<Transaction> getUserTransactions(int userId);
+
+    /**
+     * Reads one page of a user's transactions, newest first.
+     * @param userId The owner of the transactions
+     * @param afterCursor The cursor from the previous page, or null for the first page
+     * @param limit Maximum rows to return
+     * @return The page and the cursor for the next one
+     */
+    Page<Transaction> getUserTransactionsPage(int userId, String afterCursor, int limit);
+
+    /**
+     * Inserts a transaction; ids must be unique.
+     * @param transaction The transaction to store
+     */
+    void saveTransaction(Transaction transaction);
+
+    /**
+     * Inserts many transactions at once.
+     * @param transactions The transactions to store
+     * @return The number of rows written
+     */
+    int saveTransactions(Collection<Transaction> transactions);
+
+    /**
+     * Monthly totals per asset and direction over the user's whole history, archived
+     * months included. Reports should read these rather than summing transactions.
+     * @param userId The owner of the transactions
+     * @return The rollups, newest month first, then by asset and type
+     */
+    List<TransactionRollup> getMonthlyRollups(int userId);
+}
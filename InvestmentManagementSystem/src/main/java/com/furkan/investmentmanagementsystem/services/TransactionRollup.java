@@ -0,0 +1,47 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.Transaction;
+
+import java.time.YearMonth;
+
+/**
+ * One month of a user's trades in one asset and direction: how many, how much and
+ * for what total. Rollups cover the whole history, including months whose
+ * transactions have been moved to the {@link TransactionArchive}.
+ */
+public final class TransactionRollup {
+    private final int userId;
+    private final String assetName;
+    private final YearMonth month;
+    private final Transaction.TransactionType transactionType;
+    private final int tradeCount;
+    private final double quantity;
+    private final double notional;
+
+    TransactionRollup(int userId, String assetName, YearMonth month, Transaction.TransactionType transactionType,
+                      int tradeCount, double quantity, double notional) {
+        this.userId = userId;
+        this.assetName = assetName;
+        this.month = month;
+        this.transactionType = transactionType;
+        this.tradeCount = tradeCount;
+        this.quantity = quantity;
+        this.notional = notional;
+    }
+
+    public int getUserId() { return userId; }
+    public String getAssetName() { return assetName; }
+    public YearMonth getMonth() { return month; }
+    public Transaction.TransactionType getTransactionType() { return transactionType; }
+    public int getTradeCount() { return tradeCount; }
+    public double getQuantity() { return quantity; }
+    /** @return The summed total value of the trades, in USD */
+    public double getNotional() { return notional; }
+    public double getAveragePrice() { return quantity == 0 ? 0 : notional / quantity; }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s %s: %d trades, %.4f units, $%.2f", month, transactionType.getDisplayName(),
+            assetName, tradeCount, quantity, notional);
+    }
+}
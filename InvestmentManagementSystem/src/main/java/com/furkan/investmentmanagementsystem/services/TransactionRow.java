@@ -0,0 +1,63 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.Transaction;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable projection of a stored transaction: plain fields instead of the ten
+ * JavaFX properties and binding of {@link Transaction}, for batch code that reads
+ * many rows and never binds them to a view. Convert with {@link #toTransaction()}
+ * at the UI edge.
+ */
+public final class TransactionRow {
+    private final String id;
+    private final String assetName;
+    private final Transaction.TransactionType type;
+    private final double quantity;
+    private final double price;
+    private final double totalValue;
+    private final long epochMillis;
+    private final Transaction.TransactionStatus status;
+    private final String notes;
+
+    TransactionRow(String id, String assetName, Transaction.TransactionType type, double quantity, double price,
+                   double totalValue, long epochMillis, Transaction.TransactionStatus status, String notes) {
+        this.id = id;
+        this.assetName = assetName;
+        this.type = type;
+        this.quantity = quantity;
+        this.price = price;
+        this.totalValue = totalValue;
+        this.epochMillis = epochMillis;
+        this.status = status;
+        this.notes = notes;
+    }
+
+    public String getId() { return id; }
+    public String getAssetName() { return assetName; }
+    public Transaction.TransactionType getType() { return type; }
+    public double getQuantity() { return quantity; }
+    public double getPrice() { return price; }
+    public double getTotalValue() { return totalValue; }
+    public long getEpochMillis() { return epochMillis; }
+    public LocalDateTime getTimestamp() { return new Timestamp(epochMillis).toLocalDateTime(); }
+    public Transaction.TransactionStatus getStatus() { return status; }
+    public String getNotes() { return notes; }
+
+    /** @return A new {@link Transaction} with this row's id, time and status */
+    public Transaction toTransaction() {
+        Transaction transaction = new Transaction(assetName, type, quantity, price);
+        transaction.idProperty().set(id);
+        transaction.timestampProperty().set(getTimestamp());
+        transaction.setStatus(status);
+        transaction.setNotes(notes);
+        return transaction;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s %.4f %s @ %.4f", id, type.getDisplayName(), quantity, assetName, price);
+    }
+}
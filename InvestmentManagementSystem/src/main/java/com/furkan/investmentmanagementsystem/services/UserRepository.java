@@ -0,0 +1,28 @@
+package com.furkan.investmentmanagementsystem.services;
+
+import com.furkan.investmentmanagementsystem.models.InvestmentUser;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage of user accounts.
+ */
+public interface UserRepository {
+    /**
+     * Looks a user up by email.
+     * @param email The user's email
+     * @return The user, or empty if no account uses that email
+     */
+    Optional<InvestmentUser> getUserByEmail(String email);
+
+    /**
+     * @return Every stored user
+     */
+    List<InvestmentUser> getAllUsers();
+
+    /**
+     * Inserts a user or replaces the one with the same id.
+     * @param user The user to store
+     */
+    void saveUser(InvestmentUser user);
+}
@@ -0,0 +1,278 @@
+package com.furkan.investmentmanagementsystem;
+
+import com.furkan.investmentmanagementsystem.services.ConnectionPool;
+import com.furkan.investmentmanagementsystem.services.ConnectionPool.PooledConnection;
+import com.furkan.investmentmanagementsystem.services.DatabaseConfig;
+import com.furkan.investmentmanagementsystem.services.StorageProfile;
+import org.junit.jupiter.api.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checkout rules of the connection pool: who gets which connection, what happens
+ * when none is free, and that nothing stays open once the pool is closed.
+ */
+public class ConnectionPoolTest {
+
+    private Path dbFile;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dbFile = Files.createTempFile("ims-pool", ".db");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(dbFile);
+    }
+
+    private DatabaseConfig config(int readers) {
+        DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + dbFile);
+        config.setReaderPoolSize(readers);
+        config.setAcquireTimeoutMillis(200);
+        return config;
+    }
+
+    @Test
+    void testReadersRejectWrites() throws Exception {
+        try (ConnectionPool pool = new ConnectionPool(config(1))) {
+            try (PooledConnection writer = pool.writer(); Statement stmt = writer.createStatement()) {
+                stmt.execute("CREATE TABLE pool_rows (id INTEGER PRIMARY KEY)");
+            }
+            try (PooledConnection reader = pool.reader(); Statement stmt = reader.createStatement()) {
+                assertEquals(ConnectionPool.Role.READER, reader.getRole());
+                assertThrows(SQLException.class, () -> stmt.execute("INSERT INTO pool_rows (id) VALUES (1)"));
+                try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM pool_rows")) {
+                    assertEquals(0, rs.getInt(1));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testReaderInsideWriteTransactionGetsTheWriter() throws Exception {
+        try (ConnectionPool pool = new ConnectionPool(config(1))) {
+            try (PooledConnection writer = pool.writer(); Statement stmt = writer.createStatement()) {
+                stmt.execute("CREATE TABLE pool_rows (id INTEGER PRIMARY KEY)");
+                writer.getConnection().setAutoCommit(false);
+                stmt.execute("INSERT INTO pool_rows (id) VALUES (1)");
+                try (PooledConnection reader = pool.reader(); Statement read = reader.createStatement();
+                     ResultSet rs = read.executeQuery("SELECT COUNT(*) FROM pool_rows")) {
+                    assertEquals(ConnectionPool.Role.WRITER, reader.getRole());
+                    assertSame(writer.getConnection(), reader.getConnection());
+                    assertEquals(1, rs.getInt(1));
+                }
+                // Returning the nested checkout must not release the outer one's lock
+                assertEquals(1, pool.getMetrics().getActiveWriters());
+                writer.getConnection().rollback();
+                writer.getConnection().setAutoCommit(true);
+            }
+        }
+    }
+
+    @Test
+    void testCheckoutTimesOutWhenNothingIsFree() throws Exception {
+        try (ConnectionPool pool = new ConnectionPool(config(1))) {
+            try (PooledConnection reader = pool.reader()) {
+                long start = System.nanoTime();
+                SQLException timeout = assertThrows(SQLException.class, pool::reader);
+                assertTrue(timeout.getMessage().contains("Timed out"), timeout.getMessage());
+                assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+            }
+            try (PooledConnection writer = pool.writer()) {
+                SQLException[] failure = {null};
+                Thread other = new Thread(() -> {
+                    try (PooledConnection second = pool.writer()) {
+                        fail("Writer checked out twice");
+                    } catch (SQLException e) {
+                        failure[0] = e;
+                    }
+                });
+                other.start();
+                other.join();
+                assertNotNull(failure[0]);
+                assertTrue(failure[0].getMessage().contains("Timed out"), failure[0].getMessage());
+            }
+        }
+    }
+
+    @Test
+    void testMetricsTrackCheckouts() throws Exception {
+        try (ConnectionPool pool = new ConnectionPool(config(2))) {
+            PooledConnection first = pool.reader();
+            PooledConnection second = pool.reader();
+            ConnectionPool.PoolMetrics busy = pool.getMetrics();
+            assertEquals(2, busy.getReaderPoolSize());
+            assertEquals(2, busy.getActiveReaders());
+            assertEquals(0, busy.getActiveWriters());
+            first.close();
+            second.close();
+            // A second close of the same checkout is ignored
+            second.close();
+            try (PooledConnection writer = pool.writer()) {
+                assertEquals(1, pool.getMetrics().getActiveWriters());
+            }
+
+            ConnectionPool.PoolMetrics idle = pool.getMetrics();
+            assertEquals(0, idle.getActiveCount());
+            assertEquals(2, idle.getReaderCheckouts());
+            assertEquals(1, idle.getWriterCheckouts());
+            assertTrue(idle.getMaxReaderCheckoutMillis() >= idle.getAvgReaderCheckoutMillis());
+        }
+    }
+
+    @Test
+    void testConfigRejectsInvalidSettings() {
+        DatabaseConfig config = new DatabaseConfig();
+        assertThrows(IllegalArgumentException.class, () -> config.setUrl(" "));
+        assertThrows(IllegalArgumentException.class, () -> config.setReaderPoolSize(0));
+        assertThrows(IllegalArgumentException.class, () -> config.setAcquireTimeoutMillis(0));
+        assertThrows(IllegalArgumentException.class, () -> config.setBatchSize(0));
+        assertThrows(IllegalArgumentException.class, () -> config.setStatementCacheSize(0));
+        assertThrows(IllegalArgumentException.class, () -> config.setCacheMaxEntries(-1));
+        assertEquals(DatabaseConfig.DEFAULT_URL, config.getUrl());
+    }
+
+    @Test
+    void testConfigReadsSystemProperties() {
+        System.setProperty("ims.db.readers", "3");
+        System.setProperty("ims.db.acquireTimeoutMs", "1234");
+        try {
+            DatabaseConfig config = DatabaseConfig.fromSystemProperties();
+            assertEquals(3, config.getReaderPoolSize());
+            assertEquals(1234, config.getAcquireTimeoutMillis());
+            assertEquals(new DatabaseConfig().getBatchSize(), config.getBatchSize());
+        } finally {
+            System.clearProperty("ims.db.readers");
+            System.clearProperty("ims.db.acquireTimeoutMs");
+        }
+    }
+
+    @Test
+    void testDefaultProfileSyncsEveryCommit() throws Exception {
+        DatabaseConfig config = config(1);
+        assertEquals(StorageProfile.DURABLE, config.getStorageProfile());
+        try (ConnectionPool pool = new ConnectionPool(config)) {
+            for (PooledConnection conn : new PooledConnection[] {pool.writer(), pool.reader()}) {
+                try (conn; Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery("PRAGMA synchronous")) {
+                    // 2 is FULL
+                    assertEquals(2, rs.getInt(1), conn.getRole().name());
+                }
+            }
+        }
+        System.setProperty("ims.db.profile", "balanced");
+        try {
+            assertEquals(StorageProfile.BALANCED, DatabaseConfig.fromSystemProperties().getStorageProfile());
+        } finally {
+            System.clearProperty("ims.db.profile");
+        }
+    }
+
+    @Test
+    void testStatementCacheEvictsLeastRecentlyUsed() throws Exception {
+        DatabaseConfig config = config(1);
+        config.setStatementCacheSize(2);
+        try (ConnectionPool pool = new ConnectionPool(config); PooledConnection reader = pool.reader()) {
+            PreparedStatement first = reader.prepareCached("SELECT 1");
+            PreparedStatement second = reader.prepareCached("SELECT 2");
+            assertSame(first, reader.prepareCached("SELECT 1"));
+            reader.prepareCached("SELECT 3");
+
+            // SELECT 2 was used least recently, so it goes and its statement is closed
+            assertTrue(second.isClosed());
+            assertFalse(first.isClosed());
+            assertSame(first, reader.prepareCached("SELECT 1"));
+            assertNotSame(second, reader.prepareCached("SELECT 2"));
+            ConnectionPool.PoolMetrics metrics = pool.getMetrics();
+            assertEquals(2, metrics.getStatementCacheHits());
+            assertEquals(4, metrics.getStatementCacheMisses());
+            assertEquals(2, metrics.getStatementCacheEvictions());
+        }
+    }
+
+    @Test
+    void testInvalidatedStatementIsPreparedAgain() throws Exception {
+        try (ConnectionPool pool = new ConnectionPool(config(1)); PooledConnection writer = pool.writer()) {
+            try (Statement stmt = writer.createStatement()) {
+                stmt.execute("CREATE TABLE pool_rows (id INTEGER PRIMARY KEY)");
+            }
+            String sql = "INSERT INTO pool_rows (id) VALUES (?)";
+            PreparedStatement failed = writer.prepareCached(sql);
+            failed.setInt(1, 1);
+            failed.addBatch();
+            failed.setInt(1, 1);
+            failed.addBatch();
+            assertThrows(SQLException.class, failed::executeBatch);
+            writer.invalidateCached(sql);
+            assertTrue(failed.isClosed());
+
+            PreparedStatement fresh = writer.prepareCached(sql);
+            assertNotSame(failed, fresh);
+            fresh.setInt(1, 2);
+            assertEquals(1, fresh.executeUpdate());
+        }
+    }
+
+    @Test
+    void testClosingPoolClosesCachedStatements() throws Exception {
+        ConnectionPool pool = new ConnectionPool(config(1));
+        PreparedStatement read;
+        PreparedStatement write;
+        try (PooledConnection reader = pool.reader()) {
+            read = reader.prepareCached("SELECT 1");
+        }
+        try (PooledConnection writer = pool.writer()) {
+            write = writer.prepareCached("SELECT 2");
+        }
+        assertFalse(read.isClosed());
+        pool.close();
+        assertTrue(read.isClosed());
+        assertTrue(write.isClosed());
+    }
+
+    @Test
+    void testReaderReturnedAfterCloseIsClosed() throws Exception {
+        ConnectionPool pool = new ConnectionPool(config(1));
+        PooledConnection reader = pool.reader();
+        pool.close();
+        reader.close();
+        assertTrue(reader.getConnection().isClosed());
+    }
+
+    @Test
+    void testReadersReleasedWhilePoolClosesAreClosed() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            ConnectionPool pool = new ConnectionPool(config(2));
+            PooledConnection first = pool.reader();
+            PooledConnection second = pool.reader();
+            CountDownLatch start = new CountDownLatch(1);
+            Thread releaser = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                first.close();
+                second.close();
+            });
+            releaser.start();
+            start.countDown();
+            pool.close();
+            releaser.join();
+            for (Connection connection : new Connection[] {first.getConnection(), second.getConnection()}) {
+                assertTrue(connection.isClosed(), "Reader left open in round " + round);
+            }
+        }
+    }
+}
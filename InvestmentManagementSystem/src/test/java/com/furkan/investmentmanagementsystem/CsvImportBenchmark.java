@@ -0,0 +1,50 @@
+package com.furkan.investmentmanagementsystem;
+
+import com.furkan.investmentmanagementsystem.services.CsvImporter;
+import com.furkan.investmentmanagementsystem.services.DatabaseConfig;
+import com.furkan.investmentmanagementsystem.services.DatabaseService;
+import com.furkan.investmentmanagementsystem.services.StorageProfile;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Loads a generated one-million-row statement through {@link CsvImporter}.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+public class CsvImportBenchmark {
+    private static final int ROWS = 1_000_000;
+
+    @Test
+    void importOneMillionTransactions() throws Exception {
+        Path csv = Files.createTempFile("ims-bench-import", ".csv");
+        Path dbFile = Files.createTempFile("ims-bench-import", ".db");
+        try (BufferedWriter writer = Files.newBufferedWriter(csv)) {
+            writer.write("id,asset,transaction_type,quantity,price,timestamp,status,notes\n");
+            for (int i = 0; i < ROWS; i++) {
+                writer.write("bench-" + i + ",SYM" + (i % 500) + "," + (i % 3 == 0 ? "SELL" : "BUY") + "," +
+                    (1 + i % 100) + "," + (10 + i % 90) + ".25,2023-" + String.format("%02d", 1 + i % 12) +
+                    "-15T10:30:00,COMPLETED,\n");
+            }
+        }
+        DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + dbFile);
+        config.setStorageProfile(StorageProfile.THROUGHPUT);
+        DatabaseService db = DatabaseService.create(config);
+        try {
+            CsvImporter.ImportResult result = new CsvImporter(db).importTransactions(csv);
+            System.out.printf("%,d rows from %,d bytes: %s%n", ROWS, Files.size(csv), result);
+            assertEquals(ROWS, result.getRowsImported());
+            assertEquals(0, result.getRowsRejected());
+        } finally {
+            db.close();
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(dbFile);
+            Files.deleteIfExists(Path.of(dbFile + "-wal"));
+            Files.deleteIfExists(Path.of(dbFile + "-shm"));
+        }
+    }
+}
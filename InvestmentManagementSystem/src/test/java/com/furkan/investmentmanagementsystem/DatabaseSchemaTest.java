@@ -0,0 +1,147 @@
+package com.furkan.investmentmanagementsystem;
+
+import com.furkan.investmentmanagementsystem.services.DatabaseConfig;
+import com.furkan.investmentmanagementsystem.services.DatabaseService;
+import org.junit.jupiter.api.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Query-plan regression tests: every hot read path must be served by an index,
+ * never by a full table scan or a temporary sort.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class DatabaseSchemaTest {
+
+    private Path dbFile;
+    private DatabaseService databaseService;
+    private Connection connection;
+
+    @BeforeAll
+    void setUp() throws Exception {
+        dbFile = Files.createTempFile("ims-schema", ".db");
+        String url = "jdbc:sqlite:" + dbFile;
+        databaseService = DatabaseService.create(new DatabaseConfig(url));
+        connection = DriverManager.getConnection(url);
+    }
+
+    @Test
+    void testTransactionHistoryUsesIndex() throws SQLException {
+        assertIndexedPlan("SELECT * FROM transactions WHERE user_id = ? ORDER BY timestamp DESC",
+            "idx_transactions_user_time");
+    }
+
+    @Test
+    void testTransactionPageSeeksPastCursor() throws SQLException {
+        List<String> plan = assertIndexedPlan("SELECT * FROM transactions WHERE user_id = ? AND timestamp <= ? " +
+            "AND (timestamp < ? OR id > ?) ORDER BY timestamp DESC, id LIMIT ?", "idx_transactions_user_time");
+        assertTrue(plan.stream().anyMatch(step -> step.contains("timestamp<?")), "Expected a range seek: " + plan);
+    }
+
+    @Test
+    void testPortfoliosByOwnerUseIndex() throws SQLException {
+        assertIndexedPlan("SELECT * FROM portfolios WHERE owner_id = ?", "idx_portfolios_owner");
+    }
+
+    @Test
+    void testTopPortfoliosReadValueIndexInOrder() throws SQLException {
+        // A top-N read walks the index from its head and stops after LIMIT rows
+        List<String> plan = explain("SELECT id, name, total_value FROM portfolios WHERE is_active = TRUE " +
+            "ORDER BY total_value DESC LIMIT ?");
+        assertEquals(List.of("SCAN portfolios USING INDEX idx_portfolios_active_value"), plan);
+    }
+
+    @Test
+    void testPriceUpdatesFindHoldingsByIndex() throws SQLException {
+        assertIndexedPlan("SELECT id FROM portfolio_items WHERE asset_name = ?", "idx_portfolio_items_asset");
+    }
+
+    @Test
+    void testLiveNotificationsUsePartialIndex() throws SQLException {
+        assertIndexedPlan("SELECT * FROM notifications WHERE recipient_id = ? AND is_deleted = FALSE " +
+            "ORDER BY timestamp DESC", "idx_notifications_recipient_live");
+    }
+
+    @Test
+    void testUnreadNotificationCountIsCovered() throws SQLException {
+        List<String> plan = assertIndexedPlan("SELECT COUNT(*) FROM notifications " +
+            "WHERE recipient_id = ? AND is_deleted = FALSE AND is_read = FALSE", "idx_notifications_recipient_unread");
+        assertTrue(plan.stream().anyMatch(step -> step.contains("COVERING INDEX")), "Expected covering index: " + plan);
+    }
+
+    @Test
+    void testInboxSummaryReadsCounterRowsOnly() throws SQLException {
+        assertIndexedPlan("SELECT type, priority, total_count, unread_count FROM notification_counters " +
+            "WHERE recipient_id = ?", "PRIMARY KEY");
+    }
+
+    @Test
+    void testCommentsForTargetUsePartialIndex() throws SQLException {
+        assertIndexedPlan("SELECT * FROM comments WHERE target_type = ? AND target_id = ? AND is_deleted = FALSE " +
+            "ORDER BY timestamp DESC", "idx_comments_target_live");
+    }
+
+    @Test
+    void testRepliesSeekParentIndex() throws SQLException {
+        assertTrue(explain("SELECT id FROM comments WHERE parent_id = ? AND is_deleted = FALSE " +
+            "ORDER BY timestamp, id DESC LIMIT ?").stream().anyMatch(step -> step.contains("idx_comments_parent")));
+    }
+
+    @Test
+    void testMonthlyRollupsReadPrimaryKeyInOrder() throws SQLException {
+        assertIndexedPlan("SELECT * FROM transaction_rollups WHERE user_id = ? " +
+            "ORDER BY month DESC, asset_name, transaction_type", "PRIMARY KEY");
+    }
+
+    @Test
+    void testArchivalSeeksUserHistoryIndex() throws SQLException {
+        assertIndexedPlan("SELECT * FROM transactions WHERE user_id = ? AND timestamp < ? " +
+            "ORDER BY timestamp DESC, id", "idx_transactions_user_time");
+    }
+
+    @Test
+    void testReportsByAuthorUseIndex() throws SQLException {
+        assertIndexedPlan("SELECT * FROM reports WHERE author_id = ? ORDER BY creation_date DESC",
+            "idx_reports_author_created");
+    }
+
+    private List<String> assertIndexedPlan(String sql, String expectedIndex) throws SQLException {
+        List<String> plan = explain(sql);
+        for (String step : plan) {
+            assertFalse(step.startsWith("SCAN"), "Query fell back to a table scan: " + sql + " -> " + plan);
+            assertFalse(step.contains("TEMP B-TREE"), "Query needs a temporary sort: " + sql + " -> " + plan);
+        }
+        assertTrue(plan.stream().anyMatch(step -> step.contains(expectedIndex)),
+            "Expected " + expectedIndex + " in plan: " + plan);
+        return plan;
+    }
+
+    private List<String> explain(String sql) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        try (PreparedStatement pstmt = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            int parameters = sql.length() - sql.replace("?", "").length();
+            for (int i = 1; i <= parameters; i++) {
+                pstmt.setObject(i, 1);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    plan.add(rs.getString("detail"));
+                }
+            }
+        }
+        return plan;
+    }
+
+    @AfterAll
+    void tearDown() throws Exception {
+        connection.close();
+        databaseService.close();
+        Files.deleteIfExists(dbFile);
+    }
+}
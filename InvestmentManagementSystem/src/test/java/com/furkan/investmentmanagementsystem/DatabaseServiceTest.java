@@ -0,0 +1,1446 @@
+package com.furkan.investmentmanagementsystem;
+
+import com.furkan.investmentmanagementsystem.models.*;
+import com.furkan.investmentmanagementsystem.services.*;
+import javafx.collections.ObservableList;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Service-level tests. Each test gets its own database file, so counts and
+ * archive results never depend on what other tests wrote or in which order they ran.
+ */
+public class DatabaseServiceTest {
+
+    private Path dbFile;
+    private DatabaseService databaseService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dbFile = Files.createTempFile("ims-service", ".db");
+        databaseService = DatabaseService.create(new DatabaseConfig("jdbc:sqlite:" + dbFile));
+    }
+
+    @Test
+    void testTransactionPagesWalkHistoryInOrder() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 9, 30);
+        List<Transaction> trades = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Transaction trade = new Transaction("AAPL", Transaction.TransactionType.BUY, i + 1, 150.0);
+            // Pairs of trades share a timestamp to exercise the id tie-break
+            trade.timestampProperty().set(base.plusMinutes(i / 2));
+            trades.add(trade);
+        }
+        databaseService.saveTransactions(trades);
+
+        List<Transaction> walked = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            Page<Transaction> page = databaseService.getUserTransactionsPage(0, cursor, 10);
+            page.getItems().forEach(t -> assertTrue(seen.add(t.getId()), "Duplicate row " + t.getId()));
+            walked.addAll(page.getItems());
+            cursor = page.getNextCursor().orElse(null);
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(25, walked.size());
+        for (int i = 1; i < walked.size(); i++) {
+            assertFalse(walked.get(i).getTimestamp().isAfter(walked.get(i - 1).getTimestamp()));
+        }
+        assertEquals(Transaction.TransactionType.BUY, walked.get(0).getTransactionType());
+    }
+
+    @Test
+    void testTransactionPagesSeekOnStoredTimestamps() throws Exception {
+        TimeZone zone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+        Path dstFile = Files.createTempFile("ims-dst", ".db");
+        DatabaseService dst = DatabaseService.create(new DatabaseConfig("jdbc:sqlite:" + dstFile));
+        try {
+            List<Transaction> trades = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                trades.add(new Transaction("DST", Transaction.TransactionType.BUY, i + 1, 10));
+            }
+            dst.saveTransactions(trades);
+            // 01:15 and 01:45 local, once in EDT and once in EST, on the fall-back night
+            long[] instants = {
+                Instant.parse("2024-11-03T05:15:00Z").toEpochMilli(), Instant.parse("2024-11-03T05:45:00Z").toEpochMilli(),
+                Instant.parse("2024-11-03T06:15:00Z").toEpochMilli(), Instant.parse("2024-11-03T06:45:00Z").toEpochMilli()
+            };
+            try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dstFile);
+                 var update = connection.prepareStatement("UPDATE transactions SET timestamp = ? WHERE id = ?")) {
+                for (int i = 0; i < 4; i++) {
+                    update.setLong(1, instants[i]);
+                    update.setLong(2, Long.parseLong(trades.get(i).getId()));
+                    update.executeUpdate();
+                }
+            }
+
+            List<String> walked = new ArrayList<>();
+            String cursor = null;
+            do {
+                Page<Transaction> page = dst.getUserTransactionsPage(0, cursor, 1);
+                page.getItems().forEach(t -> walked.add(t.getId()));
+                cursor = page.getNextCursor().orElse(null);
+            } while (cursor != null);
+            assertEquals(List.of(trades.get(3).getId(), trades.get(2).getId(), trades.get(1).getId(), trades.get(0).getId()),
+                walked);
+        } finally {
+            dst.close();
+            TimeZone.setDefault(zone);
+            Files.deleteIfExists(dstFile);
+        }
+    }
+
+    @Test
+    void testMarketDataStreamReleasesConnectionOnClose() {
+        List<MarketData> quotes = new ArrayList<>();
+        for (int i = 0; i < 1_200; i++) {
+            quotes.add(new MarketData("STRM" + i, "Stream " + i, "Stock", 10, 10, 11, 9, 100,
+                LocalDateTime.now(), "USD", "NYSE", 10));
+        }
+        databaseService.saveMarketDataSnapshot(quotes);
+
+        try (var stream = databaseService.streamMarketData()) {
+            assertEquals(1_200, stream.filter(q -> q.getSymbol().startsWith("STRM")).count());
+            assertEquals(1, databaseService.getPoolMetrics().getActiveReaders());
+        }
+        assertEquals(0, databaseService.getPoolMetrics().getActiveReaders());
+    }
+
+    @Test
+    void testRowProjectionsMatchModels() throws Exception {
+        Path rowsFile = Files.createTempFile("ims-rows", ".db");
+        DatabaseService rows = DatabaseService.create(new DatabaseConfig("jdbc:sqlite:" + rowsFile));
+        try {
+            Transaction trade = new Transaction("ROWS", Transaction.TransactionType.SELL, 3, 12.5);
+            trade.setNotes("trim");
+            trade.setStatus(Transaction.TransactionStatus.PENDING);
+            Transaction imported = new Transaction("ROWS", Transaction.TransactionType.BUY, 2, 10);
+            imported.idProperty().set("import-1");
+            imported.timestampProperty().set(trade.getTimestamp().minusDays(1));
+            rows.saveTransactions(List.of(trade, imported));
+            try (var stream = rows.streamTransactionRows(0)) {
+                List<TransactionRow> history = stream.toList();
+                assertEquals(List.of(trade.getId(), "import-1"), history.stream().map(TransactionRow::getId).toList());
+                TransactionRow row = history.get(0);
+                assertEquals(Transaction.TransactionType.SELL, row.getType());
+                assertEquals(37.5, row.getTotalValue(), 1e-9);
+                assertEquals(Transaction.TransactionStatus.PENDING, row.getStatus());
+                assertEquals(trade.getTimestamp().withNano(trade.getTimestamp().getNano() / 1_000_000 * 1_000_000),
+                    row.getTimestamp());
+                assertEquals("trim", row.toTransaction().getNotes());
+            }
+
+            Portfolio portfolio = new Portfolio("3");
+            portfolio.setId(300);
+            rows.savePortfolio(portfolio);
+            rows.savePortfolioItems(300, List.of(new PortfolioItem("ROWS", "Stock", 4, 10)));
+            rows.saveMarketData(new MarketData("ROWS", "Rows Inc", "Stock", 12, 10, 13, 9, 500,
+                LocalDateTime.now(), "USD", "NYSE", 10));
+            try (var stream = rows.streamPositionRows(300)) {
+                PositionRow position = stream.findFirst().orElseThrow();
+                assertEquals(48, position.getMarketValue(), 1e-9);
+                assertEquals(8, position.getProfitLoss(), 1e-9);
+                assertEquals(12, position.toPortfolioItem().getLastPrice(), 1e-9);
+            }
+            try (var stream = rows.streamPriceRows()) {
+                PriceRow price = stream.findFirst().orElseThrow();
+                assertEquals("ROWS", price.getSymbol());
+                assertEquals(12, price.getCurrentPrice(), 1e-9);
+                assertEquals(10, price.getPreviousClose(), 1e-9);
+            }
+        } finally {
+            rows.close();
+            Files.deleteIfExists(rowsFile);
+        }
+    }
+
+    @Test
+    void testPortfolioGraphWiresItemsAndRecentTransactions() throws Exception {
+        Path graphFile = Files.createTempFile("ims-graph", ".db");
+        DatabaseService graph = DatabaseService.create(new DatabaseConfig("jdbc:sqlite:" + graphFile));
+        try {
+            // Transactions are stored under user 0, so the portfolios belong to it too
+            for (int id = 401; id <= 403; id++) {
+                Portfolio portfolio = new Portfolio("0");
+                portfolio.setId(id);
+                graph.savePortfolio(portfolio);
+            }
+            graph.savePortfolioItems(401, List.of(new PortfolioItem("GRA", "Stock", 2, 10),
+                new PortfolioItem("GRB", "Stock", 1, 20)));
+            graph.savePortfolioItems(402, List.of(new PortfolioItem("GRA", "Stock", 5, 11)));
+            LocalDateTime base = LocalDateTime.of(2024, 6, 1, 10, 0);
+            List<Transaction> trades = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                Transaction trade = new Transaction(i % 2 == 0 ? "GRA" : "GRB", Transaction.TransactionType.BUY, 1, 10);
+                trade.timestampProperty().set(base.plusMinutes(i));
+                trades.add(trade);
+            }
+            Transaction unheld = new Transaction("GRZ", Transaction.TransactionType.BUY, 1, 10);
+            unheld.timestampProperty().set(base.plusHours(1));
+            trades.add(unheld);
+            graph.saveTransactions(trades);
+
+            List<Portfolio> portfolios = graph.loadPortfolioGraph(0, 4);
+            assertEquals(List.of(401, 402, 403), portfolios.stream().map(Portfolio::getId).toList());
+            Portfolio both = portfolios.get(0);
+            assertEquals(2, both.getItems().size());
+            // Each portfolio gets its own four newest trades in the assets it holds; GRZ is skipped
+            assertEquals(List.of(trades.get(5).getId(), trades.get(4).getId(), trades.get(3).getId(), trades.get(2).getId()),
+                both.getTransactions().stream().map(Transaction::getId).toList());
+            assertEquals(List.of(trades.get(4).getId(), trades.get(2).getId(), trades.get(0).getId()),
+                portfolios.get(1).getTransactions().stream().map(Transaction::getId).toList());
+            assertEquals(5, portfolios.get(1).getItems().get(0).getQuantity(), 1e-9);
+            assertTrue(portfolios.get(2).getItems().isEmpty());
+            assertTrue(portfolios.get(2).getTransactions().isEmpty());
+            assertTrue(graph.loadPortfolioGraph(99).isEmpty());
+
+            // A busy portfolio filling its window does not starve the others
+            List<Portfolio> narrow = graph.loadPortfolioGraph(0, 2);
+            assertEquals(List.of(trades.get(5).getId(), trades.get(4).getId()),
+                narrow.get(0).getTransactions().stream().map(Transaction::getId).toList());
+            assertEquals(List.of(trades.get(4).getId(), trades.get(2).getId()),
+                narrow.get(1).getTransactions().stream().map(Transaction::getId).toList());
+        } finally {
+            graph.close();
+            Files.deleteIfExists(graphFile);
+        }
+    }
+
+    @Test
+    void testBatchWritesFlushInChunksAndRollBackAsAWhole() throws Exception {
+        Path batchFile = Files.createTempFile("ims-batch", ".db");
+        DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + batchFile);
+        config.setBatchSize(3);
+        DatabaseService batches = DatabaseService.create(config);
+        try {
+            // Ten rows are three full JDBC batches and a partial one
+            LocalDateTime base = LocalDateTime.of(2024, 2, 1, 9, 0);
+            List<Transaction> trades = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                Transaction trade = new Transaction("BAT", Transaction.TransactionType.BUY, i + 1, 10);
+                trade.timestampProperty().set(base.plusMinutes(i));
+                trades.add(trade);
+            }
+            assertEquals(10, batches.saveTransactions(trades));
+            assertEquals(10, batches.getUserTransactions(0).size());
+
+            // A duplicate in the last chunk undoes the chunks already flushed before it
+            List<Transaction> failing = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                Transaction trade = new Transaction("BAT", Transaction.TransactionType.SELL, 1, 11);
+                trade.timestampProperty().set(base.plusHours(1).plusMinutes(i));
+                failing.add(trade);
+            }
+            failing.add(trades.get(0));
+            assertThrows(RuntimeException.class, () -> batches.saveTransactions(failing));
+            assertEquals(10, batches.getUserTransactions(0).size());
+
+            List<Notification> notifications = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                notifications.add(new Notification(7_100 + i, "Batch " + i, "Message", base, 71, null,
+                    Notification.NotificationType.PRICE_ALERT, Notification.NotificationPriority.LOW));
+            }
+            notifications.add(notifications.get(0));
+            assertThrows(RuntimeException.class, () -> batches.saveNotifications(notifications));
+            assertTrue(batches.getUserNotifications(71).isEmpty());
+            assertEquals(7, batches.saveNotifications(notifications.subList(0, 7)));
+            assertEquals(7, batches.getUserNotifications(71).size());
+
+            List<Comment> comments = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                comments.add(new Comment(7_200 + i, "Batch " + i, base, 71, null, Comment.TargetType.REPORT, "batch"));
+            }
+            comments.add(new Comment(7_205, null, base, 71, null, Comment.TargetType.REPORT, "batch"));
+            assertThrows(RuntimeException.class, () -> batches.saveComments(comments));
+            assertTrue(batches.getCommentsForTarget("REPORT", "batch").isEmpty());
+
+            List<MarketData> snapshot = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                snapshot.add(new MarketData("BAT" + i, "Batch " + i, "Stock", 10, 10, 10, 10, 100, base, "USD", "NYSE", 10));
+            }
+            snapshot.add(new MarketData("BATX", null, "Stock", 10, 10, 10, 10, 100, base, "USD", "NYSE", 10));
+            assertThrows(RuntimeException.class, () -> batches.saveMarketDataSnapshot(snapshot));
+            assertTrue(batches.getMarketData("BAT0").isEmpty());
+            assertEquals(5, batches.saveMarketDataSnapshot(snapshot.subList(0, 5)));
+            assertEquals(10, batches.getMarketData("BAT4").orElseThrow().getCurrentPrice(), 1e-9);
+        } finally {
+            batches.close();
+            Files.deleteIfExists(batchFile);
+        }
+    }
+
+    @Test
+    void testBatchThatFailsWhileBindingLeavesNothingBehind() throws Exception {
+        Path batchFile = Files.createTempFile("ims-batch-bind", ".db");
+        DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + batchFile);
+        config.setBatchSize(3);
+        DatabaseService batches = DatabaseService.create(config);
+        try {
+            LocalDateTime base = LocalDateTime.of(2024, 2, 1, 9, 0);
+            List<Transaction> failing = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                Transaction trade = new Transaction("BAD", Transaction.TransactionType.BUY, 1, 10);
+                trade.timestampProperty().set(base.plusMinutes(i));
+                failing.add(trade);
+            }
+            // The first chunk is flushed and the fourth row is pending when the fifth fails to bind
+            failing.get(4).timestampProperty().set(null);
+            assertThrows(RuntimeException.class, () -> batches.saveTransactions(failing));
+
+            Transaction good = new Transaction("GOOD", Transaction.TransactionType.BUY, 1, 10);
+            good.timestampProperty().set(base.plusHours(1));
+            assertEquals(1, batches.saveTransactions(List.of(good)));
+            assertEquals(List.of("GOOD"), batches.getUserTransactions(0).stream().map(Transaction::getAssetName).toList());
+        } finally {
+            batches.close();
+            Files.deleteIfExists(batchFile);
+        }
+    }
+
+    @Test
+    void testReportsReadReplicaWithinStalenessBound() throws Exception {
+        Path replicaDir = Files.createTempDirectory("ims-replica");
+        DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + replicaDir.resolve("live.db"));
+        config.setReplicaFile(replicaDir.resolve("replica.db").toString());
+        config.setReplicaRefreshMillis(3_600_000);
+        config.setReplicaMaxStalenessMillis(2_000);
+        DatabaseService replicated = DatabaseService.create(config);
+        try {
+            savePortfolioWorth(replicated, 501, 100);
+            assertTrue(replicated.refreshReplica());
+            assertEquals(501, replicated.getTopPortfoliosByValue(1).get(0).getId());
+
+            // Reports keep reading the snapshot until the next refresh
+            savePortfolioWorth(replicated, 502, 1_000);
+            assertEquals(501, replicated.getTopPortfoliosByValue(1).get(0).getId());
+            ReplicaManager.ReplicaMetrics metrics = replicated.getReplicaMetrics().orElseThrow();
+            assertTrue(metrics.isFresh());
+            assertEquals(2, metrics.getReplicaReads());
+            // The snapshot taken on open is deleted once the explicit one replaces it
+            assertTrue(Files.exists(replicaDir.resolve("replica.db.1")));
+            assertFalse(Files.exists(replicaDir.resolve("replica.db.0")));
+
+            assertTrue(replicated.refreshReplica());
+            assertEquals(502, replicated.getTopPortfoliosByValue(1).get(0).getId());
+
+            // Past the staleness bound reports go to the live database
+            savePortfolioWorth(replicated, 503, 5_000);
+            Thread.sleep(2_100);
+            assertEquals(503, replicated.getTopPortfoliosByValue(1).get(0).getId());
+            metrics = replicated.getReplicaMetrics().orElseThrow();
+            assertFalse(metrics.isFresh());
+            assertEquals(1, metrics.getFallbackReads());
+            // The snapshot taken on open, then the two explicit ones
+            assertEquals(3, metrics.getRefreshes());
+        } finally {
+            replicated.close();
+        }
+        assertFalse(Files.exists(replicaDir.resolve("replica.db.2")));
+        assertTrue(databaseService.getReplicaMetrics().isEmpty());
+        for (String file : List.of("live.db", "live.db-wal", "live.db-shm")) {
+            Files.deleteIfExists(replicaDir.resolve(file));
+        }
+        Files.delete(replicaDir);
+    }
+
+    @Test
+    void testReplicaReadsRacingRefreshesStayConsistent() throws Exception {
+        Path replicaDir = Files.createTempDirectory("ims-replica-race");
+        DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + replicaDir.resolve("live.db"));
+        config.setReplicaFile(replicaDir.resolve("replica.db").toString());
+        config.setReplicaRefreshMillis(3_600_000);
+        config.setReaderPoolSize(2);
+        DatabaseService replicated = DatabaseService.create(config);
+        try {
+            savePortfolioWorth(replicated, 601, 100);
+            assertTrue(replicated.refreshReplica());
+            // Readers keep querying while snapshots are swapped and the old pools closed under them
+            AtomicBoolean running = new AtomicBoolean(true);
+            List<String> failures = Collections.synchronizedList(new ArrayList<>());
+            Thread[] readers = new Thread[3];
+            for (int t = 0; t < readers.length; t++) {
+                readers[t] = new Thread(() -> {
+                    while (running.get()) {
+                        List<PortfolioSummary> top = replicated.getTopPortfoliosByValue(1);
+                        if (top.size() != 1 || top.get(0).getId() != 601) {
+                            failures.add(top.toString());
+                        }
+                    }
+                });
+                readers[t].start();
+            }
+            for (int refresh = 0; refresh < 20; refresh++) {
+                assertTrue(replicated.refreshReplica());
+            }
+            running.set(false);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+            assertEquals(List.of(), failures);
+            ReplicaManager.ReplicaMetrics metrics = replicated.getReplicaMetrics().orElseThrow();
+            assertTrue(metrics.getReplicaReads() > 0);
+            assertEquals(0, metrics.getFailedRefreshes());
+        } finally {
+            replicated.close();
+        }
+        for (String file : List.of("live.db", "live.db-wal", "live.db-shm")) {
+            Files.deleteIfExists(replicaDir.resolve(file));
+        }
+        Files.delete(replicaDir);
+    }
+
+    private static void savePortfolioWorth(DatabaseService db, int id, double value) {
+        Portfolio portfolio = new Portfolio("0");
+        portfolio.setId(id);
+        db.savePortfolio(portfolio);
+        db.savePortfolioItems(id, List.of(new PortfolioItem("REP" + id, "Stock", 1, value)));
+    }
+
+    @Test
+    void testAsyncFacadeAppliesWritesInSubmissionOrder() throws Exception {
+        try (AsyncDatabaseService async = new AsyncDatabaseService(databaseService, Runnable::run)) {
+            // Submitted back to back without waiting; the single write worker runs them in order
+            List<CompletableFuture<Void>> writes = new ArrayList<>();
+            for (int price = 1; price <= 20; price++) {
+                writes.add(async.saveMarketDataAsync(new MarketData("ASYNC", "Async Corp", "Stock", price, 1, 20, 1,
+                    1_000, LocalDateTime.now(), "USD", "NYSE", 1)));
+            }
+            CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+            // Reads run on their own workers, so only a read issued after the writes completed sees them
+            Optional<MarketData> loaded = async.getMarketDataAsync("ASYNC").get(5, TimeUnit.SECONDS);
+
+            assertTrue(loaded.isPresent());
+            assertEquals(20, loaded.get().getCurrentPrice());
+            assertEquals(21, async.getMetrics().getCompleted());
+        }
+    }
+
+    @Test
+    void testWriteBufferKeepsOnlyLatestQuotePerSymbol() {
+        MarketDataWriteBuffer buffer = new MarketDataWriteBuffer(databaseService, 60_000, 1_000);
+        for (int tick = 1; tick <= 4; tick++) {
+            for (String symbol : List.of("WB1", "WB2", "WB3")) {
+                buffer.submit(new MarketData(symbol, symbol, "Stock", tick, 1, 5, 1, 100,
+                    LocalDateTime.now(), "USD", "NYSE", 1));
+            }
+        }
+        buffer.close();
+
+        MarketDataWriteBuffer.WriteBufferStats stats = buffer.getStats();
+        assertEquals(12, stats.getReceived());
+        assertEquals(9, stats.getCoalesced());
+        assertEquals(3, stats.getWritten());
+        assertEquals(0, stats.getPending());
+        assertEquals(4, databaseService.getMarketData("WB2").orElseThrow().getCurrentPrice());
+    }
+
+    @Test
+    void testWriteBufferSubmitRacingCloseIsRejectedCleanly() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            // A threshold of 1 hands nearly every submit to the flush thread
+            MarketDataWriteBuffer buffer = new MarketDataWriteBuffer(databaseService, 60_000, 1);
+            int[] accepted = new int[4];
+            Throwable[] unexpected = new Throwable[4];
+            Thread[] submitters = new Thread[4];
+            for (int t = 0; t < submitters.length; t++) {
+                int thread = t;
+                submitters[t] = new Thread(() -> {
+                    for (int i = 0; ; i++) {
+                        try {
+                            buffer.submit(new MarketData("RC" + thread + "-" + i, "Race", "Stock", 1, 1, 1, 1, 1,
+                                LocalDateTime.now(), "USD", "NYSE", 1));
+                            accepted[thread]++;
+                        } catch (IllegalStateException e) {
+                            return;
+                        } catch (Throwable e) {
+                            unexpected[thread] = e;
+                            return;
+                        }
+                    }
+                });
+                submitters[t].start();
+            }
+            Thread.sleep(5);
+            buffer.close();
+            for (Thread submitter : submitters) {
+                submitter.join();
+            }
+            for (Throwable e : unexpected) {
+                assertNull(e, "Submit racing close failed with " + e);
+            }
+            // Every accepted quote was written by the final flush or earlier
+            MarketDataWriteBuffer.WriteBufferStats stats = buffer.getStats();
+            assertEquals(Arrays.stream(accepted).sum(), stats.getReceived());
+            assertEquals(stats.getReceived(), stats.getWritten());
+            assertEquals(0, stats.getPending());
+        }
+    }
+
+    @Test
+    void testPriceHistoryDownsamplesExpiredDays() {
+        PriceHistoryStore history = new PriceHistoryStore(databaseService);
+        long dayStart = Math.floorDiv(System.currentTimeMillis(), 86_400_000L) * 86_400_000L - 3 * 86_400_000L;
+        List<PriceTick> ticks = new ArrayList<>();
+        for (int second = 0; second < 120; second++) {
+            ticks.add(new PriceTick("HIST", dayStart + second * 1_000L, 100 + second, 10));
+        }
+        assertEquals(120, history.recordTicks(ticks));
+        assertEquals(120, history.getTicks("HIST", dayStart, dayStart + 120_000L).size());
+
+        assertEquals(1, history.applyRetention(Duration.ofDays(1), Duration.ofDays(30)));
+        assertTrue(history.getTicks("HIST", dayStart, dayStart + 120_000L).isEmpty());
+
+        LocalDateTime from = LocalDateTime.ofInstant(Instant.ofEpochMilli(dayStart), ZoneId.systemDefault());
+        List<Map<String, Object>> bars = history.getHistoricalData("HIST", from, from.plusMinutes(5), "1m");
+        assertEquals(2, bars.size());
+        assertEquals(100.0, bars.get(0).get("open"));
+        assertEquals(159.0, bars.get(0).get("close"));
+        assertEquals(600.0, bars.get(1).get("volume"));
+        assertEquals(2, history.getHistoricalPrices("HIST", from, from.plusMinutes(5)).size());
+
+        // Ticks backfilled into the downsampled day are read in order with the bars, then merged into them
+        history.recordTicks(List.of(new PriceTick("HIST", dayStart + 30_500L, 500, 1),
+            new PriceTick("HIST", dayStart + 59_500L, 7, 1)));
+        for (int run = 0; run < 2; run++) {
+            bars = history.getHistoricalData("HIST", from, from.plusMinutes(5), "1m");
+            assertEquals(2, bars.size());
+            assertEquals(100.0, bars.get(0).get("open"));
+            assertEquals(500.0, bars.get(0).get("high"));
+            assertEquals(7.0, bars.get(0).get("close"));
+            assertEquals(602.0, bars.get(0).get("volume"));
+            assertEquals(600.0, bars.get(1).get("volume"));
+            if (run == 0) {
+                assertEquals(1, history.applyRetention(Duration.ofDays(1), Duration.ofDays(30)));
+            }
+        }
+        assertTrue(history.getTicks("HIST", dayStart, dayStart + 120_000L).isEmpty());
+    }
+
+    @Test
+    void testPriceHistoryWindowsSpanDaysAndFailedBatchesLeaveNoPartitions() throws Exception {
+        PriceHistoryStore history = new PriceHistoryStore(databaseService);
+        long midnight = Math.floorDiv(System.currentTimeMillis(), 86_400_000L) * 86_400_000L - 5 * 86_400_000L;
+        history.recordTicks(List.of(new PriceTick("EDGE", midnight - 1, 10, 1), new PriceTick("EDGE", midnight, 11, 1),
+            new PriceTick("EDGE", midnight + 1, 12, 1)));
+        // A repeated (symbol, time) replaces the earlier tick
+        history.recordTick(new PriceTick("EDGE", midnight, 15, 2));
+
+        List<PriceTick> both = history.getTicks("EDGE", midnight - 1, midnight + 1);
+        assertEquals(List.of(midnight - 1, midnight, midnight + 1), both.stream().map(PriceTick::getEpochMillis).toList());
+        assertEquals(15, both.get(1).getPrice(), 1e-9);
+        assertEquals(1, history.getTicks("EDGE", midnight - 1, midnight - 1).size());
+        assertTrue(history.getTicks("NOSUCH", midnight - 1, midnight + 1).isEmpty());
+
+        // NaN volume is stored as NULL and breaks the NOT NULL constraint halfway through the batch
+        long farDay = midnight - 40 * 86_400_000L;
+        assertThrows(RuntimeException.class, () -> history.recordTicks(List.of(new PriceTick("FRESH", farDay, 1, 1),
+            new PriceTick("FRESH", farDay + 1, 2, Double.NaN))));
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile);
+             Statement stmt = connection.createStatement()) {
+            assertFalse(stmt.executeQuery("SELECT 1 FROM symbols WHERE symbol = 'FRESH'").next());
+            assertFalse(stmt.executeQuery("SELECT 1 FROM price_partitions WHERE day = " + farDay / 86_400_000L).next());
+        }
+        assertEquals(1, history.recordTicks(List.of(new PriceTick("FRESH", farDay, 1, 1))));
+        assertEquals(1, history.getTicks("FRESH", farDay, farDay).size());
+
+        // A second store on the same database finds the partitions and expires them
+        PriceHistoryStore reopened = new PriceHistoryStore(databaseService);
+        assertEquals(3, reopened.applyRetention(Duration.ofDays(1), Duration.ofDays(30)));
+        assertTrue(reopened.getTicks("EDGE", midnight - 1, midnight + 1).isEmpty());
+        assertEquals(2, reopened.getHistoricalPrices("EDGE", LocalDateTime.ofInstant(Instant.ofEpochMilli(midnight - 60_000),
+            ZoneId.systemDefault()), LocalDateTime.ofInstant(Instant.ofEpochMilli(midnight + 60_000), ZoneId.systemDefault())).size());
+        // The 40-day-old day was downsampled and its bar then purged by the 30-day bar retention
+        assertTrue(reopened.getHistoricalPrices("FRESH", LocalDateTime.ofInstant(Instant.ofEpochMilli(farDay),
+            ZoneId.systemDefault()), LocalDateTime.ofInstant(Instant.ofEpochMilli(farDay + 60_000), ZoneId.systemDefault())).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> reopened.getHistoricalData("EDGE", LocalDateTime.now(),
+            LocalDateTime.now(), "7x"));
+    }
+
+    @Test
+    void testPortfolioTotalsFollowHoldingsAndPrices() {
+        Portfolio portfolio = new Portfolio("7");
+        portfolio.setId(9_001);
+        portfolio.nameProperty().set("Aggregates");
+        portfolio.setRiskProfile(Portfolio.RiskProfile.VERY_AGGRESSIVE);
+        databaseService.savePortfolio(portfolio);
+
+        PortfolioItem apple = new PortfolioItem("AGG1", "Stock", 10, 100);
+        apple.refreshPrice(110);
+        PortfolioItem coin = new PortfolioItem("AGG2", "Crypto", 2, 50);
+        coin.refreshPrice(50);
+        databaseService.savePortfolioItems(9_001, List.of(apple, coin));
+
+        PortfolioSummary summary = databaseService.getTopPortfoliosByValue(1).get(0);
+        assertEquals(9_001, summary.getId());
+        assertEquals(1_200, summary.getTotalValue(), 1e-9);
+        assertEquals(1_100, summary.getTotalCost(), 1e-9);
+        assertEquals(100, summary.getTotalProfitLoss(), 1e-9);
+
+        // A price tick reprices every holding of the symbol, and the totals follow
+        databaseService.saveMarketData(new MarketData("AGG1", "Agg One", "Stock", 120, 100, 125, 99, 1_000,
+            LocalDateTime.now(), "USD", "NYSE", 110));
+        summary = databaseService.getTopPortfoliosByValue(1).get(0);
+        assertEquals(1_300, summary.getTotalValue(), 1e-9);
+        assertEquals(200 / 1_300.0 * 100, summary.getTotalProfitLossPercent(), 1e-9);
+        assertEquals(1_300, databaseService.getAssetsUnderManagementByRisk()
+            .get(Portfolio.RiskProfile.VERY_AGGRESSIVE), 1e-9);
+
+        // Saving the header again must not reset the maintained totals
+        databaseService.savePortfolio(portfolio);
+        databaseService.rebuildPortfolioAggregates();
+        assertEquals(1_300, databaseService.getTopPortfoliosByValue(1).get(0).getTotalValue(), 1e-9);
+        assertEquals(1_300, databaseService.getAssetsUnderManagementByRisk()
+            .get(Portfolio.RiskProfile.VERY_AGGRESSIVE), 1e-9);
+    }
+
+    @Test
+    void testMarketDataCacheServesHitsAndInvalidatesOnSave() {
+        long hitsBefore = databaseService.getMarketDataCacheMetrics().getHits();
+        assertTrue(databaseService.getMarketData("CACHED").isEmpty());
+        // The miss is cached as well
+        assertTrue(databaseService.getMarketData("CACHED").isEmpty());
+
+        databaseService.saveMarketData(new MarketData("CACHED", "Cached Inc", "Stock", 10, 10, 11, 9, 100,
+            LocalDateTime.now(), "USD", "NYSE", 10));
+        MarketData first = databaseService.getMarketData("CACHED").orElseThrow();
+        assertSame(first, databaseService.getMarketData("CACHED").orElseThrow());
+
+        databaseService.saveMarketData(new MarketData("CACHED", "Cached Inc", "Stock", 12, 10, 12, 9, 100,
+            LocalDateTime.now(), "USD", "NYSE", 10));
+        assertEquals(12, databaseService.getMarketData("CACHED").orElseThrow().getCurrentPrice());
+
+        EntityCache.CacheMetrics metrics = databaseService.getMarketDataCacheMetrics();
+        assertEquals(2, metrics.getHits() - hitsBefore);
+        assertTrue(metrics.getInvalidations() >= 2);
+    }
+
+    @Test
+    void testMarketDataCacheIsInvalidatedWhenASaveFails() {
+        databaseService.saveMarketData(new MarketData("FAILA", "Fail A", "Stock", 10, 10, 10, 10, 100,
+            LocalDateTime.now(), "USD", "NYSE", 10));
+        MarketData cached = databaseService.getMarketData("FAILA").orElseThrow();
+        assertTrue(databaseService.getMarketData("FAILB").isEmpty());
+        long invalidations = databaseService.getMarketDataCacheMetrics().getInvalidations();
+
+        // The third quote has no timestamp, so the batch fails while binding and rolls back
+        MarketData broken = new MarketData("FAILC", "Fail C", "Stock", 1, 1, 1, 1, 1, null, "USD", "NYSE", 1);
+        assertThrows(RuntimeException.class, () -> databaseService.saveMarketDataSnapshot(List.of(
+            new MarketData("FAILA", "Fail A", "Stock", 20, 10, 20, 10, 100, LocalDateTime.now(), "USD", "NYSE", 10),
+            new MarketData("FAILB", "Fail B", "Stock", 5, 5, 5, 5, 100, LocalDateTime.now(), "USD", "NYSE", 5),
+            broken)));
+        assertThrows(RuntimeException.class, () -> databaseService.saveMarketData(broken));
+
+        // Entries were dropped anyway, and the reload sees the rolled back state
+        assertTrue(databaseService.getMarketDataCacheMetrics().getInvalidations() > invalidations);
+        MarketData reloaded = databaseService.getMarketData("FAILA").orElseThrow();
+        assertNotSame(cached, reloaded);
+        assertEquals(10, reloaded.getCurrentPrice());
+        assertTrue(databaseService.getMarketData("FAILB").isEmpty());
+        assertTrue(databaseService.getMarketData("FAILC").isEmpty());
+    }
+
+    @Test
+    void testCsvImportSkipsBadRowsAndResumesAppendedRows() throws Exception {
+        Path csv = Files.createTempFile("ims-import", ".csv");
+        StringBuilder content = new StringBuilder("asset,transaction_type,quantity,price,timestamp,notes\n");
+        for (int i = 0; i < 3_000; i++) {
+            content.append("IMP").append(i % 7).append(",BUY,").append(i + 1).append(",10.5,2023-06-01 10:00:00,")
+                .append(i == 5 ? "\"with, comma\"" : "").append('\n');
+        }
+        content.append("IMPX,HOLD,1,1,2023-06-01,\n");
+        content.append("IMPY,SELL,-4,1,2023-06-01,\n");
+        Files.writeString(csv, content);
+
+        CsvImporter importer = new CsvImporter(databaseService, 3, 4_096);
+        CsvImporter.ImportResult first = importer.importTransactions(csv);
+        assertEquals(3_000, first.getRowsImported());
+        assertEquals(2, first.getRowsRejected());
+        assertEquals("line 3002: unknown transaction_type: HOLD", first.getErrors().get(0));
+
+        Files.writeString(csv, "IMPZ,SELL,2,11,2023-06-02T09:00:00,\n", java.nio.file.StandardOpenOption.APPEND);
+        CsvImporter.ImportResult second = importer.importTransactions(csv);
+        assertEquals(1, second.getRowsImported());
+        assertTrue(second.getResumedFromOffset() > 0);
+        assertEquals(0, importer.importTransactions(csv).getRowsImported());
+
+        // Another user's import of the same statement has its own checkpoint and owner
+        CsvImporter.ImportResult forUser = importer.importTransactions(csv, 77);
+        assertEquals(3_001, forUser.getRowsImported());
+        assertEquals(3_001, databaseService.getUserTransactions(77).size());
+        assertEquals(0, importer.importTransactions(csv, 77).getRowsImported());
+        Files.deleteIfExists(csv);
+    }
+
+    @Test
+    void testStatementIdsAreScopedPerUser() throws Exception {
+        Path csv = Files.createTempFile("ims-import-ids", ".csv");
+        Files.writeString(csv, "id,asset,transaction_type,quantity,price,timestamp\n" +
+            "1001,IDA,BUY,1,10,2023-06-01\n" +
+            "B-1002,IDB,SELL,2,11,2023-06-02\n");
+        CsvImporter importer = new CsvImporter(databaseService, 1, 4_096);
+        assertEquals(2, importer.importTransactions(csv).getRowsImported());
+        assertEquals(2, importer.importTransactions(csv, 78).getRowsImported());
+        for (int user : new int[] {0, 78}) {
+            assertEquals(Set.of("1001", "B-1002"), databaseService.getUserTransactions(user).stream()
+                .map(Transaction::getId).collect(Collectors.toSet()));
+        }
+
+        // Within one user the statement's ids stay unique
+        importer.resetCheckpoint(csv, 78);
+        assertThrows(RuntimeException.class, () -> importer.importTransactions(csv, 78));
+        assertEquals(2, databaseService.getUserTransactions(78).size());
+        Files.deleteIfExists(csv);
+    }
+
+    @Test
+    void testPositionImportWritesChunkByChunk() throws Exception {
+        for (int id = 801; id <= 802; id++) {
+            Portfolio portfolio = new Portfolio("0");
+            portfolio.setId(id);
+            databaseService.savePortfolio(portfolio);
+        }
+        databaseService.savePortfolioItems(801, List.of(new PortfolioItem("STALE", "Stock", 1, 1)));
+        Path csv = Files.createTempFile("ims-import-positions", ".csv");
+        StringBuilder content = new StringBuilder("portfolio_id,asset,asset_type,quantity,open_price\n");
+        // Far more than one 4 KiB chunk, with both portfolios interleaved throughout
+        for (int i = 0; i < 400; i++) {
+            content.append(801 + i % 2).append(",POS").append(i).append(",Stock,1,2\n");
+        }
+        Files.writeString(csv, content);
+
+        CsvImporter.ImportResult result = new CsvImporter(databaseService, 2, 4_096).importPositions(csv);
+        assertEquals(400, result.getRowsImported());
+        List<Portfolio> graph = databaseService.loadPortfolioGraph(0, 0);
+        for (Portfolio portfolio : graph) {
+            assertEquals(200, portfolio.getItems().size());
+            assertTrue(portfolio.getItems().stream().noneMatch(item -> item.getAsset().equals("STALE")));
+        }
+
+        // Importing again replaces rather than duplicates
+        new CsvImporter(databaseService, 2, 4_096).importPositions(csv);
+        assertEquals(200, databaseService.loadPortfolioGraph(0, 0).get(0).getItems().size());
+        Files.deleteIfExists(csv);
+    }
+
+    @Test
+    void testExportWritesCsvAndCompressedJsonLines() throws Exception {
+        databaseService.saveMarketData(new MarketData("EXP,1", "Export \"Quoted\"", "Stock", 5, 5, 6, 4, 10,
+            LocalDateTime.of(2024, 3, 1, 12, 0), "USD", "NYSE", 5));
+        DataExporter exporter = new DataExporter(databaseService, 4_096);
+        Path csv = Files.createTempFile("ims-export", ".csv");
+        Path jsonl = Files.createTempFile("ims-export", ".jsonl.gz");
+        List<Long> progress = new ArrayList<>();
+
+        DataExporter.ExportResult csvResult = exporter.export(DataExporter.Table.MARKET_DATA, DataExporter.Format.CSV,
+            csv, false, (table, rows, bytes) -> progress.add(rows));
+        List<String> lines = Files.readAllLines(csv);
+        assertEquals(csvResult.getRows() + 1, lines.size());
+        assertTrue(lines.get(0).startsWith("symbol,name,"));
+        assertTrue(lines.contains("\"EXP,1\",\"Export \"\"Quoted\"\"\",Stock,5.0,5.0,6.0,4.0,10.0,0.0,0.0," +
+            "2024-03-01T12:00,USD,NYSE,5.0,6.0,4.0,0.0,0.0"), "Row not found in " + lines.size() + " lines");
+        assertEquals(csvResult.getRows(), progress.get(progress.size() - 1));
+
+        DataExporter.ExportResult jsonResult = exporter.export(DataExporter.Table.MARKET_DATA, DataExporter.Format.JSONL,
+            jsonl, true);
+        assertTrue(jsonResult.getFileBytes() < jsonResult.getUncompressedBytes());
+        try (var in = new java.io.BufferedReader(new java.io.InputStreamReader(
+                new java.util.zip.GZIPInputStream(Files.newInputStream(jsonl))))) {
+            List<String> json = in.lines().toList();
+            assertEquals(jsonResult.getRows(), json.size());
+            assertTrue(json.stream().anyMatch(row -> row.startsWith("{\"symbol\":\"EXP,1\",\"name\":\"Export \\\"Quoted\\\"\"")));
+        }
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(jsonl);
+    }
+
+    @Test
+    void testTradeJournalReplaysPositionsAndFeedsDatabase() throws Exception {
+        Path journalFile = Files.createTempFile("ims-trades", ".journal");
+        Files.delete(journalFile);
+        long lastSequence;
+        try (TradeJournal journal = new TradeJournal(journalFile, 64 * 1024)) {
+            PortfolioServiceImpl portfolios = new PortfolioServiceImpl(journal);
+            for (int i = 0; i < 1_500; i++) {
+                portfolios.executeTrade("user" + i % 10 + "@example.com", "JRN" + i % 3, "Stock",
+                    Transaction.TransactionType.BUY, 2, 10 + i % 5);
+            }
+            portfolios.executeTrade("user1@example.com", "JRN1", "Stock", Transaction.TransactionType.SELL, 3, 12);
+            assertThrows(IllegalArgumentException.class, () -> portfolios.executeTrade("user1@example.com", "JRN1",
+                "Stock", Transaction.TransactionType.SELL, 1_000, 12));
+            lastSequence = journal.getLastSequence();
+            assertEquals(1_501, lastSequence);
+            assertTrue(journal.getStats().getBytes() > 2 * 64 * 1024, "Journal should span several windows");
+        }
+
+        // A half-written record after the last flush must be dropped on open
+        long end;
+        try (TradeJournal journal = new TradeJournal(journalFile, 64 * 1024)) {
+            end = journal.getStats().getBytes();
+        }
+        try (var channel = java.nio.channels.FileChannel.open(journalFile, java.nio.file.StandardOpenOption.WRITE)) {
+            channel.write(java.nio.ByteBuffer.allocate(12).putInt(40).putInt(0xBAD).putInt(7).flip(), end);
+        }
+
+        try (TradeJournal journal = new TradeJournal(journalFile, 64 * 1024)) {
+            assertEquals(lastSequence, journal.getLastSequence());
+            PortfolioServiceImpl restored = new PortfolioServiceImpl(journal);
+            assertEquals(100, restored.findPosition("user0@example.com", "JRN0").orElseThrow().getQuantity(), 1e-9);
+            assertEquals(100 - 3, restored.findPosition("user1@example.com", "JRN1").orElseThrow().getQuantity(), 1e-9);
+            restored.executeTrade("user2@example.com", "JRN2", "Stock", Transaction.TransactionType.SELL, 1, 11);
+            assertEquals(lastSequence + 1, journal.getLastSequence());
+
+            // Own database: journaled rows would otherwise show up in the shared user's history
+            Path journalDb = Files.createTempFile("ims-journal", ".db");
+            DatabaseService target = DatabaseService.create(new DatabaseConfig("jdbc:sqlite:" + journalDb));
+            try {
+                JournalDatabaseWriter writer = new JournalDatabaseWriter(journal, target, 400);
+                writer.close();
+                assertEquals(lastSequence + 1, writer.getStats().getRowsWritten());
+                assertEquals(0, writer.getStats().getLag());
+                JournalDatabaseWriter resumed = new JournalDatabaseWriter(journal, target, 400);
+                resumed.close();
+                assertEquals(0, resumed.getStats().getRowsWritten());
+                assertEquals(lastSequence + 1, resumed.getStats().getCommittedSequence());
+
+                // Stopping the writers must leave the shared journal channel open
+                restored.executeTrade("user2@example.com", "JRN2", "Stock", Transaction.TransactionType.SELL, 1, 11);
+                assertEquals(lastSequence + 2, journal.replay(0, event -> { }));
+            } finally {
+                target.close();
+            }
+            Files.deleteIfExists(journalDb);
+        }
+        Files.deleteIfExists(journalFile);
+    }
+
+    @Test
+    void testPortfolioSnapshotRestoresAndReplaysNewerTrades() throws Exception {
+        Path dir = Files.createTempDirectory("ims-snapshots");
+        Path journalFile = dir.resolve("trades.journal");
+        try (TradeJournal journal = new TradeJournal(journalFile, 64 * 1024);
+             PortfolioSnapshotStore snapshots = new PortfolioSnapshotStore(dir, 2)) {
+            PortfolioServiceImpl portfolios = new PortfolioServiceImpl(journal, snapshots);
+            for (int i = 0; i < 200; i++) {
+                portfolios.executeTrade("snap" + i % 20 + "@example.com", i / 20 % 2 == 0 ? "SNAPA" : "SNAPB",
+                    i / 20 % 2 == 0 ? "Stock" : "Crypto", Transaction.TransactionType.BUY, 1, 5);
+            }
+            PortfolioSnapshotStore.SnapshotInfo first = snapshots.write(portfolios);
+            assertEquals(200, first.getJournalSequence());
+            assertEquals(20, first.getUsers());
+            assertEquals(40, first.getPositions());
+            portfolios.executeTrade("snap0@example.com", "SNAPA", "Stock", Transaction.TransactionType.SELL, 4, 6);
+            portfolios.executeTrade("late@example.com", "SNAPC", "Forex", Transaction.TransactionType.BUY, 3, 1.1);
+
+            PortfolioServiceImpl restored = new PortfolioServiceImpl(journal, snapshots);
+            assertEquals(1, restored.findPosition("snap0@example.com", "SNAPA").orElseThrow().getQuantity(), 1e-9);
+            assertEquals(5, restored.findPosition("snap1@example.com", "SNAPB").orElseThrow().getLastPrice(), 1e-9);
+            assertEquals(3, restored.findPosition("late@example.com", "SNAPC").orElseThrow().getQuantity(), 1e-9);
+
+            // A damaged newest snapshot falls back to the previous one
+            Path second = snapshots.write(restored).getFile();
+            byte[] bytes = Files.readAllBytes(second);
+            bytes[bytes.length / 2] ^= 0x55;
+            Files.write(second, bytes);
+            PortfolioServiceImpl fallback = new PortfolioServiceImpl(journal, snapshots);
+            assertEquals(1, fallback.findPosition("snap0@example.com", "SNAPA").orElseThrow().getQuantity(), 1e-9);
+            assertEquals(3, fallback.findPosition("late@example.com", "SNAPC").orElseThrow().getQuantity(), 1e-9);
+        }
+
+        // Snapshots ahead of the journal, e.g. after losing its unflushed tail, are not restored
+        try (TradeJournal behind = new TradeJournal(dir.resolve("behind.journal"), 64 * 1024);
+             PortfolioSnapshotStore snapshots = new PortfolioSnapshotStore(dir, 2)) {
+            PortfolioServiceImpl restored = new PortfolioServiceImpl(behind, snapshots);
+            assertTrue(restored.findPosition("snap0@example.com", "SNAPA").isEmpty());
+        }
+    }
+
+    @Test
+    void testSnapshotStoreSkipsPartialFilesAndKeepsOnlyRetained() throws Exception {
+        Path dir = Files.createTempDirectory("ims-snapshot-edges");
+        try (TradeJournal journal = new TradeJournal(dir.resolve("trades.journal"), 64 * 1024);
+             PortfolioSnapshotStore snapshots = new PortfolioSnapshotStore(dir, 2)) {
+            PortfolioServiceImpl portfolios = new PortfolioServiceImpl(journal, snapshots);
+            assertEquals(0, snapshots.write(portfolios).getUsers());
+            portfolios.executeTrade("edge@example.com", "EDGA", "Stock", Transaction.TransactionType.BUY, 2, 3);
+            snapshots.write(portfolios);
+            // Selling everything leaves an empty portfolio, which the snapshot leaves out
+            portfolios.executeTrade("edge@example.com", "EDGA", "Stock", Transaction.TransactionType.SELL, 2, 4);
+            PortfolioSnapshotStore.SnapshotInfo latest = snapshots.write(portfolios);
+            assertEquals(0, latest.getUsers());
+            assertEquals(0, latest.getPositions());
+            try (var files = Files.list(dir)) {
+                assertEquals(2, files.filter(file -> file.toString().endsWith(".snap")).count());
+            }
+
+            // A temporary file left by a crash mid-write and a newer file cut short are both passed over
+            String name = latest.getFile().getFileName().toString();
+            Files.write(dir.resolve(name + ".tmp"), new byte[] {1, 2, 3});
+            Files.write(dir.resolve(name.replace(".snap", "9.snap")),
+                Arrays.copyOf(Files.readAllBytes(latest.getFile()), 30));
+            PortfolioServiceImpl restored = new PortfolioServiceImpl(journal);
+            assertEquals(latest.getFile(), snapshots.restoreLatest(restored).orElseThrow().getFile());
+            assertTrue(restored.getUserPortfolio("edge@example.com").isEmpty());
+
+            snapshots.schedule(portfolios, Duration.ofHours(1));
+            assertThrows(IllegalStateException.class, () -> snapshots.schedule(portfolios, Duration.ofHours(1)));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new PortfolioSnapshotStore(dir, 0));
+    }
+
+    @Test
+    void testFailedJournalFlushRollsBackPositions() throws Exception {
+        Path journalFile = Files.createTempFile("ims-trades", ".journal");
+        Files.delete(journalFile);
+        boolean[] failing = {false};
+        // Stands in for an msync error: the record never reaches the file and the flush reports a failure
+        try (TradeJournal journal = new TradeJournal(journalFile, 64 * 1024) {
+            @Override
+            public TradeEvent appendAsync(TradeEvent event) {
+                return failing[0] ? event : super.appendAsync(event);
+            }
+
+            @Override
+            public void awaitDurable(long sequence) {
+                if (failing[0]) {
+                    throw new UncheckedIOException(new IOException("Simulated flush failure"));
+                }
+                super.awaitDurable(sequence);
+            }
+        }) {
+            PortfolioServiceImpl portfolios = new PortfolioServiceImpl(journal);
+            portfolios.executeTrade("flush@example.com", "FLSH", "Stock", Transaction.TransactionType.BUY, 10, 4);
+            ObservableList<PortfolioItem> view = portfolios.getUserPortfolio("flush@example.com");
+
+            failing[0] = true;
+            assertThrows(UncheckedIOException.class, () -> portfolios.executeTrade("flush@example.com", "FLSH",
+                "Stock", Transaction.TransactionType.BUY, 5, 4));
+            assertThrows(UncheckedIOException.class, () -> portfolios.executeTrade("flush@example.com", "FLSH",
+                "Stock", Transaction.TransactionType.SELL, 10, 6));
+            assertThrows(UncheckedIOException.class, () -> portfolios.executeTrade("flush@example.com", "NEWX",
+                "Crypto", Transaction.TransactionType.BUY, 1, 2));
+
+            // Only the flushed buy is left, in the same list the view is bound to
+            assertSame(view, portfolios.getUserPortfolio("flush@example.com"));
+            assertEquals(1, view.size());
+            assertEquals(10, portfolios.findPosition("flush@example.com", "FLSH").orElseThrow().getQuantity(), 1e-9);
+            assertEquals(4, view.get(0).getLastPrice(), 1e-9);
+            assertEquals(1, journal.getLastSequence());
+        }
+        Files.deleteIfExists(journalFile);
+    }
+
+    @Test
+    void testReplayFromStaleOffsetScansWholeJournal() throws Exception {
+        Path journalFile = Files.createTempFile("ims-trades", ".journal");
+        Files.delete(journalFile);
+        try (TradeJournal journal = new TradeJournal(journalFile, 64 * 1024)) {
+            for (int i = 1; i <= 10; i++) {
+                journal.append(new TradeEvent("stale@example.com", "STL", "Stock", Transaction.TransactionType.BUY, i, 1));
+            }
+            long afterThree = journal.read(journal.getStartOffset(), 3, event -> { });
+            long afterFive = journal.read(journal.getStartOffset(), 5, event -> { });
+
+            List<Long> exact = new ArrayList<>();
+            assertEquals(10, journal.replay(5, afterFive, event -> exact.add(event.getSequence())));
+            assertEquals(List.of(6L, 7L, 8L, 9L, 10L), exact);
+
+            // An offset that points at the wrong record, e.g. from a snapshot of another journal
+            List<Long> stale = new ArrayList<>();
+            assertEquals(10, journal.replay(5, afterThree, event -> stale.add(event.getSequence())));
+            assertEquals(exact, stale);
+
+            List<Long> past = new ArrayList<>();
+            assertEquals(10, journal.replay(10, journal.getEndOffset(), event -> past.add(event.getSequence())));
+            assertTrue(past.isEmpty());
+        }
+        Files.deleteIfExists(journalFile);
+    }
+
+    @Test
+    void testFileStorageReloadsSavedEntities() throws Exception {
+        Path dir = Files.createTempDirectory("ims-storage");
+        DatabaseConfig config = new DatabaseConfig();
+        config.setStorageType(StorageType.FILE);
+        config.setStorageFile(dir.resolve("data.store").toString());
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 10, 0);
+        String firstId;
+        try (StorageBackend storage = StorageBackend.open(config)) {
+            assertInstanceOf(FileStorage.class, storage);
+            storage.saveUser(new InvestmentUser("7", "file@example.com", "secret"));
+            Portfolio portfolio = new Portfolio("7");
+            portfolio.setId(70);
+            portfolio.nameProperty().set("Growth");
+            storage.savePortfolio(portfolio);
+            storage.savePortfolioItems(70, List.of(new PortfolioItem("FILEA", "Stock", 10, 5)));
+            List<Transaction> trades = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                Transaction trade = new Transaction("FILEA", Transaction.TransactionType.BUY, i + 1, 5);
+                trade.timestampProperty().set(base.plusMinutes(i));
+                trades.add(trade);
+            }
+            storage.saveTransactions(trades);
+            firstId = trades.get(2).getId();
+            storage.saveMarketData(new MarketData("FILEA", "File A", "Stock", 6, 5, 6, 5, 100, base, "USD", "NYSE", 5));
+            storage.saveMarketData(new MarketData("FILEA", "File A", "Stock", 7, 5, 7, 5, 200, base, "USD", "NYSE", 5));
+        }
+
+        try (StorageBackend reopened = StorageBackend.open(config)) {
+            assertEquals("7", reopened.getUserByEmail("file@example.com").orElseThrow().getId());
+            assertEquals("Growth", reopened.getUserPortfolios(7).get(0).getName());
+            assertEquals(50, reopened.getUserPortfolios(7).get(0).getTotalCost(), 1e-9);
+            List<Transaction> history = reopened.getUserTransactions(0);
+            assertEquals(3, history.size());
+            assertEquals(firstId, history.get(0).getId());
+            assertEquals(7, reopened.getMarketData("FILEA").orElseThrow().getCurrentPrice(), 1e-9);
+            assertThrows(RuntimeException.class, () -> reopened.saveTransaction(history.get(1)));
+            assertEquals(3, reopened.getUserTransactions(0).size());
+        }
+
+        // The rejected duplicate was logged before it was applied, then cut off again
+        try (StorageBackend again = StorageBackend.open(config)) {
+            assertEquals(3, again.getUserTransactions(0).size());
+        }
+        Files.deleteIfExists(dir.resolve("data.store"));
+        Files.deleteIfExists(dir);
+    }
+
+    @Test
+    void testFileStorageCutsTornTailAndCompactsOnOpen() throws Exception {
+        Path dir = Files.createTempDirectory("ims-storage-tail");
+        Path file = dir.resolve("data.store");
+        try (FileStorage storage = FileStorage.open(file, 4)) {
+            storage.saveUser(new InvestmentUser("8", "tail@example.com", "secret"));
+        }
+        long intact = Files.size(file);
+
+        // A crash mid-append leaves a header that promises more bytes than were written
+        try (var channel = java.nio.channels.FileChannel.open(file, java.nio.file.StandardOpenOption.WRITE)) {
+            channel.write(java.nio.ByteBuffer.allocate(10).putInt(500).putInt(0x5EED).putShort((short) 1).flip(), intact);
+        }
+        try (FileStorage storage = FileStorage.open(file, 4)) {
+            assertEquals(intact, Files.size(file));
+            assertEquals("8", storage.getUserByEmail("tail@example.com").orElseThrow().getId());
+            // Written where the torn record was, so it is not hidden behind it on the next open
+            storage.saveUser(new InvestmentUser("9", "after@example.com", "secret"));
+        }
+        try (FileStorage storage = FileStorage.open(file, 4)) {
+            assertEquals(2, storage.getAllUsers().size());
+            for (int tick = 0; tick < 12_000; tick++) {
+                storage.saveMarketData(new MarketData("TAIL", "Tail", "Stock", tick + 1, 1, 1, 1, 1,
+                    LocalDateTime.of(2024, 1, 1, 0, 0), "USD", "NYSE", 1));
+            }
+        }
+        // Superseded quotes outnumber live entities, so opening rewrites the log
+        long grown = Files.size(file);
+        try (FileStorage storage = FileStorage.open(file, 4)) {
+            assertTrue(Files.size(file) < grown / 100, "Log was not compacted: " + Files.size(file));
+            assertEquals(12_000, storage.getMarketData("TAIL").orElseThrow().getCurrentPrice(), 1e-9);
+            assertEquals(2, storage.getAllUsers().size());
+        }
+        // Not a storage log at all
+        Path foreign = dir.resolve("foreign.store");
+        Files.write(foreign, new byte[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9});
+        assertThrows(java.io.UncheckedIOException.class, () -> FileStorage.open(foreign, 4));
+        try (var files = Files.list(dir)) {
+            for (Path leftover : files.toList()) {
+                Files.delete(leftover);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    void testInMemoryStorageRejectsDuplicateBatchesAndPagesByCursor() {
+        InMemoryStorage memory = new InMemoryStorage(2);
+        LocalDateTime base = LocalDateTime.of(2024, 6, 1, 9, 0);
+        List<Transaction> trades = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Transaction trade = new Transaction("MEMA", Transaction.TransactionType.BUY, 1, 1);
+            // Two trades share each timestamp, so the cursor has to break ties on the id
+            trade.timestampProperty().set(base.plusMinutes(i / 2));
+            trades.add(trade);
+        }
+        Transaction repeated = new Transaction("MEMB", Transaction.TransactionType.BUY, 1, 1);
+        repeated.idProperty().set(trades.get(1).getId());
+        assertEquals(3, memory.saveTransactions(trades.subList(0, 3)));
+
+        // One duplicate rejects the whole batch and frees the ids it had claimed
+        Transaction fresh = new Transaction("MEMC", Transaction.TransactionType.BUY, 1, 1);
+        assertThrows(RuntimeException.class, () -> memory.saveTransactions(List.of(fresh, repeated)));
+        assertEquals(3, memory.getUserTransactions(0).size());
+        assertEquals(3, memory.saveTransactions(List.of(fresh, trades.get(3), trades.get(4))));
+
+        Set<String> seen = new HashSet<>();
+        String cursor = null;
+        do {
+            Page<Transaction> page = memory.getUserTransactionsPage(0, cursor, 2);
+            page.getItems().forEach(t -> assertTrue(seen.add(t.getId()), "Seen twice: " + t.getId()));
+            cursor = page.getNextCursor().orElse(null);
+        } while (cursor != null);
+        assertEquals(6, seen.size());
+        assertThrows(IllegalArgumentException.class, () -> memory.getUserTransactionsPage(0, "no-separator", 2));
+        assertThrows(IllegalArgumentException.class, () -> memory.getUserTransactionsPage(0, null, 0));
+
+        memory.close();
+        assertThrows(IllegalStateException.class, () -> memory.getUserTransactions(0));
+        assertThrows(IllegalStateException.class, () -> memory.saveTransactions(List.of(
+            new Transaction("MEMD", Transaction.TransactionType.BUY, 1, 1))));
+    }
+
+    @Test
+    void testInboxCountersFollowReadAndDelete() {
+        try (InMemoryStorage memory = new InMemoryStorage(4)) {
+            for (NotificationRepository inbox : List.of(databaseService, memory)) {
+                LocalDateTime now = LocalDateTime.now();
+                List<Notification> batch = new ArrayList<>();
+                for (int i = 0; i < 6; i++) {
+                    batch.add(new Notification(9_000 + i, "Alert " + i, "Message", now.plusSeconds(i), 900, null,
+                        i < 4 ? Notification.NotificationType.PRICE_ALERT : Notification.NotificationType.SYSTEM_MESSAGE,
+                        i % 2 == 0 ? Notification.NotificationPriority.HIGH : Notification.NotificationPriority.LOW));
+                }
+                inbox.saveNotifications(batch);
+                Notification read = new Notification(9_006, "Old", "Message", now, 900, null,
+                    Notification.NotificationType.RECOMMENDATION, Notification.NotificationPriority.LOW);
+                read.markAsRead();
+                inbox.saveNotification(read);
+
+                InboxSummary summary = inbox.getInboxSummary(900);
+                assertEquals(7, summary.getTotalCount());
+                assertEquals(6, summary.getUnreadCount());
+                assertEquals(4, summary.getUnreadCount(Notification.NotificationType.PRICE_ALERT));
+                assertEquals(3, summary.getUnreadCount(Notification.NotificationPriority.HIGH));
+
+                assertTrue(inbox.markNotificationRead(9_000));
+                assertTrue(inbox.deleteNotification(9_004));
+                assertFalse(inbox.markNotificationRead(123_456));
+                summary = inbox.getInboxSummary(900);
+                assertEquals(6, summary.getTotalCount());
+                assertEquals(4, inbox.getUnreadNotificationCount(900));
+                assertEquals(1, summary.getUnreadCount(Notification.NotificationPriority.HIGH));
+                assertEquals(1, summary.getTotalCount(Notification.NotificationType.SYSTEM_MESSAGE));
+                assertEquals(6, inbox.getUserNotifications(900).size());
+
+                assertEquals(4, inbox.markAllNotificationsRead(900));
+                assertEquals(0, inbox.getUnreadNotificationCount(900));
+                assertEquals(0, inbox.getInboxSummary(901).getTotalCount());
+            }
+        }
+    }
+
+    @Test
+    void testCommentThreadsAssembleAndPageReplies() {
+        try (InMemoryStorage memory = new InMemoryStorage(4)) {
+            for (CommentRepository comments : List.of(databaseService, memory)) {
+                LocalDateTime base = LocalDateTime.of(2024, 5, 1, 12, 0);
+                List<Comment> discussion = new ArrayList<>();
+                discussion.add(new Comment(8_000, "First", base, 1, null, Comment.TargetType.REPORT, "thread"));
+                discussion.add(new Comment(8_001, "Second", base.plusMinutes(1), 2, null, Comment.TargetType.REPORT, "thread"));
+                for (int i = 0; i < 5; i++) {
+                    discussion.add(new Comment(8_010 + i, "Reply " + i, base.plusMinutes(2 + i), 3, 8_000,
+                        Comment.TargetType.REPORT, "thread"));
+                }
+                discussion.add(new Comment(8_020, "Nested", base.plusMinutes(10), 4, 8_010, Comment.TargetType.REPORT, "thread"));
+                discussion.add(new Comment(8_021, "Deeper", base.plusMinutes(11), 5, 8_020, Comment.TargetType.REPORT, "thread"));
+                comments.saveComments(discussion);
+
+                List<CommentThread> threads = comments.getCommentThreads("REPORT", "thread", Integer.MAX_VALUE);
+                assertEquals(2, threads.size());
+                assertEquals(8_001, threads.get(0).getComment().getIntId());
+                CommentThread first = threads.get(1);
+                assertEquals(5, first.getReplyCount());
+                assertEquals(8_010, first.getReplies().get(0).getComment().getIntId());
+                assertEquals(8_021, first.getReplies().get(0).getReplies().get(0).getReplies().get(0).getComment().getIntId());
+
+                // A depth limit keeps the reply count of the branches it cuts
+                CommentThread shallow = comments.getCommentThreads("REPORT", "thread", 1).get(1);
+                assertEquals(1, shallow.getReplies().get(0).getReplyCount());
+                assertTrue(shallow.getReplies().get(0).hasUnloadedReplies());
+
+                Page<CommentThread> page = comments.getReplies(8_000, null, 2, 1);
+                assertEquals(List.of(8_010, 8_011), page.getItems().stream().map(t -> t.getComment().getIntId()).toList());
+                assertEquals(8_020, page.getItems().get(0).getReplies().get(0).getComment().getIntId());
+                assertTrue(page.getItems().get(0).getReplies().get(0).hasUnloadedReplies());
+                List<Integer> rest = new ArrayList<>();
+                String cursor = page.getNextCursor().orElseThrow();
+                while (cursor != null) {
+                    page = comments.getReplies(8_000, cursor, 2, 0);
+                    page.getItems().forEach(t -> rest.add(t.getComment().getIntId()));
+                    cursor = page.getNextCursor().orElse(null);
+                }
+                assertEquals(List.of(8_012, 8_013, 8_014), rest);
+
+                // A new reply shows up even after the target's comments were cached
+                comments.saveComment(new Comment(8_030, "Late", base.plusMinutes(30), 6, 8_001,
+                    Comment.TargetType.REPORT, "thread"));
+                assertEquals(1, comments.getCommentThreads("REPORT", "thread", Integer.MAX_VALUE).get(0).getReplyCount());
+            }
+        }
+    }
+
+    @Test
+    void testTransactionIdsIncreaseAcrossThreads() throws Exception {
+        int threads = 4;
+        int perThread = 50_000;
+        List<long[]> issued = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(new Thread(() -> {
+                long[] ids = new long[perThread];
+                for (int i = 0; i < perThread; i++) {
+                    ids[i] = TransactionIds.next();
+                }
+                issued.add(ids);
+            }));
+        }
+        workers.forEach(Thread::start);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        Set<Long> unique = new HashSet<>();
+        for (long[] ids : issued) {
+            for (int i = 0; i < ids.length; i++) {
+                assertTrue(unique.add(ids[i]));
+                assertTrue(i == 0 || ids[i] > ids[i - 1]);
+            }
+        }
+        long millis = TransactionIds.epochMillisOf(TransactionIds.next());
+        assertTrue(Math.abs(millis - System.currentTimeMillis()) < 60_000);
+        assertEquals(-1, TransactionIds.parse(UUID.randomUUID().toString()));
+        assertEquals(-1, TransactionIds.parse("0123"));
+        // A broker's numeric id is not a key this generator issued
+        assertEquals(-1, TransactionIds.parse("1001"));
+        long fresh = TransactionIds.next();
+        assertEquals(fresh, TransactionIds.parse(Long.toString(fresh)));
+    }
+
+    @Test
+    void testImportedNumericIdsGetGeneratedKeys() throws Exception {
+        Transaction imported = new Transaction("BRK", Transaction.TransactionType.BUY, 1, 10);
+        imported.idProperty().set("1001");
+        Transaction generated = new Transaction("BRK", Transaction.TransactionType.BUY, 1, 10);
+        imported.timestampProperty().set(LocalDateTime.of(2024, 5, 1, 10, 0));
+        generated.timestampProperty().set(LocalDateTime.of(2024, 5, 1, 9, 0));
+        databaseService.saveTransactions(List.of(imported, generated));
+
+        assertEquals(List.of("1001", generated.getId()),
+            databaseService.getUserTransactions(0).stream().map(Transaction::getId).toList());
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile);
+             Statement stmt = connection.createStatement();
+             java.sql.ResultSet rs = stmt.executeQuery("SELECT id FROM transactions WHERE legacy_id = '1001'")) {
+            assertTrue(rs.next());
+            // The stored key is time-ordered like every other, not the broker's number
+            assertTrue(Math.abs(TransactionIds.epochMillisOf(rs.getLong(1)) - System.currentTimeMillis()) < 60_000);
+        }
+    }
+
+    @Test
+    void testTextTransactionIdsAreMigratedToIntegerKeys() throws Exception {
+        Path legacyFile = Files.createTempFile("ims-legacy", ".db");
+        long base = LocalDateTime.of(2023, 6, 1, 9, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        List<String> legacyIds = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + legacyFile);
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE transactions (id TEXT PRIMARY KEY, asset_name TEXT NOT NULL, " +
+                "asset_type TEXT NOT NULL, quantity INTEGER NOT NULL, price_usd REAL NOT NULL, " +
+                "timestamp TIMESTAMP NOT NULL, transaction_type TEXT NOT NULL, status TEXT NOT NULL, " +
+                "total_value_usd REAL NOT NULL, user_id INTEGER NOT NULL, notes TEXT)");
+            for (int i = 0; i < 5; i++) {
+                String id = UUID.randomUUID().toString();
+                legacyIds.add(id);
+                // Two rows share each millisecond
+                stmt.execute("INSERT INTO transactions VALUES ('" + id + "', 'OLD', 'Buy', 1, 10, " +
+                    (base + i / 2) + ", 'Buy', 'COMPLETED', 10, 0, NULL)");
+            }
+        }
+        DatabaseService migrated = DatabaseService.create(new DatabaseConfig("jdbc:sqlite:" + legacyFile));
+        try {
+            assertEquals(Set.copyOf(legacyIds), migrated.getUserTransactions(0).stream()
+                .map(Transaction::getId).collect(Collectors.toSet()));
+            assertEquals(5, migrated.getMonthlyRollups(0).get(0).getTradeCount());
+
+            Transaction fresh = new Transaction("NEW", Transaction.TransactionType.SELL, 1, 12);
+            migrated.saveTransaction(fresh);
+            assertTrue(TransactionIds.parse(fresh.getId()) > 0);
+            Transaction copy = new Transaction("OLD", Transaction.TransactionType.BUY, 1, 10);
+            copy.idProperty().set(legacyIds.get(0));
+            assertThrows(RuntimeException.class, () -> migrated.saveTransaction(copy));
+
+            List<String> walked = new ArrayList<>();
+            String cursor = null;
+            do {
+                Page<Transaction> page = migrated.getUserTransactionsPage(0, cursor, 2);
+                page.getItems().forEach(t -> walked.add(t.getId()));
+                cursor = page.getNextCursor().orElse(null);
+            } while (cursor != null);
+            assertEquals(6, walked.size());
+            assertEquals(fresh.getId(), walked.get(0));
+            assertEquals(6, Set.copyOf(walked).size());
+        } finally {
+            migrated.close();
+            Files.deleteIfExists(legacyFile);
+        }
+    }
+
+    @Test
+    void testArchivedMonthsKeepTheirRollups() {
+        TransactionArchive archive = new TransactionArchive(databaseService);
+        LocalDateTime march = LocalDateTime.of(2001, 3, 10, 12, 0);
+        List<Transaction> trades = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Transaction trade = new Transaction("ARCHA", Transaction.TransactionType.BUY, i + 1, 10.0);
+            trade.timestampProperty().set(march.plusDays(i));
+            trade.setNotes(i == 0 ? null : "lot " + i);
+            trades.add(trade);
+        }
+        Transaction sale = new Transaction("ARCHA", Transaction.TransactionType.SELL, 1, 20.0);
+        sale.timestampProperty().set(LocalDateTime.of(2001, 4, 2, 9, 0));
+        trades.add(sale);
+        databaseService.saveTransactions(trades);
+
+        List<TransactionRollup> before = archaRollups();
+        assertEquals(2, before.size());
+        assertEquals(YearMonth.of(2001, 4), before.get(0).getMonth());
+        assertEquals(Transaction.TransactionType.SELL, before.get(0).getTransactionType());
+        assertEquals(3, before.get(1).getTradeCount());
+        assertEquals(6.0, before.get(1).getQuantity(), 1e-9);
+        assertEquals(60.0, before.get(1).getNotional(), 1e-9);
+
+        assertEquals(4, archive.archiveBefore(YearMonth.of(2002, 1)));
+        assertTrue(databaseService.getUserTransactions(0).stream().noneMatch(t -> t.getAssetName().equals("ARCHA")));
+        assertEquals(List.of(YearMonth.of(2001, 4), YearMonth.of(2001, 3)), archive.getArchivedMonths(0));
+        List<Transaction> archived = archive.getArchivedTransactions(0, YearMonth.of(2001, 3));
+        assertEquals(List.of(trades.get(2).getId(), trades.get(1).getId(), trades.get(0).getId()),
+            archived.stream().map(Transaction::getId).toList());
+        assertEquals("lot 2", archived.get(0).getNotes());
+        assertNull(archived.get(2).getNotes());
+        assertEquals(30.0, archived.get(0).getTotalAmount(), 1e-9);
+
+        // A late trade in an archived month is merged into it on the next run
+        Transaction late = new Transaction("ARCHA", Transaction.TransactionType.BUY, 4, 10.0);
+        late.timestampProperty().set(march.minusDays(5));
+        databaseService.saveTransaction(late);
+        assertEquals(1, archive.archiveBefore(YearMonth.of(2002, 1)));
+        assertEquals(late.getId(), archive.getArchivedTransactions(0, YearMonth.of(2001, 3)).get(3).getId());
+        List<TransactionRollup> after = archaRollups();
+        assertEquals(4, after.get(1).getTradeCount());
+        assertEquals(100.0, after.get(1).getNotional(), 1e-9);
+        assertEquals(20.0, after.get(0).getNotional(), 1e-9);
+    }
+
+    @Test
+    void testArchiveCutoffIsExclusiveAndDamagedMonthsRollBack() throws Exception {
+        TransactionArchive archive = new TransactionArchive(databaseService);
+        LocalDateTime cutoff = LocalDateTime.of(2003, 2, 1, 0, 0);
+        Transaction lastOfJanuary = new Transaction("EDGEA", Transaction.TransactionType.BUY, 1, 10);
+        lastOfJanuary.timestampProperty().set(cutoff.minusNanos(1_000_000));
+        Transaction firstOfFebruary = new Transaction("EDGEA", Transaction.TransactionType.BUY, 2, 10);
+        firstOfFebruary.timestampProperty().set(cutoff);
+        databaseService.saveTransactions(List.of(lastOfJanuary, firstOfFebruary));
+        Transaction otherUser = new Transaction("EDGEA", Transaction.TransactionType.BUY, 3, 10);
+        otherUser.timestampProperty().set(cutoff.minusDays(3));
+        databaseService.saveTransactions(5, List.of(otherUser));
+
+        assertEquals(2, archive.archiveBefore(YearMonth.of(2003, 2)));
+        assertEquals(List.of(firstOfFebruary.getId()), databaseService.getUserTransactions(0).stream()
+            .filter(t -> t.getAssetName().equals("EDGEA")).map(Transaction::getId).toList());
+        // Each user's month is archived on its own
+        assertEquals(List.of(lastOfJanuary.getId()), archive.getArchivedTransactions(0, YearMonth.of(2003, 1)).stream()
+            .map(Transaction::getId).toList());
+        assertEquals(List.of(otherUser.getId()), archive.getArchivedTransactions(5, YearMonth.of(2003, 1)).stream()
+            .map(Transaction::getId).toList());
+        assertTrue(archive.getArchivedTransactions(0, YearMonth.of(2003, 2)).isEmpty());
+        assertTrue(archive.getArchivedMonths(6).isEmpty());
+        assertEquals(0, archive.archiveBefore(YearMonth.of(2003, 2)));
+
+        // A month that can no longer be decoded is not read, and merging into it rolls the run back
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile);
+             Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("UPDATE transaction_archive SET payload = X'00' WHERE user_id = 0 AND month = 200301");
+        }
+        assertTrue(archive.getArchivedTransactions(0, YearMonth.of(2003, 1)).isEmpty());
+        Transaction late = new Transaction("EDGEA", Transaction.TransactionType.BUY, 4, 10);
+        late.timestampProperty().set(cutoff.minusDays(10));
+        databaseService.saveTransaction(late);
+        assertThrows(RuntimeException.class, () -> archive.archiveBefore(YearMonth.of(2003, 2)));
+        assertTrue(databaseService.getUserTransactions(0).stream().anyMatch(t -> t.getId().equals(late.getId())));
+    }
+
+    private List<TransactionRollup> archaRollups() {
+        return databaseService.getMonthlyRollups(0).stream()
+            .filter(rollup -> rollup.getAssetName().equals("ARCHA")).toList();
+    }
+
+    @Test
+    void testSearchIndexFollowsReportAndCommentWrites() {
+        SearchIndex search = new SearchIndex(databaseService);
+        LocalDateTime now = LocalDateTime.now();
+        Report semis = new Report(7_100, "Semiconductor outlook", "Foundry capacity tightens into next year",
+            now, 1, Report.ReportType.MARKET_ANALYSIS);
+        semis.setTags("chips, asia");
+        databaseService.saveReport(semis);
+        Report rates = new Report(7_101, "Rates and banks", "Semiconductor lending is a small share of loans",
+            now, 1, Report.ReportType.ECONOMIC_FORECAST);
+        rates.setTags("banks");
+        databaseService.saveReport(rates);
+
+        Page<SearchHit> hits = search.searchReports("semiconductor", List.of(), null, 10);
+        assertEquals(List.of(7_100, 7_101), hits.getItems().stream().map(SearchHit::getId).toList());
+        assertEquals(List.of(7_100), search.searchReports("semicond*", List.of("chips"), null, 10)
+            .getItems().stream().map(SearchHit::getId).toList());
+        assertEquals(1, search.searchReports("", List.of("banks"), null, 10).size());
+
+        Page<SearchHit> first = search.searchReports("semiconductor", null, null, 1);
+        assertTrue(first.hasMore());
+        Page<SearchHit> second = search.searchReports("semiconductor", null, first.getNextCursor().orElseThrow(), 1);
+        assertEquals(7_101, second.getItems().get(0).getId());
+        assertFalse(second.hasMore());
+
+        // Replacing a report re-indexes it instead of leaving the old text behind
+        rates.setContent("Deposit betas keep rising");
+        databaseService.saveReport(rates);
+        assertEquals(1, search.searchReports("semiconductor", null, null, 10).size());
+        assertEquals(1, search.searchReports("\"deposit\" betas", null, null, 10).size());
+
+        Comment comment = new Comment(7_200, "Great call on foundry capacity", now, 2, null,
+            Comment.TargetType.REPORT, "7100");
+        databaseService.saveComment(comment);
+        SearchHit hit = search.searchComments("foundry", "REPORT", null, 10).getItems().get(0);
+        assertEquals(7_200, hit.getId());
+        assertEquals("7100", hit.getTargetId());
+        assertTrue(hit.getSnippet().contains("[foundry]"));
+        assertTrue(search.searchComments("foundry", "USER", null, 10).isEmpty());
+        comment.setDeleted(true);
+        databaseService.saveComment(comment);
+        assertTrue(search.searchComments("foundry", null, null, 10).isEmpty());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        databaseService.close();
+        Files.deleteIfExists(dbFile);
+    }
+}
@@ -0,0 +1,67 @@
+package com.furkan.investmentmanagementsystem;
+
+import com.furkan.investmentmanagementsystem.models.Transaction;
+import com.furkan.investmentmanagementsystem.services.PortfolioServiceImpl;
+import com.furkan.investmentmanagementsystem.services.PortfolioSnapshotStore;
+import com.furkan.investmentmanagementsystem.services.TradeJournal;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cold start of {@link PortfolioServiceImpl} with 100k users: snapshot plus a
+ * journal tail, compared with replaying the whole journal.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+public class PortfolioSnapshotBenchmark {
+    private static final int USERS = 100_000;
+    private static final int POSITIONS_PER_USER = 3;
+    private static final int TAIL_TRADES = 10_000;
+
+    @Test
+    void coldStartWithOneHundredThousandUsers() throws Exception {
+        Path dir = Files.createTempDirectory("ims-bench-snapshot");
+        Path journalFile = dir.resolve("trades.journal");
+        String[] assets = {"AAPL", "BTC", "EURUSD", "MSFT", "ETH"};
+        String[] types = {"Stock", "Crypto", "Forex", "Stock", "Crypto"};
+        try (TradeJournal journal = new TradeJournal(journalFile);
+             PortfolioSnapshotStore snapshots = new PortfolioSnapshotStore(dir)) {
+            PortfolioServiceImpl portfolios = new PortfolioServiceImpl(journal, snapshots);
+            long start = System.nanoTime();
+            for (int u = 0; u < USERS; u++) {
+                for (int p = 0; p < POSITIONS_PER_USER; p++) {
+                    int a = (u + p) % assets.length;
+                    portfolios.executeTrade("user" + u + "@example.com", assets[a], types[a],
+                        Transaction.TransactionType.BUY, 1 + p, 10 + a);
+                }
+            }
+            System.out.printf("Journaled %,d trades in %.0f ms%n", USERS * POSITIONS_PER_USER,
+                (System.nanoTime() - start) / 1e6);
+
+            PortfolioSnapshotStore.SnapshotInfo written = snapshots.write(portfolios);
+            System.out.println("Snapshot: " + written);
+            for (int i = 0; i < TAIL_TRADES; i++) {
+                int a = i % assets.length;
+                portfolios.executeTrade("user" + i + "@example.com", assets[a], types[a],
+                    Transaction.TransactionType.BUY, 1, 10 + a);
+            }
+
+            start = System.nanoTime();
+            PortfolioServiceImpl fromJournal = new PortfolioServiceImpl(journal);
+            double journalMillis = (System.nanoTime() - start) / 1e6;
+            start = System.nanoTime();
+            PortfolioServiceImpl fromSnapshot = new PortfolioServiceImpl(journal, snapshots);
+            double snapshotMillis = (System.nanoTime() - start) / 1e6;
+            System.out.printf("Cold start: snapshot + %,d-trade tail %.0f ms, full journal replay %.0f ms%n",
+                TAIL_TRADES, snapshotMillis, journalMillis);
+
+            assertEquals(USERS, written.getUsers());
+            assertEquals(fromJournal.getTotalPortfolioValue("user7@example.com"),
+                fromSnapshot.getTotalPortfolioValue("user7@example.com"), 1e-9);
+            assertTrue(snapshotMillis < 10_000, "Cold start took " + snapshotMillis + " ms");
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.furkan.investmentmanagementsystem;
+
+import com.furkan.investmentmanagementsystem.models.MarketData;
+import com.furkan.investmentmanagementsystem.models.Transaction;
+import com.furkan.investmentmanagementsystem.services.DatabaseConfig;
+import com.furkan.investmentmanagementsystem.services.DatabaseService;
+import com.furkan.investmentmanagementsystem.services.StorageProfile;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bytes allocated per row when streaming transactions and quotes as JavaFX models
+ * versus as projected rows, measured with the per-thread allocation counter.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+public class RowProjectionBenchmark {
+    private static final int TRANSACTIONS = 200_000;
+    private static final int SYMBOLS = 20_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void compareModelAndRowAllocation() throws Exception {
+        Path dbFile = Files.createTempFile("ims-bench-rows", ".db");
+        DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + dbFile);
+        config.setStorageProfile(StorageProfile.THROUGHPUT);
+        DatabaseService db = DatabaseService.create(config);
+        try {
+            List<Transaction> trades = new ArrayList<>(TRANSACTIONS);
+            LocalDateTime base = LocalDateTime.now().minusDays(30);
+            for (int i = 0; i < TRANSACTIONS; i++) {
+                Transaction trade = new Transaction("SYM" + (i % 500), Transaction.TransactionType.BUY, 1 + i % 100, 10.5);
+                trade.timestampProperty().set(base.plusSeconds(i));
+                trades.add(trade);
+            }
+            db.saveTransactions(trades);
+            List<MarketData> quotes = new ArrayList<>(SYMBOLS);
+            for (int i = 0; i < SYMBOLS; i++) {
+                quotes.add(new MarketData("SYM" + i, "Symbol " + i, "Stock", 11, 10, 12, 9, 1_000,
+                    base, "USD", "NYSE", 10));
+            }
+            db.saveMarketDataSnapshot(quotes);
+
+            System.out.printf("%-14s %14s %14s%n", "read", "model B/row", "row B/row");
+            System.out.printf("%-14s %14.0f %14.0f%n", "transactions",
+                bytesPerRow(() -> db.streamTransactions(0), TRANSACTIONS),
+                bytesPerRow(() -> db.streamTransactionRows(0), TRANSACTIONS));
+            System.out.printf("%-14s %14.0f %14.0f%n", "quotes",
+                bytesPerRow(db::streamMarketData, SYMBOLS),
+                bytesPerRow(db::streamPriceRows, SYMBOLS));
+        } finally {
+            db.close();
+            Files.deleteIfExists(dbFile);
+            Files.deleteIfExists(Path.of(dbFile + "-wal"));
+            Files.deleteIfExists(Path.of(dbFile + "-shm"));
+        }
+    }
+
+    /** Best of several rounds, so JIT warm-up does not count against either side. */
+    private static double bytesPerRow(Supplier<Stream<?>> query, int expectedRows) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            long rows;
+            try (Stream<?> stream = query.get()) {
+                rows = stream.count();
+            }
+            best = Math.min(best, threads.getThreadAllocatedBytes(thread) - before);
+            assertEquals(expectedRows, rows);
+        }
+        return (double) best / expectedRows;
+    }
+}
@@ -0,0 +1,146 @@
+package com.furkan.investmentmanagementsystem;
+
+import com.furkan.investmentmanagementsystem.models.Comment;
+import com.furkan.investmentmanagementsystem.services.DatabaseConfig;
+import com.furkan.investmentmanagementsystem.services.DatabaseService;
+import com.furkan.investmentmanagementsystem.services.Page;
+import com.furkan.investmentmanagementsystem.services.SearchHit;
+import com.furkan.investmentmanagementsystem.services.SearchIndex;
+import com.furkan.investmentmanagementsystem.services.StorageProfile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ranked comment search over one million indexed documents. Reports first-page
+ * latency percentiles and whether the p99 meets the 20 ms target.
+ * <p>
+ * Word frequencies in real text follow Zipf's law, so comments draw from a
+ * 50,000-word vocabulary where the k-th most common word appears about 1/k as
+ * often as the most common one, and run from 5 to 40 words. Queries of one to
+ * three words are drawn the same way: the common words that match a large share
+ * of the index are the ones users type most, and the slowest to rank.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+public class SearchBenchmark {
+    private static final int DOCUMENTS = 1_000_000;
+    private static final int BATCH = 10_000;
+    private static final int QUERIES = 2_000;
+    private static final int VOCABULARY = 50_000;
+    private static final double ZIPF_EXPONENT = 1.0;
+    private static final double TARGET_P99_MILLIS = 20;
+    // Consonant-vowel syllables give pronounceable words the Porter stemmer leaves alone
+    private static final String[] SYLLABLES = {
+        "ba", "bo", "da", "do", "ga", "go", "ka", "ko", "ma", "mo", "na", "no", "pa", "po", "ra", "ro",
+        "ta", "to", "va", "vo", "za", "zo", "bu", "du", "gu", "ku", "mu", "nu", "pu", "ru", "tu", "zu"
+    };
+
+    @Test
+    void searchOneMillionComments() throws Exception {
+        Path dbFile = Files.createTempFile("ims-bench-search", ".db");
+        DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + dbFile);
+        config.setStorageProfile(StorageProfile.THROUGHPUT);
+        DatabaseService db = DatabaseService.create(config);
+        try {
+            SearchIndex search = new SearchIndex(db);
+            Random random = new Random(42);
+            String[] words = vocabulary();
+            double[] cumulative = zipf(VOCABULARY, ZIPF_EXPONENT);
+            LocalDateTime base = LocalDateTime.now().minusYears(1);
+            long start = System.nanoTime();
+            List<Comment> batch = new ArrayList<>(BATCH);
+            for (int i = 1; i <= DOCUMENTS; i++) {
+                StringBuilder text = new StringBuilder();
+                for (int w = 5 + random.nextInt(36); w > 0; w--) {
+                    text.append(words[draw(cumulative, random)]).append(' ');
+                }
+                batch.add(new Comment(i, text.toString().trim(), base.plusSeconds(i), 1 + i % 5_000, null,
+                    Comment.TargetType.REPORT, String.valueOf(i % 20_000)));
+                if (batch.size() == BATCH) {
+                    db.saveComments(batch);
+                    batch.clear();
+                }
+            }
+            System.out.printf("Indexed %,d comments in %.0f ms%n", DOCUMENTS, (System.nanoTime() - start) / 1e6);
+            start = System.nanoTime();
+            search.optimize();
+            System.out.printf("Optimized in %.0f ms%n", (System.nanoTime() - start) / 1e6);
+
+            long[] nanos = new long[QUERIES];
+            int empty = 0;
+            for (int q = 0; q < QUERIES; q++) {
+                StringBuilder query = new StringBuilder(words[draw(cumulative, random)]);
+                for (int extra = random.nextInt(3); extra > 0; extra--) {
+                    query.append(' ').append(words[draw(cumulative, random)]);
+                }
+                long t = System.nanoTime();
+                Page<SearchHit> page = search.searchComments(query.toString(), null, null, 20);
+                nanos[q] = System.nanoTime() - t;
+                if (page.isEmpty()) {
+                    empty++;
+                }
+            }
+            assertTrue(empty < QUERIES / 2, "Most queries should find something: " + empty + " empty");
+            Arrays.sort(nanos);
+            double p50 = nanos[QUERIES / 2] / 1e6;
+            double p90 = nanos[QUERIES * 9 / 10] / 1e6;
+            double p99 = nanos[QUERIES * 99 / 100] / 1e6;
+            double max = nanos[QUERIES - 1] / 1e6;
+            System.out.printf("Search latency over %,d documents: p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms, " +
+                "%d of %d queries empty%n", DOCUMENTS, p50, p90, p99, max, empty, QUERIES);
+            // Not asserted: BM25 scores every match, so a word found in most documents ranks
+            // hundreds of thousands of rows and the target is out of reach on this distribution
+            System.out.printf("Target p99 < %.0f ms: %s%n", TARGET_P99_MILLIS, p99 < TARGET_P99_MILLIS ? "met" : "missed");
+        } finally {
+            db.close();
+            Files.deleteIfExists(dbFile);
+            Files.deleteIfExists(Path.of(dbFile + "-wal"));
+            Files.deleteIfExists(Path.of(dbFile + "-shm"));
+        }
+    }
+
+    /** Distinct words of two to four syllables, shortest first so common words stay short. */
+    private static String[] vocabulary() {
+        String[] words = new String[VOCABULARY];
+        int n = SYLLABLES.length;
+        for (int i = 0; i < VOCABULARY; i++) {
+            StringBuilder word = new StringBuilder();
+            int index = i;
+            int syllables = index < n * n ? 2 : index < n * n + n * n * n ? 3 : 4;
+            index -= syllables == 2 ? 0 : syllables == 3 ? n * n : n * n + n * n * n;
+            for (int s = 0; s < syllables; s++) {
+                word.append(SYLLABLES[index % n]);
+                index /= n;
+            }
+            words[i] = word.toString();
+        }
+        return words;
+    }
+
+    /** Cumulative Zipf distribution over ranks 0..size-1. */
+    private static double[] zipf(int size, double exponent) {
+        double[] cumulative = new double[size];
+        double total = 0;
+        for (int k = 0; k < size; k++) {
+            total += 1 / Math.pow(k + 1, exponent);
+            cumulative[k] = total;
+        }
+        for (int k = 0; k < size; k++) {
+            cumulative[k] /= total;
+        }
+        return cumulative;
+    }
+
+    private static int draw(double[] cumulative, Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,138 @@
+package com.furkan.investmentmanagementsystem;
+
+import com.furkan.investmentmanagementsystem.models.*;
+import com.furkan.investmentmanagementsystem.services.DatabaseConfig;
+import com.furkan.investmentmanagementsystem.services.StorageBackend;
+import com.furkan.investmentmanagementsystem.services.StorageType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the same workload against every {@link StorageType}: single and batched
+ * trade inserts, quote and notification writes, point reads, and reads from
+ * several threads at once. Run with {@code mvn test -Pbenchmark}.
+ */
+public class StorageBackendBenchmark {
+    private static final int SINGLE_INSERTS = 2_000;
+    private static final int BATCH_INSERTS = 50_000;
+    private static final int SYMBOLS = 500;
+    private static final int USERS = 200;
+    private static final int READS = 20_000;
+    private static final int READER_THREADS = 4;
+
+    @Test
+    void compareBackends() throws Exception {
+        System.out.printf("%-8s %12s %12s %12s %10s %10s %14s%n",
+            "storage", "single tx/s", "batch tx/s", "notify/s", "read p50", "read p99", "parallel rd/s");
+        for (StorageType type : StorageType.values()) {
+            Path dir = Files.createTempDirectory("ims-bench-" + type.name().toLowerCase());
+            DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + dir.resolve("bench.db"));
+            config.setStorageFile(dir.resolve("bench.store").toString());
+            config.setStorageType(type);
+            try (StorageBackend storage = StorageBackend.open(config)) {
+                double single = measureSingleInserts(storage);
+                double batch = measureBatchInserts(storage);
+                double notifications = measureNotificationWrites(storage);
+                double[] latency = measureReadLatencyMicros(storage);
+                double parallel = measureParallelReads(storage);
+                System.out.printf("%-8s %12.0f %12.0f %12.0f %8.1fus %8.1fus %14.0f%n", type.name(), single, batch,
+                    notifications, latency[0], latency[1], parallel);
+                assertEquals(SINGLE_INSERTS + BATCH_INSERTS, storage.getUserTransactions(0).size());
+                assertEquals(1, storage.getUserNotifications(USERS - 1).size());
+            } finally {
+                try (var files = Files.list(dir)) {
+                    for (Path file : files.toList()) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+                Files.deleteIfExists(dir);
+            }
+        }
+    }
+
+    private double measureSingleInserts(StorageBackend storage) {
+        long start = System.nanoTime();
+        for (int i = 0; i < SINGLE_INSERTS; i++) {
+            storage.saveTransaction(new Transaction("AAPL", Transaction.TransactionType.BUY, 1, 150.0));
+        }
+        return SINGLE_INSERTS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private double measureBatchInserts(StorageBackend storage) {
+        List<Transaction> trades = new ArrayList<>(BATCH_INSERTS);
+        for (int i = 0; i < BATCH_INSERTS; i++) {
+            trades.add(new Transaction("MSFT", Transaction.TransactionType.SELL, 2, 300.0));
+        }
+        long start = System.nanoTime();
+        assertEquals(BATCH_INSERTS, storage.saveTransactions(trades));
+        return BATCH_INSERTS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private double measureNotificationWrites(StorageBackend storage) {
+        LocalDateTime now = LocalDateTime.now();
+        long start = System.nanoTime();
+        for (int i = 0; i < USERS; i++) {
+            storage.saveNotification(new Notification(1_000_000 + i, "Fill", "Order filled", now, i, null,
+                Notification.NotificationType.PORTFOLIO_UPDATE, Notification.NotificationPriority.MEDIUM));
+        }
+        return USERS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private double[] measureReadLatencyMicros(StorageBackend storage) {
+        List<MarketData> quotes = new ArrayList<>(SYMBOLS);
+        for (int i = 0; i < SYMBOLS; i++) {
+            quotes.add(new MarketData("SYM" + i, "Symbol " + i, "Stock", 100, 99, 101, 98, 1_000,
+                LocalDateTime.now(), "USD", "NASDAQ", 99.5));
+        }
+        storage.saveMarketDataSnapshot(quotes);
+
+        Random random = new Random(42);
+        long[] samples = new long[READS];
+        for (int i = 0; i < READS; i++) {
+            long start = System.nanoTime();
+            assertTrue(storage.getMarketData("SYM" + random.nextInt(SYMBOLS)).isPresent());
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return new double[] { samples[READS / 2] / 1e3, samples[READS * 99 / 100] / 1e3 };
+    }
+
+    private double measureParallelReads(StorageBackend storage) throws Exception {
+        ExecutorService readers = Executors.newFixedThreadPool(READER_THREADS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < READER_THREADS; t++) {
+                int seed = t;
+                results.add(readers.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < READS; i++) {
+                        if (i % 10 == 0) {
+                            storage.getUserNotifications(random.nextInt(USERS));
+                        } else {
+                            storage.getMarketData("SYM" + random.nextInt(SYMBOLS));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            return READER_THREADS * READS / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            readers.shutdown();
+        }
+    }
+}
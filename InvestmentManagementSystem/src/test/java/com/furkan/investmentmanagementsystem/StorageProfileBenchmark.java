@@ -0,0 +1,91 @@
+package com.furkan.investmentmanagementsystem;
+
+import com.furkan.investmentmanagementsystem.models.MarketData;
+import com.furkan.investmentmanagementsystem.models.Transaction;
+import com.furkan.investmentmanagementsystem.services.DatabaseConfig;
+import com.furkan.investmentmanagementsystem.services.DatabaseService;
+import com.furkan.investmentmanagementsystem.services.StorageProfile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the storage profiles on trade-insert throughput and point-read latency.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+public class StorageProfileBenchmark {
+    private static final int SINGLE_INSERTS = 2_000;
+    private static final int BATCH_INSERTS = 50_000;
+    private static final int SYMBOLS = 500;
+    private static final int READS = 20_000;
+
+    @Test
+    void compareProfiles() throws Exception {
+        System.out.printf("%-10s %14s %14s %10s %10s%n", "profile", "single tx/s", "batch tx/s", "read p50", "read p99");
+        for (StorageProfile profile : StorageProfile.values()) {
+            Path dbFile = Files.createTempFile("ims-bench-" + profile.name().toLowerCase(), ".db");
+            DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + dbFile);
+            config.setStorageProfile(profile);
+            // Point reads must reach SQLite; cache hits would make every profile look the same
+            config.setCacheMaxEntries(0);
+            DatabaseService db = DatabaseService.create(config);
+            try {
+                double single = measureSingleInserts(db);
+                double batch = measureBatchInserts(db);
+                double[] latency = measureReadLatencyMicros(db);
+                System.out.printf("%-10s %14.0f %14.0f %8.1fus %8.1fus%n", profile.name(), single, batch, latency[0], latency[1]);
+                assertTrue(single > 0 && batch > 0);
+            } finally {
+                db.close();
+                Files.deleteIfExists(dbFile);
+                Files.deleteIfExists(Path.of(dbFile + "-wal"));
+                Files.deleteIfExists(Path.of(dbFile + "-shm"));
+            }
+        }
+    }
+
+    private double measureSingleInserts(DatabaseService db) {
+        long start = System.nanoTime();
+        for (int i = 0; i < SINGLE_INSERTS; i++) {
+            db.saveTransaction(new Transaction("AAPL", Transaction.TransactionType.BUY, 1, 150.0));
+        }
+        return SINGLE_INSERTS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private double measureBatchInserts(DatabaseService db) {
+        List<Transaction> trades = new ArrayList<>(BATCH_INSERTS);
+        for (int i = 0; i < BATCH_INSERTS; i++) {
+            trades.add(new Transaction("MSFT", Transaction.TransactionType.SELL, 2, 300.0));
+        }
+        long start = System.nanoTime();
+        assertEquals(BATCH_INSERTS, db.saveTransactions(trades));
+        return BATCH_INSERTS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private double[] measureReadLatencyMicros(DatabaseService db) {
+        List<MarketData> quotes = new ArrayList<>(SYMBOLS);
+        for (int i = 0; i < SYMBOLS; i++) {
+            quotes.add(new MarketData("SYM" + i, "Symbol " + i, "Stock", 100, 99, 101, 98, 1_000,
+                LocalDateTime.now(), "USD", "NASDAQ", 99.5));
+        }
+        db.saveMarketDataSnapshot(quotes);
+
+        Random random = new Random(42);
+        long[] samples = new long[READS];
+        for (int i = 0; i < READS; i++) {
+            long start = System.nanoTime();
+            assertTrue(db.getMarketData("SYM" + random.nextInt(SYMBOLS)).isPresent());
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return new double[] { samples[READS / 2] / 1e3, samples[READS * 99 / 100] / 1e3 };
+    }
+}
@@ -0,0 +1,96 @@
+package com.furkan.investmentmanagementsystem;
+
+import com.furkan.investmentmanagementsystem.models.TransactionIds;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Insert throughput and file size of the transactions table keyed by random UUID
+ * text, as it used to be, against time-ordered {@link TransactionIds} integers.
+ * Both tables carry the user history index, which ends in the key.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+public class TransactionIdBenchmark {
+    private static final int ROWS = 1_000_000;
+    private static final int BATCH = 10_000;
+    private static final int USERS = 1_000;
+
+    @Test
+    void compareUuidAndTimeOrderedKeys() throws Exception {
+        Result uuid = run("TEXT", false);
+        Result ordered = run("INTEGER", true);
+        System.out.printf("%-10s %12s %12s%n", "key", "rows/s", "file MB");
+        System.out.printf("%-10s %12.0f %12.1f%n", "uuid", uuid.rowsPerSecond, uuid.bytes / 1e6);
+        System.out.printf("%-10s %12.0f %12.1f%n", "ordered", ordered.rowsPerSecond, ordered.bytes / 1e6);
+        assertTrue(ordered.bytes < uuid.bytes, "Integer keys should take less space");
+    }
+
+    private static Result run(String keyType, boolean timeOrdered) throws Exception {
+        Path dbFile = Files.createTempFile("ims-bench-ids", ".db");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile)) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("PRAGMA journal_mode = WAL");
+                stmt.execute("PRAGMA synchronous = NORMAL");
+                stmt.execute("CREATE TABLE transactions (id " + keyType + " PRIMARY KEY, asset_name TEXT NOT NULL, " +
+                    "quantity INTEGER NOT NULL, price_usd REAL NOT NULL, timestamp TIMESTAMP NOT NULL, " +
+                    "user_id INTEGER NOT NULL)");
+                stmt.execute("CREATE INDEX idx_transactions_user_time ON transactions (user_id, timestamp DESC, id)");
+            }
+            connection.setAutoCommit(false);
+            long start = System.nanoTime();
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "INSERT INTO transactions (id, asset_name, quantity, price_usd, timestamp, user_id) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < ROWS; i++) {
+                    if (timeOrdered) {
+                        pstmt.setLong(1, TransactionIds.next());
+                    } else {
+                        pstmt.setString(1, UUID.randomUUID().toString());
+                    }
+                    pstmt.setString(2, "SYM" + (i % 500));
+                    pstmt.setInt(3, 1 + i % 100);
+                    pstmt.setDouble(4, 10 + i % 90);
+                    pstmt.setLong(5, System.currentTimeMillis());
+                    pstmt.setInt(6, i % USERS);
+                    pstmt.addBatch();
+                    if ((i + 1) % BATCH == 0) {
+                        pstmt.executeBatch();
+                        connection.commit();
+                    }
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            connection.setAutoCommit(true);
+            long bytes;
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+                try (ResultSet rs = stmt.executeQuery("SELECT page_count * page_size " +
+                        "FROM pragma_page_count(), pragma_page_size()")) {
+                    rs.next();
+                    bytes = rs.getLong(1);
+                }
+            }
+            return new Result(ROWS / seconds, bytes);
+        } finally {
+            Files.deleteIfExists(dbFile);
+            Files.deleteIfExists(Path.of(dbFile + "-wal"));
+            Files.deleteIfExists(Path.of(dbFile + "-shm"));
+        }
+    }
+
+    private static final class Result {
+        final double rowsPerSecond;
+        final long bytes;
+
+        Result(double rowsPerSecond, long bytes) {
+            this.rowsPerSecond = rowsPerSecond;
+            this.bytes = bytes;
+        }
+    }
+}